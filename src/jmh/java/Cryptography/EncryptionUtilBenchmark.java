@@ -0,0 +1,64 @@
+package Cryptography;
+
+import JSocket2.Cryptography.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the raw cost of the symmetric {@link EncryptionUtil} primitives, AES-CBC and
+ * ChaCha20-Poly1305, over RPC-sized to chunk-sized buffers. See {@link RsaHandshakeBenchmark}
+ * for the asymmetric operations of the handshake.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EncryptionUtilBenchmark {
+    @Param({"256", "4096", "65536", "1048576"})
+    public int size;
+
+    private SecretKey aesKey;
+    private SecretKey chachaKey;
+    private byte[] iv;
+    private byte[] nonce;
+    private byte[] plain;
+    private byte[] aesCipherText;
+    private byte[] chachaCipherText;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        aesKey = EncryptionUtil.generateAESsecretKey();
+        chachaKey = EncryptionUtil.deriveChaCha20Key(aesKey);
+        iv = EncryptionUtil.generateIV();
+        nonce = EncryptionUtil.generateIV(12);
+        plain = new byte[size];
+        new Random(42).nextBytes(plain);
+        aesCipherText = EncryptionUtil.encryptDataAES(plain, aesKey, iv);
+        chachaCipherText = EncryptionUtil.encryptDataChaCha20(plain, chachaKey, nonce);
+    }
+
+    @Benchmark
+    public byte[] aesEncrypt() {
+        return EncryptionUtil.encryptDataAES(plain, aesKey, iv);
+    }
+
+    @Benchmark
+    public byte[] aesDecrypt() {
+        return EncryptionUtil.decryptDataAES(aesCipherText, aesKey, iv);
+    }
+
+    @Benchmark
+    public byte[] chacha20Encrypt() {
+        return EncryptionUtil.encryptDataChaCha20(plain, chachaKey, nonce);
+    }
+
+    @Benchmark
+    public byte[] chacha20Decrypt() {
+        return EncryptionUtil.decryptDataChaCha20(chachaCipherText, chachaKey, nonce);
+    }
+}
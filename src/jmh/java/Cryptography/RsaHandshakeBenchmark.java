@@ -0,0 +1,55 @@
+package Cryptography;
+
+import JSocket2.Cryptography.EncryptionUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-connection cryptography of the handshake: decoding the server's public key,
+ * generating the AES session key, wrapping it with RSA on the client and unwrapping it on the server.
+ * Key pair generation is covered by {@link RsaKeyManagerStartupBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RsaHandshakeBenchmark {
+    private KeyPair rsaKeyPair;
+    private byte[] encodedPublicKey;
+    private byte[] aesKeyBytes;
+    private byte[] wrappedAesKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rsaKeyPair = EncryptionUtil.generateRSAkeyPair();
+        encodedPublicKey = rsaKeyPair.getPublic().getEncoded();
+        aesKeyBytes = EncryptionUtil.generateAESsecretKey().getEncoded();
+        wrappedAesKey = EncryptionUtil.encryptDataRSA(aesKeyBytes, rsaKeyPair.getPublic());
+    }
+
+    @Benchmark
+    public PublicKey decodePublicKey() throws Exception {
+        return EncryptionUtil.decodeRsaPublicKey(encodedPublicKey);
+    }
+
+    @Benchmark
+    public SecretKey generateAesKey() {
+        return EncryptionUtil.generateAESsecretKey();
+    }
+
+    @Benchmark
+    public byte[] wrapAesKey() {
+        return EncryptionUtil.encryptDataRSA(aesKeyBytes, rsaKeyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] unwrapAesKey() {
+        return EncryptionUtil.decryptDataRSA(wrappedAesKey, rsaKeyPair.getPrivate());
+    }
+}
@@ -0,0 +1,58 @@
+package Cryptography;
+
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Cryptography.RsaKeyManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the server's RSA key material takes to become available at startup:
+ * synchronous generation (the previous behaviour), background generation (time until the
+ * constructor returns and until the keys are ready), and loading a persisted PEM file.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RsaKeyManagerStartupBenchmark {
+    private Path pemFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pemFile = Files.createTempFile("jsocket2-rsa", ".pem");
+        RsaKeyManager.writePem(pemFile, EncryptionUtil.generateRSAkeyPair());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(pemFile);
+    }
+
+    @Benchmark
+    public RsaKeyManager generateSynchronously() {
+        return new RsaKeyManager(EncryptionUtil.generateRSAkeyPair());
+    }
+
+    @Benchmark
+    public RsaKeyManager backgroundConstructorReturns() {
+        return new RsaKeyManager();
+    }
+
+    @Benchmark
+    public RsaKeyManager backgroundUntilReady() throws InterruptedException {
+        RsaKeyManager manager = new RsaKeyManager();
+        manager.awaitReady(1, TimeUnit.MINUTES);
+        return manager;
+    }
+
+    @Benchmark
+    public RsaKeyManager loadPem() throws IOException {
+        return RsaKeyManager.load(pemFile, null);
+    }
+}
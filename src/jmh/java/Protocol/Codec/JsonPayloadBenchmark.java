@@ -0,0 +1,82 @@
+package Protocol.Codec;
+
+import JSocket2.Protocol.Codec.JsonPayload;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the JSON work of one RPC round trip: the client serializes the arguments, the server parses
+ * them and serializes the result, and the client deserializes the result. Compares building a
+ * {@code String} per payload with {@link JsonPayload}. Run with {@code -prof gc} to see bytes allocated per RPC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JsonPayloadBenchmark {
+    private static final Type ITEMS = new TypeToken<List<Item>>() {}.getType();
+
+    @Param({"dto", "list"})
+    public String arguments;
+
+    private final Gson gson = new Gson();
+    private Object[] call;
+    private Object result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new Item("item-" + i, i, i * 1.25));
+        }
+        if (arguments.equals("dto")) {
+            call = new Object[]{items.get(3)};
+            result = List.of(items.get(3));
+        } else {
+            call = new Object[]{items};
+            result = items;
+        }
+    }
+
+    @Benchmark
+    public List<Item> strings() {
+        byte[] request = gson.toJson(call).getBytes(StandardCharsets.UTF_8);
+        JsonElement arguments = JsonParser.parseString(new String(request, StandardCharsets.UTF_8));
+        byte[] response = gson.toJson(result).getBytes(StandardCharsets.UTF_8);
+        return arguments.isJsonArray() ? gson.fromJson(new String(response, StandardCharsets.UTF_8), ITEMS) : null;
+    }
+
+    @Benchmark
+    public List<Item> streamed() {
+        byte[] request = JsonPayload.toBytes(gson, call);
+        JsonElement arguments = JsonPayload.parse(request);
+        byte[] response = JsonPayload.toBytes(gson, result);
+        return arguments.isJsonArray() ? JsonPayload.fromBytes(gson, response, ITEMS) : null;
+    }
+
+    /**
+     * A DTO argument and result.
+     */
+    public static class Item {
+        public String name;
+        public int quantity;
+        public double price;
+
+        public Item(String name, int quantity, double price) {
+            this.name = name;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package Protocol.Codec;
+
+import JSocket2.Protocol.Codec.BinaryMetadataCodec;
+import JSocket2.Protocol.Codec.ICodec;
+import JSocket2.Protocol.Codec.JsonCodec;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Codec.RoutedCodec;
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Transfer.Download.DownloadChunkRequestMetadata;
+import JSocket2.Protocol.Transfer.SendChunkMetadata;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link JsonCodec} with {@link BinaryMetadataCodec} for each per-frame metadata type, and
+ * {@link RoutedCodec} sending the RPC call and event as numeric route ids over the binary codec.
+ * The encoded size of every combination is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MetadataCodecBenchmark {
+    @Param({"json", "binary", "routed"})
+    public String codecName;
+
+    @Param({"RpcCallMetadata", "RpcResponseMetadata", "SendChunkMetadata", "EventMetadata", "DownloadChunkRequestMetadata"})
+    public String metadataType;
+
+    private ICodec codec;
+    private Object value;
+    private Class<?> type;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codec = switch (codecName) {
+            case "json" -> JsonCodec.INSTANCE;
+            case "binary" -> new BinaryMetadataCodec();
+            case "routed" -> new RoutedCodec(new BinaryMetadataCodec(), new RouteTable(
+                    List.of(new RpcCallMetadata("ChatController", "SendMessage")), List.of("OnMessageReceived")));
+            default -> throw new IllegalArgumentException(codecName);
+        };
+        String fileId = UUID.randomUUID().toString();
+        value = switch (metadataType) {
+            case "RpcCallMetadata" -> new RpcCallMetadata("ChatController", "SendMessage");
+            case "RpcResponseMetadata" -> new RpcResponseMetadata(200, "");
+            case "SendChunkMetadata" -> {
+                SendChunkMetadata chunk = new SendChunkMetadata();
+                chunk.fileId = fileId;
+                chunk.chunkIndex = 12345;
+                chunk.totalChunks = 32768;
+                chunk.offset = 12345L * 65536;
+                yield chunk;
+            }
+            case "EventMetadata" -> new EventMetadata("OnMessageReceived");
+            case "DownloadChunkRequestMetadata" -> new DownloadChunkRequestMetadata(fileId, 12345, 12345L * 65536);
+            default -> throw new IllegalArgumentException(metadataType);
+        };
+        type = value.getClass();
+        encoded = codec.encode(value);
+        System.out.println(codecName + " " + metadataType + ": " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(encoded, type);
+    }
+}
@@ -0,0 +1,82 @@
+package Protocol.Codec;
+
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Codec.PayloadCodecs;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and CBOR payload codecs on a numeric-heavy RPC result: the encoded size, printed at
+ * setup, the time to encode, to decode into typed objects as a caller does, and to parse into the tree that
+ * RPC arguments are bound from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PayloadCodecBenchmark {
+    private static final Type QUOTES = new TypeToken<List<Quote>>() {}.getType();
+
+    @Param({"json", "cbor"})
+    public String codecName;
+
+    private final Gson gson = new Gson();
+    private IPayloadCodec codec;
+    private List<Quote> quotes;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codec = PayloadCodecs.find(codecName);
+        quotes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double mid = 100 + Math.sin(i / 10.0) * 5;
+            quotes.add(new Quote("SYM" + (i % 8), 1_700_000_000_000L + i * 250L, mid - 0.013 * (i % 5), mid + 0.017 * (i % 3), 100 * (i % 50)));
+        }
+        encoded = codec.encode(gson, quotes);
+        System.out.printf("%n%s: %d quotes -> %d bytes%n", codecName, quotes.size(), encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(gson, quotes);
+    }
+
+    @Benchmark
+    public List<Quote> decode() {
+        return codec.decode(gson, encoded, QUOTES);
+    }
+
+    @Benchmark
+    public JsonElement parse() {
+        return codec.parse(encoded);
+    }
+
+    /**
+     * A numeric-heavy DTO.
+     */
+    public static class Quote {
+        public String symbol;
+        public long timestamp;
+        public double bid;
+        public double ask;
+        public int volume;
+
+        public Quote(String symbol, long timestamp, double bid, double ask, int volume) {
+            this.symbol = symbol;
+            this.timestamp = timestamp;
+            this.bid = bid;
+            this.ask = ask;
+            this.volume = volume;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package Protocol.Compression;
+
+import JSocket2.Protocol.Compression.DeflateCompressor;
+import JSocket2.Protocol.Compression.ICompressor;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU cost of compressing and decompressing representative payloads with
+ * {@link DeflateCompressor} at the fastest and the default level. The compression ratio of
+ * every combination is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressionBenchmark {
+    @Param({"rpcList", "event", "small"})
+    public String payloadKind;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private ICompressor compressor;
+    private byte[] payload;
+    private byte[] compressed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Gson gson = new Gson();
+        payload = switch (payloadKind) {
+            case "rpcList" -> {
+                List<Map<String, Object>> orders = new ArrayList<>();
+                for (int i = 0; i < 200; i++) {
+                    orders.add(Map.of("id", 10000 + i, "customer", "customer-" + (i % 17), "status", i % 3 == 0 ? "SHIPPED" : "PENDING",
+                            "total", i * 3.75, "createdAt", "2025-01-" + (10 + i % 20) + "T12:00:00Z"));
+                }
+                yield gson.toJson(new Object[]{orders}).getBytes(StandardCharsets.UTF_8);
+            }
+            case "event" -> gson.toJson(new Object[]{Map.of("roomId", "general", "sender", "user-42", "text",
+                    "Hello everyone, the build for release 2.4 is green and the changelog is attached.",
+                    "mentions", List.of("user-7", "user-13"), "sentAt", 1736500000000L)}).getBytes(StandardCharsets.UTF_8);
+            case "small" -> gson.toJson(new Object[]{42, "ok"}).getBytes(StandardCharsets.UTF_8);
+            default -> throw new IllegalArgumentException(payloadKind);
+        };
+        compressor = new DeflateCompressor(level);
+        compressed = compressor.compress(payload);
+        System.out.printf("%n%s level %d: %d -> %d bytes (ratio %.2f)%n",
+                payloadKind, level, payload.length, compressed.length, (double) payload.length / compressed.length);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return compressor.compress(payload);
+    }
+
+    @Benchmark
+    public byte[] decompress() throws IOException {
+        return compressor.decompress(compressed, payload.length);
+    }
+}
@@ -0,0 +1,67 @@
+package Protocol;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.*;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures message throughput through {@link MessageHandler} for each {@link CipherSuite} the
+ * {@link EncryptionPolicy} can select, for small RPC-sized and large chunk-sized payloads.
+ * Compare the bytes/second of {@code NONE}, {@code AES_CBC} and {@code CHACHA20_POLY1305}
+ * to judge the CPU cost of encrypting a message type.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EncryptionPolicyBenchmark {
+    @Param({"NONE", "AES_CBC", "CHACHA20_POLY1305"})
+    public CipherSuite cipherSuite;
+
+    @Param({"1024", "65536"})
+    public int payloadSize;
+
+    private Message message;
+    private ByteArrayOutputStream out;
+    private MessageHandler writer;
+    private ClientSession receiverSession;
+    private byte[] frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        byte[] payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+        byte[] metadata = "{\"controller\":\"files\",\"action\":\"upload\"}".getBytes();
+        message = new Message(MessageHeader.BuildSendChunkHeader(UUID.randomUUID(), true, metadata.length, payload.length), metadata, payload);
+        out = new ByteArrayOutputStream(payloadSize + 256);
+        writer = new MessageHandler(null, out, new ClientSession(null, key), new EncryptionPolicy().setCipherSuite(cipherSuite));
+        receiverSession = new ClientSession(null, key);
+        writer.write(message);
+        frame = out.toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        writer.write(message);
+        return out.size();
+    }
+
+    @Benchmark
+    public Message read() throws IOException {
+        return new MessageHandler(new ByteArrayInputStream(frame), null, receiverSession).read();
+    }
+}
@@ -0,0 +1,88 @@
+package Protocol.EventHub;
+
+import JSocket2.DI.ServiceCollection;
+import JSocket2.Protocol.Codec.JsonPayload;
+import JSocket2.Protocol.EventHub.EventBroker;
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.EventHub.EventSubscriberBase;
+import JSocket2.Protocol.EventHub.EventSubscriberCollection;
+import JSocket2.Protocol.EventHub.OnEvent;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many events per second {@link EventBroker#publish} delivers on the client when
+ * ten subscribers handle the same event, which carries a small DTO and a primitive.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBrokerBenchmark {
+    private static final List<Class<? extends PriceSubscriber>> SUBSCRIBERS = List.of(
+            Subscriber0.class, Subscriber1.class, Subscriber2.class, Subscriber3.class, Subscriber4.class,
+            Subscriber5.class, Subscriber6.class, Subscriber7.class, Subscriber8.class, Subscriber9.class);
+
+    private EventBroker broker;
+    private EventMetadata metadata;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var services = new ServiceCollection();
+        var subscribers = new EventSubscriberCollection();
+        for (Class<? extends PriceSubscriber> subscriber : SUBSCRIBERS) {
+            services.AddSingleton(subscriber);
+            subscribers.subscribe(subscriber);
+        }
+        broker = subscribers.CreateEventBroker(services.CreateServiceProvider());
+        metadata = new EventMetadata("PriceChanged");
+        payload = JsonPayload.toBytes(new Gson(), new Object[]{new PriceChange("ACME", 101.25), 7});
+    }
+
+    @Benchmark
+    public void publish() {
+        broker.publish(metadata, payload);
+    }
+
+    /**
+     * The event DTO.
+     */
+    public static class PriceChange {
+        public String symbol;
+        public double price;
+
+        public PriceChange(String symbol, double price) {
+            this.symbol = symbol;
+            this.price = price;
+        }
+    }
+
+    /**
+     * A subscriber that accumulates the prices it receives.
+     */
+    public abstract static class PriceSubscriber extends EventSubscriberBase {
+        public double total;
+
+        @OnEvent("PriceChanged")
+        public void onPriceChanged(PriceChange change, int volume) {
+            total += change.price * volume;
+        }
+    }
+
+    public static class Subscriber0 extends PriceSubscriber {}
+    public static class Subscriber1 extends PriceSubscriber {}
+    public static class Subscriber2 extends PriceSubscriber {}
+    public static class Subscriber3 extends PriceSubscriber {}
+    public static class Subscriber4 extends PriceSubscriber {}
+    public static class Subscriber5 extends PriceSubscriber {}
+    public static class Subscriber6 extends PriceSubscriber {}
+    public static class Subscriber7 extends PriceSubscriber {}
+    public static class Subscriber8 extends PriceSubscriber {}
+    public static class Subscriber9 extends PriceSubscriber {}
+}
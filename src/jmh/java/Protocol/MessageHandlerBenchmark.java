@@ -0,0 +1,66 @@
+package Protocol;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.*;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full {@link MessageHandler} write and read over in-memory streams, from an empty body to
+ * a 1 MiB payload, in plaintext and with the default encryption. The empty and small cases expose the
+ * fixed per-frame cost of framing, header encoding and stream handling.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageHandlerBenchmark {
+    @Param({"0", "256", "4096", "65536", "1048576"})
+    public int payloadSize;
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    private Message message;
+    private ByteArrayOutputStream out;
+    private MessageHandler writer;
+    private ClientSession receiverSession;
+    private byte[] frame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        byte[] metadata = "{\"controller\":\"chat\",\"action\":\"send\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+        message = new Message(MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), encrypted, metadata.length, payload.length), metadata, payload);
+        out = new ByteArrayOutputStream(payloadSize + 256);
+        writer = new MessageHandler(null, out, new ClientSession(null, key));
+        receiverSession = new ClientSession(null, key);
+        writer.write(message);
+        frame = out.toByteArray();
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        writer.write(message);
+        return out.size();
+    }
+
+    @Benchmark
+    public Message read() throws IOException {
+        return new MessageHandler(new ByteArrayInputStream(frame), null, receiverSession).read();
+    }
+}
@@ -0,0 +1,49 @@
+package Protocol;
+
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Protocol.MessageHeader;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding and decoding the fixed-size {@link MessageHeader}. The lengths are varied so
+ * that a size-dependent encoding would show up; the header itself is always {@link MessageHeader#SIZE} bytes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageHeaderBenchmark {
+    @Param({"0", "4096", "1048576"})
+    public int payloadSize;
+
+    private MessageHeader header;
+    private ByteBuffer encodeBuffer;
+    private ByteBuffer decodeBuffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        header = MessageHeader.BuildSendChunkHeader(UUID.randomUUID(), true, 64, payloadSize);
+        encodeBuffer = ByteBuffer.allocate(MessageHeader.SIZE);
+        decodeBuffer = ByteBuffer.allocate(MessageHeader.SIZE);
+        header.encode(decodeBuffer, CipherSuite.AES_CBC, 0, 64, payloadSize);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        encodeBuffer.clear();
+        header.encode(encodeBuffer, CipherSuite.AES_CBC, 0, header.metadata_length, header.payload_length);
+        return encodeBuffer;
+    }
+
+    @Benchmark
+    public MessageHeader decode() {
+        decodeBuffer.rewind();
+        return MessageHeader.decode(decodeBuffer);
+    }
+}
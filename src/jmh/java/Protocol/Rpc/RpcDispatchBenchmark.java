@@ -0,0 +1,115 @@
+package Protocol.Rpc;
+
+import JSocket2.DI.ServiceCollection;
+import JSocket2.Protocol.Codec.JsonPayload;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcControllerCollection;
+import JSocket2.Protocol.Rpc.RpcDispatcher;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RpcDispatcher#dispatch} from a JSON argument payload to the returned
+ * {@link RpcResponse}, for actions taking primitives, a DTO and a list of DTOs, through the binder
+ * generated at compile time and through the reflective route table.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RpcDispatchBenchmark {
+    @Param({"primitives", "dto", "list"})
+    public String arguments;
+
+    @Param({"generated", "reflective"})
+    public String binding;
+
+    private RpcDispatcher dispatcher;
+    private RpcCallMetadata metadata;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var provider = new ServiceCollection().AddScoped(BenchmarkController.class).CreateServiceProvider();
+        var controllers = new RpcControllerCollection();
+        controllers.registerController(BenchmarkController.class);
+        dispatcher = controllers.CreateRpcDispatcher(provider, binding.equals("generated"));
+
+        Gson gson = new Gson();
+        Item item = new Item("item", 3, 9.99);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            items.add(new Item("item-" + i, i, i * 1.25));
+        }
+        switch (arguments) {
+            case "primitives" -> {
+                metadata = new RpcCallMetadata("Bench", "Add");
+                payload = JsonPayload.toBytes(gson, new Object[]{40, 2});
+            }
+            case "dto" -> {
+                metadata = new RpcCallMetadata("Bench", "Describe");
+                payload = JsonPayload.toBytes(gson, new Object[]{item});
+            }
+            case "list" -> {
+                metadata = new RpcCallMetadata("Bench", "Total");
+                payload = JsonPayload.toBytes(gson, new Object[]{items});
+            }
+            default -> throw new IllegalArgumentException(arguments);
+        }
+    }
+
+    @Benchmark
+    public RpcResponse<?> dispatch() {
+        return dispatcher.dispatch(metadata, payload, null, null);
+    }
+
+    /**
+     * A DTO argument.
+     */
+    public static class Item {
+        public String name;
+        public int quantity;
+        public double price;
+
+        public Item(String name, int quantity, double price) {
+            this.name = name;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+
+    /**
+     * The controller invoked by the benchmark.
+     */
+    @RpcController(Name = "Bench")
+    public static class BenchmarkController extends RpcControllerBase {
+        public RpcResponse<Integer> add(int a, int b) {
+            return Ok(a + b);
+        }
+
+        public RpcResponse<Integer> describe(int id) {
+            return Ok(id);
+        }
+
+        public RpcResponse<String> describe(Item item) {
+            return Ok(null, item.name);
+        }
+
+        public RpcResponse<Double> total(List<Item> items) {
+            double total = 0;
+            for (Item item : items) {
+                total += item.quantity * item.price;
+            }
+            return Ok(total);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Core.Client.ClientApplicationBuilder;
+import JSocket2.Core.Server.IClientLifecycleListener;
+import JSocket2.Core.Server.ServerApplication;
+import JSocket2.Core.Server.ServerApplicationBuilder;
+import JSocket2.Core.Server.ServerSession;
+import JSocket2.DI.Inject;
+import JSocket2.Protocol.Authentication.IAuthService;
+import JSocket2.Protocol.Authentication.UserIdentity;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares ingesting records with one RPC call per record against streaming them all to a single client-streaming
+ * call. The score is the time per record.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RpcIngestBenchmark {
+    private static final int RECORDS = 10_000;
+
+    @Param({"perRecord", "stream"})
+    public String mode;
+
+    private int port;
+    private ServerApplication server;
+    private ClientApplication client;
+    private RpcIngestBenchmark_RecordsController_RpcClient caller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = startServer();
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        client = new ClientApplicationBuilder().setEndpoint("localhost", port).Build();
+        client.addConnectedListener(app -> connected.complete(null));
+        client.startAsync();
+        connected.get(30, TimeUnit.SECONDS);
+        caller = new RpcIngestBenchmark_RecordsController_RpcClient(client);
+    }
+
+    private ServerApplication startServer() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            port = 20000 + (int) (Math.random() * 20000);
+            try {
+                ServerApplication started = new ServerApplicationBuilder().setPort(port)
+                        .setAuthService(AuthService.class)
+                        .setClientLifecycleListener(LifecycleListener.class)
+                        .addController(RecordsController.class)
+                        .build();
+                Thread thread = new Thread(started::Run, "benchmark-server");
+                thread.setDaemon(true);
+                thread.start();
+                return started;
+            } catch (BindException e) {
+                if (attempt == 10) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.Close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long ingest() throws IOException {
+        if (mode.equals("stream")) {
+            return caller.insertAll("events", records()).getPayload();
+        }
+        long inserted = 0;
+        for (Iterator<Record> records = records(); records.hasNext(); ) {
+            inserted += caller.insert("events", records.next()).getPayload();
+        }
+        return inserted;
+    }
+
+    private static Iterator<Record> records() {
+        return IntStream.range(0, RECORDS).mapToObj(i -> new Record(i, "user-" + (i % 100), i * 0.25)).iterator();
+    }
+
+    /**
+     * A record to ingest.
+     */
+    public static class Record {
+        public long id;
+        public String user;
+        public double amount;
+
+        public Record(long id, String user, double amount) {
+            this.id = id;
+            this.user = user;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * The controller ingesting records one by one or as a stream.
+     */
+    @RpcController(Name = "Records")
+    public static class RecordsController extends RpcControllerBase {
+        @Inject
+        public RecordsController() {
+        }
+
+        public RpcResponse<Integer> insert(String table, Record record) {
+            return Ok(record.id >= 0 ? 1 : 0);
+        }
+
+        public RpcResponse<Integer> insertAll(String table, Iterator<Record> records) {
+            int inserted = 0;
+            while (records.hasNext()) {
+                inserted += records.next().id >= 0 ? 1 : 0;
+            }
+            return Ok(inserted);
+        }
+    }
+
+    /**
+     * Accepts every key; the benchmark does not authenticate.
+     */
+    public static class AuthService implements IAuthService {
+        @Inject
+        public AuthService() {
+        }
+
+        @Override
+        public UserIdentity Login(String key) {
+            return new UserIdentity("bench", "Bench", "Client");
+        }
+
+        @Override
+        public boolean IsKeyValid(String key) {
+            return true;
+        }
+    }
+
+    /**
+     * Ignores lifecycle events.
+     */
+    public static class LifecycleListener implements IClientLifecycleListener {
+        @Inject
+        public LifecycleListener() {
+        }
+
+        @Override
+        public void onClientAuthenticated(ServerSession session) {
+        }
+
+        @Override
+        public void onClientDisconnected(ServerSession session) {
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Core.Client.ClientApplicationBuilder;
+import JSocket2.Core.Server.IClientLifecycleListener;
+import JSocket2.Core.Server.ServerApplication;
+import JSocket2.Core.Server.ServerApplicationBuilder;
+import JSocket2.Core.Server.ServerSession;
+import JSocket2.DI.Inject;
+import JSocket2.Protocol.Authentication.IAuthService;
+import JSocket2.Protocol.Authentication.UserIdentity;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures RPC throughput from one client thread over a loopback connection to a real server, comparing the
+ * blocking {@code callRpcAndGetResponse}, which waits out a round-trip per call, with {@code callRpcAsync}
+ * keeping up to {@code window} calls in flight. Both go through the generated client of {@link MathController}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RpcPipelineBenchmark {
+    private static final int CALLS = 1000;
+
+    @Param({"blocking", "pipelined"})
+    public String api;
+
+    @Param({"256"})
+    public int window;
+
+    private int port;
+    private ServerApplication server;
+    private ClientApplication client;
+    private RpcPipelineBenchmark_MathController_RpcClient caller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = startServer();
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        client = new ClientApplicationBuilder().setEndpoint("localhost", port).Build();
+        client.addConnectedListener(app -> connected.complete(null));
+        client.startAsync();
+        connected.get(30, TimeUnit.SECONDS);
+        caller = new RpcPipelineBenchmark_MathController_RpcClient(client);
+    }
+
+    private ServerApplication startServer() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            port = 20000 + (int) (Math.random() * 20000);
+            try {
+                ServerApplication started = new ServerApplicationBuilder().setPort(port)
+                        .setAuthService(AuthService.class)
+                        .setClientLifecycleListener(LifecycleListener.class)
+                        .addController(MathController.class)
+                        .build();
+                Thread thread = new Thread(started::Run, "benchmark-server");
+                thread.setDaemon(true);
+                thread.start();
+                return started;
+            } catch (BindException e) {
+                if (attempt == 10) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.Close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public int calls() throws IOException {
+        int sum = 0;
+        if (api.equals("blocking")) {
+            for (int i = 0; i < CALLS; i++) {
+                sum += caller.add(i, 1).getPayload();
+            }
+            return sum;
+        }
+        ArrayDeque<CompletableFuture<RpcResponse<Integer>>> inFlight = new ArrayDeque<>(window);
+        for (int i = 0; i < CALLS; i++) {
+            if (inFlight.size() == window) {
+                sum += inFlight.poll().join().getPayload();
+            }
+            inFlight.add(caller.addAsync(i, 1));
+        }
+        while (!inFlight.isEmpty()) {
+            sum += inFlight.poll().join().getPayload();
+        }
+        return sum;
+    }
+
+    /**
+     * The controller invoked by the benchmark.
+     */
+    @RpcController(Name = "Math")
+    public static class MathController extends RpcControllerBase {
+        @Inject
+        public MathController() {
+        }
+
+        public RpcResponse<Integer> add(int a, int b) {
+            return Ok(a + b);
+        }
+    }
+
+    /**
+     * Accepts every key; the benchmark does not authenticate.
+     */
+    public static class AuthService implements IAuthService {
+        @Inject
+        public AuthService() {
+        }
+
+        @Override
+        public UserIdentity Login(String key) {
+            return new UserIdentity("bench", "Bench", "Client");
+        }
+
+        @Override
+        public boolean IsKeyValid(String key) {
+            return true;
+        }
+    }
+
+    /**
+     * Ignores lifecycle events.
+     */
+    public static class LifecycleListener implements IClientLifecycleListener {
+        @Inject
+        public LifecycleListener() {
+        }
+
+        @Override
+        public void onClientAuthenticated(ServerSession session) {
+        }
+
+        @Override
+        public void onClientDisconnected(ServerSession session) {
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Core.Client.ClientApplicationBuilder;
+import JSocket2.Core.Server.IClientLifecycleListener;
+import JSocket2.Core.Server.ServerApplication;
+import JSocket2.Core.Server.ServerApplicationBuilder;
+import JSocket2.Core.Server.ServerSession;
+import JSocket2.DI.Inject;
+import JSocket2.Protocol.Authentication.IAuthService;
+import JSocket2.Protocol.Authentication.UserIdentity;
+import JSocket2.Protocol.Rpc.RpcCallerBase;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import JSocket2.Protocol.Rpc.RpcStream;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.BindException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares reading a large result as a stream with reading it as one list: the time until the first row is in
+ * the caller's hands, the time to read every row, and the peak heap of the JVM, which runs both client and server,
+ * while reading it.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class RpcStreamBenchmark {
+    @Param({"stream", "list"})
+    public String mode;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private int port;
+    private ServerApplication server;
+    private ClientApplication client;
+    private RpcStreamBenchmark_RowsController_RpcClient streamCaller;
+    private ListCaller listCaller;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = startServer();
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        client = new ClientApplicationBuilder().setEndpoint("localhost", port).Build();
+        client.addConnectedListener(app -> connected.complete(null));
+        client.startAsync();
+        connected.get(30, TimeUnit.SECONDS);
+        streamCaller = new RpcStreamBenchmark_RowsController_RpcClient(client);
+        listCaller = new ListCaller(client);
+    }
+
+    private ServerApplication startServer() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            port = 20000 + (int) (Math.random() * 20000);
+            try {
+                ServerApplication started = new ServerApplicationBuilder().setPort(port)
+                        .setAuthService(AuthService.class)
+                        .setClientLifecycleListener(LifecycleListener.class)
+                        .addController(RowsController.class)
+                        .build();
+                Thread thread = new Thread(started::Run, "benchmark-server");
+                thread.setDaemon(true);
+                thread.start();
+                return started;
+            } catch (BindException e) {
+                if (attempt == 10) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.shutdown();
+        server.Close();
+    }
+
+    @Benchmark
+    public long firstRow() throws IOException {
+        if (mode.equals("stream")) {
+            try (RpcStream<Row> stream = streamCaller.all(rows)) {
+                return stream.next().id;
+            }
+        }
+        return listCaller.all(rows).getPayload().get(0).id;
+    }
+
+    @Benchmark
+    public long allRows(HeapCounters heap) throws IOException {
+        long sum = 0;
+        if (mode.equals("stream")) {
+            try (RpcStream<Row> stream = streamCaller.all(rows)) {
+                while (stream.hasNext()) {
+                    sum += stream.next().id;
+                }
+            }
+        } else {
+            for (Row row : listCaller.all(rows).getPayload()) {
+                sum += row.id;
+            }
+        }
+        heap.record();
+        return sum;
+    }
+
+    /**
+     * The peak heap of an invocation, summed over the heap memory pools.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+
+        public double peakHeapMb;
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            System.gc();
+            pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        void record() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : pools) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            peakHeapMb = peak / (1024.0 * 1024.0);
+        }
+    }
+
+    /**
+     * A row of the result.
+     */
+    public static class Row {
+        public long id;
+        public String name;
+        public double amount;
+
+        public Row(long id, String name, double amount) {
+            this.id = id;
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * The controller producing the rows lazily, as a cursor over a table would.
+     */
+    @RpcController(Name = "Rows")
+    public static class RowsController extends RpcControllerBase {
+        @Inject
+        public RowsController() {
+        }
+
+        public RpcResponse<Stream<Row>> all(int count) {
+            return Ok(IntStream.range(0, count).mapToObj(i -> new Row(i, "row-" + i, i * 0.25)));
+        }
+    }
+
+    /**
+     * Calls the same action as a caller that does not consume streams, so the server collects the rows into a list.
+     */
+    public static class ListCaller extends RpcCallerBase {
+        public ListCaller(ClientApplication clientApplication) {
+            super(clientApplication);
+        }
+
+        RpcResponse<List<Row>> all(int count) throws IOException {
+            return callRpcAndGetListResponse("Rows", "all", Row.class, count);
+        }
+    }
+
+    /**
+     * Accepts every key; the benchmark does not authenticate.
+     */
+    public static class AuthService implements IAuthService {
+        @Inject
+        public AuthService() {
+        }
+
+        @Override
+        public UserIdentity Login(String key) {
+            return new UserIdentity("bench", "Bench", "Client");
+        }
+
+        @Override
+        public boolean IsKeyValid(String key) {
+            return true;
+        }
+    }
+
+    /**
+     * Ignores lifecycle events.
+     */
+    public static class LifecycleListener implements IClientLifecycleListener {
+        @Inject
+        public LifecycleListener() {
+        }
+
+        @Override
+        public void onClientAuthenticated(ServerSession session) {
+        }
+
+        @Override
+        public void onClientDisconnected(ServerSession session) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Core.Client.ClientApplicationBuilder;
+import JSocket2.Core.Server.IClientLifecycleListener;
+import JSocket2.Core.Server.ServerApplication;
+import JSocket2.Core.Server.ServerApplicationBuilder;
+import JSocket2.Core.Server.ServerSession;
+import JSocket2.DI.Inject;
+import JSocket2.Protocol.Authentication.IAuthService;
+import JSocket2.Protocol.Authentication.UserIdentity;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcExecutionOptions;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of a fast RPC while the same client keeps {@code slowCalls} calls to a slow action
+ * ({@value #SLOW_MILLIS} ms each) in flight, for each way the server can run actions: on the reader thread, or on
+ * a worker pool ordered per session, per controller or not at all.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RpcWorkerPoolBenchmark {
+    private static final int SLOW_MILLIS = 5;
+
+    @Param({"inline", "PER_SESSION", "PER_CONTROLLER", "NONE"})
+    public String execution;
+
+    @Param({"4"})
+    public int slowCalls;
+
+    private int port;
+    private ServerApplication server;
+    private ClientApplication client;
+    private RpcWorkerPoolBenchmark_FastController_RpcClient fast;
+    private Thread slowLoad;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = startServer();
+        CompletableFuture<Void> connected = new CompletableFuture<>();
+        client = new ClientApplicationBuilder().setEndpoint("localhost", port).Build();
+        client.addConnectedListener(app -> connected.complete(null));
+        client.startAsync();
+        connected.get(30, TimeUnit.SECONDS);
+        fast = new RpcWorkerPoolBenchmark_FastController_RpcClient(client);
+        var slow = new RpcWorkerPoolBenchmark_SlowController_RpcClient(client);
+        running = true;
+        slowLoad = new Thread(() -> {
+            Semaphore inFlight = new Semaphore(slowCalls);
+            try {
+                while (running) {
+                    inFlight.acquire();
+                    slow.workAsync(SLOW_MILLIS).whenComplete((response, error) -> inFlight.release());
+                }
+            } catch (InterruptedException e) {
+                // Stopped by tearDown
+            }
+        }, "benchmark-slow-load");
+        slowLoad.setDaemon(true);
+        slowLoad.start();
+    }
+
+    private ServerApplication startServer() throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            port = 20000 + (int) (Math.random() * 20000);
+            try {
+                ServerApplication started = new ServerApplicationBuilder().setPort(port)
+                        .setAuthService(AuthService.class)
+                        .setClientLifecycleListener(LifecycleListener.class)
+                        .addController(SlowController.class)
+                        .addController(FastController.class)
+                        .withRpcExecutionOptions(options -> {
+                            if (!execution.equals("inline")) {
+                                options.setWorkerThreads(2 * slowCalls)
+                                        .setOrdering(RpcExecutionOptions.Ordering.valueOf(execution));
+                            }
+                        })
+                        .build();
+                Thread thread = new Thread(started::Run, "benchmark-server");
+                thread.setDaemon(true);
+                thread.start();
+                return started;
+            } catch (BindException e) {
+                if (attempt == 10) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        slowLoad.interrupt();
+        slowLoad.join(1000);
+        client.shutdown();
+        server.Close();
+    }
+
+    @Benchmark
+    public int fastCall() throws IOException {
+        return fast.add(1, 2).getPayload();
+    }
+
+    /**
+     * The slow controller, standing in for an action that waits on a database or another service.
+     */
+    @RpcController(Name = "Slow")
+    public static class SlowController extends RpcControllerBase {
+        @Inject
+        public SlowController() {
+        }
+
+        public RpcResponse<Integer> work(int millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return Ok(millis);
+        }
+    }
+
+    /**
+     * The fast controller whose latency is measured.
+     */
+    @RpcController(Name = "Fast")
+    public static class FastController extends RpcControllerBase {
+        @Inject
+        public FastController() {
+        }
+
+        public RpcResponse<Integer> add(int a, int b) {
+            return Ok(a + b);
+        }
+    }
+
+    /**
+     * Accepts every key; the benchmark does not authenticate.
+     */
+    public static class AuthService implements IAuthService {
+        @Inject
+        public AuthService() {
+        }
+
+        @Override
+        public UserIdentity Login(String key) {
+            return new UserIdentity("bench", "Bench", "Client");
+        }
+
+        @Override
+        public boolean IsKeyValid(String key) {
+            return true;
+        }
+    }
+
+    /**
+     * Ignores lifecycle events.
+     */
+    public static class LifecycleListener implements IClientLifecycleListener {
+        @Inject
+        public LifecycleListener() {
+        }
+
+        @Override
+        public void onClientAuthenticated(ServerSession session) {
+        }
+
+        @Override
+        public void onClientDisconnected(ServerSession session) {
+        }
+    }
+}
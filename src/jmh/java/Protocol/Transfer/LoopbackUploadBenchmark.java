@@ -0,0 +1,149 @@
+package Protocol.Transfer;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.*;
+import JSocket2.Protocol.Transfer.FileTransferManager;
+import JSocket2.Protocol.Transfer.TransferOptions;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the wall-clock time of uploading an encrypted file over a loopback socket, comparing the
+ * serial path (one chunk per acknowledgment round-trip) with the parallel encryption pipeline.
+ * The receiving side decrypts every chunk and acknowledges it but does not write it to disk.
+ * <p>
+ * The default file is 2 GiB; pass e.g. {@code -p fileSizeMb=256} for a quicker run.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoopbackUploadBenchmark {
+    @Param({"2048"})
+    public int fileSizeMb;
+
+    @Param({"false", "true"})
+    public boolean pipelined;
+
+    @Param({"AES_CBC", "CHACHA20_POLY1305"})
+    public CipherSuite cipherSuite;
+
+    @Param({"65536"})
+    public int chunkSize;
+
+    private Path file;
+    private ServerSocket serverSocket;
+    private Socket clientSocket;
+    private Socket acceptedSocket;
+    private LoopbackSender sender;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("jsocket-upload", ".bin");
+        byte[] block = new byte[1 << 20];
+        new Random(42).nextBytes(block);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (int i = 0; i < fileSizeMb; i++) {
+                out.write(block);
+            }
+        }
+
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        clientSocket = new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+        acceptedSocket = serverSocket.accept();
+
+        MessageHandler receiver = new MessageHandler(
+                new BufferedInputStream(acceptedSocket.getInputStream()),
+                new BufferedOutputStream(acceptedSocket.getOutputStream()),
+                new ClientSession(null, key));
+        startDaemon("receiver", () -> {
+            byte[] ackMetadata = "{}".getBytes();
+            while (true) {
+                Message chunk = receiver.read();
+                receiver.write(new Message(MessageHeader.BuildUploadAckHeader(chunk.header.uuid, ackMetadata.length), ackMetadata, new byte[4]));
+            }
+        });
+
+        Map<UUID, CompletableFuture<Message>> pendingRequests = new ConcurrentHashMap<>();
+        MessageHandler handler = new MessageHandler(
+                new BufferedInputStream(clientSocket.getInputStream()),
+                new BufferedOutputStream(clientSocket.getOutputStream(), chunkSize + 1024),
+                new ClientSession(null, key),
+                new EncryptionPolicy().setCipherSuite(cipherSuite));
+        startDaemon("ack-listener", () -> {
+            while (true) {
+                Message ack = handler.read();
+                CompletableFuture<Message> future = pendingRequests.remove(ack.header.uuid);
+                if (future != null) {
+                    future.complete(ack);
+                }
+            }
+        });
+
+        sender = new LoopbackSender(handler, pendingRequests);
+        TransferOptions options = new TransferOptions();
+        options.setPipelined(pipelined);
+        sender.setTransferOptions(options);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        clientSocket.close();
+        acceptedSocket.close();
+        serverSocket.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void upload() throws IOException {
+        long fileSize = Files.size(file);
+        sender.send(file.toFile(), chunkSize, fileSize);
+    }
+
+    private static void startDaemon(String name, IoLoop loop) {
+        Thread thread = new Thread(() -> {
+            try {
+                loop.run();
+            } catch (IOException ignored) {
+                // The socket was closed at the end of the trial.
+            }
+        }, "LoopbackUploadBenchmark-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private interface IoLoop {
+        void run() throws IOException;
+    }
+
+    /**
+     * Exposes the upload path of {@link FileTransferManager} without the RPC handshake around it.
+     */
+    private static final class LoopbackSender extends FileTransferManager {
+        LoopbackSender(MessageHandler handler, Map<UUID, CompletableFuture<Message>> pendingRequests) {
+            super(handler, pendingRequests);
+        }
+
+        void send(File file, int chunkSize, long fileSize) throws IOException {
+            sendFileInternal(UUID.randomUUID(), UUID.randomUUID().toString(), file, 0, 0, chunkSize, fileSize);
+        }
+    }
+}
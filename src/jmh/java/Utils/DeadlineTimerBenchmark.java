@@ -0,0 +1,69 @@
+package Utils;
+
+import JSocket2.Utils.HashedTimingWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures scheduling and then cancelling a deadline, the life of a call answered in time, while {@code pending}
+ * other deadlines are outstanding, comparing {@link HashedTimingWheel} with a {@link ScheduledThreadPoolExecutor}
+ * that removes cancelled tasks from its heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeadlineTimerBenchmark {
+    private static final Runnable NOOP = () -> { };
+
+    @Param({"wheel", "scheduledExecutor"})
+    public String timer;
+
+    @Param({"1000", "200000"})
+    public int pending;
+
+    private HashedTimingWheel wheel;
+    private ScheduledThreadPoolExecutor executor;
+    private final List<Object> outstanding = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (timer.equals("wheel")) {
+            wheel = new HashedTimingWheel("benchmark-wheel", 10, TimeUnit.MILLISECONDS, 512);
+            for (int i = 0; i < pending; i++) {
+                outstanding.add(wheel.newTimeout(NOOP, 600 + i % 600, TimeUnit.SECONDS));
+            }
+        } else {
+            executor = new ScheduledThreadPoolExecutor(1);
+            executor.setRemoveOnCancelPolicy(true);
+            for (int i = 0; i < pending; i++) {
+                outstanding.add(executor.schedule(NOOP, 600 + i % 600, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (wheel != null) {
+            wheel.close();
+        } else {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleThenCancel() {
+        if (wheel != null) {
+            return wheel.newTimeout(NOOP, 5, TimeUnit.SECONDS).cancel();
+        }
+        ScheduledFuture<?> future = executor.schedule(NOOP, 5, TimeUnit.SECONDS);
+        return future.cancel(false);
+    }
+}
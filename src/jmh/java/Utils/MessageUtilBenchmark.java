@@ -0,0 +1,95 @@
+package Utils;
+
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Utils.MessageUtil;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MessageUtil} encrypting and decrypting a whole message in place, metadata and
+ * payload, as done by the handshake path and by {@link JSocket2.Protocol.MessageHandler#read()}.
+ * Each invocation works on a fresh {@link Message} sharing the prepared byte arrays, since the
+ * utilities replace the message's parts rather than modifying them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageUtilBenchmark {
+    @Param({"256", "4096", "65536"})
+    public int payloadSize;
+
+    private SecretKey aesKey;
+    private SecretKey chachaKey;
+    private byte[] metadata;
+    private byte[] payload;
+    private Message aesEncrypted;
+    private Message chachaEncrypted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        aesKey = EncryptionUtil.generateAESsecretKey();
+        chachaKey = CipherSuite.CHACHA20_POLY1305.deriveKey(aesKey);
+        metadata = "{\"controller\":\"files\",\"action\":\"upload\",\"timestamp\":1700000000000}".getBytes(StandardCharsets.UTF_8);
+        payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+
+        aesEncrypted = newMessage();
+        MessageUtil.EncryptMessage(aesEncrypted, aesKey);
+
+        byte[] nonce = CipherSuite.CHACHA20_POLY1305.generateIv();
+        chachaEncrypted = new Message(MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), true, 0, 0));
+        chachaEncrypted.setIvBytes(nonce);
+        chachaEncrypted.setMetadata(MessageUtil.encryptPart(metadata, CipherSuite.CHACHA20_POLY1305, chachaKey, nonce, 0));
+        chachaEncrypted.setPayload(MessageUtil.encryptPart(payload, CipherSuite.CHACHA20_POLY1305, chachaKey, nonce, 1));
+    }
+
+    @Benchmark
+    public Message encryptMessageAes() {
+        Message message = newMessage();
+        MessageUtil.EncryptMessage(message, aesKey);
+        return message;
+    }
+
+    @Benchmark
+    public Message decryptMessageAes() {
+        Message message = copyOf(aesEncrypted);
+        MessageUtil.DecryptMessage(message, aesKey);
+        return message;
+    }
+
+    @Benchmark
+    public byte[] encryptPayloadChaCha20() {
+        byte[] nonce = CipherSuite.CHACHA20_POLY1305.generateIv();
+        MessageUtil.encryptPart(metadata, CipherSuite.CHACHA20_POLY1305, chachaKey, nonce, 0);
+        return MessageUtil.encryptPart(payload, CipherSuite.CHACHA20_POLY1305, chachaKey, nonce, 1);
+    }
+
+    @Benchmark
+    public Message decryptMessageChaCha20() {
+        Message message = copyOf(chachaEncrypted);
+        MessageUtil.DecryptMessage(message, CipherSuite.CHACHA20_POLY1305, chachaKey);
+        return message;
+    }
+
+    private Message newMessage() {
+        return new Message(MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), true, metadata.length, payload.length), metadata, payload);
+    }
+
+    private static Message copyOf(Message encrypted) {
+        MessageHeader header = encrypted.header;
+        return new Message(
+                new MessageHeader(header.uuid, header.type, header.is_need_ack, true, header.timestamp, header.metadata_length, header.payload_length),
+                encrypted.getMetadata(), encrypted.getPayload(), encrypted.getIvBytes());
+    }
+}
@@ -4,22 +4,40 @@ import JSocket2.DI.ServiceCollection;
 import JSocket2.DI.ServiceProvider;
 import JSocket2.Protocol.*;
 import JSocket2.Protocol.Authentication.AuthModel;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.RouteOptions;
+import JSocket2.Protocol.Compression.CompressionOptions;
 import JSocket2.Protocol.EventHub.EventBroker;
 import JSocket2.Protocol.EventHub.EventSubscriberCollection;
+import JSocket2.Protocol.Rpc.DeadlineOptions;
+import JSocket2.Protocol.Rpc.RpcBatchOptions;
+import JSocket2.Protocol.Rpc.RpcBatcher;
+import JSocket2.Protocol.Rpc.RpcItemSender;
+import JSocket2.Protocol.Rpc.RpcReplayBuffer;
+import JSocket2.Protocol.Rpc.RpcReplayOptions;
+import JSocket2.Protocol.Rpc.RpcResponseCache;
+import JSocket2.Protocol.Rpc.RpcResponseCacheOptions;
+import JSocket2.Protocol.Rpc.RpcStream;
+import JSocket2.Protocol.Rpc.RpcStreamOptions;
 import JSocket2.Protocol.Rpc.RpcResponseMetadata;
 import JSocket2.Protocol.Transfer.ClientFileTransferManager;
+import JSocket2.Protocol.Transfer.TransferOptions;
+import JSocket2.Protocol.Codec.JsonPayload;
+import JSocket2.Utils.HashedTimingWheel;
 import com.google.gson.Gson;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -31,6 +49,7 @@ public class ClientApplication implements IConnectionEventListener {
     private final String host;
     private final int port;
     private final ReconnectionOptions options;
+    private final ClientSecurityOptions securityOptions;
     private final EventSubscriberCollection subscribers;
     private final ServiceCollection services;
 
@@ -48,6 +67,13 @@ public class ClientApplication implements IConnectionEventListener {
         t.setDaemon(true);
         return t;
     });
+    private final AtomicInteger responseThreadCount = new AtomicInteger();
+    private Executor responseExecutor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+        Thread t = new Thread(r, "JSocket-RpcResponse-" + responseThreadCount.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private boolean ownsResponseExecutor = true;
 
     private final Gson gson = new Gson();
     private Socket socket;
@@ -57,9 +83,26 @@ public class ClientApplication implements IConnectionEventListener {
     private Thread listenerThread;
     private ClientSession clientSession;
     private ClientFileTransferManager fileTransferManager;
+    private TransferOptions transferOptions = new TransferOptions();
+    private CodecOptions codecOptions = new CodecOptions();
+    private CompressionOptions compressionOptions = new CompressionOptions();
+    private RouteOptions routeOptions = new RouteOptions();
+    private DeadlineOptions deadlineOptions = new DeadlineOptions();
+    private volatile HashedTimingWheel deadlineTimer;
+    private RpcBatchOptions batchOptions = new RpcBatchOptions();
+    private volatile RpcBatcher rpcBatcher;
+    private RpcStreamOptions streamOptions = new RpcStreamOptions();
+    private RpcResponseCacheOptions responseCacheOptions = new RpcResponseCacheOptions();
+    private RpcResponseCache responseCache = new RpcResponseCache(responseCacheOptions);
+    private RpcReplayOptions replayOptions = new RpcReplayOptions();
+    private RpcReplayBuffer replayBuffer = new RpcReplayBuffer(this, replayOptions);
+    private volatile boolean authenticated;
+    private volatile boolean resumeAfterAuth;
     private EventBroker eventBroker;
     private ServiceProvider serviceProvider;
     private final ConcurrentMap<UUID, CompletableFuture<Message>> pendingRequests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, RpcStream<?>> activeStreams = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, RpcItemSender> activeSenders = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, Future<?>> activeTasks = new ConcurrentHashMap<>();
 
     /**
@@ -73,11 +116,27 @@ public class ClientApplication implements IConnectionEventListener {
      * @param options       Configuration for reconnection behavior.
      */
     public ClientApplication(String host, int port, IConnectionEventListener ignored, EventSubscriberCollection subscribers, ServiceCollection services, ReconnectionOptions options) {
+        this(host, port, ignored, subscribers, services, options, new ClientSecurityOptions());
+    }
+
+    /**
+     * Constructs a new ClientApplication with explicit security options.
+     *
+     * @param host            The server host address.
+     * @param port            The server port.
+     * @param ignored         An ignored IConnectionEventListener, as this class implements its own.
+     * @param subscribers     A collection of event subscribers for the client-side event hub.
+     * @param services        The dependency injection service collection.
+     * @param options         Configuration for reconnection behavior.
+     * @param securityOptions Configuration for handshake security, such as server key pinning.
+     */
+    public ClientApplication(String host, int port, IConnectionEventListener ignored, EventSubscriberCollection subscribers, ServiceCollection services, ReconnectionOptions options, ClientSecurityOptions securityOptions) {
         this.host = host;
         this.port = port;
         this.subscribers = subscribers;
         this.services = services;
         this.options = options;
+        this.securityOptions = securityOptions;
         this.serviceProvider = services.CreateServiceProvider();
         this.eventBroker = subscribers.CreateEventBroker(serviceProvider);
     }
@@ -123,11 +182,20 @@ public class ClientApplication implements IConnectionEventListener {
         try {
             socket = new Socket(host, port);
             clientSession = new ClientSession();
-            OutputStream out = socket.getOutputStream();
-            InputStream in = socket.getInputStream();
-
-            messageHandler = new MessageHandler(in, out, clientSession);
-            messageProcessor = new ClientMessageProcessor(messageHandler, clientSession, pendingRequests, getFileTransferManager(), this::onConnected, serviceProvider, eventBroker);
+            socket.setTcpNoDelay(true);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+
+            messageHandler = new MessageHandler(in, out, clientSession, securityOptions.getEncryptionPolicy());
+            messageHandler.setKeyRotator(new SessionKeyRotator(messageHandler, clientSession, securityOptions.getRekeyOptions(), true));
+            messageProcessor = new ClientMessageProcessor(messageHandler, clientSession, pendingRequests, getFileTransferManager(), this::onConnected, serviceProvider, eventBroker,
+                    new ClientConnectionContext()
+                            .setSecurityOptions(securityOptions)
+                            .setCodecOptions(codecOptions)
+                            .setCompressionOptions(compressionOptions)
+                            .setRouteOptions(routeOptions)
+                            .setStreams(activeStreams)
+                            .setSenders(activeSenders));
             messageListener = new MessageListener(messageHandler, pendingRequests, messageProcessor, clientSession, this);
 
             listenerThread = new Thread(messageListener, "JSocket-MessageListener");
@@ -148,8 +216,20 @@ public class ClientApplication implements IConnectionEventListener {
      */
     public void shutdown() {
         shutdownRequested = true;
+        replayBuffer.close();
         connectionExecutor.shutdownNow();
         backgroundExecutor.shutdownNow();
+        if (ownsResponseExecutor) {
+            ((ExecutorService) responseExecutor).shutdownNow();
+        }
+        synchronized (this) {
+            if (deadlineTimer != null) {
+                deadlineTimer.close();
+            }
+            if (rpcBatcher != null) {
+                rpcBatcher.close();
+            }
+        }
         cleanupCurrentConnection();
     }
 
@@ -162,6 +242,12 @@ public class ClientApplication implements IConnectionEventListener {
                 activeTask.cancel(true);
             }
             activeTasks.clear();
+            for (var activeStream : activeStreams.values()) {
+                activeStream.fail(new IOException("Connection lost before the end of the stream."));
+            }
+            for (var activeSender : activeSenders.values()) {
+                activeSender.fail(new IOException("Connection lost before the call was answered."));
+            }
             if (socket != null && !socket.isClosed()) {
                 socket.close();
             }
@@ -173,11 +259,19 @@ public class ClientApplication implements IConnectionEventListener {
 
     /**
      * {@inheritDoc}
-     * Handles connection loss by cleaning up resources and initiating the reconnection process.
+     * Handles connection loss by cleaning up resources and initiating the reconnection process. With
+     * {@linkplain RpcReplayOptions replay} enabled, the unanswered calls are held to be sent again once the new
+     * connection is ready: after its handshake or, if the lost connection was authenticated, after the next
+     * successful {@link #sendAuthModel(AuthModel)}.
      */
     @Override
     public void onConnectionLost() {
         cleanupCurrentConnection();
+        if (replayOptions.isEnabled()) {
+            resumeAfterAuth = authenticated;
+            replayBuffer.connectionLost();
+        }
+        authenticated = false;
         if (!shutdownRequested) {
             System.out.println("Connection lost. Attempting to reconnect...");
             reconnectListeners.forEach(listener -> listener.accept(this));
@@ -189,6 +283,9 @@ public class ClientApplication implements IConnectionEventListener {
         connected.set(true);
         connectedListeners.forEach(listener -> listener.accept(this));
         connectionStatusListeners.forEach(listener -> listener.accept(true));
+        if (replayOptions.isEnabled() && !resumeAfterAuth) {
+            backgroundExecutor.execute(replayBuffer::resume);
+        }
     }
 
     private void onDisconnected() {
@@ -284,10 +381,239 @@ public class ClientApplication implements IConnectionEventListener {
     public ClientFileTransferManager getFileTransferManager() {
         if (fileTransferManager == null && messageHandler != null) {
             fileTransferManager = new ClientFileTransferManager(messageHandler, pendingRequests);
+            fileTransferManager.setTransferOptions(transferOptions);
         }
         return fileTransferManager;
     }
 
+    /**
+     * Sets the options that control how files are sent. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param transferOptions The {@link TransferOptions} for this client.
+     */
+    void setTransferOptions(TransferOptions transferOptions) {
+        this.transferOptions = transferOptions;
+        if (fileTransferManager != null) {
+            fileTransferManager.setTransferOptions(transferOptions);
+        }
+    }
+
+    /**
+     * Sets the metadata codecs offered during the handshake. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param codecOptions The {@link CodecOptions} for this client.
+     */
+    void setCodecOptions(CodecOptions codecOptions) {
+        this.codecOptions = codecOptions;
+    }
+
+    /**
+     * Sets the payload compressors accepted during the handshake. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param compressionOptions The {@link CompressionOptions} for this client.
+     */
+    void setCompressionOptions(CompressionOptions compressionOptions) {
+        this.compressionOptions = compressionOptions;
+    }
+
+    /**
+     * Sets whether the client accepts the server's numeric route ids. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param routeOptions The {@link RouteOptions} for this client.
+     */
+    void setRouteOptions(RouteOptions routeOptions) {
+        this.routeOptions = routeOptions;
+    }
+
+    /**
+     * Sets the RPC deadline options. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param deadlineOptions The deadline options.
+     */
+    void setDeadlineOptions(DeadlineOptions deadlineOptions) {
+        this.deadlineOptions = deadlineOptions;
+    }
+
+    /**
+     * Gets the RPC deadline options, such as the default timeout of calls.
+     * @return The deadline options.
+     */
+    public DeadlineOptions getDeadlineOptions() {
+        return deadlineOptions;
+    }
+
+    /**
+     * Gets the timer that expires pending RPC calls at their deadline, creating its worker thread on first use.
+     * @return The client's timing wheel.
+     * @throws IllegalStateException if the client has been shut down.
+     */
+    public HashedTimingWheel getDeadlineTimer() {
+        HashedTimingWheel timer = deadlineTimer;
+        if (timer == null) {
+            synchronized (this) {
+                if (shutdownRequested) {
+                    throw new IllegalStateException("Client has been shut down.");
+                }
+                timer = deadlineTimer;
+                if (timer == null) {
+                    timer = new HashedTimingWheel("JSocket-Deadlines", deadlineOptions.getTickMillis(),
+                            TimeUnit.MILLISECONDS, deadlineOptions.getTicksPerWheel());
+                    deadlineTimer = timer;
+                }
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Sets the RPC batching options. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param batchOptions The batching options.
+     */
+    void setBatchOptions(RpcBatchOptions batchOptions) {
+        this.batchOptions = batchOptions;
+    }
+
+    /**
+     * Gets the RPC batching options, such as whether calls are batched at all.
+     * @return The batching options.
+     */
+    public RpcBatchOptions getBatchOptions() {
+        return batchOptions;
+    }
+
+    /**
+     * Gets the batcher that collects RPC calls into batch frames, creating its timer thread on first use.
+     * @return The client's batcher.
+     * @throws IllegalStateException if the client has been shut down.
+     */
+    public RpcBatcher getRpcBatcher() {
+        RpcBatcher batcher = rpcBatcher;
+        if (batcher == null) {
+            synchronized (this) {
+                if (shutdownRequested) {
+                    throw new IllegalStateException("Client has been shut down.");
+                }
+                batcher = rpcBatcher;
+                if (batcher == null) {
+                    batcher = new RpcBatcher(this, batchOptions);
+                    rpcBatcher = batcher;
+                }
+            }
+        }
+        return batcher;
+    }
+
+    /**
+     * Sets the options of streamed RPC results. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param streamOptions The stream options.
+     */
+    void setStreamOptions(RpcStreamOptions streamOptions) {
+        this.streamOptions = streamOptions;
+    }
+
+    /**
+     * Gets the options of streamed RPC results, such as the window of chunks a stream call grants the server.
+     * @return The stream options.
+     */
+    public RpcStreamOptions getStreamOptions() {
+        return streamOptions;
+    }
+
+    /**
+     * Sets the options of the response cache used for revalidation. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param responseCacheOptions The response cache options.
+     */
+    void setResponseCacheOptions(RpcResponseCacheOptions responseCacheOptions) {
+        this.responseCacheOptions = responseCacheOptions;
+        this.responseCache = new RpcResponseCache(responseCacheOptions);
+    }
+
+    /**
+     * Gets the options of the response cache, such as whether calls are revalidated at all.
+     * @return The response cache options.
+     */
+    public RpcResponseCacheOptions getResponseCacheOptions() {
+        return responseCacheOptions;
+    }
+
+    /**
+     * Gets the cache of responses that calls made through {@link JSocket2.Protocol.Rpc.RpcCallerBase} revalidate.
+     * @return The client's response cache.
+     */
+    public RpcResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Sets the options of replaying calls across reconnects. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param replayOptions The replay options.
+     */
+    void setReplayOptions(RpcReplayOptions replayOptions) {
+        this.replayOptions = replayOptions;
+        this.replayBuffer = new RpcReplayBuffer(this, replayOptions);
+    }
+
+    /**
+     * Gets the options of replaying calls across reconnects, such as whether calls are replayed at all.
+     * @return The replay options.
+     */
+    public RpcReplayOptions getReplayOptions() {
+        return replayOptions;
+    }
+
+    /**
+     * Gets the buffer of unanswered calls that are sent again after a reconnect.
+     * @return The client's replay buffer.
+     */
+    public RpcReplayBuffer getReplayBuffer() {
+        return replayBuffer;
+    }
+
+    /**
+     * Gets the streamed RPC results being received, so the message listener can hand them their chunks.
+     * @return A concurrent map of request UUIDs to their streams.
+     */
+    public ConcurrentMap<UUID, RpcStream<?>> getActiveStreams() {
+        return activeStreams;
+    }
+
+    /**
+     * Gets the client-streaming RPC calls whose items are being sent, so the message listener can hand them the
+     * credit the server grants.
+     * @return A concurrent map of request UUIDs to their senders.
+     */
+    public ConcurrentMap<UUID, RpcItemSender> getActiveSenders() {
+        return activeSenders;
+    }
+
+    /**
+     * Replaces the executor that decodes asynchronous RPC responses. The default pool is shut down and the
+     * given executor is left running on {@link #shutdown()}. Called by {@link ClientApplicationBuilder}.
+     *
+     * @param responseExecutor The executor.
+     */
+    void setResponseExecutor(Executor responseExecutor) {
+        if (ownsResponseExecutor) {
+            ((ExecutorService) this.responseExecutor).shutdown();
+        }
+        this.responseExecutor = responseExecutor;
+        this.ownsResponseExecutor = false;
+    }
+
+    /**
+     * Gets the executor on which asynchronous RPC responses are decoded and their futures completed, keeping
+     * that work off the message listener thread. Dependent stages that are not {@code *Async} run here too,
+     * so they should not block for long.
+     * @return The response executor; by default a fixed pool of daemon threads, one per processor and at least two.
+     */
+    public Executor getResponseExecutor() {
+        return responseExecutor;
+    }
+
     /**
      * Gets the service provider for dependency injection.
      * @return The configured ServiceProvider.
@@ -296,6 +622,17 @@ public class ClientApplication implements IConnectionEventListener {
         return serviceProvider;
     }
 
+    /**
+     * Rotates the session key in-band without reconnecting. Traffic continues during the rotation.
+     * @throws IOException if the client is not connected or the new key cannot be sent.
+     */
+    public void rotateSessionKey() throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Client is not connected.");
+        }
+        messageHandler.getKeyRotator().rotate();
+    }
+
     /**
      * Sends an authentication request to the server.
      * @param authModel The authentication model containing credentials.
@@ -307,11 +644,11 @@ public class ClientApplication implements IConnectionEventListener {
         if (!isConnected()) {
             throw new IOException("Client is not connected.");
         }
-        var payloadJson = gson.toJson(authModel);
+        byte[] payload = JsonPayload.toBytes(gson, authModel);
         UUID requestId = UUID.randomUUID();
-        MessageHeader header = MessageHeader.BuildAuthHeader(requestId,payloadJson.length());
+        MessageHeader header = MessageHeader.BuildAuthHeader(requestId,payload.length);
         Message message = new Message(header);
-        message.setPayload(payloadJson.getBytes(StandardCharsets.UTF_8));
+        message.setPayload(payload);
 
         CompletableFuture<Message> future = new CompletableFuture<>();
         pendingRequests.put(requestId, future);
@@ -319,8 +656,16 @@ public class ClientApplication implements IConnectionEventListener {
 
         try {
             var response = future.get(10, TimeUnit.SECONDS);
-            var metadata = gson.fromJson(new String(response.getMetadata(),StandardCharsets.UTF_8), RpcResponseMetadata.class);
-            return StatusCode.fromCode(metadata.getStatusCode());
+            var metadata = response.getMetadataAs(RpcResponseMetadata.class);
+            StatusCode status = StatusCode.fromCode(metadata.getStatusCode());
+            if (status == StatusCode.OK) {
+                authenticated = true;
+                if (resumeAfterAuth) {
+                    resumeAfterAuth = false;
+                    backgroundExecutor.execute(replayBuffer::resume);
+                }
+            }
+            return status;
         } catch (ExecutionException | TimeoutException e) {
             throw new IOException("Failed to get authentication response", e);
         } finally {
@@ -1,8 +1,24 @@
 package JSocket2.Core.Client;
 
+import JSocket2.Cryptography.RekeyOptions;
 import JSocket2.DI.ServiceCollection;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.RouteOptions;
+import JSocket2.Protocol.Compression.CompressionDictionary;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.EncryptionPolicy;
 import JSocket2.Protocol.EventHub.EventSubscriberCollection;
 import JSocket2.Protocol.IConnectionEventListener;
+import JSocket2.Protocol.Rpc.DeadlineOptions;
+import JSocket2.Protocol.Rpc.RpcBatchOptions;
+import JSocket2.Protocol.Rpc.RpcReplayOptions;
+import JSocket2.Protocol.Rpc.RpcResponseCacheOptions;
+import JSocket2.Protocol.Rpc.RpcStreamOptions;
+import JSocket2.Protocol.Transfer.TransferOptions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 /**
@@ -17,6 +33,18 @@ public class ClientApplicationBuilder {
     private final EventSubscriberCollection subscribers;
     private IConnectionEventListener connectionEventListener;
     private final ReconnectionOptions reconnectionOptions;
+    private final ClientSecurityOptions securityOptions;
+    private final TransferOptions transferOptions;
+    private final CodecOptions codecOptions;
+    private final CompressionOptions compressionOptions;
+    private final RouteOptions routeOptions;
+    private final DeadlineOptions deadlineOptions;
+    private final RpcBatchOptions batchOptions;
+    private final RpcStreamOptions streamOptions;
+    private final RpcResponseCacheOptions responseCacheOptions;
+    private final RpcReplayOptions replayOptions;
+    private Path compressionDictionaryFile;
+    private Executor responseExecutor;
 
     /**
      * Constructs a new ClientApplicationBuilder with default configurations.
@@ -25,6 +53,16 @@ public class ClientApplicationBuilder {
         services = new ServiceCollection();
         subscribers = new EventSubscriberCollection();
         reconnectionOptions = new ReconnectionOptions();
+        securityOptions = new ClientSecurityOptions();
+        transferOptions = new TransferOptions();
+        codecOptions = new CodecOptions();
+        compressionOptions = new CompressionOptions();
+        routeOptions = new RouteOptions();
+        deadlineOptions = new DeadlineOptions();
+        batchOptions = new RpcBatchOptions();
+        streamOptions = new RpcStreamOptions();
+        responseCacheOptions = new RpcResponseCacheOptions();
+        replayOptions = new RpcReplayOptions();
     }
 
     ClientApplicationBuilder setConnectionEventListener(IConnectionEventListener connectionEventListener){
@@ -57,6 +95,180 @@ public class ClientApplicationBuilder {
         return this;
     }
 
+    /**
+     * Configures the client's security behavior, such as server public key pinning.
+     *
+     * @param optionsConsumer A consumer that receives a {@link ClientSecurityOptions}
+     *                        instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withSecurityOptions(Consumer<ClientSecurityOptions> optionsConsumer) {
+        optionsConsumer.accept(this.securityOptions);
+        return this;
+    }
+
+    /**
+     * Configures which outgoing messages are encrypted and with which cipher suite.
+     *
+     * @param policyConsumer A consumer that receives the client's {@link EncryptionPolicy} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withEncryptionPolicy(Consumer<EncryptionPolicy> policyConsumer) {
+        policyConsumer.accept(securityOptions.getEncryptionPolicy());
+        return this;
+    }
+
+    /**
+     * Configures when the session key is rotated in-band.
+     *
+     * @param optionsConsumer A consumer that receives the client's {@link RekeyOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withRekeyOptions(Consumer<RekeyOptions> optionsConsumer) {
+        optionsConsumer.accept(securityOptions.getRekeyOptions());
+        return this;
+    }
+
+    /**
+     * Configures how files are sent, such as the parallel encryption pipeline and its in-flight window.
+     *
+     * @param optionsConsumer A consumer that receives a {@link TransferOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withTransferOptions(Consumer<TransferOptions> optionsConsumer) {
+        optionsConsumer.accept(this.transferOptions);
+        return this;
+    }
+
+    /**
+     * Configures the metadata codecs the client accepts from the server's offer, in order of preference.
+     *
+     * @param optionsConsumer A consumer that receives a {@link CodecOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withCodecOptions(Consumer<CodecOptions> optionsConsumer) {
+        optionsConsumer.accept(this.codecOptions);
+        return this;
+    }
+
+    /**
+     * Configures the payload compressors the client accepts from the server's offer, in order of preference,
+     * and which messages it compresses.
+     *
+     * @param optionsConsumer A consumer that receives a {@link CompressionOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withCompressionOptions(Consumer<CompressionOptions> optionsConsumer) {
+        optionsConsumer.accept(this.compressionOptions);
+        return this;
+    }
+
+    /**
+     * Configures whether the client accepts the numeric route ids a server publishes during the handshake.
+     *
+     * @param optionsConsumer A consumer that receives a {@link RouteOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withRouteOptions(Consumer<RouteOptions> optionsConsumer) {
+        optionsConsumer.accept(this.routeOptions);
+        return this;
+    }
+
+    /**
+     * Configures RPC deadlines, such as the default timeout of calls and the precision of the timer expiring them.
+     *
+     * @param optionsConsumer A consumer that receives a {@link DeadlineOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withDeadlineOptions(Consumer<DeadlineOptions> optionsConsumer) {
+        optionsConsumer.accept(this.deadlineOptions);
+        return this;
+    }
+
+    /**
+     * Configures automatic batching of RPC calls: whether calls issued within a short window share one frame,
+     * the length of that window and the size limits of a batch.
+     *
+     * @param optionsConsumer A consumer that receives a {@link RpcBatchOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withBatchOptions(Consumer<RpcBatchOptions> optionsConsumer) {
+        optionsConsumer.accept(this.batchOptions);
+        return this;
+    }
+
+    /**
+     * Configures streamed RPC results: how many chunks the client lets the server send ahead of the ones it has
+     * consumed.
+     *
+     * @param optionsConsumer A consumer that receives a {@link RpcStreamOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withStreamOptions(Consumer<RpcStreamOptions> optionsConsumer) {
+        optionsConsumer.accept(this.streamOptions);
+        return this;
+    }
+
+    /**
+     * Configures the response cache: how many responses the client keeps to revalidate with the server, so
+     * unchanged payloads are not sent again.
+     *
+     * @param optionsConsumer A consumer that receives a {@link RpcResponseCacheOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withResponseCacheOptions(Consumer<RpcResponseCacheOptions> optionsConsumer) {
+        optionsConsumer.accept(this.responseCacheOptions);
+        return this;
+    }
+
+    /**
+     * Configures the replay of RPC calls across reconnects: how many unanswered calls the client keeps to send
+     * again on the next connection, and how long they wait for it.
+     *
+     * @param optionsConsumer A consumer that receives a {@link RpcReplayOptions} instance to configure.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder withReplayOptions(Consumer<RpcReplayOptions> optionsConsumer) {
+        optionsConsumer.accept(this.replayOptions);
+        return this;
+    }
+
+    /**
+     * Loads a preset compression dictionary, trained with {@link JSocket2.Protocol.Compression.DictionaryTrainer},
+     * and prefers it whenever the server offers the same dictionary.
+     *
+     * @param dictionaryFile The path of the dictionary file.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder setCompressionDictionary(Path dictionaryFile) {
+        this.compressionDictionaryFile = dictionaryFile;
+        return this;
+    }
+
+    /**
+     * Sets the executor on which asynchronous RPC responses are decoded, instead of the client's own pool.
+     * The client does not shut this executor down.
+     *
+     * @param responseExecutor The executor, see {@link ClientApplication#getResponseExecutor()}.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder setResponseExecutor(Executor responseExecutor) {
+        this.responseExecutor = responseExecutor;
+        return this;
+    }
+
+    /**
+     * Pins a server public key by its SHA-256 fingerprint. Shorthand for
+     * {@link ClientSecurityOptions#pinServerPublicKey(String)}.
+     *
+     * @param fingerprint The hexadecimal SHA-256 fingerprint of the server's public key.
+     * @return This builder instance for chaining.
+     */
+    public ClientApplicationBuilder pinServerPublicKey(String fingerprint) {
+        securityOptions.pinServerPublicKey(fingerprint);
+        return this;
+    }
+
     /**
      * Gets the service collection for registering dependencies.
      *
@@ -83,8 +295,29 @@ public class ClientApplicationBuilder {
      * Builds and returns a new {@link ClientApplication} with the specified configuration.
      *
      * @return A configured {@link ClientApplication} instance.
+     * @throws UncheckedIOException if the compression dictionary file cannot be read.
      */
     public ClientApplication Build(){
-        return new ClientApplication(host, port, connectionEventListener, subscribers, services, reconnectionOptions);
+        if (compressionDictionaryFile != null) {
+            try {
+                compressionOptions.addDictionary(CompressionDictionary.load(compressionDictionaryFile));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        ClientApplication app = new ClientApplication(host, port, connectionEventListener, subscribers, services, reconnectionOptions, securityOptions);
+        app.setTransferOptions(transferOptions);
+        app.setCodecOptions(codecOptions);
+        app.setCompressionOptions(compressionOptions);
+        app.setRouteOptions(routeOptions);
+        app.setDeadlineOptions(deadlineOptions);
+        app.setBatchOptions(batchOptions);
+        app.setStreamOptions(streamOptions);
+        app.setResponseCacheOptions(responseCacheOptions);
+        app.setReplayOptions(replayOptions);
+        if (responseExecutor != null) {
+            app.setResponseExecutor(responseExecutor);
+        }
+        return app;
     }
 }
\ No newline at end of file
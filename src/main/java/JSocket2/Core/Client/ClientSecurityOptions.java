@@ -0,0 +1,65 @@
+package JSocket2.Core.Client;
+
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Cryptography.RekeyOptions;
+import JSocket2.Protocol.EncryptionPolicy;
+
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Holds security-related configuration for the client, such as the server public keys
+ * it is willing to trust during the handshake and the encryption policy for outgoing messages.
+ */
+public class ClientSecurityOptions {
+    private final Set<String> pinnedServerKeys = new LinkedHashSet<>();
+    private final EncryptionPolicy encryptionPolicy = new EncryptionPolicy();
+    private final RekeyOptions rekeyOptions = new RekeyOptions();
+
+    /**
+     * Pins a server public key by its SHA-256 fingerprint. Once at least one key is pinned, the client
+     * aborts any handshake whose server key does not match one of the pinned fingerprints.
+     * Pinning several keys allows rotating the server key without breaking deployed clients.
+     *
+     * @param fingerprint The hexadecimal SHA-256 fingerprint of the server's X.509 encoded public key;
+     *                    colon separators and upper case are accepted.
+     */
+    public void pinServerPublicKey(String fingerprint) {
+        pinnedServerKeys.add(EncryptionUtil.normalizeFingerprint(fingerprint));
+    }
+
+    /**
+     * Gets the pinned server key fingerprints.
+     * @return An unmodifiable view of the pinned fingerprints.
+     */
+    public Set<String> getPinnedServerKeys() {
+        return Collections.unmodifiableSet(pinnedServerKeys);
+    }
+
+    /**
+     * Gets the policy deciding which outgoing messages are encrypted and with which cipher suite.
+     * @return The client's {@link EncryptionPolicy}.
+     */
+    public EncryptionPolicy getEncryptionPolicy() {
+        return encryptionPolicy;
+    }
+
+    /**
+     * Gets the limits that trigger an in-band rotation of the session key.
+     * @return The client's {@link RekeyOptions}.
+     */
+    public RekeyOptions getRekeyOptions() {
+        return rekeyOptions;
+    }
+
+    /**
+     * Checks whether a server public key is trusted. Every key is trusted when no key is pinned.
+     * @param serverPublicKey The public key presented by the server.
+     * @return {@code true} if the key may be used for the handshake.
+     */
+    public boolean isTrusted(PublicKey serverPublicKey) {
+        return pinnedServerKeys.isEmpty() || pinnedServerKeys.contains(EncryptionUtil.fingerprint(serverPublicKey));
+    }
+}
@@ -27,8 +27,8 @@ public class ClientSession extends Session {
      * @param aesKey          The symmetric AES key for encrypted communication.
      */
     public ClientSession(PublicKey serverPublicKey, SecretKey aesKey) {
+        super(aesKey);
         this.serverPublicKey = serverPublicKey;
-        super.aesKey = aesKey;
     }
 
     /**
@@ -2,13 +2,21 @@ package JSocket2.Core.Server;
 
 import JSocket2.DI.ServiceProvider;
 import JSocket2.Protocol.Authentication.IAuthService;
+import JSocket2.Cryptography.RekeyOptions;
 import JSocket2.Cryptography.RsaKeyManager;
 import JSocket2.Protocol.*;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Rpc.RpcDedupCache;
 import JSocket2.Protocol.Rpc.RpcDispatcher;
+import JSocket2.Protocol.Rpc.RpcStreamOptions;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
 import JSocket2.Protocol.Transfer.ServerFileTransferManager;
 
 import java.io.*;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -24,7 +32,7 @@ public class ClientHandler implements Runnable {
     private DataOutputStream out;
     private RpcDispatcher rpcDispatcher;
     private MessageHandler messageHandler;
-    private IMessageProcessor messageProcessor;
+    private ServerMessageProcessor messageProcessor;
     private ServerFileTransferManager fileTransferManager;
     private RsaKeyManager rsaKeyManager;
     private IAuthService authService;
@@ -32,6 +40,9 @@ public class ClientHandler implements Runnable {
     private final ServiceProvider serviceProvider;
     private final Map<UUID, CompletableFuture<Message>> pendingRequests;
     private final ServerSession serverSession;
+    private final CodecOptions codecOptions;
+    private final CompressionOptions compressionOptions;
+    private final RouteTable routeTable;
     private boolean isActive = true;
 
     /**
@@ -50,26 +61,52 @@ public class ClientHandler implements Runnable {
                          Map<UUID, CompletableFuture<Message>> pendingRequests) throws IOException {
         this.serviceProvider = serviceProvider;
         this.socket = socket;
-        this.out = new DataOutputStream(socket.getOutputStream());
-        this.in = new DataInputStream(socket.getInputStream());
+        socket.setTcpNoDelay(true);
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
         this.rpcDispatcher = rpcDispatcher;
         this.serverSession = serverSessionManager.createSession(this);
-        this.messageHandler = new MessageHandler(in,out,serverSession);
+        this.messageHandler = new MessageHandler(in,out,serverSession,serviceProvider.GetService(EncryptionPolicy.class));
+        this.messageHandler.setKeyRotator(new SessionKeyRotator(messageHandler, serverSession, serviceProvider.GetService(RekeyOptions.class), false));
         this.rsaKeyManager = this.serviceProvider.GetService(RsaKeyManager.class);
+        this.codecOptions = serviceProvider.GetService(CodecOptions.class);
+        this.compressionOptions = serviceProvider.GetService(CompressionOptions.class);
+        this.routeTable = serviceProvider.GetService(RouteTable.class);
         this.pendingRequests = pendingRequests;
         this.fileTransferManager = new ServerFileTransferManager(messageHandler,this.pendingRequests);
         this.authService =  serviceProvider.GetService(IAuthService.class);
         this.clientLifecycleListener = serviceProvider.GetService(IClientLifecycleListener.class);
         sendRsaPublicKey();
-        this.messageProcessor = new ServerMessageProcessor(this.messageHandler,this.rpcDispatcher,this.fileTransferManager, serverSession,rsaKeyManager,this.authService,this.clientLifecycleListener);
+        var context = new ServerConnectionContext()
+                .setCodecOptions(codecOptions)
+                .setCompressionOptions(compressionOptions)
+                .setRouteTable(routeTable)
+                .setRpcConnection(serviceProvider.GetService(RpcWorkerPool.class).newConnection())
+                .setStreamOptions(serviceProvider.GetService(RpcStreamOptions.class))
+                .setDedupCache(serviceProvider.GetService(RpcDedupCache.class));
+        this.messageProcessor = new ServerMessageProcessor(this.messageHandler,this.rpcDispatcher,this.fileTransferManager, serverSession,rsaKeyManager,this.authService,this.clientLifecycleListener,context);
 
     }
+    /**
+     * Starts the handshake by sending the server's public key, together with the offered metadata codecs,
+     * after a {@code ;} the offered payload compressors and after another {@code ;} the route table.
+     *
+     * @throws IOException if the key cannot be sent.
+     */
     private void sendRsaPublicKey() throws IOException {
         System.out.println("handshake is started");
         UUID requestId = UUID.randomUUID();
         byte[] publicKey = rsaKeyManager.getRSAPublicKey().getEncoded();
         MessageHeader header = MessageHeader.BuildRsaPublicKeyHeader(requestId,publicKey.length);
         Message message = new Message(header);
+        String offer = codecOptions.getOffer();
+        if (!compressionOptions.getCompressors().isEmpty() || !routeTable.isEmpty()) {
+            offer += ";" + compressionOptions.getOffer();
+        }
+        if (!routeTable.isEmpty()) {
+            offer += ";" + routeTable.toOffer();
+        }
+        message.setMetadata(offer.getBytes(StandardCharsets.US_ASCII));
         message.setPayload(publicKey);
         messageHandler.write(message);
     }
@@ -97,6 +134,7 @@ public class ClientHandler implements Runnable {
                 if (clientLifecycleListener != null) {
                     clientLifecycleListener.onClientDisconnected(serverSession);
                 }
+                messageProcessor.closeStreams();
                 try {
                     fileTransferManager.deactivateTransfers();
                 } catch (IOException ex) {
@@ -1,9 +1,12 @@
 package JSocket2.Core.Server;
 
+import JSocket2.Cryptography.RsaKeyManager;
 import JSocket2.DI.ServiceCollection;
 import JSocket2.DI.ServiceProvider;
 import JSocket2.Protocol.Rpc.RpcControllerCollection;
 import JSocket2.Protocol.Rpc.RpcDispatcher;
+import JSocket2.Protocol.Rpc.RpcResultCache;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
 import JSocket2.Protocol.Message;
 
 import java.io.IOException;
@@ -42,7 +45,7 @@ public class ServerApplication {
         this.serverSocket = new ServerSocket(PORT);
         this.serverSessionManager =serviceProvider.GetService(ServerSessionManager.class);
         this.pendingRequests = new ConcurrentHashMap<>();
-        this.rpcDispatcher = rpcControllerCollection.CreateRpcDispatcher(this.serviceProvider);
+        this.rpcDispatcher = rpcControllerCollection.CreateRpcDispatcher(this.serviceProvider, serviceProvider.GetService(RpcResultCache.class));
 
     }
 
@@ -67,13 +70,24 @@ public class ServerApplication {
     }
 
     /**
-     * Shuts down the server by closing the server socket.
+     * Shuts down the server by closing the server socket and stopping the RPC worker threads it owns.
      */
     public void Close() {
         try {
             serverSocket.close();
         } catch (IOException e) {
         }
+        serviceProvider.GetService(RpcWorkerPool.class).shutdown();
+    }
+
+    /**
+     * Checks whether the server's RSA key material is available. Until it is, new connections
+     * are accepted but their handshake waits for background key generation to finish.
+     *
+     * @return {@code true} if handshakes can start without waiting for key generation.
+     */
+    public boolean isReady() {
+        return serviceProvider.GetService(RsaKeyManager.class).isReady();
     }
 
     /**
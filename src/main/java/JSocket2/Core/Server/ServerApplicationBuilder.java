@@ -1,11 +1,27 @@
 package JSocket2.Core.Server;
 
+import JSocket2.Cryptography.RekeyOptions;
 import JSocket2.Cryptography.RsaKeyManager;
 import JSocket2.DI.ServiceCollection;
 import JSocket2.Protocol.Authentication.IAuthService;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.RouteOptions;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Compression.CompressionDictionary;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.EncryptionPolicy;
+import JSocket2.Protocol.Rpc.RpcCacheOptions;
 import JSocket2.Protocol.Rpc.RpcControllerCollection;
+import JSocket2.Protocol.Rpc.RpcDedupCache;
+import JSocket2.Protocol.Rpc.RpcDedupOptions;
+import JSocket2.Protocol.Rpc.RpcExecutionOptions;
+import JSocket2.Protocol.Rpc.RpcResultCache;
+import JSocket2.Protocol.Rpc.RpcStreamOptions;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
 
 /**
  * A builder for creating and configuring a {@link ServerApplication} instance.
@@ -18,6 +34,19 @@ public class ServerApplicationBuilder {
     private final ServiceCollection services;
     private boolean setAuth = false;
     private Class<? extends IClientLifecycleListener> clientLifecycleListenerType;
+    private Path rsaKeyFile;
+    private char[] rsaKeyFilePassword;
+    private RsaKeyManager rsaKeyManager;
+    private final EncryptionPolicy encryptionPolicy = new EncryptionPolicy();
+    private final RekeyOptions rekeyOptions = new RekeyOptions();
+    private final CodecOptions codecOptions = new CodecOptions();
+    private final CompressionOptions compressionOptions = new CompressionOptions();
+    private final RouteOptions routeOptions = new RouteOptions();
+    private final RpcExecutionOptions rpcExecutionOptions = new RpcExecutionOptions();
+    private final RpcStreamOptions streamOptions = new RpcStreamOptions();
+    private final RpcCacheOptions cacheOptions = new RpcCacheOptions();
+    private final RpcDedupOptions dedupOptions = new RpcDedupOptions();
+    private Path compressionDictionaryFile;
 
     /**
      * Constructs a new ServerApplicationBuilder with default services.
@@ -26,7 +55,13 @@ public class ServerApplicationBuilder {
         services = new ServiceCollection();
         rpcControllerCollection = new RpcControllerCollection();
         services.AddSingleton(ServerSessionManager.class);
-        services.AddSingletonWithInstance(RsaKeyManager.class,new RsaKeyManager());
+        services.AddSingletonWithInstance(EncryptionPolicy.class, encryptionPolicy);
+        services.AddSingletonWithInstance(RekeyOptions.class, rekeyOptions);
+        services.AddSingletonWithInstance(CodecOptions.class, codecOptions);
+        services.AddSingletonWithInstance(CompressionOptions.class, compressionOptions);
+        services.AddSingletonWithInstance(RpcStreamOptions.class, streamOptions);
+        services.AddSingletonWithInstance(RpcResultCache.class, new RpcResultCache(cacheOptions));
+        services.AddSingletonWithInstance(RpcDedupCache.class, new RpcDedupCache(dedupOptions));
     }
 
     /**
@@ -40,6 +75,163 @@ public class ServerApplicationBuilder {
         return this;
     }
 
+    /**
+     * Loads the server's RSA key pair from a PEM file instead of generating a new one on every start.
+     * If the file does not exist yet, a key pair is generated in the background and written to it.
+     *
+     * @param pemFile The path of the PEM file holding a PKCS#8 private key.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder setRsaKeyFile(Path pemFile) {
+        this.rsaKeyFile = pemFile;
+        this.rsaKeyFilePassword = null;
+        return this;
+    }
+
+    /**
+     * Loads the server's RSA key pair from a PKCS#12 key store ({@code .p12} or {@code .pfx}).
+     * The key store must already exist.
+     *
+     * @param keyStoreFile The path of the key store.
+     * @param password     The key store password.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder setRsaKeyFile(Path keyStoreFile, char[] password) {
+        this.rsaKeyFile = keyStoreFile;
+        this.rsaKeyFilePassword = password;
+        return this;
+    }
+
+    /**
+     * Uses an existing {@link RsaKeyManager}, for example one shared between several servers.
+     *
+     * @param rsaKeyManager The key manager to register.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder setRsaKeyManager(RsaKeyManager rsaKeyManager) {
+        this.rsaKeyManager = rsaKeyManager;
+        return this;
+    }
+
+    /**
+     * Configures which messages the server encrypts and with which cipher suite, e.g. to encrypt
+     * RPC responses of sensitive actions or to send bulk downloads in plaintext.
+     *
+     * @param policyConsumer A consumer that receives the server's {@link EncryptionPolicy} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withEncryptionPolicy(Consumer<EncryptionPolicy> policyConsumer) {
+        policyConsumer.accept(encryptionPolicy);
+        return this;
+    }
+
+    /**
+     * Configures when the server asks clients to rotate their session key.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link RekeyOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withRekeyOptions(Consumer<RekeyOptions> optionsConsumer) {
+        optionsConsumer.accept(rekeyOptions);
+        return this;
+    }
+
+    /**
+     * Configures the metadata codecs the server offers to clients during the handshake.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link CodecOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withCodecOptions(Consumer<CodecOptions> optionsConsumer) {
+        optionsConsumer.accept(codecOptions);
+        return this;
+    }
+
+    /**
+     * Configures the payload compressors the server offers to clients during the handshake, and which
+     * messages it compresses.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link CompressionOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withCompressionOptions(Consumer<CompressionOptions> optionsConsumer) {
+        optionsConsumer.accept(compressionOptions);
+        return this;
+    }
+
+    /**
+     * Configures the numeric route ids the server publishes during the handshake: whether it publishes any,
+     * and which event names are listed next to its RPC actions.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link RouteOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withRouteOptions(Consumer<RouteOptions> optionsConsumer) {
+        optionsConsumer.accept(routeOptions);
+        return this;
+    }
+
+    /**
+     * Configures where controller actions run: on each connection's reader thread, which is the default, or on
+     * a worker pool or executor with the chosen ordering of calls.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link RpcExecutionOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withRpcExecutionOptions(Consumer<RpcExecutionOptions> optionsConsumer) {
+        optionsConsumer.accept(rpcExecutionOptions);
+        return this;
+    }
+
+    /**
+     * Configures streamed results of actions returning an {@link java.util.Iterator} or
+     * {@link java.util.stream.Stream}: how many items go in a chunk and how many streams a connection may keep open.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link RpcStreamOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withStreamOptions(Consumer<RpcStreamOptions> optionsConsumer) {
+        optionsConsumer.accept(streamOptions);
+        return this;
+    }
+
+    /**
+     * Configures the cache of {@link JSocket2.Protocol.Rpc.RpcCacheable} action responses: how many responses it
+     * keeps and how many bytes they may take. Controllers reach the cache itself by injecting {@link RpcResultCache}.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link RpcCacheOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withCacheOptions(Consumer<RpcCacheOptions> optionsConsumer) {
+        optionsConsumer.accept(cacheOptions);
+        return this;
+    }
+
+    /**
+     * Configures de-duplication of RPC calls by request id: how many recent responses the server remembers so a
+     * call the client sends again is answered without running its action twice, and for how long.
+     *
+     * @param optionsConsumer A consumer that receives the server's {@link RpcDedupOptions} to configure.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder withDedupOptions(Consumer<RpcDedupOptions> optionsConsumer) {
+        optionsConsumer.accept(dedupOptions);
+        return this;
+    }
+
+    /**
+     * Loads a preset compression dictionary, trained with {@link JSocket2.Protocol.Compression.DictionaryTrainer},
+     * and offers it ahead of the other compressors. Clients that loaded the same dictionary use it; others fall
+     * back to the next compressor they share with the server.
+     *
+     * @param dictionaryFile The path of the dictionary file.
+     * @return This builder instance for chaining.
+     */
+    public ServerApplicationBuilder setCompressionDictionary(Path dictionaryFile) {
+        this.compressionDictionaryFile = dictionaryFile;
+        return this;
+    }
+
     /**
      * Sets the implementation for the client lifecycle listener.
      *
@@ -88,17 +280,39 @@ public class ServerApplicationBuilder {
 
     /**
      * Builds and returns a new {@link ServerApplication} with the specified configuration.
+     * When no key file or key manager is configured, the RSA key pair is generated in the background
+     * and the first handshake waits for it.
      *
      * @return A configured {@link ServerApplication} instance.
-     * @throws IOException if the server socket cannot be created.
+     * @throws IOException if the server socket cannot be created or the RSA key or dictionary file cannot be read.
      * @throws RuntimeException if the prerequisite configurations (like auth service) are not met.
      */
     public ServerApplication build() throws IOException {
         if(!canBuild()){
             throw new RuntimeException("Can't build ServerApplication");
         }
+        services.AddSingletonWithInstance(RsaKeyManager.class, createRsaKeyManager());
+        if (compressionDictionaryFile != null) {
+            compressionOptions.addDictionary(CompressionDictionary.load(compressionDictionaryFile));
+        }
+        services.AddSingletonWithInstance(RouteTable.class, routeOptions.isEnabled()
+                ? new RouteTable(rpcControllerCollection.getRoutes(), routeOptions.getEvents())
+                : RouteTable.EMPTY);
+        services.AddSingletonWithInstance(RpcWorkerPool.class, RpcWorkerPool.create(rpcExecutionOptions));
         return new ServerApplication(port, rpcControllerCollection,services);
     }
+    private RsaKeyManager createRsaKeyManager() throws IOException {
+        if (rsaKeyManager != null) {
+            return rsaKeyManager;
+        }
+        if (rsaKeyFile == null) {
+            return new RsaKeyManager();
+        }
+        if (rsaKeyFilePassword != null) {
+            return RsaKeyManager.load(rsaKeyFile, rsaKeyFilePassword);
+        }
+        return RsaKeyManager.loadOrGenerate(rsaKeyFile);
+    }
     private boolean canBuild(){
         return setAuth && port > 1023 && port < 49151;
     }
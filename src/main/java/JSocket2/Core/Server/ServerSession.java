@@ -90,11 +90,12 @@ public class ServerSession extends Session {
     }
 
     /**
-     * Sets the symmetric AES key for this session.
+     * Sets the symmetric AES key for this session, as received in the handshake. Any previous
+     * key epochs are discarded and the key becomes epoch 0.
      * @param aesKey The {@link SecretKey} for encryption/decryption.
      */
     public void setAESKey(SecretKey aesKey) {
-        super.aesKey = aesKey;
+        resetKey(aesKey);
     }
 
     /**
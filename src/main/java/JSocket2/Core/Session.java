@@ -1,23 +1,42 @@
 package JSocket2.Core;
 
+import JSocket2.Cryptography.CipherSuite;
 import JSocket2.Cryptography.EncryptionUtil;
 import javax.crypto.SecretKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents an abstract session, encapsulating a shared secret AES key for encrypted communication.
  * This class serves as a base for specific session implementations.
+ * <p>
+ * The key can be rotated in-band: each rotation installs the key of a new epoch, while the keys of
+ * the last {@link #KEY_EPOCH_WINDOW} epochs stay available so frames encrypted before the rotation
+ * still decrypt.
  */
 public abstract class Session {
     /**
-     * The AES secret key used for encrypting and decrypting session data.
+     * The number of key epochs kept for decrypting frames that were in flight during a rekey.
+     */
+    public static final int KEY_EPOCH_WINDOW = 4;
+
+    /**
+     * The AES secret key used for encrypting and decrypting session data, i.e. the key of the current epoch.
      */
     protected SecretKey aesKey;
 
+    private final Map<Integer, SessionKey> keyRing = new ConcurrentHashMap<>();
+    private volatile SessionKey currentKey;
+    private final AtomicLong messagesSinceRekey = new AtomicLong();
+    private final AtomicLong bytesSinceRekey = new AtomicLong();
+    private volatile long keyInstalledAt;
+
     /**
      * Constructs a new Session and generates a new AES secret key.
      */
     public Session(){
-        aesKey = EncryptionUtil.generateAESsecretKey();
+        this(EncryptionUtil.generateAESsecretKey());
     }
 
     /**
@@ -26,7 +45,7 @@ public abstract class Session {
      * @param aesKey The {@link SecretKey} to be used for this session.
      */
     public Session(SecretKey aesKey){
-        this.aesKey =aesKey;
+        resetKey(aesKey);
     }
 
     /**
@@ -37,4 +56,115 @@ public abstract class Session {
     public SecretKey getAESKey() {
         return aesKey;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the key a cipher suite uses for this session in the current epoch.
+     *
+     * @param cipherSuite The cipher suite protecting a message.
+     * @return The {@link SecretKey} for the cipher suite.
+     */
+    public SecretKey getCipherKey(CipherSuite cipherSuite) {
+        return currentKey.getCipherKey(cipherSuite);
+    }
+
+    /**
+     * Gets the key of the current epoch, used for encrypting outgoing messages.
+     *
+     * @return The current {@link SessionKey}.
+     */
+    public SessionKey getCurrentKey() {
+        return currentKey;
+    }
+
+    /**
+     * Gets the key of a specific epoch, used for decrypting incoming messages.
+     *
+     * @param epoch The key epoch announced in a frame header.
+     * @return The {@link SessionKey}, or {@code null} if the epoch is unknown or has been retired.
+     */
+    public SessionKey getKey(int epoch) {
+        return keyRing.get(epoch);
+    }
+
+    /**
+     * Gets the current key epoch.
+     *
+     * @return The epoch, between 0 and 255.
+     */
+    public int getKeyEpoch() {
+        return currentKey.getEpoch();
+    }
+
+    /**
+     * Adds the key of an epoch to the key ring without making it current, so frames the peer
+     * encrypts under it can be decrypted before this side starts using it.
+     *
+     * @param epoch  The epoch, between 0 and 255.
+     * @param aesKey The AES key of the epoch.
+     */
+    public void addKey(int epoch, SecretKey aesKey) {
+        keyRing.put(epoch & 0xFF, new SessionKey(epoch & 0xFF, aesKey));
+    }
+
+    /**
+     * Installs the key of a new epoch and makes it current. Keys older than
+     * {@link #KEY_EPOCH_WINDOW} epochs are retired, and the usage counters restart.
+     *
+     * @param epoch  The new epoch, between 0 and 255.
+     * @param aesKey The AES key of the new epoch.
+     */
+    public synchronized void installKey(int epoch, SecretKey aesKey) {
+        SessionKey key = new SessionKey(epoch & 0xFF, aesKey);
+        keyRing.put(key.getEpoch(), key);
+        keyRing.remove((key.getEpoch() - KEY_EPOCH_WINDOW) & 0xFF);
+        this.aesKey = aesKey;
+        this.currentKey = key;
+        messagesSinceRekey.set(0);
+        bytesSinceRekey.set(0);
+        keyInstalledAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Discards every key epoch and starts over at epoch 0 with the given key, as after a handshake.
+     *
+     * @param aesKey The AES key of epoch 0.
+     */
+    protected synchronized void resetKey(SecretKey aesKey) {
+        keyRing.clear();
+        installKey(0, aesKey);
+    }
+
+    /**
+     * Records an encrypted message sent under the current key.
+     *
+     * @param bytes The number of encrypted bytes.
+     */
+    public void recordEncrypted(int bytes) {
+        messagesSinceRekey.incrementAndGet();
+        bytesSinceRekey.addAndGet(bytes);
+    }
+
+    /**
+     * Gets the number of messages encrypted under the current key.
+     * @return The message count since the last key installation.
+     */
+    public long getMessagesSinceRekey() {
+        return messagesSinceRekey.get();
+    }
+
+    /**
+     * Gets the number of bytes encrypted under the current key.
+     * @return The byte count since the last key installation.
+     */
+    public long getBytesSinceRekey() {
+        return bytesSinceRekey.get();
+    }
+
+    /**
+     * Gets how long the current key has been in use.
+     * @return The key age in milliseconds.
+     */
+    public long getKeyAgeMillis() {
+        return System.currentTimeMillis() - keyInstalledAt;
+    }
+}
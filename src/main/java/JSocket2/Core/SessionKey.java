@@ -0,0 +1,60 @@
+package JSocket2.Core;
+
+import JSocket2.Cryptography.CipherSuite;
+
+import javax.crypto.SecretKey;
+
+/**
+ * One generation of a session's symmetric key, identified by its key epoch. The epoch is carried in
+ * every encrypted frame, so a receiver can pick the right key even while a rekey is in flight.
+ */
+public final class SessionKey {
+    private final int epoch;
+    private final SecretKey aesKey;
+    private volatile SecretKey chaCha20Key;
+
+    /**
+     * Constructs a SessionKey.
+     *
+     * @param epoch  The key epoch, between 0 and 255.
+     * @param aesKey The AES key of this epoch.
+     */
+    public SessionKey(int epoch, SecretKey aesKey) {
+        this.epoch = epoch;
+        this.aesKey = aesKey;
+    }
+
+    /**
+     * Gets the key epoch.
+     * @return The epoch, between 0 and 255.
+     */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Gets the AES key of this epoch.
+     * @return The {@link SecretKey}.
+     */
+    public SecretKey getAESKey() {
+        return aesKey;
+    }
+
+    /**
+     * Retrieves the key a cipher suite uses in this epoch. Derived keys are computed once and cached.
+     *
+     * @param cipherSuite The cipher suite protecting a message.
+     * @return The {@link SecretKey} for the cipher suite.
+     */
+    public SecretKey getCipherKey(CipherSuite cipherSuite) {
+        if (cipherSuite != CipherSuite.CHACHA20_POLY1305) {
+            return aesKey;
+        }
+        SecretKey key = chaCha20Key;
+        if (key == null) {
+            key = cipherSuite.deriveKey(aesKey);
+            chaCha20Key = key;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,116 @@
+package JSocket2.Cryptography;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Enumerates the symmetric ciphers that can protect a message's metadata and payload.
+ * The code of the selected suite is carried in the encryption byte of the message header,
+ * so the receiver always knows how to decrypt a message without prior negotiation.
+ */
+public enum CipherSuite {
+    /** The message is sent in plaintext. */
+    NONE(0, 0),
+    /** AES-128 in CBC mode with PKCS#5 padding, keyed directly with the session key. */
+    AES_CBC(1, 16),
+    /**
+     * ChaCha20-Poly1305 AEAD with a 256-bit key derived from the session key.
+     * Faster than AES on hosts without AES hardware acceleration, and authenticates the ciphertext.
+     */
+    CHACHA20_POLY1305(2, 12);
+
+    /**
+     * The code written to the message header.
+     */
+    public final int code;
+    /**
+     * The length in bytes of the IV or nonce that precedes the message body.
+     */
+    public final int ivLength;
+
+    CipherSuite(int code, int ivLength) {
+        this.code = code;
+        this.ivLength = ivLength;
+    }
+
+    /**
+     * Retrieves a CipherSuite by its header code.
+     *
+     * @param code The code read from the message header.
+     * @return The matching {@link CipherSuite}.
+     * @throws IllegalArgumentException if the code is unknown.
+     */
+    public static CipherSuite fromCode(int code) {
+        for (CipherSuite suite : values()) {
+            if (suite.code == code) {
+                return suite;
+            }
+        }
+        throw new IllegalArgumentException("Unknown CipherSuite code: " + code);
+    }
+
+    /**
+     * Generates a fresh random IV or nonce of the length this suite requires.
+     *
+     * @return The IV bytes, empty for {@link #NONE}.
+     */
+    public byte[] generateIv() {
+        return EncryptionUtil.generateIV(ivLength);
+    }
+
+    /**
+     * Derives the key this suite uses from the session's shared AES key.
+     *
+     * @param sessionKey The AES key exchanged during the handshake.
+     * @return The key to pass to {@link #encrypt} and {@link #decrypt}.
+     */
+    public SecretKey deriveKey(SecretKey sessionKey) {
+        if (this == CHACHA20_POLY1305) {
+            return EncryptionUtil.deriveChaCha20Key(sessionKey);
+        }
+        return sessionKey;
+    }
+
+    /**
+     * Encrypts one part of a message. A message's metadata and payload share one IV on the wire;
+     * suites that must never reuse a nonce derive a distinct nonce per part from it.
+     *
+     * @param data The plaintext.
+     * @param key  The key returned by {@link #deriveKey(SecretKey)}.
+     * @param iv   The message IV.
+     * @param part The index of the message part (0 for metadata, 1 for payload).
+     * @return The ciphertext.
+     */
+    public byte[] encrypt(byte[] data, SecretKey key, byte[] iv, int part) {
+        return switch (this) {
+            case NONE -> data;
+            case AES_CBC -> EncryptionUtil.encryptDataAES(data, key, iv);
+            case CHACHA20_POLY1305 -> EncryptionUtil.encryptDataChaCha20(data, key, partNonce(iv, part));
+        };
+    }
+
+    /**
+     * Decrypts one part of a message encrypted with {@link #encrypt}.
+     *
+     * @param data The ciphertext.
+     * @param key  The key returned by {@link #deriveKey(SecretKey)}.
+     * @param iv   The message IV.
+     * @param part The index of the message part (0 for metadata, 1 for payload).
+     * @return The plaintext.
+     */
+    public byte[] decrypt(byte[] data, SecretKey key, byte[] iv, int part) {
+        return switch (this) {
+            case NONE -> data;
+            case AES_CBC -> EncryptionUtil.decryptDataAES(data, key, iv);
+            case CHACHA20_POLY1305 -> EncryptionUtil.decryptDataChaCha20(data, key, partNonce(iv, part));
+        };
+    }
+
+    private static byte[] partNonce(byte[] iv, int part) {
+        if (part == 0) {
+            return iv;
+        }
+        byte[] nonce = iv.clone();
+        nonce[0] ^= (byte) part;
+        return nonce;
+    }
+}
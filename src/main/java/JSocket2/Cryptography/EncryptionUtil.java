@@ -2,12 +2,16 @@ package JSocket2.Cryptography;
 
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.HexFormat;
+import java.util.Locale;
 
 /**
  * A utility class providing cryptographic functions for AES and RSA encryption and decryption.
@@ -29,6 +33,11 @@ public class EncryptionUtil {
      */
     private static final int IV_SIZE = 16;
 
+    /**
+     * Shared source of randomness for IVs and nonces; {@link SecureRandom} is thread-safe.
+     */
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     /**
      * Decodes a byte array into an RSA {@link PublicKey}.
      *
@@ -155,17 +164,118 @@ public class EncryptionUtil {
         }
     }
 
+    /**
+     * Encrypts data with ChaCha20-Poly1305 using the provided 256-bit key and 12-byte nonce.
+     * The returned ciphertext carries the 16-byte authentication tag.
+     *
+     * @param rawBytes The data to be encrypted.
+     * @param key The ChaCha20 {@link SecretKey}, see {@link #deriveChaCha20Key(SecretKey)}.
+     * @param nonce The nonce, which must never be reused with the same key.
+     * @return The encrypted data as a byte array.
+     * @throws RuntimeException if an error occurs during encryption.
+     */
+    public static byte[] encryptDataChaCha20(byte[] rawBytes, SecretKey key, byte[] nonce) {
+        try {
+            Cipher cipher = Cipher.getInstance("ChaCha20-Poly1305");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(nonce));
+            return cipher.doFinal(rawBytes);
+        } catch (Exception e) {
+            System.err.println("Error: while encrypting data with ChaCha20-Poly1305:");
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decrypts and authenticates data encrypted with {@link #encryptDataChaCha20(byte[], SecretKey, byte[])}.
+     *
+     * @param cipherBytes The encrypted data including the authentication tag.
+     * @param key The ChaCha20 {@link SecretKey}.
+     * @param nonce The nonce used for encryption.
+     * @return The decrypted data as a byte array.
+     * @throws RuntimeException if the data was tampered with or another error occurs during decryption.
+     */
+    public static byte[] decryptDataChaCha20(byte[] cipherBytes, SecretKey key, byte[] nonce) {
+        try {
+            Cipher cipher = Cipher.getInstance("ChaCha20-Poly1305");
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(nonce));
+            return cipher.doFinal(cipherBytes);
+        } catch (Exception e) {
+            System.err.println("Error: while decrypting data with ChaCha20-Poly1305:");
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Derives a 256-bit ChaCha20 key from a session key with HMAC-SHA256, so both peers obtain the
+     * same key from the AES key exchanged during the handshake.
+     *
+     * @param sessionKey The shared session key.
+     * @return The derived ChaCha20 {@link SecretKey}.
+     * @throws RuntimeException if HMAC-SHA256 is not available.
+     */
+    public static SecretKey deriveChaCha20Key(SecretKey sessionKey) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(sessionKey.getEncoded(), "HmacSHA256"));
+            byte[] keyBytes = mac.doFinal("JSocket2 ChaCha20-Poly1305".getBytes(StandardCharsets.US_ASCII));
+            return new SecretKeySpec(keyBytes, "ChaCha20");
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Generates a random Initialization Vector (IV).
      *
      * @return A new byte array containing the IV.
      */
     public static byte[] generateIV() {
-        byte[] iv = new byte[IV_SIZE];
-        new SecureRandom().nextBytes(iv);
+        return generateIV(IV_SIZE);
+    }
+
+    /**
+     * Generates a random Initialization Vector (IV) or nonce of the given length.
+     *
+     * @param length The number of bytes to generate.
+     * @return A new byte array containing the IV.
+     */
+    public static byte[] generateIV(int length) {
+        byte[] iv = new byte[length];
+        if (length > 0) {
+            SECURE_RANDOM.nextBytes(iv);
+        }
         return iv;
     }
 
+    /**
+     * Computes the SHA-256 fingerprint of a public key's X.509 encoding.
+     *
+     * @param publicKey The {@link PublicKey} to fingerprint.
+     * @return The fingerprint as a lowercase hexadecimal string.
+     * @throws RuntimeException if the SHA-256 algorithm is not available.
+     */
+    public static String fingerprint(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Normalizes a fingerprint written by hand, e.g. with colon separators or in upper case,
+     * to the form returned by {@link #fingerprint(PublicKey)}.
+     *
+     * @param fingerprint The fingerprint to normalize.
+     * @return The lowercase hexadecimal fingerprint without separators.
+     */
+    public static String normalizeFingerprint(String fingerprint) {
+        return fingerprint.replace(":", "").replace(" ", "").toLowerCase(Locale.ROOT);
+    }
+
     /**
      * Generates a new AES secret key.
      *
@@ -0,0 +1,65 @@
+package JSocket2.Cryptography;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Derives per-message IVs from a random base and a message counter, so a stream of messages
+ * (such as the chunks of one file) can be encrypted on several threads without drawing each IV
+ * from a shared {@link java.security.SecureRandom}.
+ * <p>
+ * The counter is XORed into the last eight bytes of the random base. For ChaCha20-Poly1305 this
+ * yields a unique nonce per counter, as in TLS 1.3. For AES-CBC, whose IVs must also be
+ * unpredictable, the result is additionally encrypted with the session key (the counter-IV method
+ * of NIST SP 800-38A, appendix C).
+ */
+public final class IvSequence {
+    private final CipherSuite cipherSuite;
+    private final byte[] base;
+
+    /**
+     * Constructs an IvSequence with a fresh random base.
+     *
+     * @param cipherSuite The cipher suite the IVs are generated for.
+     */
+    public IvSequence(CipherSuite cipherSuite) {
+        this.cipherSuite = cipherSuite;
+        this.base = cipherSuite.generateIv();
+    }
+
+    /**
+     * Gets the cipher suite this sequence generates IVs for.
+     * @return The {@link CipherSuite}.
+     */
+    public CipherSuite getCipherSuite() {
+        return cipherSuite;
+    }
+
+    /**
+     * Derives the IV for a counter value. Each counter value must be used for at most one message.
+     *
+     * @param counter The message counter, e.g. the chunk index.
+     * @param key     The key the message is encrypted with; used to whiten AES-CBC IVs.
+     * @return The IV bytes.
+     * @throws RuntimeException if the IV cannot be derived.
+     */
+    public byte[] ivFor(long counter, SecretKey key) {
+        byte[] iv = base.clone();
+        for (int i = 0; i < Long.BYTES && i < iv.length; i++) {
+            iv[iv.length - 1 - i] ^= (byte) (counter >>> (8 * i));
+        }
+        if (cipherSuite != CipherSuite.AES_CBC) {
+            return iv;
+        }
+        try {
+            Cipher cipher = Cipher.getInstance("AES/ECB/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key.getEncoded(), "AES"));
+            return cipher.doFinal(iv);
+        } catch (Exception e) {
+            System.err.println("Error: while deriving AES IV:");
+            e.printStackTrace();
+            throw new RuntimeException(e);
+        }
+    }
+}
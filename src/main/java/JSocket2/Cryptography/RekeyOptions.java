@@ -0,0 +1,94 @@
+package JSocket2.Cryptography;
+
+import JSocket2.Core.Session;
+
+/**
+ * Holds configuration options for in-band session key rotation. A rekey is triggered as soon as
+ * any enabled limit is reached by the messages a side encrypts under the current key.
+ * A limit of {@code 0} disables that trigger.
+ */
+public class RekeyOptions {
+    private boolean enabled = true;
+    private long maxMessages = 0;
+    private long maxBytes = 1L << 30;
+    private long maxKeyAgeMillis = 60 * 60 * 1000L;
+
+    /**
+     * Checks whether automatic key rotation is enabled.
+     * @return {@code true} if keys are rotated when a limit is reached.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables automatic key rotation. Rekey requests from the peer are honoured either way.
+     * @param enabled {@code true} to rotate keys automatically.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the number of messages after which the key is rotated.
+     * @return The message limit, or {@code 0} if disabled.
+     */
+    public long getMaxMessages() {
+        return maxMessages;
+    }
+
+    /**
+     * Sets the number of messages after which the key is rotated.
+     * @param maxMessages The message limit, or {@code 0} to disable this trigger.
+     */
+    public void setMaxMessages(long maxMessages) {
+        this.maxMessages = maxMessages;
+    }
+
+    /**
+     * Gets the number of encrypted bytes after which the key is rotated.
+     * @return The byte limit, or {@code 0} if disabled.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets the number of encrypted bytes after which the key is rotated.
+     * @param maxBytes The byte limit, or {@code 0} to disable this trigger.
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the maximum age of a key in milliseconds.
+     * @return The age limit, or {@code 0} if disabled.
+     */
+    public long getMaxKeyAgeMillis() {
+        return maxKeyAgeMillis;
+    }
+
+    /**
+     * Sets the maximum age of a key in milliseconds. The age is checked whenever a message is sent,
+     * so an idle connection rotates its key with the first message after the limit.
+     * @param maxKeyAgeMillis The age limit, or {@code 0} to disable this trigger.
+     */
+    public void setMaxKeyAgeMillis(long maxKeyAgeMillis) {
+        this.maxKeyAgeMillis = maxKeyAgeMillis;
+    }
+
+    /**
+     * Checks whether the current key of a session has reached any enabled limit.
+     * @param session The session to check.
+     * @return {@code true} if the key should be rotated.
+     */
+    public boolean isDue(Session session) {
+        if (!enabled) {
+            return false;
+        }
+        return (maxMessages > 0 && session.getMessagesSinceRekey() >= maxMessages)
+                || (maxBytes > 0 && session.getBytesSinceRekey() >= maxBytes)
+                || (maxKeyAgeMillis > 0 && session.getKeyAgeMillis() >= maxKeyAgeMillis);
+    }
+}
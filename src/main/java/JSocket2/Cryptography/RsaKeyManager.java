@@ -2,46 +2,308 @@ package JSocket2.Cryptography;
 
 import JSocket2.DI.Inject;
 
-import java.security.KeyPair;
-import java.security.PrivateKey;
-import java.security.PublicKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.*;
+import java.security.cert.Certificate;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Manages an RSA key pair, providing access to the public and private keys.
  * This class is designed to be managed by a Dependency Injection framework.
+ * <p>
+ * Key material is either loaded from a local PEM or PKCS#12 file or generated
+ * asynchronously on a background thread, so constructing the manager never blocks
+ * server startup. Accessors wait for the key pair only if it is not ready yet.
  */
 public class RsaKeyManager {
 
+    private static final String PEM_PRIVATE_KEY = "PRIVATE KEY";
+    private static final String PEM_PUBLIC_KEY = "PUBLIC KEY";
+
     /**
-     * The RSA key pair, consisting of a public and a private key.
+     * Completes with the RSA key pair once it has been loaded or generated.
      */
-    private final KeyPair rsaKeyPair;
+    private final CompletableFuture<KeyPair> rsaKeyPair;
 
     /**
-     * Constructs a new RsaKeyManager and generates a new RSA key pair.
+     * Constructs a new RsaKeyManager and starts generating a new RSA key pair in the background.
      * The {@code @Inject} annotation suggests that this constructor will be called by a dependency injection framework.
      */
     @Inject
     public RsaKeyManager() {
-        rsaKeyPair = EncryptionUtil.generateRSAkeyPair();
+        this(generateInBackground());
+    }
+
+    /**
+     * Constructs a new RsaKeyManager around an existing RSA key pair. The manager is ready immediately.
+     *
+     * @param keyPair The RSA key pair to serve.
+     */
+    public RsaKeyManager(KeyPair keyPair) {
+        this(CompletableFuture.completedFuture(keyPair));
+    }
+
+    private RsaKeyManager(CompletableFuture<KeyPair> rsaKeyPair) {
+        this.rsaKeyPair = rsaKeyPair;
+    }
+
+    /**
+     * Loads the RSA key pair from a key file. Files ending in {@code .p12} or {@code .pfx} are read
+     * as PKCS#12 key stores, anything else as PEM containing a PKCS#8 {@code PRIVATE KEY} block.
+     *
+     * @param keyFile  The path of the key file.
+     * @param password The key store password, or {@code null} for PEM files.
+     * @return A ready {@link RsaKeyManager}.
+     * @throws IOException if the file cannot be read, does not contain an RSA key pair, or holds a PEM public key
+     *                     that does not belong to its private key.
+     */
+    public static RsaKeyManager load(Path keyFile, char[] password) throws IOException {
+        if (isPkcs12(keyFile)) {
+            return new RsaKeyManager(readPkcs12(keyFile, password));
+        }
+        return new RsaKeyManager(readPem(keyFile));
+    }
+
+    /**
+     * Loads the RSA key pair from a PEM file if it exists. Otherwise a new key pair is generated
+     * in the background and written to the file once it is ready, so the next start reuses it.
+     *
+     * @param pemFile The path of the PEM file.
+     * @return An {@link RsaKeyManager} that is either ready or generating its keys.
+     * @throws IOException if an existing file cannot be read or does not contain an RSA key pair.
+     */
+    public static RsaKeyManager loadOrGenerate(Path pemFile) throws IOException {
+        if (Files.exists(pemFile)) {
+            return load(pemFile, null);
+        }
+        if (isPkcs12(pemFile)) {
+            throw new IOException("PKCS#12 key store not found: " + pemFile);
+        }
+        return new RsaKeyManager(generateInBackground().thenApply(keyPair -> {
+            try {
+                writePem(pemFile, keyPair);
+            } catch (IOException e) {
+                System.err.println("ERROR: while persisting RSA KeyPair to " + pemFile + ":");
+                e.printStackTrace();
+            }
+            return keyPair;
+        }));
+    }
+
+    /**
+     * Writes an RSA key pair to a PEM file containing a PKCS#8 private key and an X.509 public key block.
+     * The file is written to a temporary file in the same directory, readable by its owner only where the file
+     * system supports POSIX permissions, and then moved into place, so a crash never leaves a truncated key.
+     *
+     * @param pemFile The path of the PEM file.
+     * @param keyPair The key pair to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void writePem(Path pemFile, KeyPair keyPair) throws IOException {
+        Path target = pemFile.toAbsolutePath();
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+        String pem = toPem(PEM_PRIVATE_KEY, keyPair.getPrivate().getEncoded())
+                + toPem(PEM_PUBLIC_KEY, keyPair.getPublic().getEncoded());
+        Path temp = Files.getFileStore(parent).supportsFileAttributeView(PosixFileAttributeView.class)
+                ? Files.createTempFile(parent, target.getFileName().toString(), ".tmp",
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")))
+                : Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temp, pem, StandardCharsets.US_ASCII);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Checks whether the key pair has been loaded or generated.
+     *
+     * @return {@code true} if the keys are available without blocking.
+     */
+    public boolean isReady() {
+        return rsaKeyPair.isDone() && !rsaKeyPair.isCompletedExceptionally();
+    }
+
+    /**
+     * Returns a future that completes with this manager once the key pair is available.
+     *
+     * @return A {@link CompletableFuture} signalling readiness.
+     */
+    public CompletableFuture<RsaKeyManager> whenReady() {
+        return rsaKeyPair.thenApply(keyPair -> this);
     }
 
     /**
-     * Retrieves the RSA public key.
+     * Blocks until the key pair is available or the timeout elapses.
+     *
+     * @param timeout The maximum time to wait.
+     * @param unit    The unit of the timeout.
+     * @return {@code true} if the keys are ready, {@code false} if the timeout elapsed first.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            rsaKeyPair.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves the RSA public key, waiting for generation to finish if necessary.
      *
      * @return The {@link PublicKey}.
      */
     public PublicKey getRSAPublicKey() {
-        return rsaKeyPair.getPublic();
+        return keyPair().getPublic();
     }
 
     /**
-     * Retrieves the RSA private key.
+     * Retrieves the RSA private key, waiting for generation to finish if necessary.
      *
      * @return The {@link PrivateKey}.
      */
     public PrivateKey getRSAPrivateKey() {
-        return rsaKeyPair.getPrivate();
+        return keyPair().getPrivate();
     }
 
-}
\ No newline at end of file
+    /**
+     * Computes the SHA-256 fingerprint of the public key, as used for client-side key pinning.
+     *
+     * @return The lowercase hexadecimal fingerprint.
+     */
+    public String getPublicKeyFingerprint() {
+        return EncryptionUtil.fingerprint(getRSAPublicKey());
+    }
+
+    private KeyPair keyPair() {
+        try {
+            return rsaKeyPair.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static CompletableFuture<KeyPair> generateInBackground() {
+        CompletableFuture<KeyPair> future = new CompletableFuture<>();
+        Thread generator = new Thread(() -> {
+            try {
+                future.complete(EncryptionUtil.generateRSAkeyPair());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, "JSocket-RsaKeyGenerator");
+        generator.setDaemon(true);
+        generator.start();
+        return future;
+    }
+
+    private static boolean isPkcs12(Path keyFile) {
+        String name = keyFile.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".p12") || name.endsWith(".pfx");
+    }
+
+    private static KeyPair readPkcs12(Path keyFile, char[] password) throws IOException {
+        try (InputStream in = Files.newInputStream(keyFile)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, password);
+            Enumeration<String> aliases = keyStore.aliases();
+            while (aliases.hasMoreElements()) {
+                String alias = aliases.nextElement();
+                if (!keyStore.isKeyEntry(alias)) {
+                    continue;
+                }
+                Key key = keyStore.getKey(alias, password);
+                Certificate certificate = keyStore.getCertificate(alias);
+                if (key instanceof PrivateKey privateKey && "RSA".equals(key.getAlgorithm()) && certificate != null) {
+                    return new KeyPair(certificate.getPublicKey(), privateKey);
+                }
+            }
+            throw new IOException("No RSA key entry found in " + keyFile);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to read PKCS#12 key store " + keyFile, e);
+        }
+    }
+
+    private static KeyPair readPem(Path pemFile) throws IOException {
+        String pem = Files.readString(pemFile, StandardCharsets.US_ASCII);
+        try {
+            byte[] privateKeyBytes = fromPem(pem, PEM_PRIVATE_KEY);
+            if (privateKeyBytes == null) {
+                throw new IOException("No PKCS#8 PRIVATE KEY block found in " + pemFile);
+            }
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKeyBytes));
+            byte[] publicKeyBytes = fromPem(pem, PEM_PUBLIC_KEY);
+            PublicKey publicKey;
+            if (publicKeyBytes != null) {
+                publicKey = EncryptionUtil.decodeRsaPublicKey(publicKeyBytes);
+                if (!matches((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey)) {
+                    throw new IOException("The PUBLIC KEY in " + pemFile + " does not belong to its PRIVATE KEY");
+                }
+            } else if (privateKey instanceof RSAPrivateCrtKey crtKey) {
+                publicKey = keyFactory.generatePublic(new RSAPublicKeySpec(crtKey.getModulus(), crtKey.getPublicExponent()));
+            } else {
+                throw new IOException("PEM file " + pemFile + " has no PUBLIC KEY block and the public key cannot be derived");
+            }
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IOException("Failed to read RSA key pair from " + pemFile, e);
+        }
+    }
+
+    private static boolean matches(RSAPublicKey publicKey, RSAPrivateKey privateKey) {
+        if (!publicKey.getModulus().equals(privateKey.getModulus())) {
+            return false;
+        }
+        return !(privateKey instanceof RSAPrivateCrtKey crtKey) || publicKey.getPublicExponent().equals(crtKey.getPublicExponent());
+    }
+
+    private static String toPem(String label, byte[] der) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der);
+        return "-----BEGIN " + label + "-----\n" + body + "\n-----END " + label + "-----\n";
+    }
+
+    private static byte[] fromPem(String pem, String label) {
+        String begin = "-----BEGIN " + label + "-----";
+        String end = "-----END " + label + "-----";
+        int start = pem.indexOf(begin);
+        if (start < 0) {
+            return null;
+        }
+        int stop = pem.indexOf(end, start);
+        if (stop < 0) {
+            return null;
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+}
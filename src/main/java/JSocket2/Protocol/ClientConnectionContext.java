@@ -0,0 +1,148 @@
+package JSocket2.Protocol;
+
+import JSocket2.Core.Client.ClientSecurityOptions;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.RouteOptions;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Rpc.RpcItemSender;
+import JSocket2.Protocol.Rpc.RpcStream;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Groups the settings a {@link ClientMessageProcessor} applies to a connection: how the client checks and answers
+ * the server's handshake offer, and where it hands the chunks and credit of streamed RPC calls.
+ * <p>
+ * The defaults describe a plain connection: no pinned server keys, JSON and the other built-in metadata codecs,
+ * no compression, no route ids, and no open streams.
+ */
+public class ClientConnectionContext {
+    private ClientSecurityOptions securityOptions = new ClientSecurityOptions();
+    private CodecOptions codecOptions = new CodecOptions();
+    private CompressionOptions compressionOptions = new CompressionOptions().setCompressors();
+    private RouteOptions routeOptions = new RouteOptions().setEnabled(false);
+    private Map<UUID, RpcStream<?>> streams = new ConcurrentHashMap<>();
+    private Map<UUID, RpcItemSender> senders = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the client's security options, including the pinned server keys the handshake is checked against.
+     *
+     * @param securityOptions The security options.
+     * @return This instance for chaining.
+     */
+    public ClientConnectionContext setSecurityOptions(ClientSecurityOptions securityOptions) {
+        this.securityOptions = securityOptions;
+        return this;
+    }
+
+    /**
+     * Gets the client's security options.
+     *
+     * @return The security options.
+     */
+    public ClientSecurityOptions getSecurityOptions() {
+        return securityOptions;
+    }
+
+    /**
+     * Sets the metadata codecs the client supports, in order of preference; the first one the server offers is chosen.
+     *
+     * @param codecOptions The codec options.
+     * @return This instance for chaining.
+     */
+    public ClientConnectionContext setCodecOptions(CodecOptions codecOptions) {
+        this.codecOptions = codecOptions;
+        return this;
+    }
+
+    /**
+     * Gets the metadata codecs the client supports.
+     *
+     * @return The codec options.
+     */
+    public CodecOptions getCodecOptions() {
+        return codecOptions;
+    }
+
+    /**
+     * Sets the payload compressors the client supports, in order of preference.
+     *
+     * @param compressionOptions The compression options; none are used by default.
+     * @return This instance for chaining.
+     */
+    public ClientConnectionContext setCompressionOptions(CompressionOptions compressionOptions) {
+        this.compressionOptions = compressionOptions;
+        return this;
+    }
+
+    /**
+     * Gets the payload compressors the client supports.
+     *
+     * @return The compression options.
+     */
+    public CompressionOptions getCompressionOptions() {
+        return compressionOptions;
+    }
+
+    /**
+     * Sets whether the client accepts the route table the server offers and sends numeric route ids.
+     *
+     * @param routeOptions The route options; route ids are disabled by default.
+     * @return This instance for chaining.
+     */
+    public ClientConnectionContext setRouteOptions(RouteOptions routeOptions) {
+        this.routeOptions = routeOptions;
+        return this;
+    }
+
+    /**
+     * Gets whether the client uses numeric route ids.
+     *
+     * @return The route options.
+     */
+    public RouteOptions getRouteOptions() {
+        return routeOptions;
+    }
+
+    /**
+     * Sets the open streams of RPC results, by the request id of their call, that received chunks are handed to.
+     *
+     * @param streams The open streams.
+     * @return This instance for chaining.
+     */
+    public ClientConnectionContext setStreams(Map<UUID, RpcStream<?>> streams) {
+        this.streams = streams;
+        return this;
+    }
+
+    /**
+     * Gets the open streams of RPC results, by the request id of their call.
+     *
+     * @return The open streams.
+     */
+    public Map<UUID, RpcStream<?>> getStreams() {
+        return streams;
+    }
+
+    /**
+     * Sets the calls sending streamed items, by their request id, that credit from the server is handed to.
+     *
+     * @param senders The calls sending streamed items.
+     * @return This instance for chaining.
+     */
+    public ClientConnectionContext setSenders(Map<UUID, RpcItemSender> senders) {
+        this.senders = senders;
+        return this;
+    }
+
+    /**
+     * Gets the calls sending streamed items, by their request id.
+     *
+     * @return The calls sending streamed items.
+     */
+    public Map<UUID, RpcItemSender> getSenders() {
+        return senders;
+    }
+}
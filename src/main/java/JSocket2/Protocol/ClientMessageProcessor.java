@@ -2,16 +2,29 @@ package JSocket2.Protocol;
 
 import JSocket2.DI.ServiceProvider;
 import JSocket2.Protocol.Authentication.AuthProcessState;
+import JSocket2.Core.Client.ClientSecurityOptions;
 import JSocket2.Core.Client.ClientSession;
 import JSocket2.Cryptography.EncryptionUtil;
 import JSocket2.Protocol.Authentication.IAccessKeyManager;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.ICodec;
+import JSocket2.Protocol.Codec.JsonCodec;
+import JSocket2.Protocol.Codec.RouteOptions;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Codec.RoutedCodec;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Compression.ICompressor;
 import JSocket2.Protocol.EventHub.EventBroker;
 import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcBatch;
+import JSocket2.Protocol.Rpc.RpcItemSender;
 import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Rpc.RpcStream;
 import JSocket2.Protocol.Transfer.ClientFileTransferManager;
 import com.google.gson.Gson;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
@@ -34,6 +47,12 @@ public class ClientMessageProcessor implements IMessageProcessor {
     private final Runnable onHandShakeComplete;
     private final ServiceProvider serviceProvider;
     private final EventBroker eventBroker;
+    private final ClientSecurityOptions securityOptions;
+    private final CodecOptions codecOptions;
+    private final CompressionOptions compressionOptions;
+    private final RouteOptions routeOptions;
+    private final Map<UUID, RpcStream<?>> streams;
+    private final Map<UUID, RpcItemSender> senders;
 
     /**
      * Constructs a new ClientMessageProcessor.
@@ -47,6 +66,28 @@ public class ClientMessageProcessor implements IMessageProcessor {
      * @param eventBroker         The broker for publishing and subscribing to events.
      */
     public ClientMessageProcessor(MessageHandler handler, ClientSession clientSession, Map<UUID, CompletableFuture<Message>> pendingRequests, ClientFileTransferManager fileTransferManager, Runnable onHandShakeComplete, ServiceProvider serviceProvider, EventBroker eventBroker){
+        this(handler, clientSession, pendingRequests, fileTransferManager, onHandShakeComplete, serviceProvider, eventBroker, new ClientConnectionContext());
+    }
+
+    /**
+     * Constructs a new ClientMessageProcessor with the given connection settings.
+     *
+     * @param handler             The handler for reading and writing messages.
+     * @param clientSession       The session object for the client.
+     * @param pendingRequests     A map of pending requests awaiting a response.
+     * @param fileTransferManager The manager for handling file transfers.
+     * @param onHandShakeComplete A callback to run when the cryptographic handshake is complete.
+     * @param serviceProvider     The dependency injection service provider.
+     * @param eventBroker         The broker for publishing and subscribing to events.
+     * @param context             The settings of the connection: pinned keys, negotiated options and open streams.
+     */
+    public ClientMessageProcessor(MessageHandler handler, ClientSession clientSession, Map<UUID, CompletableFuture<Message>> pendingRequests, ClientFileTransferManager fileTransferManager, Runnable onHandShakeComplete, ServiceProvider serviceProvider, EventBroker eventBroker, ClientConnectionContext context){
+        this.senders = context.getSenders();
+        this.routeOptions = context.getRouteOptions();
+        this.streams = context.getStreams();
+        this.securityOptions = context.getSecurityOptions();
+        this.codecOptions = context.getCodecOptions();
+        this.compressionOptions = context.getCompressionOptions();
         this.onHandShakeComplete = onHandShakeComplete;
         this.serviceProvider = serviceProvider;
         this.eventBroker = eventBroker;
@@ -69,21 +110,77 @@ public class ClientMessageProcessor implements IMessageProcessor {
             case RSA_PUBLIC_KEY -> handleRsaPublicKey(message);
             case SEND_CHUNK -> handleDownloadChunk(message);
             case EVENT -> handleEvent(message);
+            case CHANGE_AES_KEY_REQUEST -> handleChangeAesKey(message);
+            // A response whose call is no longer pending arrived after its deadline; nobody waits for it
+            case RPC_RESPONSE -> {}
+            case RPC_BATCH_RESPONSE -> handleRpcBatchResponse(message);
+            case RPC_STREAM_ITEM -> handleStreamItem(message);
+            case RPC_STREAM_CREDIT -> handleStreamCredit(message);
             default -> throw new UnsupportedOperationException("Unknown message type: " + message.header.type);
         }
     }
 
+    /**
+     * Completes the pending calls answered by a batch of responses. Responses to calls that are no longer
+     * pending arrived after their deadline and are dropped.
+     *
+     * @param message The batch response message.
+     */
+    private void handleRpcBatchResponse(Message message) {
+        for (Message response : RpcBatch.read(message)) {
+            CompletableFuture<Message> future = pendingRequests.remove(response.header.uuid);
+            if (future != null) {
+                future.complete(response);
+            }
+        }
+    }
+
+    /**
+     * Hands a chunk of a streamed result to its stream. Chunks of a stream that was closed are dropped.
+     *
+     * @param message The stream chunk message.
+     */
+    private void handleStreamItem(Message message) {
+        RpcStream<?> stream = streams.get(message.header.uuid);
+        if (stream != null) {
+            stream.offer(message);
+        }
+    }
+
+    /**
+     * Hands credit the server granted for more chunks of streamed items to their sender. Credit for a call that
+     * has been answered is ignored.
+     *
+     * @param message The credit message, whose payload is the number of chunks.
+     */
+    private void handleStreamCredit(Message message) {
+        RpcItemSender sender = senders.get(message.header.uuid);
+        if (sender != null) {
+            sender.grant(ByteBuffer.wrap(message.getPayload()).getInt());
+        }
+    }
+
+    /**
+     * Handles a key rotation message; the server sends an empty one to ask for a new session key.
+     *
+     * @param message The key rotation message.
+     * @throws IOException If the message is refused or the new key cannot be announced; the connection is dropped.
+     */
+    private void handleChangeAesKey(Message message) throws IOException {
+        var rotator = messageHandler.getKeyRotator();
+        if (rotator != null) {
+            rotator.handle(message);
+        }
+    }
+
     /**
      * Handles an incoming event message.
      *
      * @param message The event message.
      */
     private void handleEvent(Message message) {
-        var metadatajson = new String(message.getMetadata(), StandardCharsets.UTF_8);
-        System.out.println(metadatajson);
-        var metadata = gson.fromJson(metadatajson, EventMetadata.class);
-        var payloadJson = new String(message.getPayload(), StandardCharsets.UTF_8);
-        eventBroker.publish(metadata, payloadJson);
+        var metadata = message.getMetadataAs(EventMetadata.class);
+        eventBroker.publish(metadata, message.header.content_type, message.getPayload());
     }
 
     /**
@@ -100,31 +197,56 @@ public class ClientMessageProcessor implements IMessageProcessor {
      * Handles the server's RSA public key to initiate the secure session.
      *
      * @param message The message containing the RSA public key.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or the key does not match a pinned fingerprint.
      */
     private void handleRsaPublicKey(Message message) throws IOException{
         try {
             var publicKey = EncryptionUtil.decodeRsaPublicKey(message.getPayload());
+            if (!securityOptions.isTrusted(publicKey)) {
+                throw new IOException("Server public key " + EncryptionUtil.fingerprint(publicKey) + " does not match any pinned fingerprint");
+            }
             clientSession.setServerPublicKey(publicKey);
-            sendAesKey();
+            var offer = new String(message.getMetadata(), StandardCharsets.US_ASCII).split(";", 3);
+            var routes = offer.length > 2 && routeOptions.isEnabled() ? RouteTable.parse(offer[2]) : RouteTable.EMPTY;
+            sendAesKey(codecOptions.negotiate(offer[0]), offer.length > 1 ? compressionOptions.negotiate(offer[1]) : null, routes);
         } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Encrypts the client's AES key with the server's public RSA key and sends it to the server.
+     * Encrypts the client's AES key with the server's public RSA key and sends it to the server, naming the
+     * chosen metadata codec and payload compressor and accepting the route table. Both sides use them for
+     * every message after this one.
      *
+     * @param codec      The codec chosen from the server's offer.
+     * @param compressor The compressor chosen from the server's offer, or {@code null} for none.
+     * @param routes     The route table from the server's offer, empty to keep sending route names.
      * @throws IOException If an I/O error occurs while sending the key.
      */
-    private void sendAesKey() throws IOException {
+    private void sendAesKey(ICodec codec, ICompressor compressor, RouteTable routes) throws IOException {
         UUID requestId = UUID.randomUUID();
         byte[] aes_key = clientSession.getAESKey().getEncoded();
         byte[] encrypted_aes_key = EncryptionUtil.encryptDataRSA(aes_key,clientSession.getServerPublicKey());
         MessageHeader header = MessageHeader.BuildAesKeyHeader(requestId,encrypted_aes_key.length);
         Message message = new Message(header);
         message.setPayload(encrypted_aes_key);
+        if (!routes.isEmpty()) {
+            String compressorName = compressor != null ? compressor.getName() : "";
+            message.setMetadata((codec.getName() + ";" + compressorName + ";" + ServerMessageProcessor.ROUTES_ACCEPTED).getBytes(StandardCharsets.US_ASCII));
+        } else if (compressor != null) {
+            message.setMetadata((codec.getName() + ";" + compressor.getName()).getBytes(StandardCharsets.US_ASCII));
+        } else if (!codec.getName().equals(JsonCodec.NAME)) {
+            message.setMetadata(codec.getName().getBytes(StandardCharsets.US_ASCII));
+        }
         messageHandler.write(message);
+        messageHandler.setMetadataCodec(routes.isEmpty() ? codec : new RoutedCodec(codec, routes));
+        if (compressor != null) {
+            messageHandler.setCompression(compressor, compressionOptions);
+        }
+        if (messageHandler.getKeyRotator() != null) {
+            messageHandler.getKeyRotator().activate();
+        }
         if(onHandShakeComplete != null){
             onHandShakeComplete.run();
         }
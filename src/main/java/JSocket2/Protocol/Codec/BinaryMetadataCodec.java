@@ -0,0 +1,171 @@
+package JSocket2.Protocol.Codec;
+
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Transfer.Download.DownloadChunkRequestMetadata;
+import JSocket2.Protocol.Transfer.SendChunkMetadata;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An {@link ICodec} with compact hand-written binary layouts for the framework's per-frame metadata:
+ * {@link RpcCallMetadata}, {@link RpcResponseMetadata}, {@link SendChunkMetadata}, {@link EventMetadata}
+ * and {@link DownloadChunkRequestMetadata}. Integers are variable-length and strings length-prefixed UTF-8.
+ * <p>
+ * Binary values start with a zero marker byte, which JSON text never does. Types without a registered
+ * {@link IBinaryFormat} are encoded as JSON, and the decoder picks the format by the first byte, so peers
+ * with different registrations still understand each other.
+ */
+public class BinaryMetadataCodec implements ICodec {
+    /**
+     * The name of the binary metadata codec.
+     */
+    public static final String NAME = "binary";
+    private static final byte BINARY_MARKER = 0;
+
+    private final Map<Class<?>, IBinaryFormat<?>> formats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a BinaryMetadataCodec with the formats for the built-in metadata types.
+     */
+    public BinaryMetadataCodec() {
+        register(RpcCallMetadata.class, new IBinaryFormat<>() {
+            @Override
+            public void write(RpcCallMetadata value, BinaryWriter writer) {
+                writer.writeString(value.getController()).writeString(value.getAction());
+                boolean validates = value.getValidator() != null;
+                if (value.getTimeoutMillis() > 0 || value.getStreamWindow() > 0 || validates) {
+                    writer.writeVarLong(value.getTimeoutMillis());
+                }
+                if (value.getStreamWindow() > 0 || validates) {
+                    writer.writeVarInt(value.getStreamWindow());
+                }
+                if (validates) {
+                    writer.writeString(value.getValidator());
+                }
+            }
+
+            @Override
+            public RpcCallMetadata read(BinaryReader reader) {
+                var metadata = new RpcCallMetadata(reader.readString(), reader.readString());
+                if (reader.hasRemaining()) {
+                    metadata.setTimeoutMillis(reader.readVarLong());
+                }
+                if (reader.hasRemaining()) {
+                    metadata.setStreamWindow(reader.readVarInt());
+                }
+                if (reader.hasRemaining()) {
+                    metadata.setValidator(reader.readString());
+                }
+                return metadata;
+            }
+        });
+        register(RpcResponseMetadata.class, new IBinaryFormat<>() {
+            @Override
+            public void write(RpcResponseMetadata value, BinaryWriter writer) {
+                writer.writeVarInt(value.getStatusCode()).writeString(value.getMessage());
+                if (value.getValidator() != null) {
+                    writer.writeString(value.getValidator());
+                }
+            }
+
+            @Override
+            public RpcResponseMetadata read(BinaryReader reader) {
+                var metadata = new RpcResponseMetadata(reader.readVarInt(), reader.readString());
+                if (reader.hasRemaining()) {
+                    metadata.setValidator(reader.readString());
+                }
+                return metadata;
+            }
+        });
+        register(SendChunkMetadata.class, new IBinaryFormat<>() {
+            @Override
+            public void write(SendChunkMetadata value, BinaryWriter writer) {
+                writer.writeString(value.fileId)
+                        .writeVarInt(value.chunkIndex)
+                        .writeVarInt(value.totalChunks)
+                        .writeVarLong(value.offset);
+            }
+
+            @Override
+            public SendChunkMetadata read(BinaryReader reader) {
+                SendChunkMetadata metadata = new SendChunkMetadata();
+                metadata.fileId = reader.readString();
+                metadata.chunkIndex = reader.readVarInt();
+                metadata.totalChunks = reader.readVarInt();
+                metadata.offset = reader.readVarLong();
+                return metadata;
+            }
+        });
+        register(EventMetadata.class, new IBinaryFormat<>() {
+            @Override
+            public void write(EventMetadata value, BinaryWriter writer) {
+                writer.writeString(value.getEventName());
+            }
+
+            @Override
+            public EventMetadata read(BinaryReader reader) {
+                return new EventMetadata(reader.readString());
+            }
+        });
+        register(DownloadChunkRequestMetadata.class, new IBinaryFormat<>() {
+            @Override
+            public void write(DownloadChunkRequestMetadata value, BinaryWriter writer) {
+                writer.writeString(value.getFileId())
+                        .writeVarInt(value.getStartChunkIndex())
+                        .writeVarLong(value.getStartOffset());
+            }
+
+            @Override
+            public DownloadChunkRequestMetadata read(BinaryReader reader) {
+                return new DownloadChunkRequestMetadata(reader.readString(), reader.readVarInt(), reader.readVarLong());
+            }
+        });
+    }
+
+    /**
+     * Registers or replaces the binary format of a metadata type.
+     *
+     * @param type   The exact class of the metadata objects.
+     * @param format The format to encode them with.
+     * @param <T>    The metadata type.
+     * @return This codec for chaining.
+     */
+    public <T> BinaryMetadataCodec register(Class<T> type, IBinaryFormat<T> format) {
+        formats.put(type, format);
+        return this;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Object value) {
+        IBinaryFormat<Object> format = value == null ? null : (IBinaryFormat<Object>) formats.get(value.getClass());
+        if (format == null) {
+            return JsonCodec.INSTANCE.encode(value);
+        }
+        BinaryWriter writer = new BinaryWriter();
+        writer.writeByte(BINARY_MARKER);
+        format.write(value, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data.length == 0 || data[0] != BINARY_MARKER) {
+            return JsonCodec.INSTANCE.decode(data, type);
+        }
+        IBinaryFormat<T> format = (IBinaryFormat<T>) formats.get(type);
+        if (format == null) {
+            throw new IllegalArgumentException("No binary format registered for " + type.getName());
+        }
+        return format.read(new BinaryReader(data, 1));
+    }
+}
@@ -0,0 +1,119 @@
+package JSocket2.Protocol.Codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the values written by a {@link BinaryWriter}.
+ */
+public class BinaryReader {
+    private final byte[] data;
+    private int position;
+
+    /**
+     * Constructs a BinaryReader over a byte array.
+     *
+     * @param data     The encoded bytes.
+     * @param position The index of the first byte to read.
+     */
+    public BinaryReader(byte[] data, int position) {
+        this.data = data;
+        this.position = position;
+    }
+
+    /**
+     * Checks whether there are bytes left to read, e.g. optional trailing fields.
+     * @return {@code true} if the data has not ended.
+     */
+    public boolean hasRemaining() {
+        return position < data.length;
+    }
+
+    /**
+     * Reads a single byte.
+     * @return The byte as an unsigned value.
+     * @throws IllegalArgumentException if the data ends.
+     */
+    public int readByte() {
+        if (position >= data.length) {
+            throw new IllegalArgumentException("Binary metadata ended unexpectedly");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    /**
+     * Reads a zigzag variable-length int.
+     * @return The value.
+     * @throws IllegalArgumentException if the data ends or the value does not fit an int.
+     */
+    public int readVarInt() {
+        long value = readVarLong();
+        if (value != (int) value) {
+            throw new IllegalArgumentException("Binary metadata value out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a zigzag variable-length long.
+     * @return The value.
+     * @throws IllegalArgumentException if the data ends or the value is malformed.
+     */
+    public long readVarLong() {
+        long zigzag = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer in binary metadata");
+    }
+
+    /**
+     * Reads a long written by {@link BinaryWriter#writeLong(long)}.
+     * @return The value.
+     * @throws IllegalArgumentException if the data ends.
+     */
+    public long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    /**
+     * Reads a byte array written by {@link BinaryWriter#writeBytes(byte[])}.
+     * @return The bytes.
+     * @throws IllegalArgumentException if the data ends or the length is negative.
+     */
+    public byte[] readBytes() {
+        int length = readVarInt();
+        if (length < 0 || length > data.length - position) {
+            throw new IllegalArgumentException("Binary byte array exceeds the data");
+        }
+        byte[] value = Arrays.copyOfRange(data, position, position + length);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Reads a string written by {@link BinaryWriter#writeString(String)}.
+     * @return The string, or {@code null}.
+     * @throws IllegalArgumentException if the data ends.
+     */
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > data.length - position) {
+            throw new IllegalArgumentException("Binary metadata string exceeds the data");
+        }
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+}
@@ -0,0 +1,121 @@
+package JSocket2.Protocol.Codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable buffer for writing compact binary metadata: variable-length integers and
+ * length-prefixed UTF-8 strings.
+ */
+public class BinaryWriter {
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * Constructs a BinaryWriter with room for a typical metadata object.
+     */
+    public BinaryWriter() {
+        this(32);
+    }
+
+    /**
+     * Constructs a BinaryWriter with an initial capacity.
+     * @param capacity The initial capacity in bytes.
+     */
+    public BinaryWriter(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 8)];
+    }
+
+    /**
+     * Writes a single byte.
+     * @param value The byte to write.
+     * @return This writer for chaining.
+     */
+    public BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes an int as a zigzag variable-length integer, taking one byte for values between -64 and 63.
+     * @param value The value to write.
+     * @return This writer for chaining.
+     */
+    public BinaryWriter writeVarInt(int value) {
+        return writeVarLong(value);
+    }
+
+    /**
+     * Writes a long as a zigzag variable-length integer.
+     * @param value The value to write.
+     * @return This writer for chaining.
+     */
+    public BinaryWriter writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        buffer[position++] = (byte) zigzag;
+        return this;
+    }
+
+    /**
+     * Writes a long as eight big-endian bytes, for values such as ids whose bits are spread evenly.
+     * @param value The value to write.
+     * @return This writer for chaining.
+     */
+    public BinaryWriter writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a byte array as its length followed by the bytes.
+     * @param value The bytes to write.
+     * @return This writer for chaining.
+     */
+    public BinaryWriter writeBytes(byte[] value) {
+        writeVarInt(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+        return this;
+    }
+
+    /**
+     * Writes a string as its UTF-8 length plus one followed by the bytes, so {@code null} takes a single zero byte.
+     * @param value The string to write, may be {@code null}.
+     * @return This writer for chaining.
+     */
+    public BinaryWriter writeString(String value) {
+        if (value == null) {
+            return writeVarInt(0);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    /**
+     * Returns the bytes written so far.
+     * @return A copy of the written bytes.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
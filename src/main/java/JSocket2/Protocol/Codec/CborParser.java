@@ -0,0 +1,258 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parses CBOR (RFC 8949) into a Gson {@link JsonElement} tree. Bignums and decimal fractions (tags 2 to 4)
+ * become {@link BigInteger} and {@link BigDecimal} numbers, other tags are ignored, maps need keys that are
+ * text or numbers, and other byte strings are rejected since they have no JSON counterpart.
+ */
+final class CborParser {
+    private static final int MAX_DEPTH = 512;
+    private static final int BREAK = 0xFF;
+
+    private final byte[] data;
+    private int position;
+    private int depth;
+
+    private CborParser(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Parses a single CBOR data item that spans the whole input.
+     *
+     * @param data The CBOR bytes.
+     * @return The parsed element; {@link JsonNull#INSTANCE} for empty input.
+     * @throws JsonParseException if the input is malformed, truncated or followed by trailing bytes.
+     */
+    static JsonElement parse(byte[] data) {
+        if (data.length == 0) {
+            return JsonNull.INSTANCE;
+        }
+        CborParser parser = new CborParser(data);
+        JsonElement element = parser.readItem();
+        if (parser.position != data.length) {
+            throw new JsonParseException("Trailing bytes after CBOR data item at offset " + parser.position);
+        }
+        return element;
+    }
+
+    private JsonElement readItem() {
+        int initial = readByte();
+        int major = initial >>> 5;
+        int info = initial & 0x1F;
+        switch (major) {
+            case 0:
+                return unsigned(readArgument(info));
+            case 1: {
+                long argument = readArgument(info);
+                if (argument < 0) {
+                    return new JsonPrimitive(BigInteger.ONE.negate().subtract(new BigInteger(Long.toUnsignedString(argument))));
+                }
+                return new JsonPrimitive(-1 - argument);
+            }
+            case 2:
+                throw new JsonParseException("CBOR byte strings are not supported, at offset " + (position - 1));
+            case 3:
+                return new JsonPrimitive(readText(info));
+            case 4:
+                return readArray(info);
+            case 5:
+                return readMap(info);
+            case 6:
+                return readTagged(readArgument(info));
+            default:
+                return readSimple(info);
+        }
+    }
+
+    private JsonElement readTagged(long tag) {
+        if (tag == 2 || tag == 3) {
+            int initial = readByte();
+            if (initial >>> 5 != 2 || (initial & 0x1F) == 31) {
+                throw new JsonParseException("CBOR bignum must be a definite byte string, at offset " + (position - 1));
+            }
+            int length = readLength(initial & 0x1F);
+            BigInteger magnitude = new BigInteger(1, Arrays.copyOfRange(data, position, position + length));
+            position += length;
+            return new JsonPrimitive(tag == 2 ? magnitude : BigInteger.ONE.negate().subtract(magnitude));
+        }
+        if (tag == 4) {
+            JsonElement fraction = readItem();
+            if (!fraction.isJsonArray() || fraction.getAsJsonArray().size() != 2) {
+                throw new JsonParseException("CBOR decimal fraction must be an array of two integers, at offset " + position);
+            }
+            int exponent = fraction.getAsJsonArray().get(0).getAsInt();
+            BigInteger mantissa = fraction.getAsJsonArray().get(1).getAsBigInteger();
+            return new JsonPrimitive(new BigDecimal(mantissa, -exponent));
+        }
+        return readItem();
+    }
+
+    private JsonArray readArray(int info) {
+        enter();
+        JsonArray array;
+        if (info == 31) {
+            array = new JsonArray();
+            while (peekByte() != BREAK) {
+                array.add(readItem());
+            }
+            position++;
+        } else {
+            int size = readLength(info);
+            array = new JsonArray(Math.min(size, data.length - position));
+            for (int i = 0; i < size; i++) {
+                array.add(readItem());
+            }
+        }
+        depth--;
+        return array;
+    }
+
+    private JsonObject readMap(int info) {
+        enter();
+        JsonObject object = new JsonObject();
+        if (info == 31) {
+            while (peekByte() != BREAK) {
+                object.add(readKey(), readItem());
+            }
+            position++;
+        } else {
+            int size = readLength(info);
+            for (int i = 0; i < size; i++) {
+                object.add(readKey(), readItem());
+            }
+        }
+        depth--;
+        return object;
+    }
+
+    private String readKey() {
+        JsonElement key = readItem();
+        if (!key.isJsonPrimitive()) {
+            throw new JsonParseException("CBOR map keys must be text or numbers, at offset " + position);
+        }
+        return key.getAsString();
+    }
+
+    private String readText(int info) {
+        if (info != 31) {
+            int length = readLength(info);
+            String text = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return text;
+        }
+        StringBuilder text = new StringBuilder();
+        while (peekByte() != BREAK) {
+            int chunk = readByte();
+            if (chunk >>> 5 != 3 || (chunk & 0x1F) == 31) {
+                throw new JsonParseException("Invalid chunk in indefinite-length CBOR text at offset " + (position - 1));
+            }
+            text.append(readText(chunk & 0x1F));
+        }
+        position++;
+        return text.toString();
+    }
+
+    private JsonElement readSimple(int info) {
+        switch (info) {
+            case 20:
+                return new JsonPrimitive(false);
+            case 21:
+                return new JsonPrimitive(true);
+            case 22:
+            case 23:
+                return JsonNull.INSTANCE;
+            case 25:
+                return new JsonPrimitive((double) halfToFloat((int) readArgument(info)));
+            case 26:
+                return new JsonPrimitive((double) Float.intBitsToFloat((int) readArgument(info)));
+            case 27:
+                return new JsonPrimitive(Double.longBitsToDouble(readArgument(info)));
+            default:
+                throw new JsonParseException("Unsupported CBOR simple value " + info + " at offset " + (position - 1));
+        }
+    }
+
+    private long readArgument(int info) {
+        if (info < 24) {
+            return info;
+        }
+        int bytes;
+        switch (info) {
+            case 24 -> bytes = 1;
+            case 25 -> bytes = 2;
+            case 26 -> bytes = 4;
+            case 27 -> bytes = 8;
+            default -> throw new JsonParseException("Invalid CBOR additional information " + info + " at offset " + (position - 1));
+        }
+        if (position + bytes > data.length) {
+            throw new JsonParseException("Truncated CBOR data");
+        }
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | (data[position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private int readLength(int info) {
+        long length = readArgument(info);
+        if (length < 0 || length > data.length - position) {
+            throw new JsonParseException("CBOR length " + Long.toUnsignedString(length) + " exceeds the remaining input");
+        }
+        return (int) length;
+    }
+
+    private JsonPrimitive unsigned(long value) {
+        if (value < 0) {
+            return new JsonPrimitive(new BigInteger(Long.toUnsignedString(value)));
+        }
+        return new JsonPrimitive(value);
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw new JsonParseException("CBOR nesting exceeds " + MAX_DEPTH + " levels");
+        }
+    }
+
+    private int readByte() {
+        if (position >= data.length) {
+            throw new JsonParseException("Truncated CBOR data");
+        }
+        return data[position++] & 0xFF;
+    }
+
+    private int peekByte() {
+        if (position >= data.length) {
+            throw new JsonParseException("Truncated CBOR data");
+        }
+        return data[position] & 0xFF;
+    }
+
+    private static float halfToFloat(int bits) {
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+        if (exponent == 0) {
+            float magnitude = mantissa * 0x1p-24f;
+            return sign == 0 ? magnitude : -magnitude;
+        }
+        if (exponent == 31) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+}
@@ -0,0 +1,77 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+
+import java.lang.reflect.Type;
+
+/**
+ * An {@link IPayloadCodec} encoding payloads as CBOR (RFC 8949), which is markedly smaller than JSON for
+ * numeric data. Values are written by Gson's own type adapters into a CBOR-emitting
+ * {@link com.google.gson.stream.JsonWriter}, so DTOs map exactly as they do to JSON, and are read back
+ * through a JSON tree.
+ */
+public final class CborPayloadCodec implements IPayloadCodec {
+    /**
+     * The name of the CBOR payload codec.
+     */
+    public static final String NAME = "cbor";
+    /**
+     * The content type of CBOR payloads.
+     */
+    public static final int CONTENT_TYPE = 1;
+    /**
+     * A shared instance; the codec is stateless.
+     */
+    public static final CborPayloadCodec INSTANCE = new CborPayloadCodec();
+
+    private static final ThreadLocal<CborWriter> WRITERS = ThreadLocal.withInitial(CborWriter::new);
+
+    private CborPayloadCodec() {
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Gson gson, Object value) {
+        CborWriter writer = WRITERS.get();
+        if (!writer.acquire()) {
+            // Re-entered from a type adapter; give the nested payload its own buffer
+            writer = new CborWriter();
+            writer.acquire();
+        }
+        byte[] bytes;
+        try {
+            if (value == null) {
+                gson.toJson(JsonNull.INSTANCE, writer);
+            } else {
+                gson.toJson(value, value.getClass(), writer);
+            }
+        } finally {
+            bytes = writer.release();
+        }
+        return bytes;
+    }
+
+    @Override
+    public JsonElement parse(byte[] data) {
+        return data == null ? JsonNull.INSTANCE : CborParser.parse(data);
+    }
+
+    @Override
+    public <T> T decode(Gson gson, byte[] data, Type type) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        return gson.fromJson(CborParser.parse(data), type);
+    }
+}
@@ -0,0 +1,317 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link JsonWriter} that emits CBOR (RFC 8949) instead of JSON text, so any Gson type adapter can write
+ * CBOR directly. Arrays and objects use indefinite-length encoding since their size is not known up front;
+ * integers take the shortest encoding and doubles that are exact as floats are written in 32 bits. Numbers
+ * that fit neither a {@code long} nor a {@code double} exactly are written as bignums (tags 2 and 3) or
+ * decimal fractions (tag 4). Instances are reused per thread by {@link CborPayloadCodec}.
+ */
+final class CborWriter extends JsonWriter {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int position;
+    private String deferredName;
+    private boolean inUse;
+
+    /**
+     * Constructs a CBOR writer with an empty buffer.
+     */
+    CborWriter() {
+        super(Writer.nullWriter());
+    }
+
+    /**
+     * Claims this writer for one payload.
+     *
+     * @return {@code false} if it is already writing one further up the stack.
+     */
+    boolean acquire() {
+        if (inUse) {
+            return false;
+        }
+        inUse = true;
+        position = 0;
+        deferredName = null;
+        return true;
+    }
+
+    /**
+     * Copies the written bytes out and releases this writer, dropping an oversized buffer.
+     *
+     * @return The CBOR bytes written since {@link #acquire()}.
+     */
+    byte[] release() {
+        byte[] bytes = Arrays.copyOf(buffer, position);
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        inUse = false;
+        return bytes;
+    }
+
+    @Override
+    public JsonWriter beginArray() {
+        writeDeferredName();
+        writeByte(0x9F);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endArray() {
+        writeByte(0xFF);
+        return this;
+    }
+
+    @Override
+    public JsonWriter beginObject() {
+        writeDeferredName();
+        writeByte(0xBF);
+        return this;
+    }
+
+    @Override
+    public JsonWriter endObject() {
+        writeByte(0xFF);
+        return this;
+    }
+
+    @Override
+    public JsonWriter name(String name) {
+        Objects.requireNonNull(name, "name == null");
+        if (deferredName != null) {
+            throw new IllegalStateException("Name already written: " + deferredName);
+        }
+        deferredName = name;
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        writeDeferredName();
+        writeText(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter jsonValue(String value) {
+        throw new UnsupportedOperationException("Raw JSON values cannot be written as CBOR");
+    }
+
+    @Override
+    public JsonWriter nullValue() {
+        if (deferredName != null && !getSerializeNulls()) {
+            deferredName = null;
+            return this;
+        }
+        writeDeferredName();
+        writeByte(0xF6);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(boolean value) {
+        writeDeferredName();
+        writeByte(value ? 0xF5 : 0xF4);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Boolean value) {
+        return value == null ? nullValue() : value(value.booleanValue());
+    }
+
+    @Override
+    public JsonWriter value(float value) {
+        writeDeferredName();
+        writeFloat(value);
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(double value) {
+        writeDeferredName();
+        if ((float) value == value || Double.isNaN(value)) {
+            writeFloat((float) value);
+        } else {
+            writeByte(0xFB);
+            writeLong(Double.doubleToRawLongBits(value));
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(long value) {
+        writeDeferredName();
+        if (value >= 0) {
+            writeHead(0, value);
+        } else {
+            writeHead(1, -1 - value);
+        }
+        return this;
+    }
+
+    @Override
+    public JsonWriter value(Number value) {
+        if (value == null) {
+            return nullValue();
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicInteger || value instanceof AtomicLong) {
+            return value(value.longValue());
+        }
+        if (value instanceof Float) {
+            return value(value.floatValue());
+        }
+        if (value instanceof Double) {
+            return value(value.doubleValue());
+        }
+        String text = value.toString();
+        BigDecimal decimal;
+        try {
+            decimal = new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            double special = Double.parseDouble(text);
+            return value(special);
+        }
+        double asDouble = decimal.doubleValue();
+        if (decimal.scale() > 0 && Double.isFinite(asDouble) && decimal.compareTo(new BigDecimal(asDouble)) == 0) {
+            return value(asDouble);
+        }
+        writeDeferredName();
+        if (decimal.scale() <= 0) {
+            writeInteger(decimal.toBigIntegerExact());
+        } else {
+            writeByte(0xC4);
+            writeByte(0x82);
+            writeInteger(BigInteger.valueOf(-decimal.scale()));
+            writeInteger(decimal.unscaledValue());
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void writeDeferredName() {
+        if (deferredName != null) {
+            String name = deferredName;
+            deferredName = null;
+            writeText(name);
+        }
+    }
+
+    private void writeInteger(BigInteger value) {
+        if (value.bitLength() < 64) {
+            long small = value.longValue();
+            if (small >= 0) {
+                writeHead(0, small);
+            } else {
+                writeHead(1, -1 - small);
+            }
+            return;
+        }
+        boolean negative = value.signum() < 0;
+        byte[] magnitude = (negative ? value.negate().subtract(BigInteger.ONE) : value).toByteArray();
+        int offset = magnitude[0] == 0 ? 1 : 0;
+        writeByte(negative ? 0xC3 : 0xC2);
+        writeHead(2, magnitude.length - offset);
+        ensureCapacity(magnitude.length - offset);
+        System.arraycopy(magnitude, offset, buffer, position, magnitude.length - offset);
+        position += magnitude.length - offset;
+    }
+
+    private void writeText(String text) {
+        int length = text.length();
+        int i = 0;
+        while (i < length && text.charAt(i) < 0x80) {
+            i++;
+        }
+        if (i == length) {
+            writeHead(3, length);
+            ensureCapacity(length);
+            for (int j = 0; j < length; j++) {
+                buffer[position++] = (byte) text.charAt(j);
+            }
+        } else {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeHead(3, bytes.length);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void writeFloat(float value) {
+        writeByte(0xFA);
+        int bits = Float.floatToRawIntBits(value);
+        ensureCapacity(4);
+        buffer[position++] = (byte) (bits >>> 24);
+        buffer[position++] = (byte) (bits >>> 16);
+        buffer[position++] = (byte) (bits >>> 8);
+        buffer[position++] = (byte) bits;
+    }
+
+    private void writeHead(int major, long argument) {
+        int type = major << 5;
+        ensureCapacity(9);
+        if (argument < 24) {
+            buffer[position++] = (byte) (type | argument);
+        } else if (argument < 0x100) {
+            buffer[position++] = (byte) (type | 24);
+            buffer[position++] = (byte) argument;
+        } else if (argument < 0x10000) {
+            buffer[position++] = (byte) (type | 25);
+            buffer[position++] = (byte) (argument >>> 8);
+            buffer[position++] = (byte) argument;
+        } else if (argument < 0x100000000L) {
+            buffer[position++] = (byte) (type | 26);
+            buffer[position++] = (byte) (argument >>> 24);
+            buffer[position++] = (byte) (argument >>> 16);
+            buffer[position++] = (byte) (argument >>> 8);
+            buffer[position++] = (byte) argument;
+        } else {
+            buffer[position++] = (byte) (type | 27);
+            writeLong(argument);
+        }
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
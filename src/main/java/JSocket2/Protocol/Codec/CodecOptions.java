@@ -0,0 +1,99 @@
+package JSocket2.Protocol.Codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the metadata codecs a peer supports, in order of preference. During the handshake the server
+ * offers its codec names with its public key, and the client picks the first of its own codecs that the
+ * server offered. Peers that do not take part in the negotiation keep using {@link JsonCodec}.
+ * <p>
+ * The codec only applies to framework metadata; RPC and event payloads stay JSON.
+ */
+public class CodecOptions {
+    private final List<ICodec> codecs = new ArrayList<>();
+
+    /**
+     * Constructs CodecOptions preferring {@link BinaryMetadataCodec} over {@link JsonCodec}.
+     */
+    public CodecOptions() {
+        codecs.add(new BinaryMetadataCodec());
+        codecs.add(JsonCodec.INSTANCE);
+    }
+
+    /**
+     * Replaces the supported codecs. {@link JsonCodec} is always supported as the last resort.
+     *
+     * @param preferred The codecs in order of preference.
+     * @return This instance for chaining.
+     */
+    public CodecOptions setCodecs(ICodec... preferred) {
+        codecs.clear();
+        for (ICodec codec : preferred) {
+            if (find(codec.getName()) == null) {
+                codecs.add(codec);
+            }
+        }
+        if (find(JsonCodec.NAME) == null) {
+            codecs.add(JsonCodec.INSTANCE);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the supported codecs in order of preference.
+     * @return An unmodifiable list of codecs.
+     */
+    public List<ICodec> getCodecs() {
+        return Collections.unmodifiableList(codecs);
+    }
+
+    /**
+     * Finds a supported codec by name.
+     *
+     * @param name The codec name.
+     * @return The codec, or {@code null} if it is not supported.
+     */
+    public ICodec find(String name) {
+        for (ICodec codec : codecs) {
+            if (codec.getName().equals(name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds the offer the server sends during the handshake.
+     * @return The comma-separated codec names in order of preference.
+     */
+    public String getOffer() {
+        StringBuilder offer = new StringBuilder();
+        for (ICodec codec : codecs) {
+            if (offer.length() > 0) {
+                offer.append(',');
+            }
+            offer.append(codec.getName());
+        }
+        return offer.toString();
+    }
+
+    /**
+     * Picks the first supported codec that appears in a peer's offer.
+     *
+     * @param offer The comma-separated codec names offered by the peer, or {@code null} if it made no offer.
+     * @return The chosen codec, {@link JsonCodec} if nothing else matches.
+     */
+    public ICodec negotiate(String offer) {
+        if (offer != null && !offer.isEmpty()) {
+            List<String> offered = List.of(offer.split(","));
+            for (ICodec codec : codecs) {
+                if (offered.contains(codec.getName())) {
+                    return codec;
+                }
+            }
+        }
+        return JsonCodec.INSTANCE;
+    }
+}
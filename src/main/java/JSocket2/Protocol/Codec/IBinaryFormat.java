@@ -0,0 +1,24 @@
+package JSocket2.Protocol.Codec;
+
+/**
+ * A hand-written binary layout for one metadata type, registered with a {@link BinaryMetadataCodec}.
+ *
+ * @param <T> The metadata type.
+ */
+public interface IBinaryFormat<T> {
+    /**
+     * Writes the fields of a metadata object.
+     *
+     * @param value  The object to write.
+     * @param writer The writer to append the fields to.
+     */
+    void write(T value, BinaryWriter writer);
+
+    /**
+     * Reads a metadata object written by {@link #write(Object, BinaryWriter)}.
+     *
+     * @param reader The reader positioned at the first field.
+     * @return The decoded object.
+     */
+    T read(BinaryReader reader);
+}
@@ -0,0 +1,31 @@
+package JSocket2.Protocol.Codec;
+
+/**
+ * Defines how protocol metadata objects are turned into bytes and back. The codec used on a connection
+ * is negotiated during the handshake, see {@link CodecOptions}.
+ */
+public interface ICodec {
+    /**
+     * Gets the name the codec is announced and negotiated by.
+     * @return The codec name, unique among the registered codecs.
+     */
+    String getName();
+
+    /**
+     * Encodes a metadata object.
+     *
+     * @param value The object to encode.
+     * @return The encoded bytes.
+     */
+    byte[] encode(Object value);
+
+    /**
+     * Decodes a metadata object.
+     *
+     * @param data The encoded bytes.
+     * @param type The type to decode into.
+     * @param <T>  The type of the metadata.
+     * @return The decoded object.
+     */
+    <T> T decode(byte[] data, Class<T> type);
+}
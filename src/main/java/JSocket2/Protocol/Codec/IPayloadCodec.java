@@ -0,0 +1,54 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.lang.reflect.Type;
+
+/**
+ * Defines how RPC and event payloads are turned into bytes and back. Unlike the metadata {@link ICodec},
+ * the payload codec is not negotiated: each frame names its codec in the content type bits of its header,
+ * so a sender may pick one per caller, controller or event and the receiver decodes accordingly.
+ * Codecs are looked up by content type in {@link PayloadCodecs}.
+ */
+public interface IPayloadCodec {
+    /**
+     * Gets the name the codec is selected by, e.g. in {@link JSocket2.Protocol.Rpc.RpcController#PayloadCodec()}.
+     * @return The codec name, unique among the registered codecs.
+     */
+    String getName();
+
+    /**
+     * Gets the content type written to the header of frames encoded with this codec.
+     * @return A value from 0 to {@link PayloadCodecs#MAX_CONTENT_TYPE}; 0 is JSON.
+     */
+    int getContentType();
+
+    /**
+     * Encodes a value using Gson's type adapters.
+     *
+     * @param gson  The Gson instance whose settings and adapters to use.
+     * @param value The value, or {@code null}.
+     * @return The encoded bytes.
+     */
+    byte[] encode(Gson gson, Object value);
+
+    /**
+     * Parses an encoded payload into a JSON tree, as RPC arguments and event parameters are bound from.
+     *
+     * @param data The encoded bytes, or {@code null}.
+     * @return The parsed element; {@link com.google.gson.JsonNull#INSTANCE} if the data is {@code null} or empty.
+     */
+    JsonElement parse(byte[] data);
+
+    /**
+     * Decodes an encoded payload into a value.
+     *
+     * @param gson The Gson instance whose settings and adapters to use.
+     * @param data The encoded bytes, or {@code null}.
+     * @param type The type to decode into.
+     * @param <T>  The type of the result.
+     * @return The value, or {@code null} if the data is {@code null} or empty.
+     */
+    <T> T decode(Gson gson, byte[] data, Type type);
+}
@@ -0,0 +1,35 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.Gson;
+
+/**
+ * The default {@link ICodec}, encoding metadata as UTF-8 JSON with Gson. Every peer supports it,
+ * so it is used until a connection has negotiated something else.
+ */
+public class JsonCodec implements ICodec {
+    /**
+     * The name of the JSON codec.
+     */
+    public static final String NAME = "json";
+    /**
+     * A shared instance; the codec is stateless.
+     */
+    public static final JsonCodec INSTANCE = new JsonCodec();
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return JsonPayload.toBytes(gson, value);
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) {
+        return JsonPayload.fromBytes(gson, data, type);
+    }
+}
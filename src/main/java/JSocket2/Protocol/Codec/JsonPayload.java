@@ -0,0 +1,105 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Serializes JSON frame bodies with Gson without an intermediate {@code String}. Values stream through a
+ * {@link com.google.gson.stream.JsonWriter} into a UTF-8 buffer reused per thread, and frame bodies are
+ * parsed with a reader that decodes the bytes in place.
+ */
+public final class JsonPayload {
+    private static final ThreadLocal<Utf8ByteWriter> WRITERS = ThreadLocal.withInitial(Utf8ByteWriter::new);
+
+    private JsonPayload() {
+    }
+
+    /**
+     * Serializes a value to UTF-8 JSON, as {@code gson.toJson(value).getBytes(UTF_8)} would.
+     *
+     * @param gson  The Gson instance whose settings and adapters to use.
+     * @param value The value, or {@code null}.
+     * @return The JSON bytes.
+     */
+    public static byte[] toBytes(Gson gson, Object value) {
+        return toBytes(gson, value, value == null ? Object.class : value.getClass());
+    }
+
+    /**
+     * Serializes a value of a generic type to UTF-8 JSON.
+     *
+     * @param gson  The Gson instance whose settings and adapters to use.
+     * @param value The value, or {@code null}.
+     * @param type  The declared type of the value.
+     * @return The JSON bytes.
+     */
+    public static byte[] toBytes(Gson gson, Object value, Type type) {
+        Utf8ByteWriter writer = WRITERS.get();
+        if (!writer.acquire()) {
+            // Re-entered from a type adapter; give the nested payload its own buffer
+            writer = new Utf8ByteWriter();
+            writer.acquire();
+        }
+        byte[] bytes;
+        try {
+            if (value == null) {
+                gson.toJson(JsonNull.INSTANCE, gson.newJsonWriter(writer));
+            } else {
+                gson.toJson(value, type, gson.newJsonWriter(writer));
+            }
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        } finally {
+            bytes = writer.release();
+        }
+        return bytes;
+    }
+
+    /**
+     * Deserializes UTF-8 JSON, as {@code gson.fromJson(new String(data, UTF_8), type)} would.
+     *
+     * @param gson The Gson instance whose settings and adapters to use.
+     * @param data The JSON bytes, or {@code null}.
+     * @param type The type to deserialize.
+     * @param <T>  The type of the result.
+     * @return The value, or {@code null} if the data is {@code null} or empty.
+     */
+    public static <T> T fromBytes(Gson gson, byte[] data, Type type) {
+        if (data == null) {
+            return null;
+        }
+        return gson.fromJson(new Utf8ByteReader(data), type);
+    }
+
+    /**
+     * Deserializes UTF-8 JSON into a class.
+     *
+     * @param gson The Gson instance whose settings and adapters to use.
+     * @param data The JSON bytes, or {@code null}.
+     * @param type The class to deserialize.
+     * @param <T>  The type of the result.
+     * @return The value, or {@code null} if the data is {@code null} or empty.
+     */
+    public static <T> T fromBytes(Gson gson, byte[] data, Class<T> type) {
+        return fromBytes(gson, data, (Type) type);
+    }
+
+    /**
+     * Parses UTF-8 JSON into a tree.
+     *
+     * @param data The JSON bytes, or {@code null}.
+     * @return The parsed element; {@link JsonNull#INSTANCE} if the data is {@code null} or empty.
+     */
+    public static JsonElement parse(byte[] data) {
+        if (data == null) {
+            return JsonNull.INSTANCE;
+        }
+        return JsonParser.parseReader(new Utf8ByteReader(data));
+    }
+}
@@ -0,0 +1,52 @@
+package JSocket2.Protocol.Codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.lang.reflect.Type;
+
+/**
+ * The default {@link IPayloadCodec}, encoding payloads as UTF-8 JSON through {@link JsonPayload}.
+ */
+public final class JsonPayloadCodec implements IPayloadCodec {
+    /**
+     * The name of the JSON payload codec.
+     */
+    public static final String NAME = "json";
+    /**
+     * The content type of JSON payloads, which is also what peers that do not set one send.
+     */
+    public static final int CONTENT_TYPE = 0;
+    /**
+     * A shared instance; the codec is stateless.
+     */
+    public static final JsonPayloadCodec INSTANCE = new JsonPayloadCodec();
+
+    private JsonPayloadCodec() {
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(Gson gson, Object value) {
+        return JsonPayload.toBytes(gson, value);
+    }
+
+    @Override
+    public JsonElement parse(byte[] data) {
+        return JsonPayload.parse(data);
+    }
+
+    @Override
+    public <T> T decode(Gson gson, byte[] data, Type type) {
+        return JsonPayload.fromBytes(gson, data, type);
+    }
+}
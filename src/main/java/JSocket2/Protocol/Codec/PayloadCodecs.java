@@ -0,0 +1,74 @@
+package JSocket2.Protocol.Codec;
+
+import java.util.Arrays;
+
+/**
+ * The registry of {@link IPayloadCodec}s by content type. JSON and CBOR are built in; the remaining content
+ * types are free for application codecs, which must be registered on both peers before they connect.
+ */
+public final class PayloadCodecs {
+    /**
+     * The largest content type the frame header can carry.
+     */
+    public static final int MAX_CONTENT_TYPE = 3;
+
+    private static volatile IPayloadCodec[] codecs = new IPayloadCodec[MAX_CONTENT_TYPE + 1];
+
+    static {
+        register(JsonPayloadCodec.INSTANCE);
+        register(CborPayloadCodec.INSTANCE);
+    }
+
+    private PayloadCodecs() {
+    }
+
+    /**
+     * Registers a payload codec under its content type.
+     *
+     * @param codec The codec to register.
+     * @throws IllegalArgumentException if the content type is out of range or taken by a different codec.
+     */
+    public static synchronized void register(IPayloadCodec codec) {
+        int contentType = codec.getContentType();
+        if (contentType < 0 || contentType > MAX_CONTENT_TYPE) {
+            throw new IllegalArgumentException("Payload content type must be between 0 and " + MAX_CONTENT_TYPE + ": " + contentType);
+        }
+        IPayloadCodec existing = codecs[contentType];
+        if (existing != null && !existing.getName().equals(codec.getName())) {
+            throw new IllegalArgumentException("Payload content type " + contentType + " is already taken by " + existing.getName());
+        }
+        IPayloadCodec[] updated = Arrays.copyOf(codecs, codecs.length);
+        updated[contentType] = codec;
+        codecs = updated;
+    }
+
+    /**
+     * Gets the codec of a content type, as read from a frame header.
+     *
+     * @param contentType The content type.
+     * @return The codec.
+     * @throws IllegalArgumentException if no codec is registered for the content type.
+     */
+    public static IPayloadCodec get(int contentType) {
+        IPayloadCodec codec = contentType >= 0 && contentType <= MAX_CONTENT_TYPE ? codecs[contentType] : null;
+        if (codec == null) {
+            throw new IllegalArgumentException("Unsupported payload content type: " + contentType);
+        }
+        return codec;
+    }
+
+    /**
+     * Finds a codec by name.
+     *
+     * @param name The codec name.
+     * @return The codec, or {@code null} if none is registered under that name.
+     */
+    public static IPayloadCodec find(String name) {
+        for (IPayloadCodec codec : codecs) {
+            if (codec != null && codec.getName().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,61 @@
+package JSocket2.Protocol.Codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configures numeric route ids. The server publishes a {@link RouteTable} of its RPC actions and of the event
+ * names listed here during the handshake; a client that accepts it sends and receives those routes as small
+ * integers instead of name strings, see {@link RoutedCodec}. Routes missing from the table keep their names.
+ */
+public class RouteOptions {
+    private boolean enabled = true;
+    private final List<String> events = new ArrayList<>();
+
+    /**
+     * Enables or disables route ids. A server with route ids disabled publishes no table; a client with them
+     * disabled ignores the server's table. Enabled by default.
+     *
+     * @param enabled {@code true} to use route ids when the peer supports them.
+     * @return This instance for chaining.
+     */
+    public RouteOptions setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Checks whether route ids are enabled.
+     *
+     * @return {@code true} if route ids are used when the peer supports them.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds event names to the server's route table. Events are created ad hoc by {@code EventBase} subclasses,
+     * so unlike RPC actions the server cannot discover them; list the frequent ones here. Only used by servers.
+     *
+     * @param eventNames The event names, as passed to {@code createEventMessage}.
+     * @return This instance for chaining.
+     */
+    public RouteOptions addEvents(String... eventNames) {
+        for (String eventName : eventNames) {
+            if (!events.contains(eventName)) {
+                events.add(eventName);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Gets the event names added to the route table.
+     *
+     * @return An unmodifiable list of event names.
+     */
+    public List<String> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+}
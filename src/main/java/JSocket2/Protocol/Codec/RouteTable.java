@@ -0,0 +1,209 @@
+package JSocket2.Protocol.Codec;
+
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps RPC routes (controller and action) and event names to small integer ids, numbered from 1 in the order they
+ * were added. The server builds one table from its controllers and {@link RouteOptions} and sends it in the
+ * handshake offer as a comma-separated list of URL-encoded entries: {@code controller/action} for an RPC route
+ * and {@code !event} for an event, each entry's id being its position.
+ * <p>
+ * Lookups match names as declared first and then in lower case, like the dispatcher does.
+ */
+public final class RouteTable {
+    /**
+     * A table without routes, used when route ids are disabled or the peer sent none.
+     */
+    public static final RouteTable EMPTY = new RouteTable(List.of(), List.of());
+
+    private static final String EVENT_PREFIX = "!";
+
+    private final String[] controllers;
+    private final String[] actions;
+    private final Map<String, Map<String, Integer>> rpcIds = new HashMap<>();
+    private final Map<String, Integer> eventIds = new HashMap<>();
+
+    /**
+     * Builds a route table.
+     *
+     * @param rpcRoutes  The RPC routes, named as declared by their controllers.
+     * @param eventNames The event names.
+     */
+    public RouteTable(List<RpcCallMetadata> rpcRoutes, Collection<String> eventNames) {
+        int size = rpcRoutes.size() + eventNames.size();
+        controllers = new String[size + 1];
+        actions = new String[size + 1];
+        int id = 1;
+        for (RpcCallMetadata route : rpcRoutes) {
+            controllers[id] = route.getController();
+            actions[id] = route.getAction();
+            rpcIds.computeIfAbsent(route.getController(), k -> new HashMap<>()).putIfAbsent(route.getAction(), id);
+            id++;
+        }
+        for (String eventName : eventNames) {
+            actions[id] = eventName;
+            eventIds.putIfAbsent(eventName, id);
+            id++;
+        }
+        for (int i = 1; i <= size; i++) {
+            if (controllers[i] != null) {
+                rpcIds.computeIfAbsent(controllers[i].toLowerCase(), k -> new HashMap<>()).putIfAbsent(actions[i].toLowerCase(), i);
+            } else {
+                eventIds.putIfAbsent(actions[i].toLowerCase(), i);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of routes.
+     *
+     * @return The number of RPC routes and events; ids run from 1 to this number.
+     */
+    public int size() {
+        return controllers.length - 1;
+    }
+
+    /**
+     * Checks whether the table has no routes.
+     *
+     * @return {@code true} if there is nothing to publish.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Finds the id of an RPC route.
+     *
+     * @param controller The controller name.
+     * @param action     The action name.
+     * @return The route id, or {@code 0} if the route is not in the table.
+     */
+    public int findRpc(String controller, String action) {
+        if (controller == null || action == null) {
+            return 0;
+        }
+        Map<String, Integer> controllerActions = rpcIds.get(controller);
+        Integer id = controllerActions != null ? controllerActions.get(action) : null;
+        if (id == null) {
+            controllerActions = rpcIds.get(controller.toLowerCase());
+            id = controllerActions != null ? controllerActions.get(action.toLowerCase()) : null;
+        }
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Finds the id of an event.
+     *
+     * @param eventName The event name.
+     * @return The route id, or {@code 0} if the event is not in the table.
+     */
+    public int findEvent(String eventName) {
+        if (eventName == null) {
+            return 0;
+        }
+        Integer id = eventIds.get(eventName);
+        if (id == null) {
+            id = eventIds.get(eventName.toLowerCase());
+        }
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Gets the RPC route with an id.
+     *
+     * @param id The route id.
+     * @return New call metadata naming the controller and action as declared.
+     * @throws IllegalArgumentException if the id is unknown or names an event.
+     */
+    public RpcCallMetadata getRpc(int id) {
+        if (id <= 0 || id > size() || controllers[id] == null) {
+            throw new IllegalArgumentException("Unknown RPC route id " + id);
+        }
+        return new RpcCallMetadata(controllers[id], actions[id]);
+    }
+
+    /**
+     * Gets the event with an id.
+     *
+     * @param id The route id.
+     * @return New event metadata naming the event.
+     * @throws IllegalArgumentException if the id is unknown or names an RPC route.
+     */
+    public EventMetadata getEvent(int id) {
+        if (id <= 0 || id > size() || controllers[id] != null) {
+            throw new IllegalArgumentException("Unknown event route id " + id);
+        }
+        return new EventMetadata(actions[id]);
+    }
+
+    /**
+     * Writes the table as it is sent in the handshake offer.
+     *
+     * @return The comma-separated, URL-encoded entries; ASCII without {@code ;}.
+     */
+    public String toOffer() {
+        StringBuilder offer = new StringBuilder();
+        for (int id = 1; id <= size(); id++) {
+            if (id > 1) {
+                offer.append(',');
+            }
+            if (controllers[id] != null) {
+                offer.append(encode(controllers[id])).append('/').append(encode(actions[id]));
+            } else {
+                offer.append(EVENT_PREFIX).append(encode(actions[id]));
+            }
+        }
+        return offer.toString();
+    }
+
+    /**
+     * Reads a table from a handshake offer.
+     *
+     * @param offer The offer written by {@link #toOffer()}, or {@code null}.
+     * @return The table, {@link #EMPTY} if the offer is {@code null} or empty.
+     * @throws IllegalArgumentException if an entry is malformed.
+     */
+    public static RouteTable parse(String offer) {
+        if (offer == null || offer.isEmpty()) {
+            return EMPTY;
+        }
+        List<RpcCallMetadata> rpcRoutes = new ArrayList<>();
+        List<String> eventNames = new ArrayList<>();
+        String[] entries = offer.split(",");
+        // Keeps ids positional: events follow RPC routes in tables written by toOffer()
+        for (String entry : entries) {
+            if (entry.startsWith(EVENT_PREFIX)) {
+                eventNames.add(decode(entry.substring(EVENT_PREFIX.length())));
+                continue;
+            }
+            if (!eventNames.isEmpty()) {
+                throw new IllegalArgumentException("RPC route after an event in route table: " + entry);
+            }
+            int separator = entry.indexOf('/');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed route table entry: " + entry);
+            }
+            rpcRoutes.add(new RpcCallMetadata(decode(entry.substring(0, separator)), decode(entry.substring(separator + 1))));
+        }
+        return new RouteTable(rpcRoutes, eventNames);
+    }
+
+    private static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String name) {
+        return URLDecoder.decode(name, StandardCharsets.UTF_8);
+    }
+}
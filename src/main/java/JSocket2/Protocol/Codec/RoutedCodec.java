@@ -0,0 +1,117 @@
+package JSocket2.Protocol.Codec;
+
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+
+/**
+ * An {@link ICodec} that sends {@link RpcCallMetadata} and {@link EventMetadata} found in a {@link RouteTable} as
+ * their route id, and everything else through the negotiated codec it wraps. A routed value is a marker byte
+ * followed by the variable-length id, two bytes for the first 127 routes, and for a call with a deadline its
+ * timeout as a variable-length long, followed for a streaming call by its initial window as a variable-length int
+ * and for a revalidating call by its validator as a length-prefixed string. Each field is written as {@code 0} when
+ * only a later one is present.
+ * <p>
+ * The marker is {@code 1}, which neither JSON text nor {@link BinaryMetadataCodec} values start with, so the
+ * decoder tells routed values apart by their first byte and a route missing from the table simply travels by name.
+ */
+public class RoutedCodec implements ICodec {
+    private static final byte ROUTE_MARKER = 1;
+
+    private final ICodec codec;
+    private final RouteTable routes;
+
+    /**
+     * Constructs a RoutedCodec.
+     *
+     * @param codec  The negotiated codec for everything that is not routed.
+     * @param routes The route table both peers agreed on during the handshake.
+     */
+    public RoutedCodec(ICodec codec, RouteTable routes) {
+        this.codec = codec;
+        this.routes = routes;
+    }
+
+    /**
+     * Gets the wrapped codec.
+     *
+     * @return The negotiated codec.
+     */
+    public ICodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Gets the route table.
+     *
+     * @return The table agreed on during the handshake.
+     */
+    public RouteTable getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Gets the name of the wrapped codec, as route ids are not a codec of their own.
+     *
+     * @return The wrapped codec's name.
+     */
+    @Override
+    public String getName() {
+        return codec.getName();
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        int id = 0;
+        long timeoutMillis = 0;
+        int streamWindow = 0;
+        String validator = null;
+        if (value instanceof RpcCallMetadata call) {
+            id = routes.findRpc(call.getController(), call.getAction());
+            timeoutMillis = call.getTimeoutMillis();
+            streamWindow = call.getStreamWindow();
+            validator = call.getValidator();
+        } else if (value instanceof EventMetadata event) {
+            id = routes.findEvent(event.getEventName());
+        }
+        if (id == 0) {
+            return codec.encode(value);
+        }
+        BinaryWriter writer = new BinaryWriter(timeoutMillis > 0 || streamWindow > 0 || validator != null ? 16 : 6).writeByte(ROUTE_MARKER).writeVarInt(id);
+        if (timeoutMillis > 0 || streamWindow > 0 || validator != null) {
+            writer.writeVarLong(timeoutMillis);
+        }
+        if (streamWindow > 0 || validator != null) {
+            writer.writeVarInt(streamWindow);
+        }
+        if (validator != null) {
+            writer.writeString(validator);
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public <T> T decode(byte[] data, Class<T> type) {
+        if (data.length == 0 || data[0] != ROUTE_MARKER) {
+            return codec.decode(data, type);
+        }
+        BinaryReader reader = new BinaryReader(data, 1);
+        int id = reader.readVarInt();
+        if (type == RpcCallMetadata.class) {
+            RpcCallMetadata call = routes.getRpc(id);
+            if (reader.hasRemaining()) {
+                call.setTimeoutMillis(reader.readVarLong());
+            }
+            if (reader.hasRemaining()) {
+                call.setStreamWindow(reader.readVarInt());
+            }
+            if (reader.hasRemaining()) {
+                call.setValidator(reader.readString());
+            }
+            return type.cast(call);
+        }
+        if (type == EventMetadata.class) {
+            return type.cast(routes.getEvent(id));
+        }
+        throw new IllegalArgumentException("Route ids only identify RPC calls and events, not " + type.getName());
+    }
+}
@@ -0,0 +1,103 @@
+package JSocket2.Protocol.Codec;
+
+import java.io.Reader;
+
+/**
+ * A {@link Reader} that decodes UTF-8 directly from a byte array, so a payload can be parsed without first
+ * being copied into a {@code String}. Malformed input decodes to {@code U+FFFD}, as
+ * {@link String#String(byte[], java.nio.charset.Charset)} does.
+ */
+final class Utf8ByteReader extends Reader {
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final byte[] data;
+    private final int end;
+    private int position;
+    private char pendingLowSurrogate;
+
+    /**
+     * Constructs a reader over a whole byte array.
+     *
+     * @param data The UTF-8 bytes.
+     */
+    Utf8ByteReader(byte[] data) {
+        this.data = data;
+        this.end = data.length;
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        int count = 0;
+        if (pendingLowSurrogate != 0) {
+            chars[offset + count++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+        while (count < length && position < end) {
+            int b = data[position];
+            if (b >= 0) {
+                position++;
+                chars[offset + count++] = (char) b;
+                continue;
+            }
+            int codePoint = decodeMultiByte();
+            if (codePoint < 0x10000) {
+                chars[offset + count++] = (char) codePoint;
+            } else {
+                chars[offset + count++] = Character.highSurrogate(codePoint);
+                if (count < length) {
+                    chars[offset + count++] = Character.lowSurrogate(codePoint);
+                } else {
+                    pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                }
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private int decodeMultiByte() {
+        int lead = data[position] & 0xFF;
+        int length;
+        int codePoint;
+        int min;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            length = 2;
+            codePoint = lead & 0x1F;
+            min = 0x80;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            length = 3;
+            codePoint = lead & 0x0F;
+            min = 0x800;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            length = 4;
+            codePoint = lead & 0x07;
+            min = 0x10000;
+        } else {
+            position++;
+            return REPLACEMENT;
+        }
+        int i = 1;
+        for (; i < length; i++) {
+            if (position + i >= end || (data[position + i] & 0xC0) != 0x80) {
+                break;
+            }
+            codePoint = (codePoint << 6) | (data[position + i] & 0x3F);
+        }
+        if (i < length) {
+            position += i;
+            return REPLACEMENT;
+        }
+        position += length;
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return REPLACEMENT;
+        }
+        return codePoint;
+    }
+}
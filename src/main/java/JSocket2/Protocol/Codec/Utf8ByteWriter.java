@@ -0,0 +1,147 @@
+package JSocket2.Protocol.Codec;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A {@link Writer} that encodes characters as UTF-8 straight into a growable byte buffer, so JSON written
+ * through it never exists as a {@code String}. Unpaired surrogates are written as {@code '?'}, as
+ * {@link String#getBytes(java.nio.charset.Charset)} does. Instances are reused per thread by {@link JsonPayload}.
+ */
+final class Utf8ByteWriter extends Writer {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int position;
+    private char pendingHighSurrogate;
+    private boolean inUse;
+
+    /**
+     * Claims this writer for one payload.
+     *
+     * @return {@code false} if it is already writing one further up the stack.
+     */
+    boolean acquire() {
+        if (inUse) {
+            return false;
+        }
+        inUse = true;
+        position = 0;
+        pendingHighSurrogate = 0;
+        return true;
+    }
+
+    /**
+     * Copies the written bytes out and releases this writer, dropping an oversized buffer so a single large
+     * payload is not retained by the thread.
+     *
+     * @return The UTF-8 bytes written since {@link #acquire()}.
+     */
+    byte[] release() {
+        flushPendingSurrogate();
+        byte[] bytes = Arrays.copyOf(buffer, position);
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        inUse = false;
+        return bytes;
+    }
+
+    @Override
+    public void write(int c) {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        ensureCapacity(length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = chars[i];
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                buffer[position++] = (byte) c;
+            } else {
+                writeChar(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        ensureCapacity(length);
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                buffer[position++] = (byte) c;
+            } else {
+                writeChar(c);
+            }
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence text) {
+        String string = String.valueOf(text);
+        write(string, 0, string.length());
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void writeChar(char c) {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+            writeCodePoint('?');
+        }
+        if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            writeCodePoint('?');
+        } else {
+            writeCodePoint(c);
+        }
+    }
+
+    private void writeCodePoint(int codePoint) {
+        ensureCapacity(4);
+        if (codePoint < 0x80) {
+            buffer[position++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (codePoint >> 6));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void flushPendingSurrogate() {
+        if (pendingHighSurrogate != 0) {
+            pendingHighSurrogate = 0;
+            writeCodePoint('?');
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+}
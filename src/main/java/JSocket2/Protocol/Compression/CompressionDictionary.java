@@ -0,0 +1,106 @@
+package JSocket2.Protocol.Compression;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A preset dictionary for Deflate, holding byte sequences that recur across small messages such as
+ * JSON field names. Compressing against it lets even a message of a few hundred bytes refer back to
+ * text it never contained. Both peers must load the same dictionary; its {@link #getId() id} is part
+ * of the compressor name negotiated during the handshake, so peers with different dictionaries fall
+ * back to another compressor.
+ * <p>
+ * Dictionaries are stored as raw bytes and built from sample traffic with {@link DictionaryTrainer}.
+ */
+public final class CompressionDictionary {
+    /**
+     * The largest useful dictionary; Deflate cannot refer further back than its 32 KiB window.
+     */
+    public static final int MAX_SIZE = 32 * 1024;
+
+    private final byte[] bytes;
+    private final String id;
+
+    /**
+     * Constructs a dictionary from its content. Deflate references nearby data most cheaply,
+     * so the most common sequences should come last.
+     *
+     * @param bytes The dictionary content, at most {@link #MAX_SIZE} bytes.
+     */
+    public CompressionDictionary(byte[] bytes) {
+        if (bytes.length == 0 || bytes.length > MAX_SIZE) {
+            throw new IllegalArgumentException("Dictionary size must be between 1 and " + MAX_SIZE + " bytes");
+        }
+        this.bytes = bytes.clone();
+        this.id = computeId(this.bytes);
+    }
+
+    /**
+     * Loads a dictionary file.
+     *
+     * @param file The path of the dictionary file.
+     * @return The loaded dictionary.
+     * @throws IOException if the file cannot be read or has an invalid size.
+     */
+    public static CompressionDictionary load(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        if (content.length == 0 || content.length > MAX_SIZE) {
+            throw new IOException("Dictionary file " + file + " has " + content.length + " bytes, expected 1 to " + MAX_SIZE);
+        }
+        return new CompressionDictionary(content);
+    }
+
+    /**
+     * Writes the dictionary to a file.
+     *
+     * @param file The path of the dictionary file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, bytes);
+    }
+
+    /**
+     * Gets the identifier of the dictionary, derived from its content.
+     *
+     * @return The first 8 bytes of the SHA-256 digest of the content, in hexadecimal.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the size of the dictionary.
+     *
+     * @return The length in bytes.
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * Gets the dictionary content without copying it; callers must not modify it.
+     *
+     * @return The dictionary bytes.
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    private static String computeId(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package JSocket2.Protocol.Compression;
+
+import JSocket2.Protocol.MessageType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Holds the payload compressors a peer supports, in order of preference, and decides which messages are
+ * compressed. During the handshake the server offers its compressor names with its public key and the client
+ * picks the first of its own compressors that the server offered; peers that do not take part send
+ * uncompressed frames.
+ * <p>
+ * A payload is compressed before encryption when its message type is enabled and it is at least
+ * {@link #getThreshold()} bytes long, and only sent compressed if that makes it smaller. By default
+ * {@link MessageType#RPC_RESPONSE} and {@link MessageType#EVENT} payloads are compressed. Compressing data
+ * an attacker controls together with secrets lets frame sizes leak those secrets, so keep such message
+ * types disabled.
+ */
+public class CompressionOptions {
+    private final List<ICompressor> compressors = new ArrayList<>();
+    private final Set<MessageType> messageTypes = EnumSet.of(MessageType.RPC_RESPONSE, MessageType.EVENT);
+    private int threshold = 1024;
+    private int maxDecompressedSize = 64 * 1024 * 1024;
+
+    /**
+     * Constructs CompressionOptions supporting {@link DeflateCompressor}.
+     */
+    public CompressionOptions() {
+        compressors.add(new DeflateCompressor());
+    }
+
+    /**
+     * Replaces the supported compressors. Passing none disables compression on connections using these options.
+     *
+     * @param preferred The compressors in order of preference.
+     * @return This instance for chaining.
+     */
+    public CompressionOptions setCompressors(ICompressor... preferred) {
+        compressors.clear();
+        for (ICompressor compressor : preferred) {
+            if (find(compressor.getName()) == null) {
+                compressors.add(compressor);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds a {@link DeflateCompressor} using a preset dictionary as the most preferred compressor.
+     * Dictionaries pay off for payloads well below the default threshold, so lower it with
+     * {@link #setThreshold(int)} as well.
+     *
+     * @param dictionary The dictionary, which the peer must have loaded too.
+     * @return This instance for chaining.
+     */
+    public CompressionOptions addDictionary(CompressionDictionary dictionary) {
+        DeflateCompressor compressor = new DeflateCompressor(dictionary);
+        if (find(compressor.getName()) == null) {
+            compressors.add(0, compressor);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the supported compressors in order of preference.
+     * @return An unmodifiable list of compressors.
+     */
+    public List<ICompressor> getCompressors() {
+        return Collections.unmodifiableList(compressors);
+    }
+
+    /**
+     * Finds a supported compressor by name.
+     *
+     * @param name The compressor name.
+     * @return The compressor, or {@code null} if it is not supported.
+     */
+    public ICompressor find(String name) {
+        for (ICompressor compressor : compressors) {
+            if (compressor.getName().equals(name)) {
+                return compressor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds the offer the server sends during the handshake.
+     * @return The comma-separated compressor names in order of preference, empty if none are supported.
+     */
+    public String getOffer() {
+        StringBuilder offer = new StringBuilder();
+        for (ICompressor compressor : compressors) {
+            if (offer.length() > 0) {
+                offer.append(',');
+            }
+            offer.append(compressor.getName());
+        }
+        return offer.toString();
+    }
+
+    /**
+     * Picks the first supported compressor that appears in a peer's offer.
+     *
+     * @param offer The comma-separated compressor names offered by the peer, or {@code null} if it made no offer.
+     * @return The chosen compressor, or {@code null} if the peers have none in common.
+     */
+    public ICompressor negotiate(String offer) {
+        if (offer != null && !offer.isEmpty()) {
+            List<String> offered = List.of(offer.split(","));
+            for (ICompressor compressor : compressors) {
+                if (offered.contains(compressor.getName())) {
+                    return compressor;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the minimum payload size in bytes that is compressed.
+     * @return The threshold.
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Sets the minimum payload size in bytes that is compressed. Smaller payloads rarely shrink enough to pay for the CPU time.
+     *
+     * @param threshold The threshold, at least 0.
+     * @return This instance for chaining.
+     */
+    public CompressionOptions setThreshold(int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("threshold must not be negative");
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Checks whether payloads of a message type are compressed. RPC batches and stream chunks follow the type of
+     * the messages they stand in for: {@link MessageType#RPC_BATCH} and {@link MessageType#RPC_STREAM_CALL} that of
+     * {@link MessageType#RPC_CALL}, and
+     * {@link MessageType#RPC_BATCH_RESPONSE} and {@link MessageType#RPC_STREAM_ITEM} that of
+     * {@link MessageType#RPC_RESPONSE}.
+     *
+     * @param type The message type.
+     * @return {@code true} if the type is enabled.
+     */
+    public boolean isEnabled(MessageType type) {
+        if (type == MessageType.RPC_BATCH || type == MessageType.RPC_STREAM_CALL) {
+            type = MessageType.RPC_CALL;
+        } else if (type == MessageType.RPC_BATCH_RESPONSE || type == MessageType.RPC_STREAM_ITEM) {
+            type = MessageType.RPC_RESPONSE;
+        }
+        return messageTypes.contains(type);
+    }
+
+    /**
+     * Enables or disables compression for a message type.
+     *
+     * @param type    The message type.
+     * @param enabled {@code true} to compress its payloads.
+     * @return This instance for chaining.
+     */
+    public CompressionOptions setEnabled(MessageType type, boolean enabled) {
+        if (enabled) {
+            messageTypes.add(type);
+        } else {
+            messageTypes.remove(type);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the largest payload a compressed frame may expand to. Frames declaring more are rejected.
+     * @return The limit in bytes.
+     */
+    public int getMaxDecompressedSize() {
+        return maxDecompressedSize;
+    }
+
+    /**
+     * Sets the largest payload a compressed frame may expand to.
+     *
+     * @param maxDecompressedSize The limit in bytes, at least 1.
+     * @return This instance for chaining.
+     */
+    public CompressionOptions setMaxDecompressedSize(int maxDecompressedSize) {
+        if (maxDecompressedSize < 1) throw new IllegalArgumentException("maxDecompressedSize must be at least 1");
+        this.maxDecompressedSize = maxDecompressedSize;
+        return this;
+    }
+}
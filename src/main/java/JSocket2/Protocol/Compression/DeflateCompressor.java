@@ -0,0 +1,140 @@
+package JSocket2.Protocol.Compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses payloads with the JDK's raw Deflate implementation, optionally against a preset
+ * {@link CompressionDictionary}. Each thread reuses one {@link Deflater} and {@link Inflater},
+ * since creating them costs more than compressing a small payload.
+ */
+public class DeflateCompressor implements ICompressor {
+    /**
+     * The name this compressor is negotiated by.
+     */
+    public static final String NAME = "deflate";
+    /**
+     * The prefix of the name of a compressor using a dictionary; the dictionary id follows it.
+     */
+    public static final String DICTIONARY_NAME_PREFIX = "deflate-dict-";
+
+    private final String name;
+    private final CompressionDictionary dictionary;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    /**
+     * Constructs a DeflateCompressor favouring speed, which suits the small and medium payloads of RPC and events.
+     */
+    public DeflateCompressor() {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * Constructs a DeflateCompressor with a compression level.
+     *
+     * @param level The level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     */
+    public DeflateCompressor(int level) {
+        this(level, null);
+    }
+
+    /**
+     * Constructs a DeflateCompressor favouring speed that compresses against a preset dictionary.
+     * It is negotiated as {@value #DICTIONARY_NAME_PREFIX} followed by the dictionary id.
+     *
+     * @param dictionary The dictionary shared with the peer.
+     */
+    public DeflateCompressor(CompressionDictionary dictionary) {
+        this(Deflater.BEST_SPEED, dictionary);
+    }
+
+    /**
+     * Constructs a DeflateCompressor with a compression level and an optional preset dictionary.
+     *
+     * @param level      The level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     * @param dictionary The dictionary shared with the peer, or {@code null} for none.
+     */
+    public DeflateCompressor(int level, CompressionDictionary dictionary) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Deflate level must be between 1 and 9");
+        }
+        this.dictionary = dictionary;
+        this.name = dictionary == null ? NAME : DICTIONARY_NAME_PREFIX + dictionary.getId();
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    /**
+     * Gets the preset dictionary of this compressor.
+     *
+     * @return The {@link CompressionDictionary}, or {@code null} for plain Deflate.
+     */
+    public CompressionDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] compress(byte[] data) {
+        Deflater deflater = deflaters.get();
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary.bytes());
+            }
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] decompress(byte[] data, int originalLength) throws IOException {
+        Inflater inflater = inflaters.get();
+        try {
+            if (dictionary != null) {
+                inflater.setDictionary(dictionary.bytes());
+            }
+            inflater.setInput(data);
+            byte[] result = new byte[originalLength];
+            int length = 0;
+            while (length < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(result, length, originalLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != originalLength || !inflater.finished()) {
+                throw new IOException("Deflate payload does not match its declared length of " + originalLength + " bytes");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflate payload", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
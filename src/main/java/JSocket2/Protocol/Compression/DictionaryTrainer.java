@@ -0,0 +1,235 @@
+package JSocket2.Protocol.Compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link CompressionDictionary} from sample traffic and reports how much it saves.
+ * <p>
+ * Training collects the JSON fragments that recur across samples, such as {@code ,"price":} or
+ * {@code "PENDING"}, scores each by the number of samples containing it times its length, and packs the
+ * best into the dictionary with the most valuable last, where Deflate references them most cheaply.
+ * <p>
+ * A corpus is either a directory in which every file holds one frame payload, or a file in which every
+ * non-empty line holds one, such as a JSON Lines log of RPC results and events. Run as a program:
+ * <pre>
+ * DictionaryTrainer train  &lt;corpus&gt; &lt;dictionary-file&gt; [max-size]
+ * DictionaryTrainer report &lt;corpus&gt; &lt;dictionary-file&gt;
+ * </pre>
+ */
+public final class DictionaryTrainer {
+    /**
+     * The default maximum dictionary size in bytes.
+     */
+    public static final int DEFAULT_SIZE = 16 * 1024;
+
+    private static final Pattern FRAGMENT = Pattern.compile("[{\\[,]?\"(?:[^\"\\\\]|\\\\.){1,48}\":?");
+
+    private DictionaryTrainer() {
+    }
+
+    /**
+     * Trains a dictionary from sample payloads. Samples that are not JSON contribute no fragments; if no
+     * fragment recurs, the most recent samples themselves form the dictionary.
+     *
+     * @param samples The sample payloads.
+     * @param maxSize The maximum dictionary size in bytes, at most {@link CompressionDictionary#MAX_SIZE}.
+     * @return The trained dictionary.
+     * @throws IllegalArgumentException if there are no non-empty samples.
+     */
+    public static CompressionDictionary train(List<byte[]> samples, int maxSize) {
+        if (maxSize < 1 || maxSize > CompressionDictionary.MAX_SIZE) {
+            throw new IllegalArgumentException("maxSize must be between 1 and " + CompressionDictionary.MAX_SIZE);
+        }
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (byte[] sample : samples) {
+            Set<String> fragments = new HashSet<>();
+            Matcher matcher = FRAGMENT.matcher(new String(sample, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                fragments.add(matcher.group());
+            }
+            for (String fragment : fragments) {
+                documentFrequency.merge(fragment, 1, Integer::sum);
+            }
+        }
+        int minFrequency = samples.size() > 1 ? 2 : 1;
+        List<Map.Entry<String, Integer>> candidates = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : documentFrequency.entrySet()) {
+            if (entry.getValue() >= minFrequency) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort((a, b) -> Long.compare(score(b), score(a)));
+
+        List<byte[]> selected = new ArrayList<>();
+        StringBuilder selectedText = new StringBuilder();
+        int size = 0;
+        for (Map.Entry<String, Integer> candidate : candidates) {
+            String fragment = candidate.getKey();
+            byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+            if (size + bytes.length > maxSize || selectedText.indexOf(fragment) >= 0) {
+                continue;
+            }
+            selected.add(bytes);
+            selectedText.append(fragment);
+            size += bytes.length;
+        }
+        if (selected.isEmpty()) {
+            return fromSamples(samples, maxSize);
+        }
+        Collections.reverse(selected);
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(size);
+        for (byte[] bytes : selected) {
+            dictionary.writeBytes(bytes);
+        }
+        return new CompressionDictionary(dictionary.toByteArray());
+    }
+
+    /**
+     * Compares plain Deflate with Deflate against a dictionary on a set of payloads. As on the wire, a payload
+     * counts as compressed, including its 4-byte length prefix, only where that makes it smaller.
+     *
+     * @param samples    The payloads to compress.
+     * @param dictionary The dictionary to evaluate.
+     * @return The {@link Report}.
+     * @throws IOException if a payload does not survive a round trip.
+     */
+    public static Report evaluate(List<byte[]> samples, CompressionDictionary dictionary) throws IOException {
+        ICompressor plain = new DeflateCompressor();
+        ICompressor withDictionary = new DeflateCompressor(dictionary);
+        long raw = 0;
+        long plainSize = 0;
+        long dictionarySize = 0;
+        for (byte[] sample : samples) {
+            raw += sample.length;
+            plainSize += sentSize(plain, sample);
+            dictionarySize += sentSize(withDictionary, sample);
+        }
+        return new Report(samples.size(), raw, plainSize, dictionarySize, dictionary);
+    }
+
+    /**
+     * Reads a corpus of frame payloads.
+     *
+     * @param corpus A directory with one payload per file, or a file with one payload per non-empty line.
+     * @return The payloads, in file name or line order.
+     * @throws IOException if the corpus cannot be read.
+     */
+    public static List<byte[]> readCorpus(Path corpus) throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        if (Files.isDirectory(corpus)) {
+            try (Stream<Path> files = Files.list(corpus)) {
+                for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                    samples.add(Files.readAllBytes(file));
+                }
+            }
+        } else {
+            for (String line : Files.readAllLines(corpus, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    samples.add(line.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Trains a dictionary from a corpus or reports the savings of an existing one.
+     *
+     * @param args {@code train <corpus> <dictionary-file> [max-size]} or {@code report <corpus> <dictionary-file>}.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || !(args[0].equals("train") || args[0].equals("report"))) {
+            System.err.println("Usage: DictionaryTrainer train <corpus> <dictionary-file> [max-size]");
+            System.err.println("       DictionaryTrainer report <corpus> <dictionary-file>");
+            System.exit(2);
+            return;
+        }
+        List<byte[]> samples = readCorpus(Path.of(args[1]));
+        Path dictionaryFile = Path.of(args[2]);
+        CompressionDictionary dictionary;
+        if (args[0].equals("train")) {
+            int maxSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_SIZE;
+            dictionary = train(samples, maxSize);
+            dictionary.save(dictionaryFile);
+            System.out.println("Wrote " + dictionary.size() + " byte dictionary " + dictionary.getId() + " to " + dictionaryFile);
+        } else {
+            dictionary = CompressionDictionary.load(dictionaryFile);
+        }
+        System.out.println(evaluate(samples, dictionary));
+    }
+
+    private static long score(Map.Entry<String, Integer> candidate) {
+        return (long) candidate.getValue() * candidate.getKey().length();
+    }
+
+    private static long sentSize(ICompressor compressor, byte[] payload) throws IOException {
+        if (payload.length == 0) {
+            return 0;
+        }
+        byte[] compressed = compressor.compress(payload);
+        if (!Arrays.equals(payload, compressor.decompress(compressed, payload.length))) {
+            throw new IOException("Payload did not survive a round trip through " + compressor.getName());
+        }
+        return Math.min(payload.length, compressed.length + Integer.BYTES);
+    }
+
+    private static CompressionDictionary fromSamples(List<byte[]> samples, int maxSize) {
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream(maxSize);
+        for (int i = samples.size() - 1; i >= 0 && dictionary.size() < maxSize; i--) {
+            byte[] sample = samples.get(i);
+            dictionary.write(sample, 0, Math.min(sample.length, maxSize - dictionary.size()));
+        }
+        if (dictionary.size() == 0) {
+            throw new IllegalArgumentException("The corpus contains no data to train on");
+        }
+        return new CompressionDictionary(dictionary.toByteArray());
+    }
+
+    /**
+     * The result of {@link #evaluate(List, CompressionDictionary)}.
+     *
+     * @param frames         The number of payloads.
+     * @param rawBytes       Their total uncompressed size.
+     * @param deflateBytes   Their total size sent with plain Deflate.
+     * @param dictionaryBytes Their total size sent with Deflate and the dictionary.
+     * @param dictionary     The evaluated dictionary.
+     */
+    public record Report(int frames, long rawBytes, long deflateBytes, long dictionaryBytes, CompressionDictionary dictionary) {
+        /**
+         * Formats the report as a small table of sizes and reductions.
+         *
+         * @return The report text.
+         */
+        @Override
+        public String toString() {
+            return String.format("frames: %d, average %d bytes%n"
+                            + "raw:                %10d bytes%n"
+                            + "deflate:            %10d bytes  (-%.1f%%)%n"
+                            + "deflate+dictionary: %10d bytes  (-%.1f%%)  dictionary %s, %d bytes",
+                    frames, frames == 0 ? 0 : rawBytes / frames,
+                    rawBytes,
+                    deflateBytes, reduction(deflateBytes),
+                    dictionaryBytes, reduction(dictionaryBytes), dictionary.getId(), dictionary.size());
+        }
+
+        private double reduction(long size) {
+            return rawBytes == 0 ? 0 : 100.0 * (rawBytes - size) / rawBytes;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package JSocket2.Protocol.Compression;
+
+import java.io.IOException;
+
+/**
+ * Defines a payload compression algorithm. Implementations are registered with {@link CompressionOptions}
+ * and the compressor used on a connection is negotiated during the handshake, so further algorithms
+ * such as LZ4 or Zstandard can be plugged in without changing the frame format.
+ * <p>
+ * Implementations must be thread-safe, since messages are sealed on any thread.
+ */
+public interface ICompressor {
+    /**
+     * Gets the name the compressor is announced and negotiated by.
+     * @return The compressor name, unique among the registered compressors.
+     */
+    String getName();
+
+    /**
+     * Compresses data.
+     *
+     * @param data The data to compress.
+     * @return The compressed bytes.
+     */
+    byte[] compress(byte[] data);
+
+    /**
+     * Decompresses data produced by {@link #compress(byte[])}.
+     *
+     * @param data           The compressed bytes.
+     * @param originalLength The length of the original data.
+     * @return The original data.
+     * @throws IOException if the data is corrupt or does not decompress to {@code originalLength} bytes.
+     */
+    byte[] decompress(byte[] data, int originalLength) throws IOException;
+}
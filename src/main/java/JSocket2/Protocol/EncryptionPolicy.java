@@ -0,0 +1,147 @@
+package JSocket2.Protocol;
+
+import JSocket2.Cryptography.CipherSuite;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides, per outgoing {@link Message}, whether it is encrypted and with which {@link CipherSuite}.
+ * <p>
+ * Rules are resolved from the most to the least specific: a rule for the message's transfer or RPC
+ * action, then for its RPC controller, then for its {@link MessageType}. When no rule matches, the
+ * encryption flag the message header was built with is honoured, which keeps the default behaviour
+ * unchanged. Handshake messages are never affected, and key rotation messages are always encrypted.
+ * <p>
+ * The policy only governs the sending side. Receivers decrypt whatever the header announces, so
+ * client and server may use different policies and cipher suites.
+ */
+public class EncryptionPolicy {
+    private volatile CipherSuite cipherSuite = CipherSuite.AES_CBC;
+    private final Map<MessageType, Boolean> typeRules = new EnumMap<>(MessageType.class);
+    private final Map<String, Boolean> controllerRules = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> actionRules = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> transferRules = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the cipher suite used for messages this policy decides to encrypt.
+     *
+     * @param cipherSuite The cipher suite; {@link CipherSuite#NONE} disables encryption entirely.
+     * @return This policy for chaining.
+     */
+    public EncryptionPolicy setCipherSuite(CipherSuite cipherSuite) {
+        this.cipherSuite = cipherSuite;
+        return this;
+    }
+
+    /**
+     * Gets the cipher suite used for encrypted messages.
+     * @return The configured {@link CipherSuite}.
+     */
+    public CipherSuite getCipherSuite() {
+        return cipherSuite;
+    }
+
+    /**
+     * Sets whether messages of a type are encrypted.
+     *
+     * @param type    The message type.
+     * @param encrypt {@code true} to encrypt, {@code false} to send in plaintext.
+     * @return This policy for chaining.
+     */
+    public EncryptionPolicy encryptType(MessageType type, boolean encrypt) {
+        synchronized (typeRules) {
+            typeRules.put(type, encrypt);
+        }
+        return this;
+    }
+
+    /**
+     * Sets whether calls to and responses from every action of a controller are encrypted.
+     *
+     * @param controller The controller name, compared case-insensitively.
+     * @param encrypt    {@code true} to encrypt, {@code false} to send in plaintext.
+     * @return This policy for chaining.
+     */
+    public EncryptionPolicy encryptController(String controller, boolean encrypt) {
+        controllerRules.put(MessageScope.normalize(controller), encrypt);
+        return this;
+    }
+
+    /**
+     * Sets whether calls to and responses from a single action are encrypted.
+     *
+     * @param controller The controller name, compared case-insensitively.
+     * @param action     The action name, compared case-insensitively.
+     * @param encrypt    {@code true} to encrypt, {@code false} to send in plaintext.
+     * @return This policy for chaining.
+     */
+    public EncryptionPolicy encryptAction(String controller, String action, boolean encrypt) {
+        actionRules.put(actionKey(MessageScope.normalize(controller), MessageScope.normalize(action)), encrypt);
+        return this;
+    }
+
+    /**
+     * Sets whether the chunks and control messages of one file transfer are encrypted.
+     *
+     * @param fileId  The ID of the transferred file.
+     * @param encrypt {@code true} to encrypt, {@code false} to send in plaintext.
+     * @return This policy for chaining.
+     */
+    public EncryptionPolicy encryptTransfer(String fileId, boolean encrypt) {
+        transferRules.put(fileId, encrypt);
+        return this;
+    }
+
+    /**
+     * Removes the rule of a file transfer, typically once it has completed.
+     *
+     * @param fileId The ID of the transferred file.
+     */
+    public void clearTransfer(String fileId) {
+        transferRules.remove(fileId);
+    }
+
+    /**
+     * Resolves the cipher suite for an outgoing message.
+     *
+     * @param message The message about to be written.
+     * @return The cipher suite to apply, or {@link CipherSuite#NONE} to send the message in plaintext.
+     */
+    public CipherSuite resolve(Message message) {
+        MessageType type = message.header.type;
+        if (type == MessageType.RSA_PUBLIC_KEY || type == MessageType.AES_KEY) {
+            return CipherSuite.NONE;
+        }
+        if (type == MessageType.CHANGE_AES_KEY_REQUEST) {
+            return cipherSuite == CipherSuite.NONE ? CipherSuite.AES_CBC : cipherSuite;
+        }
+        Boolean rule = scopeRule(message.getScope());
+        if (rule == null) {
+            synchronized (typeRules) {
+                rule = typeRules.get(type);
+            }
+        }
+        boolean encrypt = rule != null ? rule : message.header.is_encrypted;
+        return encrypt ? cipherSuite : CipherSuite.NONE;
+    }
+
+    private Boolean scopeRule(MessageScope scope) {
+        if (scope == null) {
+            return null;
+        }
+        if (scope.getKind() == MessageScope.Kind.TRANSFER) {
+            return transferRules.isEmpty() ? null : transferRules.get(scope.getName());
+        }
+        Boolean rule = actionRules.isEmpty() ? null : actionRules.get(actionKey(scope.getName(), scope.getAction()));
+        if (rule == null && !controllerRules.isEmpty()) {
+            rule = controllerRules.get(scope.getName());
+        }
+        return rule;
+    }
+
+    private static String actionKey(String controller, String action) {
+        return controller + "/" + action;
+    }
+}
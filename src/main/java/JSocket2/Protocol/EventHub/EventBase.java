@@ -3,10 +3,11 @@ package JSocket2.Protocol.EventHub;
 import JSocket2.Core.Server.ServerSessionManager;
 import JSocket2.Protocol.Message;
 import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
 import com.google.gson.Gson;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 /**
@@ -18,6 +19,11 @@ public abstract class EventBase {
      * An instance of {@link Gson} for JSON serialization and deserialization.
      */
     protected Gson gson = new Gson();
+    /**
+     * The codec the event's payload is encoded with; JSON unless a subclass chooses another, such as
+     * {@link JSocket2.Protocol.Codec.CborPayloadCodec}.
+     */
+    protected IPayloadCodec payloadCodec = JsonPayloadCodec.INSTANCE;
 
     /**
      * When implemented in a derived class, this method sends the event to a specific client.
@@ -39,11 +45,9 @@ public abstract class EventBase {
      */
     protected Message createEventMessage(String eventName, Object[] payloadObject) {
         EventMetadata metadata = new EventMetadata(eventName);
-        String metadataJson = gson.toJson(metadata);
-        String payloadJson = gson.toJson(payloadObject);
-        byte[] metadataBytes = metadataJson.getBytes(StandardCharsets.UTF_8);
-        byte[] payloadBytes = payloadJson.getBytes(StandardCharsets.UTF_8);
-        MessageHeader header = MessageHeader.BuildEventHeader(UUID.randomUUID(), metadataBytes.length, payloadBytes.length);
-        return new Message(header, metadataBytes, payloadBytes);
+        byte[] payloadBytes = payloadCodec.encode(gson, payloadObject);
+        MessageHeader header = MessageHeader.BuildEventHeader(UUID.randomUUID(), 0, payloadBytes.length);
+        header.content_type = payloadCodec.getContentType();
+        return new Message(header, new byte[0], payloadBytes).setMetadataValue(metadata);
     }
 }
\ No newline at end of file
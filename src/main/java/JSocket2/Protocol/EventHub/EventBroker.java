@@ -1,106 +1,88 @@
 package JSocket2.Protocol.EventHub;
 
 import JSocket2.DI.ServiceProvider;
-import com.google.gson.Gson;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
+import JSocket2.Protocol.Codec.PayloadCodecs;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 
-import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Dispatches events to registered subscribers.
- * It uses a {@link ServiceProvider} to resolve subscriber instances and reflection to invoke the appropriate handler methods.
+ * It uses a {@link ServiceProvider} to resolve subscriber instances and the handler index compiled by
+ * {@link EventSubscriberCollection} to invoke the appropriate handler methods.
  */
 public class EventBroker {
-    private final Map<String, List<Class<?>>> subscribers;
+    private final Map<String, List<EventHandler>> handlers;
     private final ServiceProvider provider;
-    private final Gson gson = new Gson();
 
     /**
      * Constructs a new {@code EventBroker}.
      *
-     * @param provider    The {@link ServiceProvider} used to get instances of subscribers.
-     * @param subscribers A map where keys are event names and values are lists of subscriber classes.
+     * @param provider The {@link ServiceProvider} used to get instances of subscribers.
+     * @param handlers A map where keys are event names and values are the ordered handlers of that event.
      */
-    public EventBroker(ServiceProvider provider, Map<String, List<Class<?>>> subscribers) {
+    EventBroker(ServiceProvider provider, Map<String, List<EventHandler>> handlers) {
         this.provider = provider;
-        this.subscribers = subscribers;
+        this.handlers = handlers;
     }
 
     /**
-     * Publishes an event to all its subscribers.
-     * It finds the relevant subscribers, resolves their instances, and invokes the correct handler method with the deserialized payload.
+     * Publishes an event with a JSON payload to all its subscribers.
      *
-     * @param metadata    The event's metadata, containing the event name.
-     * @param payloadJson The event's payload, serialized as a JSON string.
-     * @throws EventHandlingException if an error occurs during method invocation on a subscriber.
+     * @param metadata The event's metadata, containing the event name.
+     * @param payload  The event's payload, a UTF-8 JSON array as received in the frame body.
+     * @throws EventHandlingException if a subscriber cannot be resolved or one of its handlers throws.
+     * @see #publish(EventMetadata, int, byte[])
      */
-    public void publish(EventMetadata metadata, String payloadJson) {
-        String eventName = metadata.getEventName().toLowerCase();
-        List<Class<?>> subscriberTypes = subscribers.get(eventName);
-
-        if (subscriberTypes == null || subscriberTypes.isEmpty()) return;
-
-        subscriberTypes.parallelStream().forEach(subscriberType -> {
-            Object subscriber = provider.GetService(subscriberType);
-            try {
-                Object[] rawParameters = gson.fromJson(payloadJson, Object[].class);
-                Map<Method, Object[]> matchingMethods = findMatchingMethod(subscriberType, eventName, rawParameters);
-                for (Map.Entry<Method, Object[]> methodsEntry : matchingMethods.entrySet()) {
-                    Method method = methodsEntry.getKey();
-                    Object[] parameters = methodsEntry.getValue();
-                    method.invoke(subscriber, parameters);
-                }
-            } catch (Exception e) {
-                throw new EventHandlingException("Error handling event in subscriber: " + subscriberType.getName(), e);
-            }
-        });
+    public void publish(EventMetadata metadata, byte[] payload) {
+        publish(metadata, JsonPayloadCodec.CONTENT_TYPE, payload);
     }
 
     /**
-     * Finds methods in a subscriber class that match the event name and can accept the provided parameters.
-     * It attempts to deserialize the parameters to the specific types required by the method signature.
+     * Publishes an event to all its subscribers.
+     * The payload is parsed once and every handler whose parameters fit the arguments is invoked in order.
+     * Handlers whose signature does not match are skipped.
      *
-     * @param subscriberClass The class of the subscriber to inspect.
-     * @param eventName       The name of the event.
-     * @param parameters      An array of raw parameter objects deserialized from the JSON payload.
-     * @return A map of matching {@link Method}s to their converted parameter arrays.
+     * @param metadata    The event's metadata, containing the event name.
+     * @param contentType The content type from the frame header, naming the payload codec.
+     * @param payload     The event's encoded argument array, as received in the frame body.
+     * @throws EventHandlingException if a subscriber cannot be resolved or one of its handlers throws;
+     *                                the remaining handlers still run and the first failure is thrown.
      */
-    private Map<Method, Object[]> findMatchingMethod(Class<?> subscriberClass, String eventName, Object[] parameters) {
-        Map<Method, Object[]> matchingMethods = new HashMap<>();
-        Method[] methods = subscriberClass.getMethods();
+    public void publish(EventMetadata metadata, int contentType, byte[] payload) {
+        String eventName = metadata.getEventName();
+        List<EventHandler> eventHandlers = handlers.get(eventName);
+        if (eventHandlers == null) {
+            eventHandlers = handlers.get(eventName.toLowerCase());
+        }
+        if (eventHandlers == null || eventHandlers.isEmpty()) return;
 
-        for (Method method : methods) {
-            if (isEventHandlerMethod(method, eventName)) {
-                Class<?>[] paramTypes = method.getParameterTypes();
-                if (paramTypes.length == parameters.length) {
-                    try {
-                        Object[] convertedParams = new Object[parameters.length];
-                        for (int i = 0; i < parameters.length; i++) {
-                            convertedParams[i] = gson.fromJson(
-                                    gson.toJson(parameters[i]),
-                                    paramTypes[i]
-                            );
-                        }
-                        matchingMethods.put(method, convertedParams);
-                    } catch (Exception e) {
-                        // Ignore if parameter types do not match
-                    }
+        JsonElement parsed = PayloadCodecs.get(contentType).parse(payload);
+        JsonArray arguments = parsed.isJsonArray() ? parsed.getAsJsonArray() : new JsonArray(0);
+        EventHandlingException failure = null;
+        for (EventHandler handler : eventHandlers) {
+            Object[] parameters = handler.bind(arguments);
+            if (parameters == null) continue;
+            try {
+                handler.invoke(provider.GetService(handler.getSubscriberType()), parameters);
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                EventHandlingException handlingException = new EventHandlingException(
+                        "Error handling event in subscriber: " + handler.getSubscriberType().getName(),
+                        e instanceof Exception exception ? exception : new Exception(e));
+                if (failure == null) {
+                    failure = handlingException;
+                } else {
+                    failure.addSuppressed(handlingException);
                 }
             }
         }
-        return matchingMethods;
-    }
-
-    /**
-     * Checks if a method is an event handler for a specific event.
-     *
-     * @param method    The method to check.
-     * @param eventName The name of the event.
-     * @return {@code true} if the method is annotated with {@code @OnEvent} and its value matches the event name (case-insensitive).
-     */
-    private static boolean isEventHandlerMethod(Method method, String eventName) {
-        return method.isAnnotationPresent(OnEvent.class) && method.getAnnotation(OnEvent.class).value().toLowerCase().equals(eventName);
+        if (failure != null) {
+            throw failure;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package JSocket2.Protocol.EventHub;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * A compiled {@link OnEvent} handler: the subscriber type, a {@link MethodHandle} invoker for the
+ * handler method and a Gson {@link TypeAdapter} for each of its parameters. Handlers are built once
+ * by {@link EventSubscriberCollection} so publishing an event does no reflection lookups.
+ */
+final class EventHandler {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private final Class<?> subscriberType;
+    private final int priority;
+    private final MethodHandle invoker;
+    private final TypeAdapter<?>[] parameterAdapters;
+
+    /**
+     * Compiles a handler for an {@link OnEvent} method.
+     *
+     * @param subscriberType The subscriber class resolved from the service provider.
+     * @param method         The public handler method.
+     * @param priority       The priority declared by {@link OnEvent#priority()}.
+     * @param gson           The Gson instance providing the parameter adapters.
+     * @throws IllegalStateException if the method cannot be accessed.
+     */
+    EventHandler(Class<?> subscriberType, Method method, int priority, Gson gson) {
+        this.subscriberType = subscriberType;
+        this.priority = priority;
+        Type[] parameterTypes = method.getGenericParameterTypes();
+        this.parameterAdapters = new TypeAdapter<?>[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterAdapters[i] = gson.getAdapter(TypeToken.get(parameterTypes[i]));
+        }
+        try {
+            method.trySetAccessible();
+            this.invoker = MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Event handler is not accessible: " + method, e);
+        }
+    }
+
+    /**
+     * Gets the subscriber class that declares the handler.
+     *
+     * @return The subscriber type.
+     */
+    Class<?> getSubscriberType() {
+        return subscriberType;
+    }
+
+    /**
+     * Gets the priority of the handler; handlers with a higher priority run first.
+     *
+     * @return The priority.
+     */
+    int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Converts JSON arguments to the parameter types of the handler.
+     *
+     * @param arguments The JSON arguments of the event.
+     * @return The converted arguments, or {@code null} if they do not fit the handler's signature.
+     */
+    Object[] bind(JsonArray arguments) {
+        if (arguments.size() != parameterAdapters.length) {
+            return null;
+        }
+        Object[] parameters = new Object[parameterAdapters.length];
+        try {
+            for (int i = 0; i < parameterAdapters.length; i++) {
+                parameters[i] = parameterAdapters[i].fromJsonTree(arguments.get(i));
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return parameters;
+    }
+
+    /**
+     * Invokes the handler on a subscriber instance.
+     *
+     * @param subscriber The subscriber instance.
+     * @param parameters The bound arguments.
+     * @throws Throwable anything thrown by the handler.
+     */
+    void invoke(Object subscriber, Object[] parameters) throws Throwable {
+        invoker.invokeExact(subscriber, parameters);
+    }
+}
@@ -1,6 +1,7 @@
 package JSocket2.Protocol.EventHub;
 
 import JSocket2.DI.ServiceProvider;
+import com.google.gson.Gson;
 
 import java.util.List;
 import java.util.Map;
@@ -9,10 +10,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages the collection of event subscribers. It scans classes for methods
- * annotated with {@link OnEvent} and registers them as subscribers for the specified events.
+ * annotated with {@link OnEvent} and compiles them into a handler index that maps each
+ * event name to its handlers, ordered by {@link OnEvent#priority()} and then registration order.
  */
 public class EventSubscriberCollection {
-    private final Map<String, List<Class<?>>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, List<EventHandler>> handlers = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
 
     /**
      * Constructs a new, empty {@code EventSubscriberCollection}.
@@ -31,22 +34,27 @@ public class EventSubscriberCollection {
             if (method.isAnnotationPresent(OnEvent.class)) {
                 var onEventAnnotation = method.getAnnotation(OnEvent.class);
                 if (!onEventAnnotation.value().isEmpty()) {
-                    subscribe(onEventAnnotation.value(), subscribeType);
+                    subscribe(onEventAnnotation.value(), new EventHandler(subscribeType, method, onEventAnnotation.priority(), gson));
                 }
             }
         }
     }
 
     /**
-     * Subscribes a class to a specific event name.
+     * Adds a compiled handler to the index of an event, after all handlers of the same or higher priority.
+     * The event is indexed by its lowercase name and by its name as declared.
      *
-     * @param eventName     The name of the event.
-     * @param subscribeType The class that will handle the event.
-     * @param <TSubscriber> The type of the subscriber class.
+     * @param eventName The name of the event.
+     * @param handler   The compiled handler.
      */
-    private <TSubscriber> void subscribe(String eventName, Class<TSubscriber> subscribeType) {
-        subscribers.computeIfAbsent(eventName.toLowerCase(), k -> new CopyOnWriteArrayList<>())
-                .add(subscribeType);
+    private synchronized void subscribe(String eventName, EventHandler handler) {
+        List<EventHandler> eventHandlers = handlers.computeIfAbsent(eventName.toLowerCase(), k -> new CopyOnWriteArrayList<>());
+        handlers.putIfAbsent(eventName, eventHandlers);
+        int index = 0;
+        while (index < eventHandlers.size() && eventHandlers.get(index).getPriority() >= handler.getPriority()) {
+            index++;
+        }
+        eventHandlers.add(index, handler);
     }
 
     /**
@@ -56,6 +64,6 @@ public class EventSubscriberCollection {
      * @return A new {@link EventBroker} configured with the registered subscribers.
      */
     public EventBroker CreateEventBroker(ServiceProvider provider) {
-        return new EventBroker(provider, subscribers);
+        return new EventBroker(provider, handlers);
     }
-}
\ No newline at end of file
+}
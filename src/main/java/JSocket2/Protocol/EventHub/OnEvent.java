@@ -20,8 +20,8 @@ public @interface OnEvent {
     String value();
 
     /**
-     * The priority of the event handler. This is not currently implemented in the broker
-     * but can be used for future extensions like ordered event handling.
+     * The priority of the event handler. Handlers of the same event with a higher priority
+     * are invoked first; handlers of equal priority run in registration order.
      *
      * @return The priority level.
      */
@@ -1,5 +1,8 @@
 package JSocket2.Protocol;
 
+import JSocket2.Protocol.Codec.ICodec;
+import JSocket2.Protocol.Codec.JsonCodec;
+
 /**
  * Represents a data packet exchanged between the client and server.
  * A message consists of a header, optional metadata, an optional payload,
@@ -13,6 +16,10 @@ public class Message {
     private byte[] ivBytes = new byte[0];
     private byte[] metadata = new byte[0];
     private byte[] payload = new byte[0];
+    private MessageScope scope;
+    private Object metadataValue;
+    private ICodec metadataCodec = JsonCodec.INSTANCE;
+    private long receivedNanos;
 
     /**
      * Constructs a message with only a header.
@@ -106,4 +113,96 @@ public class Message {
     public void setIvBytes(byte[] ivBytes) {
         this.ivBytes = ivBytes;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the local scope of the message, used by the {@link EncryptionPolicy}.
+     *
+     * @return The scope, or {@code null} if none was set.
+     */
+    public MessageScope getScope() {
+        return scope;
+    }
+
+    /**
+     * Sets the local scope of the message. The scope is not transmitted.
+     *
+     * @param scope The RPC route or transfer the message belongs to.
+     * @return This message for chaining.
+     */
+    public Message setScope(MessageScope scope) {
+        this.scope = scope;
+        return this;
+    }
+
+    /**
+     * Sets the metadata as an object instead of bytes. Each {@link MessageHandler} encodes it with the
+     * codec negotiated for its connection when the message is written, so one message can be sent to
+     * peers using different codecs.
+     *
+     * @param metadataValue The metadata object, e.g. an {@link JSocket2.Protocol.Rpc.RpcCallMetadata}.
+     * @return This message for chaining.
+     */
+    public Message setMetadataValue(Object metadataValue) {
+        this.metadataValue = metadataValue;
+        return this;
+    }
+
+    /**
+     * Gets the metadata object set by {@link #setMetadataValue(Object)}.
+     *
+     * @return The metadata object, or {@code null} if the metadata was given as bytes.
+     */
+    public Object getMetadataValue() {
+        return metadataValue;
+    }
+
+    /**
+     * Decodes the metadata with the codec it was received with.
+     *
+     * @param type The metadata type.
+     * @param <T>  The metadata type.
+     * @return The decoded metadata.
+     */
+    public <T> T getMetadataAs(Class<T> type) {
+        if (type.isInstance(metadataValue)) {
+            return type.cast(metadataValue);
+        }
+        return metadataCodec.decode(metadata, type);
+    }
+
+    /**
+     * Gets the codec the metadata of a received message is encoded with.
+     *
+     * @return The {@link ICodec}, {@link JsonCodec} unless the connection negotiated another.
+     */
+    public ICodec getMetadataCodec() {
+        return metadataCodec;
+    }
+
+    /**
+     * Sets the codec the metadata is encoded with. Called by {@link MessageHandler#read()}.
+     *
+     * @param metadataCodec The codec of the connection the message was received on.
+     */
+    void setMetadataCodec(ICodec metadataCodec) {
+        this.metadataCodec = metadataCodec;
+    }
+
+    /**
+     * Gets when the message's header was read, for measuring how long it waited before being processed.
+     *
+     * @return The {@link System#nanoTime()} at which the header arrived, or {@code 0} for a message that was not read.
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * Sets when the message's header was read. Called by {@link MessageHandler#read()}.
+     *
+     * @param receivedNanos The {@link System#nanoTime()} at which the header arrived.
+     */
+    void setReceivedNanos(long receivedNanos) {
+        this.receivedNanos = receivedNanos;
+    }
+}
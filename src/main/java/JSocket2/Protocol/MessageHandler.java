@@ -1,11 +1,17 @@
 package JSocket2.Protocol;
 
 import JSocket2.Core.Session;
+import JSocket2.Core.SessionKey;
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Cryptography.IvSequence;
+import JSocket2.Protocol.Codec.ICodec;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Compression.ICompressor;
+import JSocket2.Protocol.Codec.JsonCodec;
 import JSocket2.Utils.MessageUtil;
 
 import java.io.*;
 import java.nio.ByteBuffer;
-import java.util.UUID;
 
 /**
  * Handles the reading and writing of {@link Message} objects to and from network streams.
@@ -16,7 +22,11 @@ public class MessageHandler {
     private final InputStream in;
     private final OutputStream out;
     private Session session;
-    private static final int HEADER_SIZE = 35;
+    private final EncryptionPolicy encryptionPolicy;
+    private volatile SessionKeyRotator keyRotator;
+    private volatile ICodec metadataCodec = JsonCodec.INSTANCE;
+    private volatile CompressionOptions compressionOptions = new CompressionOptions();
+    private volatile ICompressor compressor;
     private static final byte[] MAGIC_BYTES = new byte[] { 0x12, 0x34, 0x56, 0x78 };
 
     /**
@@ -27,9 +37,91 @@ public class MessageHandler {
      * @param session The session associated with the connection.
      */
     public MessageHandler(InputStream in, OutputStream out,Session session) {
+        this(in, out, session, new EncryptionPolicy());
+    }
+
+    /**
+     * Constructs a MessageHandler that encrypts outgoing messages according to a policy.
+     *
+     * @param in               The input stream to read from.
+     * @param out              The output stream to write to.
+     * @param session          The session associated with the connection.
+     * @param encryptionPolicy The policy deciding which outgoing messages are encrypted and how.
+     */
+    public MessageHandler(InputStream in, OutputStream out, Session session, EncryptionPolicy encryptionPolicy) {
         this.in = in;
         this.out = out;
         this.session = session;
+        this.encryptionPolicy = encryptionPolicy;
+    }
+
+    /**
+     * Gets the encryption policy applied to outgoing messages.
+     *
+     * @return The {@link EncryptionPolicy} of this handler.
+     */
+    public EncryptionPolicy getEncryptionPolicy() {
+        return encryptionPolicy;
+    }
+
+    /**
+     * Sets the rotator that is notified after each encrypted message, so it can rotate the session key
+     * when a {@link JSocket2.Cryptography.RekeyOptions} limit is reached.
+     *
+     * @param keyRotator The rotator for this connection.
+     */
+    public void setKeyRotator(SessionKeyRotator keyRotator) {
+        this.keyRotator = keyRotator;
+    }
+
+    /**
+     * Gets the key rotator of this connection.
+     *
+     * @return The {@link SessionKeyRotator}, or {@code null} if none was set.
+     */
+    public SessionKeyRotator getKeyRotator() {
+        return keyRotator;
+    }
+
+    /**
+     * Sets the codec for framework metadata on this connection, as negotiated during the handshake.
+     * Messages written afterwards encode their {@link Message#getMetadataValue() metadata objects}
+     * with it, and messages read afterwards are decoded with it.
+     *
+     * @param metadataCodec The negotiated codec.
+     */
+    public void setMetadataCodec(ICodec metadataCodec) {
+        this.metadataCodec = metadataCodec;
+    }
+
+    /**
+     * Gets the codec for framework metadata on this connection.
+     *
+     * @return The {@link ICodec}, {@link JsonCodec} until the handshake negotiated another.
+     */
+    public ICodec getMetadataCodec() {
+        return metadataCodec;
+    }
+
+    /**
+     * Sets the payload compressor for this connection, as negotiated during the handshake. Messages written
+     * afterwards are compressed when the options allow it, and compressed messages can be read.
+     *
+     * @param compressor The negotiated compressor, or {@code null} to send uncompressed frames.
+     * @param options    The options deciding which payloads are compressed.
+     */
+    public void setCompression(ICompressor compressor, CompressionOptions options) {
+        this.compressionOptions = options;
+        this.compressor = compressor;
+    }
+
+    /**
+     * Gets the payload compressor of this connection.
+     *
+     * @return The {@link ICompressor}, or {@code null} if none was negotiated.
+     */
+    public ICompressor getCompressor() {
+        return compressor;
     }
 
     /**
@@ -72,7 +164,7 @@ public class MessageHandler {
 
     /**
      * Reads a complete message from the input stream.
-     * It handles synchronization, reads the header and body, and performs decryption if required.
+     * It handles synchronization, reads the header and body, and performs decryption and decompression if required.
      *
      * @return The deserialized {@link Message}.
      * @throws IOException If an I/O error occurs.
@@ -81,13 +173,23 @@ public class MessageHandler {
         syncToMagicBytes();
         MessageHeader header = readHeader();
         Message message = new Message(header);
+        message.setReceivedNanos(System.nanoTime());
+        message.setMetadataCodec(metadataCodec);
+        CipherSuite cipherSuite = header.cipher_suite;
         if(header.is_encrypted && header.type != MessageType.AES_KEY){
-            byte[] ivBytes = readFully(16);
+            byte[] ivBytes = readFully(cipherSuite.ivLength);
             message.setIvBytes(ivBytes);
         }
         readBody(message);
         if(header.is_encrypted && header.type != MessageType.AES_KEY) {
-            MessageUtil.DecryptMessage(message, session.getAESKey());
+            SessionKey key = session.getKey(header.key_epoch);
+            if (key == null) {
+                throw new IOException("Message encrypted under unknown or retired key epoch " + header.key_epoch);
+            }
+            MessageUtil.DecryptMessage(message, cipherSuite, key.getCipherKey(cipherSuite));
+        }
+        if (header.is_compressed) {
+            message.setPayload(decompress(message.getPayload()));
         }
         return message;
     }
@@ -126,23 +228,145 @@ public class MessageHandler {
 
     /**
      * Writes a complete message to the output stream.
-     * This method is synchronized to ensure thread safety. It performs encryption if required
-     * and writes the magic bytes, header, and body.
+     * This method is synchronized to ensure thread safety. It encrypts the message if the
+     * {@link EncryptionPolicy} requires it and writes the magic bytes, header, and body.
+     * The message itself is left untouched, so the same instance can be written to several
+     * connections, each encrypting it with its own session key. Encrypted frames carry the key
+     * epoch they were encrypted under.
      *
      * @param message The message to be written.
      * @throws IOException If an I/O error occurs.
      */
-    public synchronized void write(Message message) throws IOException {
-        if(message.header.is_encrypted && message.header.type != MessageType.AES_KEY){
-            MessageUtil.EncryptMessage(message,session.getAESKey());
+    public void write(Message message) throws IOException {
+        writeSealed(seal(message));
+    }
+
+    /**
+     * Encodes the metadata object, if any, with the connection's codec, compresses the payload if the
+     * {@link CompressionOptions} allow it and encrypts a message for this connection according to the
+     * {@link EncryptionPolicy} without writing it.
+     * This method performs no I/O and may be called from any thread.
+     *
+     * @param message The message to seal.
+     * @return The {@link SealedMessage} to pass to {@link #writeSealed(SealedMessage)}.
+     */
+    public SealedMessage seal(Message message) {
+        return seal(message, null, 0);
+    }
+
+    /**
+     * Encrypts a message for this connection, taking its IV from a counter-based {@link IvSequence}
+     * instead of a fresh random IV. Used when many messages of one stream are sealed in parallel.
+     *
+     * @param message    The message to seal.
+     * @param ivSequence The IV sequence, or {@code null} for a random IV. It is only used if the
+     *                   policy selects the sequence's cipher suite for this message.
+     * @param counter    The counter value of this message within the sequence.
+     * @return The {@link SealedMessage} to pass to {@link #writeSealed(SealedMessage)}.
+     */
+    public SealedMessage seal(Message message, IvSequence ivSequence, long counter) {
+        CipherSuite cipherSuite = encryptionPolicy.resolve(message);
+        byte[] ivBytes = new byte[0];
+        byte[] metadata = message.getMetadataValue() != null
+                ? metadataCodec.encode(message.getMetadataValue())
+                : message.getMetadata();
+        byte[] payload = message.getPayload();
+        byte[] compressedPayload = compress(message.header.type, payload);
+        boolean compressed = compressedPayload != null;
+        if (compressed) {
+            payload = compressedPayload;
+        }
+        int keyEpoch = 0;
+        if (cipherSuite != CipherSuite.NONE) {
+            SessionKey sessionKey = session.getCurrentKey();
+            var key = sessionKey.getCipherKey(cipherSuite);
+            keyEpoch = sessionKey.getEpoch();
+            ivBytes = ivSequence != null && ivSequence.getCipherSuite() == cipherSuite
+                    ? ivSequence.ivFor(counter, key)
+                    : cipherSuite.generateIv();
+            metadata = MessageUtil.encryptPart(metadata, cipherSuite, key, ivBytes, 0);
+            payload = MessageUtil.encryptPart(payload, cipherSuite, key, ivBytes, 1);
+        }
+        return new SealedMessage(message.header, cipherSuite, keyEpoch, compressed, ivBytes, metadata, payload);
+    }
+
+    /**
+     * Compresses a payload with the negotiated compressor if its message type is enabled, it reaches the
+     * threshold and it shrinks. The result is the original length as a 4-byte prefix followed by the
+     * compressed bytes.
+     *
+     * @param type    The message type.
+     * @param payload The payload to compress.
+     * @return The compressed payload, or {@code null} to send it as it is.
+     */
+    private byte[] compress(MessageType type, byte[] payload) {
+        ICompressor currentCompressor = compressor;
+        if (currentCompressor == null) {
+            return null;
+        }
+        CompressionOptions options = compressionOptions;
+        if (payload.length < options.getThreshold() || !options.isEnabled(type)) {
+            return null;
+        }
+        byte[] compressed = currentCompressor.compress(payload);
+        if (compressed.length + Integer.BYTES >= payload.length) {
+            return null;
+        }
+        return ByteBuffer.allocate(Integer.BYTES + compressed.length)
+                .putInt(payload.length)
+                .put(compressed)
+                .array();
+    }
+
+    /**
+     * Restores a payload produced by {@link #compress(MessageType, byte[])}.
+     *
+     * @param payload The length-prefixed compressed payload.
+     * @return The original payload.
+     * @throws IOException if no compressor was negotiated or the payload is corrupt or too large.
+     */
+    private byte[] decompress(byte[] payload) throws IOException {
+        ICompressor currentCompressor = compressor;
+        if (currentCompressor == null) {
+            throw new IOException("Received a compressed frame but no compression was negotiated");
+        }
+        if (payload.length < Integer.BYTES) {
+            throw new IOException("Compressed payload is truncated");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        int originalLength = buffer.getInt();
+        if (originalLength < 0 || originalLength > compressionOptions.getMaxDecompressedSize()) {
+            throw new IOException("Compressed payload declares " + originalLength + " bytes, exceeding the limit of "
+                    + compressionOptions.getMaxDecompressedSize());
+        }
+        byte[] compressed = new byte[buffer.remaining()];
+        buffer.get(compressed);
+        return currentCompressor.decompress(compressed, originalLength);
+    }
+
+    /**
+     * Writes a message sealed by {@link #seal(Message)} to the output stream.
+     * This method is synchronized on the handler, so frames from concurrent writers never interleave.
+     *
+     * @param sealed The sealed message.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeSealed(SealedMessage sealed) throws IOException {
+        synchronized (this) {
+            out.write(MAGIC_BYTES);
+            writeHeader(sealed.header, sealed.cipherSuite, sealed.keyEpoch, sealed.compressed, sealed.metadata.length, sealed.payload.length);
+            out.write(sealed.ivBytes);
+            out.write(sealed.metadata);
+            out.write(sealed.payload);
+            out.flush();
         }
-        out.write(MAGIC_BYTES);
-        writeHeader(message.header);
-        if(message.header.is_encrypted && message.header.type != MessageType.AES_KEY){
-            out.write(message.getIvBytes());
+        if (sealed.cipherSuite != CipherSuite.NONE) {
+            session.recordEncrypted(sealed.getBodyLength());
+            SessionKeyRotator rotator = keyRotator;
+            if (rotator != null) {
+                rotator.onMessageSent();
+            }
         }
-        writeBody(message);
-        out.flush();
     }
 
     /**
@@ -152,45 +376,24 @@ public class MessageHandler {
      * @throws IOException If an I/O error occurs.
      */
     private MessageHeader readHeader() throws IOException {
-        byte[] headerBytes = readFully(HEADER_SIZE);
-        ByteBuffer buffer = ByteBuffer.wrap(headerBytes);
-        long mostSigBits = buffer.getLong();
-        long leastSigBits = buffer.getLong();
-        UUID uuid = new UUID(mostSigBits, leastSigBits);
-        MessageType message_type = MessageType.fromCode(buffer.get());
-        boolean is_need_ack = buffer.get() != 0;
-        boolean is_encrypted = buffer.get() != 0;
-        long timestamp = buffer.getLong();
-        int metadata_length = buffer.getInt();
-        int payload_length = buffer.getInt();
-
-        return new MessageHeader(
-                uuid,
-                message_type,
-                is_need_ack,
-                is_encrypted,
-                timestamp,
-                metadata_length,
-                payload_length
-        );
-    }
-
-    /**
-     * Serializes and writes the message header to the output stream.
-     *
-     * @param header The {@link MessageHeader} to write.
+        return MessageHeader.decode(ByteBuffer.wrap(readFully(MessageHeader.SIZE)));
+    }
+
+    /**
+     * Serializes and writes the message header to the output stream. The flags, the encryption byte and
+     * the lengths describe the bytes actually written, which may differ from the header of the message.
+     *
+     * @param header          The {@link MessageHeader} to write.
+     * @param cipherSuite     The cipher suite applied to the body.
+     * @param keyEpoch        The key epoch the body was encrypted under.
+     * @param compressed      Whether the payload was compressed.
+     * @param metadata_length The length of the metadata as written.
+     * @param payload_length  The length of the payload as written.
      * @throws IOException If an I/O error occurs.
      */
-    private void writeHeader(MessageHeader header) throws IOException {
-        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
-        buffer.putLong(header.uuid.getMostSignificantBits());
-        buffer.putLong(header.uuid.getLeastSignificantBits());
-        buffer.put((byte) header.type.code);
-        buffer.put((byte) (header.is_need_ack ? 1 : 0));
-        buffer.put((byte) (header.is_encrypted ? 1 : 0));
-        buffer.putLong(header.timestamp);
-        buffer.putInt(header.metadata_length);
-        buffer.putInt(header.payload_length);
+    private void writeHeader(MessageHeader header, CipherSuite cipherSuite, int keyEpoch, boolean compressed, int metadata_length, int payload_length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MessageHeader.SIZE);
+        header.encode(buffer, cipherSuite, keyEpoch, compressed, metadata_length, payload_length);
         out.write(buffer.array());
     }
 
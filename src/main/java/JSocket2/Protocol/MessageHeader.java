@@ -1,5 +1,8 @@
 package JSocket2.Protocol;
 
+import JSocket2.Cryptography.CipherSuite;
+
+import java.nio.ByteBuffer;
 import java.util.UUID;
 
 /**
@@ -8,6 +11,23 @@ import java.util.UUID;
  * This class provides static factory methods for building headers for specific message types.
  */
 public class MessageHeader {
+    /**
+     * The size of an encoded header in bytes, excluding the magic bytes that precede it.
+     */
+    public static final int SIZE = 36;
+    /**
+     * The flag bit marking a frame that requires an acknowledgment.
+     */
+    public static final int FLAG_NEED_ACK = 0x01;
+    /**
+     * The flag bit marking a frame whose payload was compressed with the connection's negotiated compressor.
+     */
+    public static final int FLAG_COMPRESSED = 0x02;
+    /**
+     * The flag bits holding the payload content type, see {@link JSocket2.Protocol.Codec.PayloadCodecs}.
+     */
+    public static final int FLAG_CONTENT_TYPE_MASK = 0x0C;
+    private static final int CONTENT_TYPE_SHIFT = 2;
     /**
      * A unique identifier for the message, used for request-response matching.
      */
@@ -22,8 +42,26 @@ public class MessageHeader {
     public final boolean is_need_ack;
     /**
      * A flag indicating if the message payload and metadata are encrypted.
+     * For outgoing messages this is the default an {@link EncryptionPolicy} may override.
      */
     public final boolean is_encrypted;
+    /**
+     * The cipher suite a received message was encrypted with; {@code null} for locally built headers.
+     */
+    public CipherSuite cipher_suite;
+    /**
+     * The key epoch a received message was encrypted under.
+     */
+    public int key_epoch;
+    /**
+     * Whether a received message's payload arrived compressed.
+     */
+    public boolean is_compressed;
+    /**
+     * The content type of the payload, identifying the {@link JSocket2.Protocol.Codec.IPayloadCodec} it is
+     * encoded with; 0 is JSON.
+     */
+    public int content_type;
     /**
      * The timestamp when the message was created.
      */
@@ -118,6 +156,78 @@ public class MessageHeader {
         return new MessageHeader(uuid,MessageType.RPC_CALL,false,is_encrypted,metadataLength,payloadLength);
     }
 
+    /**
+     * Builds a header for an RPC call whose last argument is streamed after it.
+     * @param uuid A unique UUID for the call; the items and their end carry it too.
+     * @param is_encrypted Whether the message is encrypted.
+     * @param metadataLength The length of the metadata.
+     * @param payloadLength The length of the payload.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcStreamCallHeader(UUID uuid,boolean is_encrypted,int metadataLength, int payloadLength){
+        return new MessageHeader(uuid,MessageType.RPC_STREAM_CALL,false,is_encrypted,metadataLength,payloadLength);
+    }
+
+    /**
+     * Builds a header for a frame carrying several RPC calls.
+     * @param uuid A unique UUID for the batch; each call keeps its own request id.
+     * @param is_encrypted Whether the message is encrypted.
+     * @param payloadLength The length of the encoded calls.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcBatchHeader(UUID uuid,boolean is_encrypted,int payloadLength){
+        return new MessageHeader(uuid,MessageType.RPC_BATCH,false,is_encrypted,0,payloadLength);
+    }
+
+    /**
+     * Builds a header for a frame carrying the responses to several RPC calls.
+     * @param uuid A unique UUID for the batch; each response keeps the request id of its call.
+     * @param is_encrypted Whether the message is encrypted.
+     * @param payloadLength The length of the encoded responses.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcBatchResponseHeader(UUID uuid,boolean is_encrypted,int payloadLength){
+        return new MessageHeader(uuid,MessageType.RPC_BATCH_RESPONSE,false,is_encrypted,0,payloadLength);
+    }
+
+    /**
+     * Builds a header for a chunk of a streamed RPC result.
+     * @param uuid The UUID of the RPC call being answered.
+     * @param is_encrypted Whether the message is encrypted.
+     * @param payloadLength The length of the encoded items.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcStreamItemHeader(UUID uuid,boolean is_encrypted,int payloadLength){
+        return new MessageHeader(uuid,MessageType.RPC_STREAM_ITEM,false,is_encrypted,0,payloadLength);
+    }
+
+    /**
+     * Builds a header granting credit for more chunks of a streamed RPC result.
+     * @param uuid The UUID of the RPC call being streamed.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcStreamCreditHeader(UUID uuid){
+        return new MessageHeader(uuid,MessageType.RPC_STREAM_CREDIT,false,false,0,4);
+    }
+
+    /**
+     * Builds a header cancelling a streamed RPC result.
+     * @param uuid The UUID of the RPC call being streamed.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcStreamCancelHeader(UUID uuid){
+        return new MessageHeader(uuid,MessageType.RPC_STREAM_CANCEL,false,false,0,0);
+    }
+
+    /**
+     * Builds a header ending the items a client streams to an RPC call.
+     * @param uuid The UUID of the RPC call the items belong to.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildRpcStreamEndHeader(UUID uuid){
+        return new MessageHeader(uuid,MessageType.RPC_STREAM_END,false,false,0,0);
+    }
+
     /**
      * Builds a header for a file upload acknowledgment.
      * @param uuid The UUID of the original upload request.
@@ -230,6 +340,17 @@ public class MessageHeader {
         return new MessageHeader(uuid,MessageType.AES_KEY,true,true,0,payloadLength);
     }
 
+    /**
+     * Builds a header for a session key rotation message. A payload carries the epoch and the new key,
+     * an empty payload asks the peer to rotate.
+     * @param uuid A unique UUID for the rotation.
+     * @param payloadLength The length of the payload.
+     * @return A new MessageHeader instance.
+     */
+    public static MessageHeader BuildChangeAesKeyHeader(UUID uuid, int payloadLength) {
+        return new MessageHeader(uuid,MessageType.CHANGE_AES_KEY_REQUEST,false,true,0,payloadLength);
+    }
+
     /**
      * Builds a header for an authentication message.
      * @param uuid A unique UUID for the authentication request.
@@ -250,4 +371,79 @@ public class MessageHeader {
     public static MessageHeader BuildEventHeader(UUID uuid,int metadataLength, int payloadLength) {
         return new MessageHeader(uuid,MessageType.EVENT,true,true,metadataLength,payloadLength);
     }
-}
\ No newline at end of file
+
+    /**
+     * Encodes this header into a buffer. The encryption byte and the lengths describe the bytes
+     * actually written, which may differ from the values held by this header.
+     *
+     * @param buffer          The buffer to write {@link #SIZE} bytes to.
+     * @param cipherSuite     The cipher suite applied to the body.
+     * @param keyEpoch        The key epoch the body was encrypted under.
+     * @param metadata_length The length of the metadata as written.
+     * @param payload_length  The length of the payload as written.
+     */
+    public void encode(ByteBuffer buffer, CipherSuite cipherSuite, int keyEpoch, int metadata_length, int payload_length) {
+        encode(buffer, cipherSuite, keyEpoch, false, metadata_length, payload_length);
+    }
+
+    /**
+     * Encodes this header into a buffer. The flags, the encryption byte and the lengths describe the bytes
+     * actually written, which may differ from the values held by this header.
+     *
+     * @param buffer          The buffer to write {@link #SIZE} bytes to.
+     * @param cipherSuite     The cipher suite applied to the body.
+     * @param keyEpoch        The key epoch the body was encrypted under.
+     * @param compressed      Whether the payload was compressed.
+     * @param metadata_length The length of the metadata as written.
+     * @param payload_length  The length of the payload as written.
+     */
+    public void encode(ByteBuffer buffer, CipherSuite cipherSuite, int keyEpoch, boolean compressed, int metadata_length, int payload_length) {
+        int flags = (is_need_ack ? FLAG_NEED_ACK : 0) | (compressed ? FLAG_COMPRESSED : 0)
+                | ((content_type << CONTENT_TYPE_SHIFT) & FLAG_CONTENT_TYPE_MASK);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        buffer.put((byte) type.code);
+        buffer.put((byte) flags);
+        buffer.put((byte) cipherSuite.code);
+        buffer.put((byte) keyEpoch);
+        buffer.putLong(timestamp);
+        buffer.putInt(metadata_length);
+        buffer.putInt(payload_length);
+    }
+
+    /**
+     * Decodes a header from a buffer.
+     *
+     * @param buffer The buffer to read {@link #SIZE} bytes from.
+     * @return The decoded {@link MessageHeader}, with {@link #cipher_suite}, {@link #key_epoch}, {@link #is_compressed}
+     * and {@link #content_type} set.
+     */
+    public static MessageHeader decode(ByteBuffer buffer) {
+        long mostSigBits = buffer.getLong();
+        long leastSigBits = buffer.getLong();
+        UUID uuid = new UUID(mostSigBits, leastSigBits);
+        MessageType message_type = MessageType.fromCode(buffer.get());
+        int flags = buffer.get();
+        boolean is_need_ack = (flags & FLAG_NEED_ACK) != 0;
+        CipherSuite cipher_suite = CipherSuite.fromCode(buffer.get());
+        int key_epoch = buffer.get() & 0xFF;
+        long timestamp = buffer.getLong();
+        int metadata_length = buffer.getInt();
+        int payload_length = buffer.getInt();
+
+        MessageHeader header = new MessageHeader(
+                uuid,
+                message_type,
+                is_need_ack,
+                cipher_suite != CipherSuite.NONE,
+                timestamp,
+                metadata_length,
+                payload_length
+        );
+        header.cipher_suite = cipher_suite;
+        header.key_epoch = key_epoch;
+        header.is_compressed = (flags & FLAG_COMPRESSED) != 0;
+        header.content_type = (flags & FLAG_CONTENT_TYPE_MASK) >>> CONTENT_TYPE_SHIFT;
+        return header;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.concurrent.*;
 /**
  * Runs in a background thread to continuously listen for incoming messages.
  * It reads messages from the network, dispatches responses to waiting futures,
- * and passes other messages to a message processor.
+ * and passes other messages, including the chunks of streamed results, to a message processor.
  */
 public class MessageListener implements Runnable {
 
@@ -53,8 +53,8 @@ public class MessageListener implements Runnable {
         while (running) {
             try {
                 Message message = messageHandler.read();
-                if (message.header.uuid != null &&
-                        pendingRequests.containsKey(message.header.uuid)) {
+                if (message.header.uuid != null && message.header.type != MessageType.RPC_STREAM_ITEM
+                        && message.header.type != MessageType.RPC_STREAM_CREDIT && pendingRequests.containsKey(message.header.uuid)) {
                     CompletableFuture<Message> future = pendingRequests.remove(message.header.uuid);
                     future.complete(message);
                 } else {
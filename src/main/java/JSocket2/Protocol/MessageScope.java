@@ -0,0 +1,81 @@
+package JSocket2.Protocol;
+
+import java.util.Locale;
+
+/**
+ * Describes what a {@link Message} belongs to, such as the RPC route it calls or answers or the
+ * file transfer it is part of. The scope is local to the sending side and is never written to the
+ * wire; it lets an {@link EncryptionPolicy} make decisions without parsing the message metadata.
+ */
+public final class MessageScope {
+
+    /**
+     * The kind of operation a scope refers to.
+     */
+    public enum Kind {
+        /** An RPC call or response, identified by controller and action. */
+        RPC,
+        /** A file transfer, identified by its file ID. */
+        TRANSFER
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final String action;
+
+    private MessageScope(Kind kind, String name, String action) {
+        this.kind = kind;
+        this.name = name;
+        this.action = action;
+    }
+
+    /**
+     * Creates a scope for an RPC call or response. Names are compared case-insensitively,
+     * matching how the dispatcher resolves controllers and actions.
+     *
+     * @param controller The controller name.
+     * @param action     The action name.
+     * @return A new RPC scope.
+     */
+    public static MessageScope rpc(String controller, String action) {
+        return new MessageScope(Kind.RPC, normalize(controller), normalize(action));
+    }
+
+    /**
+     * Creates a scope for the messages of one file transfer.
+     *
+     * @param fileId The ID of the transferred file.
+     * @return A new transfer scope.
+     */
+    public static MessageScope transfer(String fileId) {
+        return new MessageScope(Kind.TRANSFER, fileId, null);
+    }
+
+    /**
+     * Gets the kind of this scope.
+     * @return The scope kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the controller name for RPC scopes or the file ID for transfer scopes.
+     * @return The scope name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the action name of an RPC scope.
+     * @return The action name, or {@code null} for transfer scopes.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    static String normalize(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
+    }
+}
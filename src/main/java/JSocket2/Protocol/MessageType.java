@@ -9,6 +9,20 @@ public enum MessageType {
     RPC_CALL(10),
     /** Response to an RPC */
     RPC_RESPONSE(11),
+    /** Several RPC calls sent in one frame */
+    RPC_BATCH(12),
+    /** The responses to the calls of an RPC batch, sent in one frame */
+    RPC_BATCH_RESPONSE(13),
+    /** A chunk of the items of a streamed RPC result */
+    RPC_STREAM_ITEM(14),
+    /** Credit for more chunks of a streamed RPC result */
+    RPC_STREAM_CREDIT(15),
+    /** Cancels a streamed RPC result */
+    RPC_STREAM_CANCEL(16),
+    /** An RPC call whose last argument follows in chunks of items */
+    RPC_STREAM_CALL(17),
+    /** Ends the items a client streams to an RPC call */
+    RPC_STREAM_END(18),
 
     /** Request to upload a file */
     UPLOAD_REQUEST(20),
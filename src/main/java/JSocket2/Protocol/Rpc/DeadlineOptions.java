@@ -0,0 +1,77 @@
+package JSocket2.Protocol.Rpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures RPC deadlines on the client. A call with a timeout carries it in its metadata, so the server skips
+ * the call if it waited out its budget before dispatch, and the client stops waiting once it passes: the call then
+ * completes with {@link JSocket2.Protocol.StatusCode#REQUEST_TIMEOUT}. Pending calls are expired by a
+ * {@link JSocket2.Utils.HashedTimingWheel}, whose tick is the precision of the client-side timeout.
+ */
+public class DeadlineOptions {
+    private long defaultTimeoutMillis = 0;
+    private long tickMillis = 10;
+    private int ticksPerWheel = 512;
+
+    /**
+     * Sets the timeout of calls whose caller sets none, see {@link RpcCallerBase#setTimeout(long, TimeUnit)}.
+     *
+     * @param timeout The timeout, or {@code 0} for calls without a deadline, the default.
+     * @param unit    The unit of {@code timeout}.
+     * @return This instance for chaining.
+     */
+    public DeadlineOptions setDefaultTimeout(long timeout, TimeUnit unit) {
+        this.defaultTimeoutMillis = Math.max(unit.toMillis(timeout), 0);
+        return this;
+    }
+
+    /**
+     * Gets the timeout of calls whose caller sets none.
+     *
+     * @return The timeout in milliseconds, or {@code 0} if such calls have no deadline.
+     */
+    public long getDefaultTimeoutMillis() {
+        return defaultTimeoutMillis;
+    }
+
+    /**
+     * Sets the tick of the timing wheel: a call is expired up to one tick after its deadline.
+     *
+     * @param tickMillis The tick in milliseconds, at least 1; 10 by default.
+     * @return This instance for chaining.
+     */
+    public DeadlineOptions setTickMillis(long tickMillis) {
+        this.tickMillis = Math.max(tickMillis, 1);
+        return this;
+    }
+
+    /**
+     * Gets the tick of the timing wheel.
+     *
+     * @return The tick in milliseconds.
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Sets the number of buckets of the timing wheel. Deadlines further away than one turn of the wheel
+     * ({@code ticksPerWheel * tickMillis}) are checked once per turn until they are due.
+     *
+     * @param ticksPerWheel The number of buckets, rounded up to a power of two; 512 by default.
+     * @return This instance for chaining.
+     */
+    public DeadlineOptions setTicksPerWheel(int ticksPerWheel) {
+        this.ticksPerWheel = Math.max(ticksPerWheel, 1);
+        return this;
+    }
+
+    /**
+     * Gets the number of buckets of the timing wheel.
+     *
+     * @return The number of buckets.
+     */
+    public int getTicksPerWheel() {
+        return ticksPerWheel;
+    }
+}
@@ -0,0 +1,46 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Protocol.StatusCode;
+import com.google.gson.JsonArray;
+
+/**
+ * Binds the calls of one controller to its action methods with direct calls. Implementations are generated at
+ * compile time by {@link JSocket2.Protocol.Rpc.Processor.RpcProcessor} for every {@link RpcController}, and the
+ * {@link RpcDispatcher} prefers them over its reflective route table when they are on the classpath.
+ * <p>
+ * A binder matches actions exactly like the route table: names case-insensitively, overloads by arity and then in
+ * declaration order, moving on to the next overload when an argument does not bind.
+ */
+public interface IRpcBinder {
+    /**
+     * Returned by {@link #invoke} when no action of the controller takes the given name and arguments.
+     */
+    RpcResponse<Object> NO_MATCH = new RpcResponse<>(StatusCode.NOT_FOUND, "No matching action.", null);
+
+    /**
+     * Binds the arguments and invokes the matching action.
+     *
+     * @param controller The controller instance.
+     * @param action     The action name as sent by the caller.
+     * @param arguments  The decoded argument array.
+     * @return The response of the action, or {@link #NO_MATCH} if no overload fits.
+     * @throws Throwable Anything thrown by the action itself.
+     */
+    RpcResponse<?> invoke(Object controller, String action, JsonArray arguments) throws Throwable;
+
+    /**
+     * Binds the arguments of a call whose last argument the client streams, and invokes the matching action. An
+     * action takes the streamed items as a trailing {@link java.util.Iterator} parameter; the argument the call
+     * carries in that position is ignored.
+     *
+     * @param controller The controller instance.
+     * @param action     The action name as sent by the caller.
+     * @param arguments  The decoded argument array.
+     * @param items      The items the client streams, or {@code null} for a plain call.
+     * @return The response of the action, or {@link #NO_MATCH} if no overload fits.
+     * @throws Throwable Anything thrown by the action itself.
+     */
+    default RpcResponse<?> invoke(Object controller, String action, JsonArray arguments, RpcItemReceiver items) throws Throwable {
+        return invoke(controller, action, arguments);
+    }
+}
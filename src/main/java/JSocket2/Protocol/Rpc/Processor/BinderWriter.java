@@ -0,0 +1,173 @@
+package JSocket2.Protocol.Rpc.Processor;
+
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes the {@link JSocket2.Protocol.Rpc.IRpcBinder} of a controller. The binder switches on the action name and
+ * arity, binds each argument with an {@code RpcBindings} conversion or a {@code TypeAdapter} fetched once in its
+ * constructor, and calls the action directly. Overloads are tried in declaration order; an argument that does not
+ * bind breaks out to the next one. A trailing {@code Iterator} parameter is bound to the items the client streams
+ * with the call.
+ */
+final class BinderWriter {
+    private final ControllerModel controller;
+    private final Types types;
+    private final Map<String, String> adapters = new LinkedHashMap<>();
+    private final Map<String, String> adapterTypes = new LinkedHashMap<>();
+    private int overloads;
+
+    BinderWriter(ControllerModel controller, Types types) {
+        this.controller = controller;
+        this.types = types;
+    }
+
+    /**
+     * Writes the source of the binder.
+     *
+     * @param simpleName The simple name of the binder class.
+     * @return The Java source.
+     */
+    String write(String simpleName) {
+        String controllerType = controller.type.getQualifiedName().toString();
+        StringBuilder body = new StringBuilder();
+        body.append("    @Override\n");
+        body.append("    public JSocket2.Protocol.Rpc.RpcResponse<?> invoke(Object target, String action, com.google.gson.JsonArray arguments) throws Throwable {\n");
+        body.append("        return invoke(target, action, arguments, null);\n");
+        body.append("    }\n\n");
+        body.append("    @Override\n");
+        body.append("    public JSocket2.Protocol.Rpc.RpcResponse<?> invoke(Object target, String action, com.google.gson.JsonArray arguments, JSocket2.Protocol.Rpc.RpcItemReceiver items) throws Throwable {\n");
+        body.append("        ").append(controllerType).append(" controller = (").append(controllerType).append(") target;\n");
+        body.append("        int arity = arguments.size();\n");
+        body.append("        switch (action.toLowerCase()) {\n");
+        for (Map.Entry<String, List<ControllerModel.Action>> route : routes().entrySet()) {
+            body.append("            case ").append(Sources.literal(route.getKey())).append(": {\n");
+            Map<Integer, List<ControllerModel.Action>> byArity = new TreeMap<>();
+            for (ControllerModel.Action action : route.getValue()) {
+                byArity.computeIfAbsent(action.parameters().size(), k -> new ArrayList<>()).add(action);
+            }
+            for (Map.Entry<Integer, List<ControllerModel.Action>> arity : byArity.entrySet()) {
+                body.append("                if (arity == ").append(arity.getKey()).append(") {\n");
+                for (ControllerModel.Action action : arity.getValue()) {
+                    writeOverload(body, action);
+                }
+                body.append("                }\n");
+            }
+            body.append("                break;\n");
+            body.append("            }\n");
+        }
+        body.append("        }\n");
+        body.append("        return NO_MATCH;\n");
+        body.append("    }\n");
+
+        StringBuilder source = new StringBuilder();
+        if (!controller.packageName.isEmpty()) {
+            source.append("package ").append(controller.packageName).append(";\n\n");
+        }
+        source.append("/**\n");
+        source.append(" * Binds RPC calls to {@link ").append(controllerType).append("} without reflection.\n");
+        source.append(" * Generated from the controller's actions; do not edit.\n");
+        source.append(" */\n");
+        source.append(Sources.GENERATED);
+        source.append("public final class ").append(simpleName).append(" implements JSocket2.Protocol.Rpc.IRpcBinder {\n");
+        for (Map.Entry<String, String> adapter : adapters.entrySet()) {
+            source.append("    private final com.google.gson.TypeAdapter<").append(adapterTypes.get(adapter.getKey()))
+                    .append("> ").append(adapter.getValue()).append(";\n");
+        }
+        if (!adapters.isEmpty()) {
+            source.append('\n');
+        }
+        source.append("    /**\n");
+        source.append("     * Creates the binder, resolving the adapters of its parameter types once.\n");
+        source.append("     *\n");
+        source.append("     * @param gson The Gson instance of the dispatcher.\n");
+        source.append("     */\n");
+        source.append("    public ").append(simpleName).append("(com.google.gson.Gson gson) {\n");
+        for (Map.Entry<String, String> adapter : adapters.entrySet()) {
+            source.append("        ").append(adapter.getValue()).append(" = gson.getAdapter(").append(adapter.getKey()).append(");\n");
+        }
+        source.append("    }\n\n");
+        source.append(body);
+        source.append("}\n");
+        return source.toString();
+    }
+
+    private Map<String, List<ControllerModel.Action>> routes() {
+        Map<String, List<ControllerModel.Action>> routes = new LinkedHashMap<>();
+        for (ControllerModel.Action action : controller.actions) {
+            routes.computeIfAbsent(action.routeName(), k -> new ArrayList<>()).add(action);
+        }
+        return routes;
+    }
+
+    private void writeOverload(StringBuilder body, ControllerModel.Action action) {
+        List<TypeMirror> parameters = action.parameters();
+        StringBuilder call = new StringBuilder("controller.").append(action.method().getSimpleName()).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            call.append(i == 0 ? "" : ", ").append('p').append(i);
+        }
+        call.append(')');
+        if (parameters.isEmpty()) {
+            body.append("                    return ").append(call).append(";\n");
+            return;
+        }
+        String label = "overload" + overloads++;
+        body.append("                    ").append(label).append(": {\n");
+        for (int i = 0; i < parameters.size(); i++) {
+            body.append("                        ").append(parameters.get(i)).append(" p").append(i).append(";\n");
+        }
+        body.append("                        try {\n");
+        TypeMirror streamed = Sources.streamedArgument(parameters);
+        for (int i = 0; i < parameters.size(); i++) {
+            String conversion = streamed != null && i == parameters.size() - 1
+                    ? "JSocket2.Protocol.Rpc.RpcBindings.asItems(items, " + gsonType(streamed) + ")"
+                    : conversion(parameters.get(i), i);
+            body.append("                            p").append(i).append(" = ").append(conversion).append(";\n");
+        }
+        body.append("                        } catch (RuntimeException e) {\n");
+        body.append("                            break ").append(label).append(";\n");
+        body.append("                        }\n");
+        body.append("                        return ").append(call).append(";\n");
+        body.append("                    }\n");
+    }
+
+    private String conversion(TypeMirror type, int index) {
+        String argument = "arguments.get(" + index + ")";
+        switch (type.toString()) {
+            case "int":
+                return "JSocket2.Protocol.Rpc.RpcBindings.asInt(" + argument + ")";
+            case "long":
+                return "JSocket2.Protocol.Rpc.RpcBindings.asLong(" + argument + ")";
+            case "double":
+                return "JSocket2.Protocol.Rpc.RpcBindings.asDouble(" + argument + ")";
+            case "boolean":
+                return "JSocket2.Protocol.Rpc.RpcBindings.asBoolean(" + argument + ")";
+            case "java.lang.String":
+                return "JSocket2.Protocol.Rpc.RpcBindings.asString(" + argument + ")";
+            default:
+                return adapter(type) + ".fromJsonTree(" + argument + ")";
+        }
+    }
+
+    private static String gsonType(TypeMirror type) {
+        return Sources.isRaw(type) ? Sources.typeExpression(type) : Sources.typeExpression(type) + ".getType()";
+    }
+
+    private String adapter(TypeMirror type) {
+        TypeMirror reference = type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+        String expression = Sources.typeExpression(reference);
+        String field = adapters.get(expression);
+        if (field == null) {
+            field = "adapter" + adapters.size();
+            adapters.put(expression, field);
+            adapterTypes.put(expression, reference.toString());
+        }
+        return field;
+    }
+}
@@ -0,0 +1,208 @@
+package JSocket2.Protocol.Rpc.Processor;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the typed client stub of a controller: an {@code RpcCallerBase} with one method per action, taking the
+ * action's parameters and returning its response type, so callers no longer spell controller and action names.
+ * Each action also gets an {@code Async} variant returning a {@code CompletableFuture} of the response, except
+ * actions returning an {@code Iterator} or {@code Stream}, whose method returns an {@code RpcStream} of the items,
+ * and actions taking a trailing {@code Iterator}, whose method streams the iterator's items with the call.
+ */
+final class ClientWriter {
+    private static final String CALLER_BASE = "JSocket2.Protocol.Rpc.RpcCallerBase";
+
+    private final ControllerModel controller;
+    private final Elements elements;
+    private final Messager messager;
+
+    ClientWriter(ControllerModel controller, Elements elements, Messager messager) {
+        this.controller = controller;
+        this.elements = elements;
+        this.messager = messager;
+    }
+
+    /**
+     * Writes the source of the client stub.
+     *
+     * @param simpleName The simple name of the stub class.
+     * @return The Java source.
+     */
+    String write(String simpleName) {
+        String controllerType = controller.type.getQualifiedName().toString();
+        Set<String> reserved = new HashSet<>();
+        TypeElement callerBase = elements.getTypeElement(CALLER_BASE);
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(callerBase))) {
+            reserved.add(method.getSimpleName() + "/" + method.getParameters().size());
+        }
+        Set<String> actionMethods = new HashSet<>();
+        for (ControllerModel.Action action : controller.actions) {
+            actionMethods.add(action.method().getSimpleName() + "/" + action.method().getParameters().size());
+        }
+
+        StringBuilder fields = new StringBuilder();
+        StringBuilder methods = new StringBuilder();
+        int responseTypes = 0;
+        for (ControllerModel.Action action : controller.actions) {
+            ExecutableElement method = action.method();
+            List<? extends VariableElement> names = method.getParameters();
+            if (reserved.contains(method.getSimpleName() + "/" + names.size())) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "No client method generated for " + method
+                        + " because it clashes with a method of RpcCallerBase.", method);
+                continue;
+            }
+            TypeMirror responseType = action.responseType();
+            TypeMirror itemType = Sources.streamItem(responseType);
+            boolean streamsArgument = Sources.streamedArgument(action.parameters()) != null;
+            if (streamsArgument && itemType != null) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "No client method generated for " + method
+                        + " because it both takes and returns streamed items.", method);
+                continue;
+            }
+            if (itemType != null) {
+                responseType = itemType;
+            }
+            String responseExpression;
+            if (Sources.isRaw(responseType)) {
+                responseExpression = responseType + ".class";
+            } else {
+                responseExpression = "RESPONSE_TYPE_" + responseTypes++;
+                fields.append("    private static final java.lang.reflect.Type ").append(responseExpression)
+                        .append(" = ").append(Sources.typeExpression(responseType)).append(".getType();\n");
+            }
+
+            StringBuilder parameters = new StringBuilder();
+            StringBuilder arguments = new StringBuilder();
+            for (int i = 0; i < names.size(); i++) {
+                parameters.append(i == 0 ? "" : ", ").append(action.parameters().get(i)).append(' ').append(names.get(i).getSimpleName());
+                if (!streamsArgument || i < names.size() - 1) {
+                    arguments.append(i == 0 ? "" : ", ").append(names.get(i).getSimpleName());
+                }
+            }
+            if (streamsArgument) {
+                methods.append('\n');
+                methods.append("    /**\n");
+                methods.append("     * Calls the {@code ").append(action.name()).append("} action, streaming the items of its last argument, and waits for its response.\n");
+                methods.append("     *\n");
+                for (VariableElement name : names) {
+                    methods.append("     * @param ").append(name.getSimpleName()).append(" See {@link ").append(controllerType).append('#')
+                            .append(method.getSimpleName()).append("}.\n");
+                }
+                methods.append("     * @return The response of the server.\n");
+                methods.append("     * @throws java.io.IOException If a network error occurs while sending the call or its items.\n");
+                methods.append("     */\n");
+                methods.append("    public JSocket2.Protocol.Rpc.RpcResponse<").append(responseType).append("> ").append(method.getSimpleName())
+                        .append('(').append(parameters).append(") throws java.io.IOException {\n");
+                methods.append("        return callRpcWithItems(CONTROLLER, ").append(Sources.literal(action.name())).append(", ")
+                        .append(responseExpression).append(", ").append(names.get(names.size() - 1).getSimpleName())
+                        .append(", new Object[]{").append(arguments).append("});\n");
+                methods.append("    }\n");
+                continue;
+            }
+            if (itemType != null) {
+                methods.append('\n');
+                methods.append("    /**\n");
+                methods.append("     * Calls the {@code ").append(action.name()).append("} action and receives its items as the server produces them.\n");
+                methods.append("     *\n");
+                for (VariableElement name : names) {
+                    methods.append("     * @param ").append(name.getSimpleName()).append(" See {@link ").append(controllerType).append('#')
+                            .append(method.getSimpleName()).append("}.\n");
+                }
+                methods.append("     * @return The stream of items; close it if it is not read to the end.\n");
+                methods.append("     * @throws java.io.IOException If a network error occurs while sending the call.\n");
+                methods.append("     */\n");
+                methods.append("    public JSocket2.Protocol.Rpc.RpcStream<").append(responseType).append("> ").append(method.getSimpleName())
+                        .append('(').append(parameters).append(") throws java.io.IOException {\n");
+                methods.append("        return callRpcForStream(CONTROLLER, ").append(Sources.literal(action.name())).append(", ")
+                        .append(responseExpression).append(", new Object[]{").append(arguments).append("});\n");
+                methods.append("    }\n");
+                continue;
+            }
+            methods.append('\n');
+            methods.append("    /**\n");
+            methods.append("     * Calls the {@code ").append(action.name()).append("} action and waits for its response.\n");
+            methods.append("     *\n");
+            for (VariableElement name : names) {
+                methods.append("     * @param ").append(name.getSimpleName()).append(" See {@link ").append(controllerType).append('#')
+                        .append(method.getSimpleName()).append("}.\n");
+            }
+            methods.append("     * @return The response of the server.\n");
+            methods.append("     * @throws java.io.IOException If a network error occurs while sending the call.\n");
+            methods.append("     */\n");
+            methods.append("    public JSocket2.Protocol.Rpc.RpcResponse<").append(responseType).append("> ").append(method.getSimpleName())
+                    .append('(').append(parameters).append(") throws java.io.IOException {\n");
+            methods.append("        return callRpcAndGetResponse(CONTROLLER, ").append(Sources.literal(action.name())).append(", ")
+                    .append(responseExpression).append(", new Object[]{").append(arguments).append("});\n");
+            methods.append("    }\n");
+
+            String asyncName = method.getSimpleName() + "Async";
+            if (reserved.contains(asyncName + "/" + names.size()) || actionMethods.contains(asyncName + "/" + names.size())) {
+                messager.printMessage(Diagnostic.Kind.NOTE, "No asynchronous client method generated for " + method
+                        + " because " + asyncName + " is already taken.", method);
+                continue;
+            }
+            methods.append('\n');
+            methods.append("    /**\n");
+            methods.append("     * Calls the {@code ").append(action.name()).append("} action without waiting for its response.\n");
+            methods.append("     *\n");
+            for (VariableElement name : names) {
+                methods.append("     * @param ").append(name.getSimpleName()).append(" See {@link ").append(controllerType).append('#')
+                        .append(method.getSimpleName()).append("}.\n");
+            }
+            methods.append("     * @return A future of the response of the server.\n");
+            methods.append("     */\n");
+            methods.append("    public java.util.concurrent.CompletableFuture<JSocket2.Protocol.Rpc.RpcResponse<").append(responseType).append(">> ")
+                    .append(asyncName).append('(').append(parameters).append(") {\n");
+            methods.append("        return callRpcAsync(CONTROLLER, ").append(Sources.literal(action.name())).append(", ")
+                    .append(responseExpression).append(", new Object[]{").append(arguments).append("});\n");
+            methods.append("    }\n");
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!controller.packageName.isEmpty()) {
+            source.append("package ").append(controller.packageName).append(";\n\n");
+        }
+        source.append("/**\n");
+        source.append(" * A typed client for the {@code ").append(controller.controllerName).append("} controller, {@link ")
+                .append(controllerType).append("}.\n");
+        source.append(" * Generated from the controller's actions; do not edit.\n");
+        source.append(" */\n");
+        source.append(Sources.GENERATED);
+        source.append("public class ").append(simpleName).append(" extends ").append(CALLER_BASE).append(" {\n");
+        source.append("    /**\n");
+        source.append("     * The controller name the calls are addressed to.\n");
+        source.append("     */\n");
+        source.append("    public static final String CONTROLLER = ").append(Sources.literal(controller.controllerName)).append(";\n");
+        source.append(fields).append('\n');
+        source.append("    /**\n");
+        source.append("     * Creates the client with a default Gson instance.\n");
+        source.append("     *\n");
+        source.append("     * @param clientApplication The client's app.\n");
+        source.append("     */\n");
+        source.append("    public ").append(simpleName).append("(JSocket2.Core.Client.ClientApplication clientApplication) {\n");
+        source.append("        super(clientApplication);\n");
+        source.append("    }\n\n");
+        source.append("    /**\n");
+        source.append("     * Creates the client with a custom Gson instance.\n");
+        source.append("     *\n");
+        source.append("     * @param clientApplication The client's app.\n");
+        source.append("     * @param gson              The Gson instance to use for JSON serialization.\n");
+        source.append("     */\n");
+        source.append("    public ").append(simpleName).append("(JSocket2.Core.Client.ClientApplication clientApplication, com.google.gson.Gson gson) {\n");
+        source.append("        super(clientApplication, gson);\n");
+        source.append("    }\n");
+        source.append(methods);
+        source.append("}\n");
+        return source.toString();
+    }
+}
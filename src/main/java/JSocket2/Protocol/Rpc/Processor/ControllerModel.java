@@ -0,0 +1,209 @@
+package JSocket2.Protocol.Rpc.Processor;
+
+import JSocket2.Protocol.Rpc.RpcAction;
+import JSocket2.Protocol.Rpc.RpcController;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What {@link RpcProcessor} knows about one controller: its names and its actions, found by the same rules as the
+ * dispatcher's route table (public instance methods returning an {@code RpcResponse}, named by {@link RpcAction#Name()}
+ * or the method name).
+ */
+final class ControllerModel {
+    private static final String RPC_RESPONSE = "JSocket2.Protocol.Rpc.RpcResponse";
+
+    final TypeElement type;
+    final String packageName;
+    final String controllerName;
+    final List<Action> actions;
+
+    private ControllerModel(TypeElement type, String packageName, String controllerName, List<Action> actions) {
+        this.type = type;
+        this.packageName = packageName;
+        this.controllerName = controllerName;
+        this.actions = actions;
+    }
+
+    /**
+     * An action method and how its parameters and response are typed.
+     *
+     * @param method       The action method.
+     * @param name         The action name, as declared.
+     * @param parameters   The parameter types, resolved against the controller.
+     * @param responseType The payload type of the response, {@code java.lang.Object} when it is not a plain type.
+     */
+    record Action(ExecutableElement method, String name, List<TypeMirror> parameters, TypeMirror responseType) {
+        /**
+         * Gets the name the action is matched by.
+         *
+         * @return The action name in lower case.
+         */
+        String routeName() {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Reads a controller, or explains on the messager why no code can be generated for it. Such controllers
+     * keep working through the reflective route table.
+     *
+     * @param type The class annotated with {@link RpcController}.
+     * @param env  The processing environment.
+     * @return The model, or {@code null} if the controller is not supported.
+     */
+    static ControllerModel read(TypeElement type, ProcessingEnvironment env) {
+        Elements elements = env.getElementUtils();
+        Types types = env.getTypeUtils();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+
+        String problem = null;
+        if (type.getKind() != ElementKind.CLASS) {
+            problem = "it is not a class";
+        } else if (!type.getTypeParameters().isEmpty()) {
+            problem = "it is generic";
+        } else if (!isAccessible(type, packageName)) {
+            problem = "it is not accessible from its package";
+        }
+
+        List<Action> actions = new ArrayList<>();
+        TypeElement rpcResponseElement = elements.getTypeElement(RPC_RESPONSE);
+        TypeMirror rpcResponse = types.erasure(rpcResponseElement.asType());
+        DeclaredType self = (DeclaredType) type.asType();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (problem != null) {
+                break;
+            }
+            TypeElement owner = (TypeElement) method.getEnclosingElement();
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)
+                    || owner.getQualifiedName().contentEquals("java.lang.Object")) {
+                continue;
+            }
+            ExecutableType resolved = (ExecutableType) types.asMemberOf(self, method);
+            if (!types.isAssignable(types.erasure(resolved.getReturnType()), rpcResponse)) {
+                continue;
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                problem = "action " + method + " is generic";
+                break;
+            }
+            for (TypeMirror parameter : resolved.getParameterTypes()) {
+                if (!isAccessible(parameter, packageName)) {
+                    problem = "parameter type " + parameter + " of action " + method + " is not accessible";
+                    break;
+                }
+            }
+            RpcAction rpcAction = method.getAnnotation(RpcAction.class);
+            String name = rpcAction != null && !rpcAction.Name().isEmpty() ? rpcAction.Name() : method.getSimpleName().toString();
+            actions.add(new Action(method, name, List.copyOf(resolved.getParameterTypes()),
+                    responseType(resolved.getReturnType(), rpcResponseElement, packageName, elements)));
+        }
+
+        if (problem != null) {
+            env.getMessager().printMessage(Diagnostic.Kind.NOTE, "No RPC binder or client generated for "
+                    + type.getQualifiedName() + " because " + problem + "; it is dispatched reflectively.", type);
+            return null;
+        }
+        RpcController rpcController = type.getAnnotation(RpcController.class);
+        String controllerName = rpcController != null && !rpcController.Name().isEmpty() ? rpcController.Name() : type.getSimpleName().toString();
+        return new ControllerModel(type, packageName, controllerName, actions);
+    }
+
+    /**
+     * Gets the binary name of the controller, as the dispatcher sees it at run time.
+     *
+     * @param elements The element utilities.
+     * @return The binary name.
+     */
+    String binaryName(Elements elements) {
+        return elements.getBinaryName(type).toString();
+    }
+
+    /**
+     * Gets the simple name of a generated class, without its package.
+     *
+     * @param binaryName The binary name from {@link GeneratedNames}.
+     * @return The simple name.
+     */
+    static String simpleName(String binaryName) {
+        return binaryName.substring(binaryName.lastIndexOf('.') + 1);
+    }
+
+    private static TypeMirror responseType(TypeMirror returnType, TypeElement rpcResponse, String packageName, Elements elements) {
+        if (returnType instanceof DeclaredType declared && declared.asElement().equals(rpcResponse)
+                && declared.getTypeArguments().size() == 1) {
+            TypeMirror payload = declared.getTypeArguments().get(0);
+            if (payload.getKind() == TypeKind.DECLARED || payload.getKind() == TypeKind.ARRAY) {
+                if (isAccessible(payload, packageName)) {
+                    return payload;
+                }
+            }
+        }
+        return elements.getTypeElement("java.lang.Object").asType();
+    }
+
+    private static boolean isAccessible(TypeMirror type, String packageName) {
+        switch (type.getKind()) {
+            case BOOLEAN, BYTE, SHORT, INT, LONG, CHAR, FLOAT, DOUBLE:
+                return true;
+            case ARRAY:
+                return isAccessible(((ArrayType) type).getComponentType(), packageName);
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return (wildcard.getExtendsBound() == null || isAccessible(wildcard.getExtendsBound(), packageName))
+                        && (wildcard.getSuperBound() == null || isAccessible(wildcard.getSuperBound(), packageName));
+            case DECLARED:
+                DeclaredType declared = (DeclaredType) type;
+                if (!isAccessible((TypeElement) declared.asElement(), packageName)) {
+                    return false;
+                }
+                for (TypeMirror argument : declared.getTypeArguments()) {
+                    if (!isAccessible(argument, packageName)) {
+                        return false;
+                    }
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isAccessible(TypeElement type, String packageName) {
+        for (Element element = type; element instanceof TypeElement typeElement; element = element.getEnclosingElement()) {
+            if (typeElement.getNestingKind() == NestingKind.LOCAL || typeElement.getNestingKind() == NestingKind.ANONYMOUS
+                    || typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!typeElement.getModifiers().contains(Modifier.PUBLIC)) {
+                Element packageElement = typeElement;
+                while (!(packageElement.getKind() == ElementKind.PACKAGE)) {
+                    packageElement = packageElement.getEnclosingElement();
+                }
+                if (!((PackageElement) packageElement).getQualifiedName().contentEquals(packageName)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
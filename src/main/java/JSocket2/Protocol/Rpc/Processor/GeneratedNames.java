@@ -0,0 +1,46 @@
+package JSocket2.Protocol.Rpc.Processor;
+
+/**
+ * The names of the classes {@link RpcProcessor} generates for a controller. Both live in the controller's package;
+ * a nested controller {@code Outer.Inner} yields {@code Outer_Inner_RpcBinder} and {@code Outer_Inner_RpcClient}.
+ * The dispatcher looks binders up by the same rule.
+ */
+public final class GeneratedNames {
+    /**
+     * The suffix of a generated server-side binder.
+     */
+    public static final String BINDER_SUFFIX = "_RpcBinder";
+
+    /**
+     * The suffix of a generated client stub.
+     */
+    public static final String CLIENT_SUFFIX = "_RpcClient";
+
+    private GeneratedNames() {
+    }
+
+    /**
+     * Gets the binary name of a controller's generated binder.
+     *
+     * @param controllerBinaryName The binary name of the controller, as returned by {@link Class#getName()}.
+     * @return The binary name of the binder.
+     */
+    public static String binderName(String controllerBinaryName) {
+        return flatten(controllerBinaryName) + BINDER_SUFFIX;
+    }
+
+    /**
+     * Gets the binary name of a controller's generated client stub.
+     *
+     * @param controllerBinaryName The binary name of the controller, as returned by {@link Class#getName()}.
+     * @return The binary name of the client stub.
+     */
+    public static String clientName(String controllerBinaryName) {
+        return flatten(controllerBinaryName) + CLIENT_SUFFIX;
+    }
+
+    private static String flatten(String binaryName) {
+        int packageEnd = binaryName.lastIndexOf('.');
+        return binaryName.substring(0, packageEnd + 1) + binaryName.substring(packageEnd + 1).replace('$', '_');
+    }
+}
@@ -0,0 +1,74 @@
+package JSocket2.Protocol.Rpc.Processor;
+
+import JSocket2.Protocol.Rpc.RpcController;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * A compile-time annotation processor that generates, for every {@link RpcController}, a server-side
+ * {@link JSocket2.Protocol.Rpc.IRpcBinder} calling the actions directly and a typed client stub extending
+ * {@link JSocket2.Protocol.Rpc.RpcCallerBase}. Put the framework on the annotation processor path, e.g.
+ * {@code annotationProcessor} in Gradle; the dispatcher picks the binders up by name, see {@link GeneratedNames}.
+ * Controllers the processor cannot handle (generic ones, or ones with inaccessible parameter types) are reported
+ * as a note and keep using the reflective route table.
+ */
+@SupportedAnnotationTypes("JSocket2.Protocol.Rpc.RpcController")
+public class RpcProcessor extends AbstractProcessor {
+    /**
+     * Supports the latest source version, as the processor only reads declarations.
+     *
+     * @return The latest supported source version.
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Generates the binder and client stub of each controller in the round.
+     *
+     * @param annotations The annotation types requested to be processed.
+     * @param roundEnv    The environment of the current round.
+     * @return {@code false}, leaving {@link RpcController} to other processors.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(RpcController.class)) {
+            if (!(element instanceof TypeElement type)) {
+                continue;
+            }
+            ControllerModel controller = ControllerModel.read(type, processingEnv);
+            if (controller == null) {
+                continue;
+            }
+            String binaryName = controller.binaryName(processingEnv.getElementUtils());
+            String binderName = GeneratedNames.binderName(binaryName);
+            String clientName = GeneratedNames.clientName(binaryName);
+            write(binderName, new BinderWriter(controller, processingEnv.getTypeUtils()).write(ControllerModel.simpleName(binderName)), type);
+            write(clientName, new ClientWriter(controller, processingEnv.getElementUtils(), processingEnv.getMessager())
+                    .write(ControllerModel.simpleName(clientName)), type);
+        }
+        return false;
+    }
+
+    private void write(String name, String source, TypeElement origin) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, origin);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + name + ": " + e.getMessage(), origin);
+        }
+    }
+}
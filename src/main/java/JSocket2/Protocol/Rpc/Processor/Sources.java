@@ -0,0 +1,101 @@
+package JSocket2.Protocol.Rpc.Processor;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * Small helpers shared by the source writers of {@link RpcProcessor}.
+ */
+final class Sources {
+    static final String GENERATED = "@javax.annotation.processing.Generated(\"" + RpcProcessor.class.getName() + "\")\n";
+
+    private Sources() {
+    }
+
+    /**
+     * Writes a string as a Java string literal.
+     *
+     * @param value The string.
+     * @return The quoted and escaped literal.
+     */
+    static String literal(String value) {
+        StringBuilder literal = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    /**
+     * Tells whether a type can be written as a class literal, i.e. it has no type arguments anywhere.
+     *
+     * @param type The type.
+     * @return {@code true} for primitives, non-generic classes and arrays of them.
+     */
+    static boolean isRaw(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isRaw(((ArrayType) type).getComponentType());
+        }
+        return type.getKind() != TypeKind.DECLARED || ((DeclaredType) type).getTypeArguments().isEmpty();
+    }
+
+    /**
+     * Writes an expression for the Gson type of a reference type: a class literal when the type is raw, otherwise an
+     * anonymous {@code TypeToken}.
+     *
+     * @param type The type.
+     * @return An expression of type {@code Class} or {@code TypeToken}.
+     */
+    static String typeExpression(TypeMirror type) {
+        return isRaw(type) ? type + ".class" : "new com.google.gson.reflect.TypeToken<" + type + ">() {}";
+    }
+
+    /**
+     * Gets the item type of a streamed result, an {@code Iterator} or {@code Stream} of a concrete type.
+     *
+     * @param type The payload type of an action's response.
+     * @return The item type, or {@code null} if the result is not streamed.
+     */
+    static TypeMirror streamItem(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        DeclaredType declared = (DeclaredType) type;
+        String name = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+        if (!name.equals("java.util.Iterator") && !name.equals("java.util.stream.Stream") || declared.getTypeArguments().size() != 1) {
+            return null;
+        }
+        TypeMirror item = declared.getTypeArguments().get(0);
+        return item.getKind() == TypeKind.DECLARED || item.getKind() == TypeKind.ARRAY ? item : null;
+    }
+
+    /**
+     * Gets the item type of a streamed argument: the last parameter of an action, if it is an {@code Iterator} of a
+     * concrete type.
+     *
+     * @param parameters The parameter types of an action.
+     * @return The item type, or {@code null} if the action takes no streamed argument.
+     */
+    static TypeMirror streamedArgument(List<TypeMirror> parameters) {
+        if (parameters.isEmpty()) {
+            return null;
+        }
+        TypeMirror last = parameters.get(parameters.size() - 1);
+        if (last.getKind() != TypeKind.DECLARED
+                || !((TypeElement) ((DeclaredType) last).asElement()).getQualifiedName().contentEquals("java.util.Iterator")) {
+            return null;
+        }
+        return streamItem(last);
+    }
+}
@@ -0,0 +1,107 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Protocol.Codec.BinaryReader;
+import JSocket2.Protocol.Codec.BinaryWriter;
+import JSocket2.Protocol.Codec.ICodec;
+import JSocket2.Protocol.EncryptionPolicy;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Packs several RPC calls, or their responses, into the payload of one {@link MessageType#RPC_BATCH} or
+ * {@link MessageType#RPC_BATCH_RESPONSE} frame, so they share one header, IV, encryption pass and write.
+ * <p>
+ * Each entry is the request id as two fixed 8-byte halves, the payload content type as one byte, then the
+ * metadata and the payload, each prefixed with its length. The metadata is encoded with the connection's
+ * metadata codec, as it would be in a frame of its own.
+ */
+public final class RpcBatch {
+    private RpcBatch() {
+    }
+
+    /**
+     * Builds the batch frame of several calls or several responses. The batch is encrypted if the connection's
+     * {@link EncryptionPolicy} would encrypt any of its entries on its own.
+     *
+     * @param entries The {@link MessageType#RPC_CALL} or {@link MessageType#RPC_RESPONSE} messages, all of one type.
+     * @param handler The handler of the connection the batch is written to.
+     * @return The batch message.
+     * @throws IllegalArgumentException if the entries are empty, of another type or of mixed types.
+     */
+    public static Message create(List<Message> entries, MessageHandler handler) {
+        if (entries.isEmpty()) {
+            throw new IllegalArgumentException("An RPC batch needs at least one entry");
+        }
+        MessageType entryType = entries.get(0).header.type;
+        if (entryType != MessageType.RPC_CALL && entryType != MessageType.RPC_RESPONSE) {
+            throw new IllegalArgumentException("Only RPC calls and responses can be batched, not " + entryType);
+        }
+        ICodec codec = handler.getMetadataCodec();
+        EncryptionPolicy policy = handler.getEncryptionPolicy();
+        boolean encrypted = false;
+        int capacity = 0;
+        for (Message entry : entries) {
+            capacity += entry.getPayload().length + 48;
+        }
+        BinaryWriter writer = new BinaryWriter(capacity);
+        for (Message entry : entries) {
+            if (entry.header.type != entryType) {
+                throw new IllegalArgumentException("An RPC batch cannot mix " + entryType + " and " + entry.header.type);
+            }
+            encrypted |= policy.resolve(entry) != CipherSuite.NONE;
+            byte[] metadata = entry.getMetadataValue() != null ? codec.encode(entry.getMetadataValue()) : entry.getMetadata();
+            writer.writeLong(entry.header.uuid.getMostSignificantBits())
+                    .writeLong(entry.header.uuid.getLeastSignificantBits())
+                    .writeByte(entry.header.content_type)
+                    .writeBytes(metadata)
+                    .writeBytes(entry.getPayload());
+        }
+        byte[] payload = writer.toByteArray();
+        MessageHeader header = entryType == MessageType.RPC_CALL
+                ? MessageHeader.BuildRpcBatchHeader(UUID.randomUUID(), encrypted, payload.length)
+                : MessageHeader.BuildRpcBatchResponseHeader(UUID.randomUUID(), encrypted, payload.length);
+        return new Message(header, new byte[0], payload);
+    }
+
+    /**
+     * Unpacks a received batch into the calls or responses it carries, with their metadata already decoded.
+     *
+     * @param batch The received {@link MessageType#RPC_BATCH} or {@link MessageType#RPC_BATCH_RESPONSE} message.
+     * @return The {@link MessageType#RPC_CALL} or {@link MessageType#RPC_RESPONSE} messages, in batch order.
+     * @throws IllegalArgumentException if the message is not a batch or is malformed.
+     */
+    public static List<Message> read(Message batch) {
+        MessageType entryType;
+        Class<?> metadataType;
+        if (batch.header.type == MessageType.RPC_BATCH) {
+            entryType = MessageType.RPC_CALL;
+            metadataType = RpcCallMetadata.class;
+        } else if (batch.header.type == MessageType.RPC_BATCH_RESPONSE) {
+            entryType = MessageType.RPC_RESPONSE;
+            metadataType = RpcResponseMetadata.class;
+        } else {
+            throw new IllegalArgumentException("Not an RPC batch: " + batch.header.type);
+        }
+        ICodec codec = batch.getMetadataCodec();
+        BinaryReader reader = new BinaryReader(batch.getPayload(), 0);
+        List<Message> entries = new ArrayList<>();
+        while (reader.hasRemaining()) {
+            UUID requestId = new UUID(reader.readLong(), reader.readLong());
+            int contentType = reader.readByte();
+            byte[] metadata = reader.readBytes();
+            byte[] payload = reader.readBytes();
+            MessageHeader header = new MessageHeader(requestId, entryType, false, batch.header.is_encrypted,
+                    batch.header.timestamp, metadata.length, payload.length);
+            header.content_type = contentType;
+            entries.add(new Message(header, metadata, payload).setMetadataValue(codec.decode(metadata, metadataType)));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,100 @@
+package JSocket2.Protocol.Rpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures automatic batching of RPC calls on the client. When enabled, a call is held back for a short
+ * linger window and sent together with the calls issued during it in one {@link JSocket2.Protocol.MessageType#RPC_BATCH}
+ * frame, sharing a header, IV, encryption pass and write; the server answers them in one batch as well.
+ * <p>
+ * Batching trades up to one linger window of latency per call for fewer, larger frames, which pays off when many
+ * small calls are issued at once, such as the requests of a dashboard page. The server must understand batch
+ * frames, so enable it only against servers of this version or later.
+ */
+public class RpcBatchOptions {
+    private boolean enabled = false;
+    private long lingerNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    private int maxCalls = 64;
+    private int maxBytes = 64 * 1024;
+
+    /**
+     * Enables or disables batching of the calls made through {@link RpcCallerBase}.
+     *
+     * @param enabled {@code true} to batch calls; disabled by default.
+     * @return This instance for chaining.
+     */
+    public RpcBatchOptions setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * Checks whether calls are batched.
+     *
+     * @return {@code true} if batching is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets how long the first call of a batch waits for more calls before the batch is sent.
+     *
+     * @param linger The linger window; 1 ms by default.
+     * @param unit   The unit of {@code linger}.
+     * @return This instance for chaining.
+     */
+    public RpcBatchOptions setLinger(long linger, TimeUnit unit) {
+        this.lingerNanos = Math.max(unit.toNanos(linger), 0);
+        return this;
+    }
+
+    /**
+     * Gets how long the first call of a batch waits for more calls.
+     *
+     * @return The linger window in nanoseconds.
+     */
+    public long getLingerNanos() {
+        return lingerNanos;
+    }
+
+    /**
+     * Sets the number of calls that sends a batch without waiting out the linger window.
+     *
+     * @param maxCalls The number of calls, at least 1; 64 by default.
+     * @return This instance for chaining.
+     */
+    public RpcBatchOptions setMaxCalls(int maxCalls) {
+        this.maxCalls = Math.max(maxCalls, 1);
+        return this;
+    }
+
+    /**
+     * Gets the number of calls that sends a batch without waiting out the linger window.
+     *
+     * @return The number of calls.
+     */
+    public int getMaxCalls() {
+        return maxCalls;
+    }
+
+    /**
+     * Sets the total argument size that sends a batch without waiting out the linger window.
+     *
+     * @param maxBytes The size in bytes of the encoded arguments, at least 1; 64 KiB by default.
+     * @return This instance for chaining.
+     */
+    public RpcBatchOptions setMaxBytes(int maxBytes) {
+        this.maxBytes = Math.max(maxBytes, 1);
+        return this;
+    }
+
+    /**
+     * Gets the total argument size that sends a batch without waiting out the linger window.
+     *
+     * @return The size in bytes.
+     */
+    public int getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,107 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the RPC calls of a client as configured by {@link RpcBatchOptions} and writes them in batch frames.
+ * A batch is written when it reaches the size limits, by the thread adding the call that fills it, or when the
+ * linger window of its first call ends, by the batcher's timer thread. A batch of one call is written as a plain
+ * {@link JSocket2.Protocol.MessageType#RPC_CALL}.
+ * <p>
+ * Batches are taken and written under one lock, so calls added by one thread reach the server in order.
+ */
+public class RpcBatcher implements AutoCloseable {
+    private final ClientApplication clientApplication;
+    private final RpcBatchOptions options;
+    private final ScheduledThreadPoolExecutor timer;
+    private List<Message> calls = new ArrayList<>();
+    private List<CompletableFuture<Message>> futures = new ArrayList<>();
+    private int bytes;
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Constructs a batcher and its timer thread.
+     *
+     * @param clientApplication The client whose connection the batches are written to.
+     * @param options           The batching options.
+     */
+    public RpcBatcher(ClientApplication clientApplication, RpcBatchOptions options) {
+        this.clientApplication = clientApplication;
+        this.options = options;
+        this.timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "JSocket-RpcBatcher");
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Adds a call to the current batch. If the call cannot be written, its future fails with the error and the
+     * call is no longer pending, unless the client's {@link RpcReplayBuffer} keeps it to send after a reconnect.
+     *
+     * @param call   The RPC call message.
+     * @param future The future registered in the client's pending requests under the call's request id.
+     */
+    public synchronized void add(Message call, CompletableFuture<Message> future) {
+        calls.add(call);
+        futures.add(future);
+        bytes += call.getPayload().length;
+        if (calls.size() >= options.getMaxCalls() || bytes >= options.getMaxBytes()) {
+            flush();
+        } else if (calls.size() == 1) {
+            scheduledFlush = timer.schedule(this::flush, options.getLingerNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Writes the current batch now, without waiting for its linger window to end.
+     */
+    public synchronized void flush() {
+        if (calls.isEmpty()) {
+            return;
+        }
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<Message> batch = calls;
+        List<CompletableFuture<Message>> batchFutures = futures;
+        calls = new ArrayList<>();
+        futures = new ArrayList<>();
+        bytes = 0;
+        MessageHandler handler = clientApplication.getMessageHandler();
+        try {
+            handler.write(batch.size() == 1 ? batch.get(0) : RpcBatch.create(batch, handler));
+        } catch (Exception e) {
+            RpcReplayBuffer replayBuffer = clientApplication.getReplayBuffer();
+            for (int i = 0; i < batch.size(); i++) {
+                if (e instanceof IOException && replayBuffer.hold(batch.get(i).header.uuid)) {
+                    continue;
+                }
+                if (clientApplication.getPendingRequests().remove(batch.get(i).header.uuid, batchFutures.get(i))) {
+                    batchFutures.get(i).completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the current batch and stops the timer thread.
+     */
+    @Override
+    public void close() {
+        flush();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,121 @@
+package JSocket2.Protocol.Rpc;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.lang.reflect.Type;
+import java.util.Iterator;
+
+/**
+ * Argument conversions used by generated {@link IRpcBinder}s for the common parameter types, so binding an
+ * {@code int} or a {@code String} needs no {@link com.google.gson.TypeAdapter}. Each accepts exactly what Gson's
+ * built-in adapter for the type accepts and throws otherwise, which makes the binder try the next overload.
+ * A mismatch is reported with a shared exception without a stack trace, as it is expected whenever overloads
+ * differ by parameter type.
+ */
+public final class RpcBindings {
+    private static final RuntimeException MISMATCH = new ArgumentMismatchException();
+
+    private RpcBindings() {
+    }
+
+    /**
+     * Binds an {@code int} argument.
+     *
+     * @param element The argument.
+     * @return The value.
+     * @throws RuntimeException if the argument is not a number or numeric string.
+     */
+    public static int asInt(JsonElement element) {
+        return number(element).getAsInt();
+    }
+
+    /**
+     * Binds a {@code long} argument.
+     *
+     * @param element The argument.
+     * @return The value.
+     * @throws RuntimeException if the argument is not a number or numeric string.
+     */
+    public static long asLong(JsonElement element) {
+        return number(element).getAsLong();
+    }
+
+    /**
+     * Binds a {@code double} argument.
+     *
+     * @param element The argument.
+     * @return The value.
+     * @throws RuntimeException if the argument is not a finite number or numeric string.
+     */
+    public static double asDouble(JsonElement element) {
+        double value = number(element).getAsDouble();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw MISMATCH;
+        }
+        return value;
+    }
+
+    /**
+     * Binds a {@code boolean} argument.
+     *
+     * @param element The argument.
+     * @return The value.
+     * @throws RuntimeException if the argument is not a boolean or a string.
+     */
+    public static boolean asBoolean(JsonElement element) {
+        JsonPrimitive primitive = primitive(element);
+        if (primitive.isNumber()) {
+            throw MISMATCH;
+        }
+        return primitive.getAsBoolean();
+    }
+
+    /**
+     * Binds a {@code String} argument.
+     *
+     * @param element The argument.
+     * @return The value, or {@code null} for a JSON null.
+     * @throws RuntimeException if the argument is an object or an array.
+     */
+    public static String asString(JsonElement element) {
+        return element.isJsonNull() ? null : primitive(element).getAsString();
+    }
+
+    /**
+     * Binds a trailing {@code Iterator} parameter to the items the client streams with the call.
+     *
+     * @param items    The items of the call, or {@code null} for a plain call.
+     * @param itemType The type of the items.
+     * @param <T>      The type of the items.
+     * @return The iterator over the items.
+     * @throws RuntimeException if the call streams no items, or they are already bound to another parameter.
+     */
+    public static <T> Iterator<T> asItems(RpcItemReceiver items, Type itemType) {
+        if (items == null) {
+            throw MISMATCH;
+        }
+        return items.open(itemType);
+    }
+
+    private static JsonPrimitive number(JsonElement element) {
+        JsonPrimitive primitive = primitive(element);
+        if (primitive.isBoolean()) {
+            throw MISMATCH;
+        }
+        return primitive;
+    }
+
+    private static JsonPrimitive primitive(JsonElement element) {
+        if (!element.isJsonPrimitive()) {
+            throw MISMATCH;
+        }
+        return element.getAsJsonPrimitive();
+    }
+
+    private static final class ArgumentMismatchException extends RuntimeException {
+        private ArgumentMismatchException() {
+            super("The argument does not bind to the parameter type.", null, false, false);
+        }
+    }
+}
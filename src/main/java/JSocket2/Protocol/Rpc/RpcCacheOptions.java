@@ -0,0 +1,51 @@
+package JSocket2.Protocol.Rpc;
+
+/**
+ * Configures the server's {@link RpcResultCache} of {@link RpcCacheable} action responses: how many responses it
+ * keeps and how many bytes they may take. When either bound is reached, the least recently used responses are
+ * evicted first.
+ */
+public class RpcCacheOptions {
+    private int maxEntries = 10_000;
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /**
+     * Sets how many responses the cache keeps.
+     *
+     * @param maxEntries The number of responses, at least 0; 10,000 by default. 0 turns the cache off.
+     * @return This instance for chaining.
+     */
+    public RpcCacheOptions setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(maxEntries, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many responses the cache keeps.
+     *
+     * @return The number of responses.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Sets how many bytes of encoded responses and arguments the cache keeps.
+     *
+     * @param maxBytes The number of bytes, at least 0; 64 MiB by default.
+     * @return This instance for chaining.
+     */
+    public RpcCacheOptions setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(maxBytes, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many bytes of encoded responses and arguments the cache keeps.
+     *
+     * @return The number of bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,33 @@
+package JSocket2.Protocol.Rpc;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an action whose response depends only on its arguments, so the server may answer repeated calls from its
+ * {@link RpcResultCache} instead of running the action again. Only {@link JSocket2.Protocol.StatusCode#OK}
+ * responses are cached, as the encoded bytes sent to the client.
+ * <p>
+ * The policy applies to the action name and arity; when overloads of the same arity disagree, the first annotated
+ * one in declaration order wins.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RpcCacheable {
+    /**
+     * Specifies how long a cached response is served before the action runs again.
+     *
+     * @return The time to live in milliseconds; one minute by default.
+     */
+    long TtlMillis() default 60_000;
+
+    /**
+     * Specifies whether responses are cached per user, for actions whose result depends on
+     * {@link RpcControllerBase#getCurrentUser()} as well as on their arguments.
+     *
+     * @return {@code true} to key the cache by the calling user too.
+     */
+    boolean PerUser() default false;
+}
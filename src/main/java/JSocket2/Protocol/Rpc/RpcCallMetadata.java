@@ -2,11 +2,14 @@ package JSocket2.Protocol.Rpc;
 
 /**
  * A data model that holds the metadata for an RPC call,
- * specifying the target controller and action.
+ * specifying the target controller and action and, optionally, the call's timeout, stream window and validator.
  */
 public class RpcCallMetadata {
     private String controller;
     private String action;
+    private Long timeoutMillis;
+    private Integer streamWindow;
+    private String validator;
 
     /**
      * Constructs an {@code RpcCallMetadata}.
@@ -54,4 +57,66 @@ public class RpcCallMetadata {
     public void setAction(String action) {
         this.action = action;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the time the caller allows for the call, counted from when the server receives it. The server
+     * answers {@link JSocket2.Protocol.StatusCode#REQUEST_TIMEOUT} instead of dispatching a call that waited
+     * longer. A relative timeout keeps the deadline independent of the peers' clocks.
+     *
+     * @return The timeout in milliseconds, or {@code 0} if the call has no deadline.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis != null ? timeoutMillis : 0;
+    }
+
+    /**
+     * Sets the time the caller allows for the call.
+     *
+     * @param timeoutMillis The timeout in milliseconds, or {@code 0} for no deadline.
+     */
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis > 0 ? timeoutMillis : null;
+    }
+
+    /**
+     * Gets the number of chunks the caller accepts before granting more credit, if it consumes the result as a
+     * stream. A server action returning an {@link java.util.Iterator} or {@link java.util.stream.Stream} is
+     * streamed to such a caller in {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} frames, and collected
+     * into a list for any other caller.
+     *
+     * @return The initial window in chunks, or {@code 0} if the caller does not consume streams.
+     */
+    public int getStreamWindow() {
+        return streamWindow != null ? streamWindow : 0;
+    }
+
+    /**
+     * Sets the number of chunks the caller accepts before granting more credit.
+     *
+     * @param streamWindow The initial window in chunks, or {@code 0} if the caller does not consume streams.
+     */
+    public void setStreamWindow(int streamWindow) {
+        this.streamWindow = streamWindow > 0 ? streamWindow : null;
+    }
+
+    /**
+     * Gets the validator of the response the caller holds for this call. A caller that revalidates asks the server
+     * to tag an OK response with its validator, and answers with {@link JSocket2.Protocol.StatusCode#NOT_MODIFIED}
+     * and no payload when the tag matches the one sent.
+     *
+     * @return The validator of the held response, {@code ""} if the caller holds none but wants one, or
+     *         {@code null} if the caller does not revalidate.
+     */
+    public String getValidator() {
+        return validator;
+    }
+
+    /**
+     * Sets the validator of the response the caller holds for this call.
+     *
+     * @param validator The validator of the held response, {@code ""} to ask for one, or {@code null}.
+     */
+    public void setValidator(String validator) {
+        this.validator = validator;
+    }
+}
@@ -2,13 +2,23 @@ package JSocket2.Protocol.Rpc;
 
 import JSocket2.Core.Client.ClientApplication;
 import JSocket2.Protocol.*;
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
+import JSocket2.Utils.HashedTimingWheel;
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A base class for client-side RPC callers. It provides the core functionality
@@ -17,6 +27,8 @@ import java.util.concurrent.CompletableFuture;
 public class RpcCallerBase {
     private final ClientApplication clientApplication;
     protected final Gson gson;
+    private volatile IPayloadCodec payloadCodec = JsonPayloadCodec.INSTANCE;
+    private volatile long timeoutMillis;
 
     /**
      * Constructs an {@code RpcCallerBase} with a default {@link Gson} instance.
@@ -38,6 +50,46 @@ public class RpcCallerBase {
         this.gson = gson;
     }
 
+    /**
+     * Sets the codec this caller encodes its arguments with, e.g. {@link JSocket2.Protocol.Codec.CborPayloadCodec}.
+     * Responses are decoded with whichever codec the server answered in.
+     *
+     * @param payloadCodec The payload codec; JSON by default.
+     */
+    public void setPayloadCodec(IPayloadCodec payloadCodec) {
+        this.payloadCodec = payloadCodec;
+    }
+
+    /**
+     * Gets the codec this caller encodes its arguments with.
+     *
+     * @return The payload codec.
+     */
+    public IPayloadCodec getPayloadCodec() {
+        return payloadCodec;
+    }
+
+    /**
+     * Sets the timeout of the calls this caller makes. The timeout travels with each call, so the server skips a
+     * call that waited out its budget, and a call not answered in time completes with
+     * {@link StatusCode#REQUEST_TIMEOUT} instead of waiting forever.
+     *
+     * @param timeout The timeout, or {@code 0} to use {@link DeadlineOptions#getDefaultTimeoutMillis()}.
+     * @param unit    The unit of {@code timeout}.
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = Math.max(unit.toMillis(timeout), 0);
+    }
+
+    /**
+     * Gets the timeout of the calls this caller makes.
+     *
+     * @return The timeout in milliseconds, or {@code 0} if the client's default timeout applies.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
     /**
      * Invokes a remote procedure without waiting for a response (fire-and-forget).
      *
@@ -48,7 +100,7 @@ public class RpcCallerBase {
      */
     protected void callRpc(String controllerName, String actionName, Object... payloadObjects) throws IOException {
         UUID requestId = UUID.randomUUID();
-        Message message = createRpcCallMessage(controllerName, actionName, payloadObjects, requestId);
+        Message message = createRpcCallMessage(controllerName, actionName, payloadObjects, requestId, 0, 0, false);
         clientApplication.getMessageHandler().write(message);
     }
 
@@ -64,17 +116,31 @@ public class RpcCallerBase {
      * @throws IOException If a network error occurs while sending the message.
      */
     protected <T> RpcResponse<T> callRpcAndGetResponse(String controllerName, String actionName, Class<T> responseClass, Object... payloadObjects) throws IOException {
-        UUID requestId = UUID.randomUUID();
-        Message message = createRpcCallMessage(controllerName, actionName, payloadObjects, requestId);
-        CompletableFuture<Message> future = new CompletableFuture<>();
-        clientApplication.getPendingRequests().put(requestId, future);
-        clientApplication.getMessageHandler().write(message);
-        Message responseMessage = future.join();
-        RpcResponse<T> response = RpcHelper.convertMessageToRpcResponse(responseMessage, responseClass);
-        if (response.getStatusCode() != StatusCode.OK) {
-            System.out.println("Error Code: " + response.getStatusCode() + " " + response.getMessage());
+        return callRpcAndGetResponse(controllerName, actionName, (Type) responseClass, payloadObjects);
+    }
+
+    /**
+     * Invokes a remote procedure and waits for a response whose payload has a generic type, such as
+     * {@code Map<String, List<Item>>}. Generated client stubs use this for every action with a generic result.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param responseType   The type of the expected response payload, e.g. from a {@code TypeToken}.
+     * @param payloadObjects The arguments to be passed to the remote method.
+     * @param <T>            The type of the expected response payload.
+     * @return An {@link RpcResponse} containing the result from the server.
+     * @throws IOException If a network error occurs while sending the message.
+     */
+    protected <T> RpcResponse<T> callRpcAndGetResponse(String controllerName, String actionName, Type responseType, Object... payloadObjects) throws IOException {
+        CompletableFuture<Message> future = sendRpcCall(controllerName, actionName, payloadObjects);
+        try {
+            return toResponse(future.join(), null, responseType);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException batchWriteFailure) {
+                throw batchWriteFailure;
+            }
+            return toResponse(null, e.getCause(), responseType);
         }
-        return response;
     }
 
     /**
@@ -89,13 +155,280 @@ public class RpcCallerBase {
      * @throws IOException If a network error occurs while sending the message.
      */
     protected <T> RpcResponse<List<T>> callRpcAndGetListResponse(String controllerName, String actionName, Class<T> responseClass, Object... payloadObjects) throws IOException {
+        return callRpcAndGetResponse(controllerName, actionName, TypeToken.getParameterized(List.class, responseClass).getType(), payloadObjects);
+    }
+
+    /**
+     * Invokes a remote procedure without blocking. The call is written before this method returns; the returned
+     * future completes once the response has arrived and been decoded on the client's
+     * {@linkplain ClientApplication#getResponseExecutor() response executor}, never on the message listener thread.
+     * A single thread can therefore keep many calls in flight on one connection.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param responseClass  The class of the expected response payload.
+     * @param payloadObjects The arguments to be passed to the remote method.
+     * @param <T>            The type of the expected response payload.
+     * @return A future of the {@link RpcResponse}, failed with the {@link IOException} if the call could not be sent.
+     */
+    protected <T> CompletableFuture<RpcResponse<T>> callRpcAsync(String controllerName, String actionName, Class<T> responseClass, Object... payloadObjects) {
+        return callRpcAsync(controllerName, actionName, (Type) responseClass, payloadObjects);
+    }
+
+    /**
+     * Invokes a remote procedure without blocking, for a response whose payload has a generic type.
+     * See {@link #callRpcAsync(String, String, Class, Object...)}.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param responseType   The type of the expected response payload, e.g. from a {@code TypeToken}.
+     * @param payloadObjects The arguments to be passed to the remote method.
+     * @param <T>            The type of the expected response payload.
+     * @return A future of the {@link RpcResponse}, failed with the {@link IOException} if the call could not be sent.
+     */
+    protected <T> CompletableFuture<RpcResponse<T>> callRpcAsync(String controllerName, String actionName, Type responseType, Object... payloadObjects) {
+        CompletableFuture<Message> future;
+        try {
+            future = sendRpcCall(controllerName, actionName, payloadObjects);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.handleAsync((responseMessage, failure) -> toResponse(responseMessage, failure, responseType), clientApplication.getResponseExecutor());
+    }
+
+    /**
+     * Invokes a remote procedure without blocking, for a response containing a list of objects.
+     * See {@link #callRpcAsync(String, String, Class, Object...)}.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param responseClass  The class of the elements in the expected response list.
+     * @param payloadObjects The arguments to be passed to the remote method.
+     * @param <T>            The generic type of the elements in the list.
+     * @return A future of the {@link RpcResponse}, failed with the {@link IOException} if the call could not be sent.
+     */
+    protected <T> CompletableFuture<RpcResponse<List<T>>> callRpcForListAsync(String controllerName, String actionName, Class<T> responseClass, Object... payloadObjects) {
+        return callRpcAsync(controllerName, actionName, TypeToken.getParameterized(List.class, responseClass).getType(), payloadObjects);
+    }
+
+    /**
+     * Invokes a remote procedure whose action returns an {@link java.util.Iterator} or a
+     * {@link java.util.stream.Stream}, and receives its items as they are produced instead of in one response.
+     * The call grants the server the client's {@linkplain RpcStreamOptions#getWindow() window} of chunks and has
+     * no deadline, as a stream may run for as long as it is read. It is never batched.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param itemClass      The class of the items.
+     * @param payloadObjects The arguments to be passed to the remote method.
+     * @param <T>            The type of the items.
+     * @return The stream of items; close it if it is not read to the end.
+     * @throws IOException If a network error occurs while sending the message.
+     */
+    protected <T> RpcStream<T> callRpcForStream(String controllerName, String actionName, Class<T> itemClass, Object... payloadObjects) throws IOException {
+        return callRpcForStream(controllerName, actionName, (Type) itemClass, payloadObjects);
+    }
+
+    /**
+     * Invokes a remote procedure that streams items of a generic type. See
+     * {@link #callRpcForStream(String, String, Class, Object...)}.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param itemType       The type of the items, e.g. from a {@code TypeToken}.
+     * @param payloadObjects The arguments to be passed to the remote method.
+     * @param <T>            The type of the items.
+     * @return The stream of items; close it if it is not read to the end.
+     * @throws IOException If a network error occurs while sending the message.
+     */
+    protected <T> RpcStream<T> callRpcForStream(String controllerName, String actionName, Type itemType, Object... payloadObjects) throws IOException {
         UUID requestId = UUID.randomUUID();
-        Message message = createRpcCallMessage(controllerName, actionName, payloadObjects, requestId);
+        int window = clientApplication.getStreamOptions().getWindow();
+        Message message = createRpcCallMessage(controllerName, actionName, payloadObjects, requestId, 0, window, false);
         CompletableFuture<Message> future = new CompletableFuture<>();
+        RpcStream<T> stream = new RpcStream<>(clientApplication, requestId, itemType, gson, window, future);
+        clientApplication.getActiveStreams().put(requestId, stream);
         clientApplication.getPendingRequests().put(requestId, future);
-        clientApplication.getMessageHandler().write(message);
-        Message responseMessage = future.join();
-        RpcResponse<List<T>> response = RpcHelper.convertMessageToRpcListResponse(responseMessage, responseClass);
+        try {
+            clientApplication.getMessageHandler().write(message);
+        } catch (IOException | RuntimeException e) {
+            clientApplication.getPendingRequests().remove(requestId);
+            clientApplication.getActiveStreams().remove(requestId);
+            throw e;
+        }
+        return stream;
+    }
+
+    /**
+     * Invokes a remote procedure whose action takes a trailing {@link Iterator} parameter, streaming its items to
+     * the server instead of sending one call per item, and waits for the single response. The items are read and
+     * sent on the calling thread, in chunks of the client's {@linkplain RpcStreamOptions#getChunkSize() chunk size},
+     * as fast as the action consumes them. The call has no deadline and is never batched.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param responseClass  The class of the expected response payload.
+     * @param items          The items of the action's trailing parameter.
+     * @param payloadObjects The arguments for the action's other parameters.
+     * @param <T>            The type of the expected response payload.
+     * @return An {@link RpcResponse} containing the result from the server.
+     * @throws IOException If a network error occurs while sending the call or its items.
+     */
+    protected <T> RpcResponse<T> callRpcWithItems(String controllerName, String actionName, Class<T> responseClass, Iterator<?> items, Object... payloadObjects) throws IOException {
+        return callRpcWithItems(controllerName, actionName, (Type) responseClass, items, payloadObjects);
+    }
+
+    /**
+     * Invokes a remote procedure that takes streamed items, for a response whose payload has a generic type. See
+     * {@link #callRpcWithItems(String, String, Class, Iterator, Object...)}.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action method.
+     * @param responseType   The type of the expected response payload, e.g. from a {@code TypeToken}.
+     * @param items          The items of the action's trailing parameter.
+     * @param payloadObjects The arguments for the action's other parameters.
+     * @param <T>            The type of the expected response payload.
+     * @return An {@link RpcResponse} containing the result from the server.
+     * @throws IOException If a network error occurs while sending the call or its items.
+     */
+    protected <T> RpcResponse<T> callRpcWithItems(String controllerName, String actionName, Type responseType, Iterator<?> items, Object... payloadObjects) throws IOException {
+        UUID requestId = UUID.randomUUID();
+        // The streamed parameter's position carries null, so the call has the action's arity
+        Object[] arguments = Arrays.copyOf(payloadObjects, payloadObjects.length + 1);
+        Message message = createRpcCallMessage(controllerName, actionName, arguments, requestId, 0, 0, true);
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        RpcItemSender sender = new RpcItemSender(clientApplication, requestId, payloadCodec, gson,
+                MessageScope.rpc(controllerName, actionName), clientApplication.getStreamOptions().getChunkSize(), future);
+        Map<UUID, CompletableFuture<Message>> pendingRequests = clientApplication.getPendingRequests();
+        clientApplication.getActiveSenders().put(requestId, sender);
+        pendingRequests.put(requestId, future);
+        try {
+            clientApplication.getMessageHandler().write(message);
+            sender.send(items);
+        } catch (IOException | RuntimeException e) {
+            if (pendingRequests.remove(requestId, future)) {
+                try {
+                    clientApplication.getMessageHandler().write(new Message(MessageHeader.BuildRpcStreamCancelHeader(requestId), new byte[0], new byte[0]));
+                } catch (IOException ignored) {
+                    // The server drops the call with the connection
+                }
+            }
+            clientApplication.getActiveSenders().remove(requestId);
+            throw e;
+        }
+        try {
+            return toResponse(future.join(), null, responseType);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException connectionLost) {
+                throw connectionLost;
+            }
+            return toResponse(null, e.getCause(), responseType);
+        }
+    }
+
+    /**
+     * Registers a pending request, schedules its deadline if it has a timeout and writes the call, or hands it
+     * to the client's {@link RpcBatcher} if {@linkplain RpcBatchOptions batching} is enabled. With the
+     * {@linkplain RpcResponseCacheOptions response cache} enabled, the call carries the validator of the response
+     * cached for it, and the returned future completes with that response when the server reports it unchanged.
+     * With {@linkplain RpcReplayOptions replay} enabled, a call kept by the client's {@link RpcReplayBuffer} is
+     * held instead of written while the connection is down, or if its write fails, and sent after the reconnect.
+     * A call made while held calls are still waiting to be replayed is sent after them, so calls reach the server
+     * in the order they were made.
+     *
+     * @param controllerName The name of the target controller.
+     * @param actionName     The name of the target action.
+     * @param payloadObjects The arguments for the action.
+     * @return The future the message listener completes with the response message, or the deadline timer fails
+     *         with a {@link DeadlineExceededException}.
+     * @throws IOException If the message could not be written and is not held for replay; the request is no
+     *                     longer pending then. A batched call that cannot be written fails its future with the
+     *                     {@link IOException} instead.
+     */
+    private CompletableFuture<Message> sendRpcCall(String controllerName, String actionName, Object[] payloadObjects) throws IOException {
+        UUID requestId = UUID.randomUUID();
+        long timeout = timeoutMillis > 0 ? timeoutMillis : clientApplication.getDeadlineOptions().getDefaultTimeoutMillis();
+        Message message = createRpcCallMessage(controllerName, actionName, payloadObjects, requestId, timeout, 0, false);
+        RpcResponseCache responseCache = null;
+        RpcResponseCache.Key cacheKey = null;
+        RpcResponseCache.Entry cached = null;
+        if (clientApplication.getResponseCacheOptions().isEnabled()) {
+            responseCache = clientApplication.getResponseCache();
+            cacheKey = RpcResponseCache.Key.of(controllerName, actionName, message.header.content_type, message.getPayload());
+            cached = responseCache.get(cacheKey);
+            ((RpcCallMetadata) message.getMetadataValue()).setValidator(cached != null ? cached.validator() : "");
+        }
+        CompletableFuture<Message> future = new CompletableFuture<>();
+        Map<UUID, CompletableFuture<Message>> pendingRequests = clientApplication.getPendingRequests();
+        pendingRequests.put(requestId, future);
+        HashedTimingWheel.Timeout deadline = null;
+        if (timeout > 0) {
+            Executor executor = clientApplication.getResponseExecutor();
+            deadline = clientApplication.getDeadlineTimer().newTimeout(() -> {
+                if (pendingRequests.remove(requestId, future)) {
+                    executor.execute(() -> future.completeExceptionally(DeadlineExceededException.INSTANCE));
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+            HashedTimingWheel.Timeout scheduled = deadline;
+            future.whenComplete((response, failure) -> scheduled.cancel());
+        }
+        RpcReplayBuffer replayBuffer = clientApplication.getReplayOptions().isEnabled() ? clientApplication.getReplayBuffer() : null;
+        boolean replayable = replayBuffer != null && replayBuffer.track(message, future);
+        try {
+            if (replayable && !clientApplication.isConnected()) {
+                replayBuffer.hold(requestId);
+            } else if (replayable && replayBuffer.holdBehindReplay(requestId)) {
+                // Written after the calls held before it once they are replayed
+            } else {
+                if (replayBuffer != null && !replayable) {
+                    replayBuffer.awaitReplayed();
+                }
+                if (clientApplication.getBatchOptions().isEnabled()) {
+                    clientApplication.getRpcBatcher().add(message, future);
+                } else {
+                    clientApplication.getMessageHandler().write(message);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!(replayable && e instanceof IOException && replayBuffer.hold(requestId))) {
+                pendingRequests.remove(requestId);
+                future.cancel(false);
+                if (deadline != null) {
+                    deadline.cancel();
+                }
+                throw e;
+            }
+        }
+        if (responseCache != null) {
+            RpcResponseCache revalidated = responseCache;
+            RpcResponseCache.Key key = cacheKey;
+            RpcResponseCache.Entry held = cached;
+            return future.thenApply(response -> revalidated.resolve(key, held, response));
+        }
+        return future;
+    }
+
+    /**
+     * Converts the outcome of a call into its response.
+     *
+     * @param responseMessage The response message, or {@code null} if the call failed.
+     * @param failure         The failure, or {@code null} if a response arrived.
+     * @param responseType    The type of the expected response payload.
+     * @return The response; {@link StatusCode#REQUEST_TIMEOUT} if the call's deadline passed.
+     * @throws CompletionException wrapping any other failure.
+     */
+    private <T> RpcResponse<T> toResponse(Message responseMessage, Throwable failure, Type responseType) {
+        RpcResponse<T> response;
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof DeadlineExceededException) {
+            response = new RpcResponse<>(StatusCode.REQUEST_TIMEOUT, cause.getMessage(), null);
+        } else if (cause != null) {
+            throw cause instanceof CompletionException completion ? completion : new CompletionException(cause);
+        } else {
+            @SuppressWarnings("unchecked")
+            RpcResponse<T> decoded = (RpcResponse<T>) RpcHelper.convertMessageToRpcResponse(responseMessage, responseType);
+            response = decoded;
+        }
         if (response.getStatusCode() != StatusCode.OK) {
             System.out.println("Error Code: " + response.getStatusCode() + " " + response.getMessage());
         }
@@ -109,18 +442,35 @@ public class RpcCallerBase {
      * @param actionName     The name of the target action.
      * @param payloadObjects The arguments for the action.
      * @param requestId      The unique ID for this request.
+     * @param timeoutMillis  The call's timeout in milliseconds, or {@code 0} for none.
+     * @param streamWindow   The window of chunks granted for a streamed result, or {@code 0} for a single response.
+     * @param streamsItems   {@code true} if the call's last argument is streamed after it.
      * @return A {@link Message} ready to be sent to the server.
      * @throws IOException If an error occurs during message creation.
      */
-    private Message createRpcCallMessage(String controllerName, String actionName, Object[] payloadObjects, UUID requestId) throws IOException {
+    private Message createRpcCallMessage(String controllerName, String actionName, Object[] payloadObjects, UUID requestId, long timeoutMillis, int streamWindow, boolean streamsItems) throws IOException {
         RpcCallMetadata metadata = new RpcCallMetadata(controllerName, actionName);
-        String metadataJson = gson.toJson(metadata);
-        String payloadJson = gson.toJson(payloadObjects);
-        byte[] metadataBytes = metadataJson.getBytes(StandardCharsets.UTF_8);
-        byte[] payloadBytes = payloadJson.getBytes(StandardCharsets.UTF_8);
-        MessageHeader header = MessageHeader.BuildRpcCallHeader(
-                requestId, true, metadataBytes.length, payloadBytes.length
-        );
-        return new Message(header, metadataBytes, payloadBytes);
-    }
-}
\ No newline at end of file
+        metadata.setTimeoutMillis(timeoutMillis);
+        metadata.setStreamWindow(streamWindow);
+        IPayloadCodec codec = payloadCodec;
+        byte[] payloadBytes = codec.encode(gson, payloadObjects);
+        MessageHeader header = streamsItems
+                ? MessageHeader.BuildRpcStreamCallHeader(requestId, true, 0, payloadBytes.length)
+                : MessageHeader.BuildRpcCallHeader(requestId, true, 0, payloadBytes.length);
+        header.content_type = codec.getContentType();
+        return new Message(header, new byte[0], payloadBytes)
+                .setMetadataValue(metadata)
+                .setScope(MessageScope.rpc(controllerName, actionName));
+    }
+
+    /**
+     * Fails a pending call whose deadline passed; shared and without a stack trace, as it only carries the outcome.
+     */
+    private static final class DeadlineExceededException extends RuntimeException {
+        static final DeadlineExceededException INSTANCE = new DeadlineExceededException();
+
+        private DeadlineExceededException() {
+            super("The call's deadline passed before the server answered.", null, false, false);
+        }
+    }
+}
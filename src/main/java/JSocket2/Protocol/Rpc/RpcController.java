@@ -19,4 +19,13 @@ public @interface RpcController {
      * @return The public name of the controller.
      */
     String Name() default "";
+
+    /**
+     * Specifies the name of the {@link JSocket2.Protocol.Codec.IPayloadCodec} the controller's responses are
+     * encoded with, e.g. {@code "cbor"} for numeric-heavy results. If not set, each response uses the codec
+     * of the call it answers.
+     *
+     * @return The payload codec name.
+     */
+    String PayloadCodec() default "";
 }
\ No newline at end of file
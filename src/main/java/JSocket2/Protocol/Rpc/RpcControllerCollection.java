@@ -2,7 +2,9 @@ package JSocket2.Protocol.Rpc;
 
 import JSocket2.DI.ServiceProvider;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,7 +39,25 @@ public class RpcControllerCollection {
     }
 
     /**
-     * Creates an {@link RpcDispatcher} using the registered controllers.
+     * Lists the RPC routes of the registered controllers, named as declared, e.g. to publish them as numeric
+     * route ids in a {@link JSocket2.Protocol.Codec.RouteTable}.
+     *
+     * @return One entry per controller and action name.
+     */
+    public List<RpcCallMetadata> getRoutes() {
+        List<RpcCallMetadata> routes = new ArrayList<>();
+        for (Class<?> controllerType : controllers.values()) {
+            String controllerName = RpcRouteTable.declaredName(controllerType);
+            for (String actionName : RpcRouteTable.ControllerRoutes.actionNames(controllerType)) {
+                routes.add(new RpcCallMetadata(controllerName, actionName));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Creates an {@link RpcDispatcher} using the registered controllers. The dispatcher compiles
+     * the routes of every controller action up front, so register all controllers first.
      *
      * @param provider The {@link ServiceProvider} for resolving controller instances.
      * @return A new, configured {@link RpcDispatcher}.
@@ -45,4 +65,29 @@ public class RpcControllerCollection {
     public RpcDispatcher CreateRpcDispatcher(ServiceProvider provider) {
         return new RpcDispatcher(provider, controllers);
     }
+
+    /**
+     * Creates an {@link RpcDispatcher} using the registered controllers, choosing whether the binders generated by
+     * {@link JSocket2.Protocol.Rpc.Processor.RpcProcessor} are used. Turning them off forces the reflective route
+     * table, e.g. to compare the two.
+     *
+     * @param provider         The {@link ServiceProvider} for resolving controller instances.
+     * @param generatedBinders Whether to use generated binders where present.
+     * @return A new, configured {@link RpcDispatcher}.
+     */
+    public RpcDispatcher CreateRpcDispatcher(ServiceProvider provider, boolean generatedBinders) {
+        return new RpcDispatcher(provider, controllers, generatedBinders);
+    }
+
+    /**
+     * Creates an {@link RpcDispatcher} using the registered controllers that answers {@link RpcCacheable} actions
+     * from a result cache.
+     *
+     * @param provider    The {@link ServiceProvider} for resolving controller instances.
+     * @param resultCache The cache of encoded responses.
+     * @return A new, configured {@link RpcDispatcher}.
+     */
+    public RpcDispatcher CreateRpcDispatcher(ServiceProvider provider, RpcResultCache resultCache) {
+        return new RpcDispatcher(provider, controllers, true, resultCache);
+    }
 }
\ No newline at end of file
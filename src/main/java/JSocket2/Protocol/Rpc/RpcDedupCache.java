@@ -0,0 +1,183 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The server's memory of recent calls by request id, shared by all connections so a call re-sent on a new
+ * connection is recognized. The first call with an id runs its action; a duplicate arriving while it runs waits
+ * for it, and one arriving later is answered with a copy of the stored response until it expires.
+ * <p>
+ * Ids are scoped by the calling user, so one user cannot read another's responses by reusing their ids. Entries
+ * are kept in completion order; the oldest completed ones are evicted when the cache reaches either bound of its
+ * {@link RpcDedupOptions}, after which a duplicate runs its action again.
+ */
+public class RpcDedupCache {
+    private final RpcDedupOptions options;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+    private final LongAdder duplicates = new LongAdder();
+    private long bytes;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param options The bounds and time to live of the cache.
+     */
+    public RpcDedupCache(RpcDedupOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Gets the options of the cache.
+     *
+     * @return The options.
+     */
+    public RpcDedupOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Registers a call, unless a call with the same key is running or has a stored response.
+     *
+     * @param key The key of the call.
+     * @return {@code null} if the caller is the first and must run the call, then {@link #complete} or
+     *         {@link #fail} it; otherwise a future of a copy of the first call's response message, or of
+     *         {@code null} if it had none.
+     */
+    public CompletableFuture<Message> begin(Key key) {
+        synchronized (entries) {
+            expire(System.nanoTime());
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                duplicates.increment();
+                return entry.response.thenApply(RpcDedupCache::copy);
+            }
+            entries.put(key, new Entry());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response of a call registered by {@link #begin} and hands it to the duplicates waiting for it.
+     *
+     * @param key      The key of the call.
+     * @param response The response message, or {@code null} if the call has none.
+     */
+    public void complete(Key key, Message response) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(key);
+            if (entry != null) {
+                entry.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getTtlMillis());
+                entry.bytes = response != null ? response.getPayload().length : 0;
+                entries.put(key, entry);
+                bytes += entry.bytes;
+                evict();
+            }
+        }
+        if (entry != null) {
+            entry.response.complete(response);
+        }
+    }
+
+    /**
+     * Forgets a call registered by {@link #begin} whose action failed without a response, so a retry runs it
+     * again; the duplicates waiting for it fail with the cause.
+     *
+     * @param key   The key of the call.
+     * @param cause The failure.
+     */
+    public void fail(Key key, Throwable cause) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.remove(key);
+            if (entry != null) {
+                bytes -= entry.bytes;
+            }
+        }
+        if (entry != null) {
+            entry.response.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Gets how many duplicate calls were answered without running their action again.
+     *
+     * @return The number of duplicates.
+     */
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    /**
+     * Gets how many calls are running or have a stored response, including expired ones not yet removed.
+     *
+     * @return The number of calls.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.response.isDone()) {
+                continue;
+            }
+            if (entry.expiresAtNanos - now > 0) {
+                return;
+            }
+            bytes -= entry.bytes;
+            iterator.remove();
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > options.getMaxEntries() || bytes > options.getMaxBytes())) {
+            Entry entry = eldest.next();
+            // Running calls stay, as their duplicates wait for them to complete
+            if (entry.response.isDone()) {
+                bytes -= entry.bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static Message copy(Message response) {
+        if (response == null) {
+            return null;
+        }
+        MessageHeader header = MessageHeader.BuildRpcResponseHeader(response.header.uuid, false, 0, response.getPayload().length);
+        header.content_type = response.header.content_type;
+        return new Message(header, new byte[0], response.getPayload())
+                .setMetadataValue(response.getMetadataValue())
+                .setScope(response.getScope());
+    }
+
+    /**
+     * Identifies a call.
+     *
+     * @param user      The id of the calling user, or {@code null} before authentication.
+     * @param requestId The request id the client gave the call.
+     */
+    public record Key(String user, UUID requestId) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Message> response = new CompletableFuture<>();
+        long expiresAtNanos = Long.MAX_VALUE;
+        int bytes;
+    }
+}
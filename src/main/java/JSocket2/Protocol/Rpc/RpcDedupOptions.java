@@ -0,0 +1,84 @@
+package JSocket2.Protocol.Rpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the server's {@link RpcDedupCache}, which remembers the responses of recent calls by request id so a
+ * call the client sends again, e.g. after reconnecting, is answered with the stored response instead of running
+ * its action twice. When either bound is reached, the oldest responses are evicted first.
+ */
+public class RpcDedupOptions {
+    private int maxEntries = 0;
+    private long maxBytes = 16L * 1024 * 1024;
+    private long ttlMillis = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Sets how many responses the server remembers.
+     *
+     * @param maxEntries The number of responses, at least 0; 0 by default, which turns de-duplication off.
+     * @return This instance for chaining.
+     */
+    public RpcDedupOptions setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(maxEntries, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many responses the server remembers.
+     *
+     * @return The number of responses.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Checks whether duplicate calls are recognized.
+     *
+     * @return {@code true} if the cache remembers any responses.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Sets how many bytes of encoded responses the server remembers.
+     *
+     * @param maxBytes The number of bytes, at least 0; 16 MiB by default.
+     * @return This instance for chaining.
+     */
+    public RpcDedupOptions setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(maxBytes, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many bytes of encoded responses the server remembers.
+     *
+     * @return The number of bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets how long a response is remembered after the call completed. Clients should retry within this window.
+     *
+     * @param ttl  The time to live; 30 seconds by default.
+     * @param unit The unit of {@code ttl}.
+     * @return This instance for chaining.
+     */
+    public RpcDedupOptions setTtl(long ttl, TimeUnit unit) {
+        this.ttlMillis = Math.max(unit.toMillis(ttl), 0);
+        return this;
+    }
+
+    /**
+     * Gets how long a response is remembered after the call completed.
+     *
+     * @return The time to live in milliseconds.
+     */
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+}
@@ -3,50 +3,211 @@ package JSocket2.Protocol.Rpc;
 import JSocket2.Core.Server.ServerSessionManager;
 import JSocket2.DI.ServiceProvider;
 import JSocket2.Protocol.Authentication.UserIdentity;
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
+import JSocket2.Protocol.Codec.PayloadCodecs;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 
-import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Map;
 
 /**
  * Responsible for dispatching incoming RPC calls to the appropriate controller and action method.
- * It uses a {@link ServiceProvider} to resolve controller instances and reflection to invoke methods.
+ * It uses a {@link ServiceProvider} to resolve controller instances and a route table, compiled once
+ * when the dispatcher is created, to bind arguments and invoke the action through a method handle.
+ * Controllers compiled with {@link JSocket2.Protocol.Rpc.Processor.RpcProcessor} are bound by their generated
+ * {@link IRpcBinder} instead, which calls the action directly.
+ * <p>
+ * A dispatcher with an {@link RpcResultCache} also tells callers which calls may be answered from it; see
+ * {@link #cacheKey}.
  */
 public class RpcDispatcher {
-    private final Map<String, Class<?>> controllers;
     private final ServiceProvider provider;
     private final Gson gson = new Gson();
+    private final RpcRouteTable routes;
+    private final RpcResultCache resultCache;
 
     /**
-     * Constructs a new {@code RpcDispatcher}.
+     * Constructs a new {@code RpcDispatcher} and compiles the routes of the given controllers.
      *
      * @param provider    The service provider for resolving controller instances.
      * @param controllers A map of registered controller names to their class types.
      */
     public RpcDispatcher(ServiceProvider provider, Map<String, Class<?>> controllers) {
+        this(provider, controllers, true);
+    }
+
+    /**
+     * Constructs a new {@code RpcDispatcher}, choosing whether generated binders are used.
+     *
+     * @param provider         The service provider for resolving controller instances.
+     * @param controllers      A map of registered controller names to their class types.
+     * @param generatedBinders {@code true} to bind through generated binders where present, {@code false} to
+     *                         compile every controller into the reflective route table.
+     */
+    public RpcDispatcher(ServiceProvider provider, Map<String, Class<?>> controllers, boolean generatedBinders) {
+        this(provider, controllers, generatedBinders, null);
+    }
+
+    /**
+     * Constructs a new {@code RpcDispatcher} whose {@link RpcCacheable} actions are answered from a result cache.
+     *
+     * @param provider         The service provider for resolving controller instances.
+     * @param controllers      A map of registered controller names to their class types.
+     * @param generatedBinders {@code true} to bind through generated binders where present, {@code false} to
+     *                         compile every controller into the reflective route table.
+     * @param resultCache      The cache of encoded responses, or {@code null} to run every call.
+     */
+    public RpcDispatcher(ServiceProvider provider, Map<String, Class<?>> controllers, boolean generatedBinders, RpcResultCache resultCache) {
         this.provider = provider;
-        this.controllers = controllers;
+        this.routes = new RpcRouteTable(controllers, gson, generatedBinders);
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Gets the cache of encoded responses to {@link RpcCacheable} actions.
+     *
+     * @return The cache, or {@code null} if the dispatcher has none.
+     */
+    public RpcResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Decodes the array of a call's arguments with the payload codec named by the frame's content type, so a
+     * caller that needs both {@link #cacheKey} and {@link #dispatch} decodes the payload once.
+     *
+     * @param contentType The content type from the frame header, see {@link PayloadCodecs}.
+     * @param payload     The encoded array of the method arguments, as received in the frame body.
+     * @return The arguments, or an empty array if the payload is not an array.
+     */
+    public JsonArray parseArguments(int contentType, byte[] payload) {
+        JsonElement parsed = PayloadCodecs.get(contentType).parse(payload);
+        return parsed.isJsonArray() ? parsed.getAsJsonArray() : new JsonArray(0);
     }
 
     /**
-     * Dispatches an RPC call.
+     * Gets the key the response to a call is cached under. Calls to actions that are not {@link RpcCacheable} are
+     * recognized by name, without decoding their arguments.
+     *
+     * @param metadata    The RPC call metadata.
+     * @param contentType The content type of the call.
+     * @param payload     The encoded array of the method arguments.
+     * @param activeUser  The identity of the user making the call, or {@code null}.
+     * @return The key, or {@code null} if the dispatcher has no cache or the action is not cached.
+     */
+    public RpcResultCache.Key cacheKey(RpcCallMetadata metadata, int contentType, byte[] payload, UserIdentity activeUser) {
+        if (!isCacheable(metadata)) {
+            return null;
+        }
+        return cacheKey(metadata, contentType, parseArguments(contentType, payload), activeUser);
+    }
+
+    /**
+     * Gets the key the response to a call with decoded arguments is cached under. The arguments are keyed in
+     * their {@link RpcResultCache#canonical canonical} form, so equal arguments share a key whatever their encoding.
+     *
+     * @param metadata    The RPC call metadata.
+     * @param contentType The content type of the call.
+     * @param arguments   The decoded method arguments, see {@link #parseArguments}.
+     * @param activeUser  The identity of the user making the call, or {@code null}.
+     * @return The key, or {@code null} if the dispatcher has no cache or the action is not cached.
+     */
+    public RpcResultCache.Key cacheKey(RpcCallMetadata metadata, int contentType, JsonArray arguments, UserIdentity activeUser) {
+        if (!isCacheable(metadata)) {
+            return null;
+        }
+        RpcCacheable policy = routes.findController(metadata.getController()).findCachePolicy(metadata.getAction(), arguments.size());
+        if (policy == null || policy.PerUser() && activeUser == null) {
+            return null;
+        }
+        return new RpcResultCache.Key(metadata.getController().toLowerCase(), metadata.getAction().toLowerCase(),
+                RpcResultCache.canonical(arguments), policy.PerUser() ? activeUser.getUserId() : null,
+                getResponseCodec(metadata, contentType).getContentType(), policy.TtlMillis());
+    }
+
+    /**
+     * Checks whether responses to an action may be cached, by name alone.
+     *
+     * @param metadata The RPC call metadata.
+     * @return {@code true} if the dispatcher has a cache and the action is {@link RpcCacheable}.
+     */
+    public boolean isCacheable(RpcCallMetadata metadata) {
+        if (resultCache == null) {
+            return false;
+        }
+        RpcRouteTable.ControllerRoutes controllerRoutes = routes.findController(metadata.getController());
+        return controllerRoutes != null && controllerRoutes.isCacheable(metadata.getAction());
+    }
+
+    /**
+     * Dispatches an RPC call with a JSON payload.
      *
      * @param metadata             The RPC call metadata.
-     * @param payload_json         The JSON string of the method arguments.
+     * @param payload              The UTF-8 JSON array of the method arguments, as received in the frame body.
      * @param serverSessionManager The server session manager.
      * @param activeUser           The identity of the user making the call.
      * @return The {@link RpcResponse} from the invoked action method.
      * @throws RuntimeException if the controller is not found, the method is not found,
      *                          or an error occurs during invocation.
      */
-    public RpcResponse<?> dispatch(RpcCallMetadata metadata, String payload_json, ServerSessionManager serverSessionManager, UserIdentity activeUser) {
-        String controllerName = metadata.getController().toLowerCase();
-        String actionName = metadata.getAction().toLowerCase();
-        Class<?> controllerType = controllers.get(controllerName);
-        if (controllerType == null) {
-            throw new RuntimeException("Controller not registered: " + controllerName);
+    public RpcResponse<?> dispatch(RpcCallMetadata metadata, byte[] payload, ServerSessionManager serverSessionManager, UserIdentity activeUser) {
+        return dispatch(metadata, JsonPayloadCodec.CONTENT_TYPE, payload, serverSessionManager, activeUser);
+    }
+
+    /**
+     * Dispatches an RPC call, decoding the arguments with the payload codec named by the frame's content type.
+     *
+     * @param metadata             The RPC call metadata.
+     * @param contentType          The content type from the frame header, see {@link PayloadCodecs}.
+     * @param payload              The encoded array of the method arguments, as received in the frame body.
+     * @param serverSessionManager The server session manager.
+     * @param activeUser           The identity of the user making the call.
+     * @return The {@link RpcResponse} from the invoked action method.
+     * @throws RuntimeException if the controller is not found, the method is not found,
+     *                          or an error occurs during invocation.
+     */
+    public RpcResponse<?> dispatch(RpcCallMetadata metadata, int contentType, byte[] payload, ServerSessionManager serverSessionManager, UserIdentity activeUser) {
+        return dispatch(metadata, contentType, payload, serverSessionManager, activeUser, null);
+    }
+
+    /**
+     * Dispatches an RPC call whose last argument the client streams. The items are bound to the action's trailing
+     * {@link java.util.Iterator} parameter, and the action runs on the calling thread while they arrive.
+     *
+     * @param metadata             The RPC call metadata.
+     * @param contentType          The content type from the frame header, see {@link PayloadCodecs}.
+     * @param payload              The encoded array of the method arguments, as received in the frame body.
+     * @param serverSessionManager The server session manager.
+     * @param activeUser           The identity of the user making the call.
+     * @param items                The items the client streams, or {@code null} for a plain call.
+     * @return The {@link RpcResponse} from the invoked action method.
+     * @throws RuntimeException if the controller is not found, the method is not found,
+     *                          or an error occurs during invocation.
+     */
+    public RpcResponse<?> dispatch(RpcCallMetadata metadata, int contentType, byte[] payload, ServerSessionManager serverSessionManager, UserIdentity activeUser, RpcItemReceiver items) {
+        return dispatch(metadata, parseArguments(contentType, payload), serverSessionManager, activeUser, items);
+    }
+
+    /**
+     * Dispatches an RPC call whose arguments have already been decoded, see {@link #parseArguments}.
+     *
+     * @param metadata             The RPC call metadata.
+     * @param arguments            The decoded method arguments.
+     * @param serverSessionManager The server session manager.
+     * @param activeUser           The identity of the user making the call.
+     * @param items                The items the client streams, or {@code null} for a plain call.
+     * @return The {@link RpcResponse} from the invoked action method.
+     * @throws RuntimeException if the controller is not found, the method is not found,
+     *                          or an error occurs during invocation.
+     */
+    public RpcResponse<?> dispatch(RpcCallMetadata metadata, JsonArray arguments, ServerSessionManager serverSessionManager, UserIdentity activeUser, RpcItemReceiver items) {
+        RpcRouteTable.ControllerRoutes controllerRoutes = routes.findController(metadata.getController());
+        if (controllerRoutes == null) {
+            throw new RuntimeException("Controller not registered: " + metadata.getController().toLowerCase());
         }
+        Class<?> controllerType = controllerRoutes.getControllerType();
         Object controller = provider.GetService(controllerType);
         if (!(controller instanceof RpcControllerBase)) {
             throw new RuntimeException("Controller must inherit from RpcControllerBase: " + controllerType.getName());
@@ -58,49 +219,55 @@ public class RpcDispatcher {
             rpcController.setServerSessionManager(serverSessionManager);
         }
 
-        try {
-            Object[] rawParameters = gson.fromJson(payload_json, Object[].class);
-            if (rawParameters == null) {
-                Method method = controller.getClass().getMethod(actionName);
-                return (RpcResponse<?>) method.invoke(controller);
-            } else {
-                Map.Entry<Method, Object[]> methodEntry = findMatchingMethod(controllerType, actionName, rawParameters);
-                return (RpcResponse<?>) methodEntry.getKey().invoke(controller, methodEntry.getValue());
+        IRpcBinder binder = controllerRoutes.getBinder();
+        if (binder != null) {
+            RpcResponse<?> response;
+            try {
+                response = binder.invoke(controller, metadata.getAction(), arguments, items);
+            } catch (Throwable e) {
+                throw new RuntimeException("Error invoking method: " + e.getMessage(), e);
+            }
+            if (response != IRpcBinder.NO_MATCH) {
+                return response;
             }
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException("Action method not found: " + actionName, e);
-        } catch (Exception e) {
-            throw new RuntimeException("Error invoking method: " + e.getMessage(), e);
+            throw actionNotFound(metadata, arguments);
         }
+        RpcRoute[] candidates = controllerRoutes.findAction(metadata.getAction(), arguments.size());
+        for (RpcRoute route : candidates) {
+            Object[] parameters;
+            try {
+                parameters = route.bind(arguments, items);
+            } catch (RuntimeException e) {
+                // Type mismatch, try the next overload
+                continue;
+            }
+            try {
+                return route.invoke(controller, parameters);
+            } catch (Throwable e) {
+                throw new RuntimeException("Error invoking method: " + e.getMessage(), e);
+            }
+        }
+        throw actionNotFound(metadata, arguments);
+    }
+
+    private static RuntimeException actionNotFound(RpcCallMetadata metadata, JsonArray arguments) {
+        return new RuntimeException("Action method not found: " + metadata.getAction().toLowerCase(),
+                new NoSuchMethodException("No suitable method found for action '" + metadata.getAction() + "' with " + arguments.size() + " parameters."));
     }
 
     /**
-     * Finds a method in a controller that matches the name and parameter types of an RPC call.
+     * Chooses the payload codec for the response to a call: the codec declared by the controller, or else
+     * the codec the call was encoded with.
      *
-     * @param controllerClass The class of the controller.
-     * @param methodName      The name of the action method.
-     * @param parameters      The raw parameters from the JSON payload.
-     * @return A {@link Map.Entry} containing the matched {@link Method} and the converted parameters.
-     * @throws NoSuchMethodException if no suitable method is found.
+     * @param metadata    The RPC call metadata.
+     * @param contentType The content type of the call.
+     * @return The codec to encode the response payload with.
      */
-    private Map.Entry<Method, Object[]> findMatchingMethod(Class<?> controllerClass, String methodName, Object[] parameters)
-            throws NoSuchMethodException {
-        for (Method method : controllerClass.getMethods()) {
-            if (method.getName().equalsIgnoreCase(methodName)) {
-                Class<?>[] paramTypes = method.getParameterTypes();
-                if (paramTypes.length == parameters.length) {
-                    try {
-                        Object[] convertedParams = new Object[parameters.length];
-                        for (int i = 0; i < parameters.length; i++) {
-                            convertedParams[i] = gson.fromJson(gson.toJson(parameters[i]), paramTypes[i]);
-                        }
-                        return Map.entry(method, convertedParams);
-                    } catch (Exception e) {
-                        // Type mismatch, continue searching
-                    }
-                }
-            }
+    public IPayloadCodec getResponseCodec(RpcCallMetadata metadata, int contentType) {
+        RpcRouteTable.ControllerRoutes controllerRoutes = routes.findController(metadata.getController());
+        if (controllerRoutes != null && controllerRoutes.getPayloadCodec() != null) {
+            return controllerRoutes.getPayloadCodec();
         }
-        throw new NoSuchMethodException("No suitable method found for action '" + methodName + "' with " + parameters.length + " parameters.");
+        return PayloadCodecs.get(contentType);
     }
-}
\ No newline at end of file
+}
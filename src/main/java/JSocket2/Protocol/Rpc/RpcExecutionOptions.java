@@ -0,0 +1,118 @@
+package JSocket2.Protocol.Rpc;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Configures where the server runs controller actions. By default an action runs on the reader thread of its
+ * connection, so a slow action holds up every later frame from that client, file chunks and authentication
+ * included. With a worker pool or a custom executor the reader only decodes the call and moves on; responses are
+ * matched to their calls by request id, so they may be sent in any order. Key rotation and the other protocol
+ * messages are always handled on the reader thread.
+ */
+public class RpcExecutionOptions {
+    /**
+     * Which calls of a connection keep their order when actions run on an executor.
+     */
+    public enum Ordering {
+        /**
+         * Calls run concurrently, in any order.
+         */
+        NONE,
+        /**
+         * Calls from one connection run one at a time, in the order they arrived, without blocking its reader.
+         */
+        PER_SESSION,
+        /**
+         * Calls from one connection to the same controller run in order; calls to different controllers run
+         * concurrently.
+         */
+        PER_CONTROLLER
+    }
+
+    private int workerThreads = 0;
+    private int queueCapacity = 1024;
+    private Executor executor;
+    private Ordering ordering = Ordering.PER_SESSION;
+
+    /**
+     * Runs actions on a bounded pool of platform threads owned by the server. When its queue is full, the
+     * reader thread that submitted the call runs it, which slows that client down instead of dropping calls.
+     *
+     * @param workerThreads The number of worker threads, or {@code 0} to run actions on the reader threads.
+     * @return This instance for chaining.
+     */
+    public RpcExecutionOptions setWorkerThreads(int workerThreads) {
+        this.workerThreads = Math.max(workerThreads, 0);
+        return this;
+    }
+
+    /**
+     * Gets the number of threads of the server's worker pool.
+     *
+     * @return The number of worker threads, or {@code 0} if actions run on the reader threads.
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    /**
+     * Sets how many calls may wait for a worker thread before readers run calls themselves.
+     *
+     * @param queueCapacity The capacity of the worker pool's queue, at least 1; 1024 by default.
+     * @return This instance for chaining.
+     */
+    public RpcExecutionOptions setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        return this;
+    }
+
+    /**
+     * Gets how many calls may wait for a worker thread.
+     *
+     * @return The capacity of the worker pool's queue.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Runs actions on an executor owned by the application instead of the server's worker pool, such as
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} on Java 21. The server does not shut it down.
+     *
+     * @param executor The executor, or {@code null} to use {@link #setWorkerThreads(int)}.
+     * @return This instance for chaining.
+     */
+    public RpcExecutionOptions setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Gets the executor supplied by the application.
+     *
+     * @return The executor, or {@code null} if none was supplied.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Sets which calls keep their order when actions run on an executor.
+     *
+     * @param ordering The ordering; {@link Ordering#PER_SESSION} by default.
+     * @return This instance for chaining.
+     */
+    public RpcExecutionOptions setOrdering(Ordering ordering) {
+        this.ordering = ordering;
+        return this;
+    }
+
+    /**
+     * Gets which calls keep their order when actions run on an executor.
+     *
+     * @return The ordering.
+     */
+    public Ordering getOrdering() {
+        return ordering;
+    }
+}
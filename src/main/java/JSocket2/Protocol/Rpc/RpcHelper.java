@@ -3,11 +3,11 @@ package JSocket2.Protocol.Rpc;
 import JSocket2.Protocol.Message;
 import JSocket2.Protocol.MessageType;
 import JSocket2.Protocol.StatusCode;
+import JSocket2.Protocol.Codec.PayloadCodecs;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -47,24 +47,19 @@ public class RpcHelper {
 
     /**
      * Core conversion logic that deserializes a message's metadata and payload into an {@link RpcResponse}.
+     * Use this overload for generic payload types, e.g. a {@code TypeToken} of a map.
      *
      * @param message       The raw message.
      * @param responseType  The {@link Type} of the expected payload.
      * @return A deserialized {@link RpcResponse}.
      * @throws RuntimeException if the message is not of type {@link MessageType#RPC_RESPONSE}.
      */
-    private static RpcResponse<?> convertMessageToRpcResponse(Message message, Type responseType) {
+    public static RpcResponse<?> convertMessageToRpcResponse(Message message, Type responseType) {
         if (message.header.type != MessageType.RPC_RESPONSE) {
             throw new RuntimeException("Invalid message type for RPC response conversion.");
         }
-        RpcResponseMetadata metaObj = gson.fromJson(
-                new String(message.getMetadata(), StandardCharsets.UTF_8),
-                RpcResponseMetadata.class
-        );
-        Object result = gson.fromJson(
-                new String(message.getPayload(), StandardCharsets.UTF_8),
-                responseType
-        );
+        RpcResponseMetadata metaObj = message.getMetadataAs(RpcResponseMetadata.class);
+        Object result = PayloadCodecs.get(message.header.content_type).decode(gson, message.getPayload(), responseType);
         return new RpcResponse<>(StatusCode.fromCode(metaObj.getStatusCode()), metaObj.getMessage(), result);
     }
 }
\ No newline at end of file
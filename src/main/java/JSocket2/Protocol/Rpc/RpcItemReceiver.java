@@ -0,0 +1,184 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Protocol.Codec.PayloadCodecs;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The server side of a client-streaming RPC call: receives the items the client sends in
+ * {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} chunks after a
+ * {@link JSocket2.Protocol.MessageType#RPC_STREAM_CALL}, and hands them to the action as the {@link Iterator} bound
+ * to its trailing parameter.
+ * <p>
+ * The client may only send the chunks it has been granted credit for: a window of chunks when the call arrives, and
+ * more, half a window at a time, as the action consumes them. Chunks are queued by the reader thread and decoded on
+ * the action's thread, so a slow action holds back the client instead of letting chunks pile up in memory. A client
+ * that sends more chunks than it was granted has its call failed.
+ */
+public class RpcItemReceiver {
+    private static final Object END = new Object();
+
+    private final UUID requestId;
+    private final MessageHandler handler;
+    private final Gson gson;
+    private final int window;
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+    private volatile RuntimeException failure;
+    private boolean opened;
+
+    /**
+     * Constructs a receiver for a call; {@link #start()} grants the client its first window.
+     *
+     * @param requestId The request id of the call.
+     * @param handler   The handler of the connection the call arrived on.
+     * @param gson      The Gson instance the items are decoded with.
+     * @param window    The number of chunks the client may send ahead of the ones the action has consumed.
+     */
+    public RpcItemReceiver(UUID requestId, MessageHandler handler, Gson gson, int window) {
+        this.requestId = requestId;
+        this.handler = handler;
+        this.gson = gson;
+        this.window = window;
+    }
+
+    /**
+     * Grants the client its first window of chunks.
+     *
+     * @throws IOException if the credit could not be written.
+     */
+    public void start() throws IOException {
+        grant(window);
+    }
+
+    /**
+     * Queues a chunk received from the client. Called on the reader thread.
+     *
+     * @param chunk The {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} message.
+     */
+    public void offer(Message chunk) {
+        if (chunks.size() >= window) {
+            abort(new IllegalStateException("The client sent more chunks than it was granted."));
+            return;
+        }
+        chunks.add(chunk);
+    }
+
+    /**
+     * Marks the end of the items, after the last chunk. Called on the reader thread.
+     */
+    public void end() {
+        chunks.add(END);
+    }
+
+    /**
+     * Fails the items, e.g. when the client cancels the call or the connection is closed. The action's iterator
+     * throws the cause once it gets to it.
+     *
+     * @param cause The failure the iterator throws.
+     */
+    public void abort(RuntimeException cause) {
+        failure = cause;
+        chunks.add(END);
+    }
+
+    /**
+     * Opens the iterator over the items. Called once, when the action's arguments are bound.
+     *
+     * @param itemType The type of the items.
+     * @param <T>      The type of the items.
+     * @return The iterator, to be used by the action's thread only.
+     * @throws IllegalStateException if the items are already bound.
+     */
+    public synchronized <T> Iterator<T> open(Type itemType) {
+        if (opened) {
+            throw new IllegalStateException("The streamed items are already bound.");
+        }
+        opened = true;
+        return new Items<>(TypeToken.getParameterized(List.class, itemType).getType());
+    }
+
+    private void grant(int count) throws IOException {
+        byte[] payload = ByteBuffer.allocate(Integer.BYTES).putInt(count).array();
+        handler.write(new Message(MessageHeader.BuildRpcStreamCreditHeader(requestId), new byte[0], payload));
+    }
+
+    /**
+     * The iterator the action reads the items from.
+     */
+    private final class Items<T> implements Iterator<T> {
+        private final Type listType;
+        private Iterator<T> current = Collections.emptyIterator();
+        private int uncredited;
+        private boolean ended;
+
+        Items(Type listType) {
+            this.listType = listType;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (ended) {
+                    return false;
+                }
+                Object next;
+                try {
+                    next = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted while waiting for the streamed items.");
+                }
+                if (failure != null) {
+                    ended = true;
+                    throw failure;
+                }
+                if (next == END) {
+                    ended = true;
+                    return false;
+                }
+                Message chunk = (Message) next;
+                List<T> items = PayloadCodecs.get(chunk.header.content_type).decode(gson, chunk.getPayload(), listType);
+                current = items != null ? items.iterator() : Collections.emptyIterator();
+                credit();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void credit() {
+            if (++uncredited < Math.max(window / 2, 1)) {
+                return;
+            }
+            int granted = uncredited;
+            uncredited = 0;
+            try {
+                grant(granted);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageScope;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The client side of a client-streaming RPC call: sends the items of the call's streamed argument in
+ * {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} chunks, as used by
+ * {@link RpcCallerBase#callRpcWithItems(String, String, java.lang.reflect.Type, Iterator, Object...)}, and ends
+ * them with an {@link JSocket2.Protocol.MessageType#RPC_STREAM_END}.
+ * <p>
+ * A chunk is only sent once the server has granted credit for it, so the caller's thread waits for a slow action
+ * instead of filling the server's memory. Sending stops as soon as the call is answered, which an action does when
+ * it has read all the items it wants.
+ */
+public class RpcItemSender {
+    private final ClientApplication clientApplication;
+    private final UUID requestId;
+    private final IPayloadCodec codec;
+    private final Gson gson;
+    private final MessageScope scope;
+    private final int chunkSize;
+    private final CompletableFuture<Message> end;
+    private final Semaphore credit = new Semaphore(0);
+
+    /**
+     * Constructs a sender for a call that is about to be written.
+     *
+     * @param clientApplication The client the call is made on.
+     * @param requestId         The request id of the call.
+     * @param codec             The codec the chunks are encoded with.
+     * @param gson              The Gson instance used by the codec.
+     * @param scope             The scope of the call, for the connection's encryption policy.
+     * @param chunkSize         The number of items per chunk.
+     * @param end               The future registered in the client's pending requests under the call's request id.
+     */
+    public RpcItemSender(ClientApplication clientApplication, UUID requestId, IPayloadCodec codec, Gson gson,
+                         MessageScope scope, int chunkSize, CompletableFuture<Message> end) {
+        this.clientApplication = clientApplication;
+        this.requestId = requestId;
+        this.codec = codec;
+        this.gson = gson;
+        this.scope = scope;
+        this.chunkSize = chunkSize;
+        this.end = end;
+        end.whenComplete((message, failure) -> {
+            clientApplication.getActiveSenders().remove(requestId, this);
+            // Wakes the sending thread if it is waiting for credit
+            credit.release(Integer.MAX_VALUE / 2);
+        });
+    }
+
+    /**
+     * Lets the sender send more chunks. Called on the message listener thread.
+     *
+     * @param chunks The number of chunks the server granted.
+     */
+    public void grant(int chunks) {
+        if (chunks > 0) {
+            credit.release(chunks);
+        }
+    }
+
+    /**
+     * Sends the items, waiting for credit before each chunk, and then their end. Returns early if the call is
+     * answered before all items are sent.
+     *
+     * @param items The items; read on the calling thread.
+     * @throws IOException if a chunk could not be written, or the thread was interrupted while waiting for credit.
+     */
+    public void send(Iterator<?> items) throws IOException {
+        List<Object> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+        while (items.hasNext()) {
+            try {
+                credit.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for credit");
+            }
+            if (end.isDone()) {
+                return;
+            }
+            chunk.clear();
+            while (chunk.size() < chunkSize && items.hasNext()) {
+                chunk.add(items.next());
+            }
+            byte[] payload = codec.encode(gson, chunk);
+            var header = MessageHeader.BuildRpcStreamItemHeader(requestId, true, payload.length);
+            header.content_type = codec.getContentType();
+            clientApplication.getMessageHandler().write(new Message(header, new byte[0], payload).setScope(scope));
+        }
+        if (!end.isDone()) {
+            clientApplication.getMessageHandler().write(new Message(MessageHeader.BuildRpcStreamEndHeader(requestId), new byte[0], new byte[0]));
+        }
+    }
+
+    /**
+     * Fails the call unless it has already been answered, e.g. when the connection is lost.
+     *
+     * @param cause The failure the caller receives.
+     */
+    public void fail(IOException cause) {
+        if (clientApplication.getPendingRequests().remove(requestId, end)) {
+            end.completeExceptionally(cause);
+        }
+    }
+}
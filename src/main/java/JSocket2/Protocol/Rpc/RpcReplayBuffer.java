@@ -0,0 +1,316 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Utils.HashedTimingWheel;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the encoded RPC calls of a client until they are answered, as configured by {@link RpcReplayOptions}, and
+ * sends them again after a reconnect. A call is held for replay when the connection is lost while it is in flight
+ * or when it is made while the connection is down; held calls are written in the order they were made once the
+ * client {@linkplain #resume() resumes}, and fail with an {@link IOException} if that does not happen within the
+ * replay timeout.
+ * <p>
+ * Calls keep their request ids and pending futures, so the response to a replayed call completes the future the
+ * caller is already waiting on. Calls made after the reconnect are not written ahead of the held ones: kept calls
+ * are held behind them, see {@link #holdBehindReplay(UUID)}, and others wait for them, see {@link #awaitReplayed()}.
+ */
+public class RpcReplayBuffer {
+    private final ClientApplication clientApplication;
+    private final RpcReplayOptions options;
+    private final LinkedHashMap<UUID, Call> calls = new LinkedHashMap<>();
+    private long bytes;
+    private boolean ready = true;
+    private boolean replaying;
+
+    /**
+     * Constructs a replay buffer.
+     *
+     * @param clientApplication The client whose calls are replayed.
+     * @param options           The replay options.
+     */
+    public RpcReplayBuffer(ClientApplication clientApplication, RpcReplayOptions options) {
+        this.clientApplication = clientApplication;
+        this.options = options;
+    }
+
+    /**
+     * Keeps a call until its future completes, if the buffer has room for it.
+     *
+     * @param message The encoded RPC call.
+     * @param future  The future registered in the client's pending requests under the call's request id.
+     * @return {@code true} if the call is kept and will be replayed, {@code false} if the buffer is full.
+     */
+    public boolean track(Message message, CompletableFuture<Message> future) {
+        UUID requestId = message.header.uuid;
+        synchronized (calls) {
+            if (calls.size() >= options.getMaxCalls() || bytes + message.getPayload().length > options.getMaxBytes()) {
+                return false;
+            }
+            calls.put(requestId, new Call(message, future));
+            bytes += message.getPayload().length;
+        }
+        future.whenComplete((response, failure) -> {
+            synchronized (calls) {
+                Call call = calls.remove(requestId);
+                if (call != null) {
+                    bytes -= call.message.getPayload().length;
+                    call.release();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Holds a kept call for replay, e.g. because it was made while the connection was down or its write failed.
+     * The call is written right away if the client has already resumed.
+     *
+     * @param requestId The request id of the call.
+     * @return {@code true} if the call is kept and will be replayed, {@code false} if it is not kept.
+     */
+    public boolean hold(UUID requestId) {
+        boolean resumed;
+        synchronized (calls) {
+            Call call = calls.get(requestId);
+            if (call == null) {
+                return false;
+            }
+            hold(call);
+            resumed = ready;
+        }
+        if (resumed && clientApplication.isConnected()) {
+            replay();
+        }
+        return true;
+    }
+
+    /**
+     * Holds a kept call made while earlier calls still wait to be replayed or are being replayed, so it is written
+     * after them rather than overtaking them on the new connection.
+     *
+     * @param requestId The request id of the call.
+     * @return {@code true} if the call is held and will be written by the replay, {@code false} if it is not kept
+     *         or nothing is waiting to be replayed, so the caller writes it itself.
+     */
+    public boolean holdBehindReplay(UUID requestId) {
+        synchronized (calls) {
+            if (ready && !replaying && !hasHeld()) {
+                return false;
+            }
+            Call call = calls.get(requestId);
+            if (call == null) {
+                return false;
+            }
+            hold(call);
+            if (!ready || replaying) {
+                return true;
+            }
+        }
+        // Calls whose write failed on this connection are still held; write them now, this one last
+        if (clientApplication.isConnected()) {
+            replay();
+        }
+        return true;
+    }
+
+    /**
+     * Waits until no held call is left to write ahead of a call the buffer does not keep, e.g. because it is
+     * full. Returns at once while the client is disconnected, and after the replay timeout at the latest.
+     *
+     * @throws InterruptedIOException if the thread is interrupted while waiting.
+     */
+    public void awaitReplayed() throws InterruptedIOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getTimeoutMillis());
+        synchronized (calls) {
+            while (clientApplication.isConnected() && (!ready || replaying || hasHeld())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(calls, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for held calls to be replayed.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Holds every kept call for replay, as the connection carrying them was lost. Called by the client before it
+     * reconnects; calls made from now on are held until {@link #resume()}.
+     */
+    public void connectionLost() {
+        synchronized (calls) {
+            ready = false;
+            for (Call call : calls.values()) {
+                hold(call);
+            }
+        }
+    }
+
+    /**
+     * Writes the held calls on the client's new connection, once it is ready for them. Calls whose write fails
+     * stay held for the next connection.
+     */
+    public void resume() {
+        synchronized (calls) {
+            ready = true;
+        }
+        replay();
+    }
+
+    /**
+     * Fails every kept call, as the client is shutting down.
+     */
+    public void close() {
+        List<Call> kept;
+        synchronized (calls) {
+            kept = new ArrayList<>(calls.values());
+            calls.notifyAll();
+        }
+        for (Call call : kept) {
+            if (clientApplication.getPendingRequests().remove(call.message.header.uuid, call.future)) {
+                call.future.completeExceptionally(new IOException("The client was shut down before the call was answered."));
+            }
+        }
+    }
+
+    /**
+     * Gets how many unanswered calls are kept.
+     *
+     * @return The number of calls.
+     */
+    public int size() {
+        synchronized (calls) {
+            return calls.size();
+        }
+    }
+
+    /**
+     * Gets how many kept calls wait for the connection to be restored.
+     *
+     * @return The number of held calls.
+     */
+    public int getHeld() {
+        synchronized (calls) {
+            return (int) calls.values().stream().filter(call -> call.held).count();
+        }
+    }
+
+    private void hold(Call call) {
+        if (call.held) {
+            return;
+        }
+        call.held = true;
+        if (call.deadline == null) {
+            call.deadline = clientApplication.getDeadlineTimer().newTimeout(() -> {
+                boolean expired;
+                synchronized (calls) {
+                    expired = call.held;
+                }
+                if (expired) {
+                    fail(call, new IOException("The connection was not restored in time to replay the call."));
+                }
+            }, options.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean hasHeld() {
+        for (Call call : calls.values()) {
+            if (call.held) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the held calls in order. Only one replay runs at a time; calls held while it writes are written by
+     * it as well, after the ones before them.
+     */
+    private void replay() {
+        synchronized (calls) {
+            if (replaying) {
+                return;
+            }
+            replaying = true;
+        }
+        MessageHandler handler = clientApplication.getMessageHandler();
+        while (true) {
+            List<Call> held = new ArrayList<>();
+            synchronized (calls) {
+                for (Call call : calls.values()) {
+                    if (call.held) {
+                        call.release();
+                        held.add(call);
+                    }
+                }
+                if (held.isEmpty()) {
+                    replaying = false;
+                    calls.notifyAll();
+                    return;
+                }
+            }
+            for (int i = 0; i < held.size(); i++) {
+                Call call = held.get(i);
+                try {
+                    handler.write(call.message);
+                } catch (IOException | RuntimeException e) {
+                    // The connection was lost again; the rest wait for the next one
+                    synchronized (calls) {
+                        for (Call unsent : held.subList(i, held.size())) {
+                            if (calls.get(unsent.message.header.uuid) == unsent) {
+                                hold(unsent);
+                            }
+                        }
+                        replaying = false;
+                        calls.notifyAll();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fail(Call call, IOException cause) {
+        if (clientApplication.getPendingRequests().remove(call.message.header.uuid, call.future)) {
+            clientApplication.getResponseExecutor().execute(() -> call.future.completeExceptionally(cause));
+        }
+    }
+
+    /**
+     * A kept call; its state is guarded by the buffer's lock.
+     */
+    private static final class Call {
+        final Message message;
+        final CompletableFuture<Message> future;
+        boolean held;
+        HashedTimingWheel.Timeout deadline;
+
+        Call(Message message, CompletableFuture<Message> future) {
+            this.message = message;
+            this.future = future;
+        }
+
+        void release() {
+            held = false;
+            if (deadline != null) {
+                deadline.cancel();
+                deadline = null;
+            }
+        }
+    }
+}
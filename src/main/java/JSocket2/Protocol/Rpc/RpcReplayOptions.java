@@ -0,0 +1,90 @@
+package JSocket2.Protocol.Rpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configures the replay of RPC calls across reconnects on the client. When enabled, the calls made through
+ * {@link RpcCallerBase} are kept until answered, and those in flight when the connection is lost, or made while
+ * it is down, are sent again under their original request ids once the client has reconnected and, if the lost
+ * connection was authenticated, authenticated again. A call that cannot be replayed within the replay timeout
+ * fails with an {@link java.io.IOException}.
+ * <p>
+ * A replayed call may already have run on the server before the connection was lost. Enable
+ * {@link RpcDedupOptions de-duplication} on the server so it answers such calls with their stored response
+ * instead of running non-idempotent actions twice.
+ */
+public class RpcReplayOptions {
+    private int maxCalls = 0;
+    private long maxBytes = 4L * 1024 * 1024;
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Sets how many unanswered calls the client keeps for replay. Calls beyond it are not replayed.
+     *
+     * @param maxCalls The number of calls, at least 0; 0 by default, which turns replay off.
+     * @return This instance for chaining.
+     */
+    public RpcReplayOptions setMaxCalls(int maxCalls) {
+        this.maxCalls = Math.max(maxCalls, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many unanswered calls the client keeps for replay.
+     *
+     * @return The number of calls.
+     */
+    public int getMaxCalls() {
+        return maxCalls;
+    }
+
+    /**
+     * Checks whether calls are replayed across reconnects.
+     *
+     * @return {@code true} if the client keeps any calls for replay.
+     */
+    public boolean isEnabled() {
+        return maxCalls > 0;
+    }
+
+    /**
+     * Sets how many bytes of encoded arguments the client keeps for replay. Calls beyond it are not replayed.
+     *
+     * @param maxBytes The number of bytes, at least 0; 4 MiB by default.
+     * @return This instance for chaining.
+     */
+    public RpcReplayOptions setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(maxBytes, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many bytes of encoded arguments the client keeps for replay.
+     *
+     * @return The number of bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Sets how long a call waits for the connection to be restored before it fails.
+     *
+     * @param timeout The replay timeout; 30 seconds by default.
+     * @param unit    The unit of {@code timeout}.
+     * @return This instance for chaining.
+     */
+    public RpcReplayOptions setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = Math.max(unit.toMillis(timeout), 0);
+        return this;
+    }
+
+    /**
+     * Gets how long a call waits for the connection to be restored before it fails.
+     *
+     * @return The replay timeout in milliseconds.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
@@ -0,0 +1,171 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.StatusCode;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The client's cache of OK responses for conditional revalidation. A response is keyed by controller, action,
+ * the content type and the encoded bytes of the call's arguments, and kept with the {@link RpcValidator} the
+ * server tagged it with. The next identical call carries that validator, and a
+ * {@link StatusCode#NOT_MODIFIED} answer is turned back into the cached OK response, so an unchanged payload
+ * crosses the network once.
+ * <p>
+ * The least recently used responses are evicted when the cache reaches either bound of its
+ * {@link RpcResponseCacheOptions}.
+ */
+public class RpcResponseCache {
+    private final RpcResponseCacheOptions options;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder notModified = new LongAdder();
+    private long bytes;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param options The bounds of the cache.
+     */
+    public RpcResponseCache(RpcResponseCacheOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Gets the response cached for a call.
+     *
+     * @param key The key of the call.
+     * @return The response, or {@code null} if none is cached.
+     */
+    public Entry get(Key key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * Resolves the response to a revalidated call: a {@link StatusCode#NOT_MODIFIED} answer becomes the cached
+     * OK response, and an OK answer tagged with a validator replaces it in the cache.
+     *
+     * @param key      The key of the call.
+     * @param cached   The response cached when the call was sent, whose validator it carried, or {@code null}.
+     * @param response The response message from the server.
+     * @return The response message to decode.
+     */
+    public Message resolve(Key key, Entry cached, Message response) {
+        RpcResponseMetadata metadata = response.getMetadataAs(RpcResponseMetadata.class);
+        if (metadata.getStatusCode() == StatusCode.NOT_MODIFIED.code && cached != null) {
+            notModified.increment();
+            MessageHeader header = MessageHeader.BuildRpcResponseHeader(response.header.uuid, false, 0, cached.payload().length);
+            header.content_type = cached.contentType();
+            return new Message(header, new byte[0], cached.payload())
+                    .setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, cached.message(), cached.validator()));
+        }
+        if (metadata.getStatusCode() == StatusCode.OK.code && metadata.getValidator() != null) {
+            put(key, new Entry(metadata.getValidator(), metadata.getMessage(), response.header.content_type, response.getPayload()));
+        }
+        return response;
+    }
+
+    /**
+     * Caches a response, evicting the least recently used responses beyond the bounds.
+     *
+     * @param key   The key of the call.
+     * @param entry The response.
+     */
+    public void put(Key key, Entry entry) {
+        if (!options.isEnabled()) {
+            return;
+        }
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, entry);
+            bytes += weight(key, entry);
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (eldest.hasNext() && (entries.size() > options.getMaxEntries() || bytes > options.getMaxBytes())) {
+                Map.Entry<Key, Entry> evicted = eldest.next();
+                bytes -= weight(evicted.getKey(), evicted.getValue());
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached response, e.g. after the signed-in user changed.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Gets how many calls the server answered with {@link StatusCode#NOT_MODIFIED}, saving their payloads.
+     *
+     * @return The number of revalidated calls.
+     */
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    /**
+     * Gets how many responses are cached.
+     *
+     * @return The number of responses.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= weight(key, removed);
+        }
+    }
+
+    private static long weight(Key key, Entry entry) {
+        return entry.payload().length + key.arguments().remaining();
+    }
+
+    /**
+     * Identifies a call.
+     *
+     * @param controller  The lowercase controller name.
+     * @param action      The lowercase action name.
+     * @param contentType The content type of the codec the arguments are encoded with.
+     * @param arguments   The encoded arguments; compared by content.
+     */
+    public record Key(String controller, String action, int contentType, ByteBuffer arguments) {
+        /**
+         * Creates the key of a call.
+         *
+         * @param controller  The controller name.
+         * @param action      The action name.
+         * @param contentType The content type of the codec the arguments are encoded with.
+         * @param arguments   The encoded arguments.
+         * @return The key.
+         */
+        public static Key of(String controller, String action, int contentType, byte[] arguments) {
+            return new Key(controller.toLowerCase(), action.toLowerCase(), contentType, ByteBuffer.wrap(arguments));
+        }
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param validator   The validator the server tagged the response with.
+     * @param message     The status message of the response.
+     * @param contentType The content type of the codec the payload is encoded with.
+     * @param payload     The encoded payload of the response.
+     */
+    public record Entry(String validator, String message, int contentType, byte[] payload) {
+    }
+}
@@ -0,0 +1,64 @@
+package JSocket2.Protocol.Rpc;
+
+/**
+ * Configures the client's {@link RpcResponseCache}, which keeps the responses of calls made through
+ * {@link RpcCallerBase} and revalidates them with the server instead of downloading unchanged payloads again.
+ * When either bound is reached, the least recently used responses are evicted first.
+ * <p>
+ * Revalidation never skips a call: the server still runs the action, or answers it from its
+ * {@link RpcResultCache}, and only leaves out a payload the client already holds. The server must understand
+ * validators, so enable it only against servers of this version or later.
+ */
+public class RpcResponseCacheOptions {
+    private int maxEntries = 0;
+    private long maxBytes = 16L * 1024 * 1024;
+
+    /**
+     * Sets how many responses the client keeps for revalidation.
+     *
+     * @param maxEntries The number of responses, at least 0; 0 by default, which turns revalidation off.
+     * @return This instance for chaining.
+     */
+    public RpcResponseCacheOptions setMaxEntries(int maxEntries) {
+        this.maxEntries = Math.max(maxEntries, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many responses the client keeps for revalidation.
+     *
+     * @return The number of responses.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Checks whether calls are revalidated.
+     *
+     * @return {@code true} if the cache keeps any responses.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0;
+    }
+
+    /**
+     * Sets how many bytes of encoded responses and arguments the client keeps.
+     *
+     * @param maxBytes The number of bytes, at least 0; 16 MiB by default.
+     * @return This instance for chaining.
+     */
+    public RpcResponseCacheOptions setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(maxBytes, 0);
+        return this;
+    }
+
+    /**
+     * Gets how many bytes of encoded responses and arguments the client keeps.
+     *
+     * @return The number of bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
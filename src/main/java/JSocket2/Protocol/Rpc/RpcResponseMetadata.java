@@ -2,11 +2,12 @@ package JSocket2.Protocol.Rpc;
 
 /**
  * A data model that holds the metadata for an RPC response,
- * including the status code and an optional message.
+ * including the status code, an optional message and, for calls that asked for one, the response's validator.
  */
 public class RpcResponseMetadata {
     private int statusCode;
     private String message;
+    private String validator;
 
     /**
      * Constructs an {@code RpcResponseMetadata}.
@@ -15,8 +16,20 @@ public class RpcResponseMetadata {
      * @param message    An optional descriptive message.
      */
     public RpcResponseMetadata(int statusCode, String message) {
+        this(statusCode, message, null);
+    }
+
+    /**
+     * Constructs an {@code RpcResponseMetadata} tagged with the validator of the response.
+     *
+     * @param statusCode The integer value of the status code.
+     * @param message    An optional descriptive message.
+     * @param validator  The validator of the response payload, or {@code null}.
+     */
+    public RpcResponseMetadata(int statusCode, String message, String validator) {
         this.statusCode = statusCode;
         this.message = message;
+        this.validator = validator;
     }
 
     /**
@@ -54,4 +67,22 @@ public class RpcResponseMetadata {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    /**
+     * Gets the validator of the response payload, which a revalidating caller sends with its next identical call.
+     *
+     * @return The validator, or {@code null} if the call did not ask for one.
+     */
+    public String getValidator() {
+        return validator;
+    }
+
+    /**
+     * Sets the validator of the response payload.
+     *
+     * @param validator The validator, or {@code null}.
+     */
+    public void setValidator(String validator) {
+        this.validator = validator;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,303 @@
+package JSocket2.Protocol.Rpc;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * The server's cache of encoded responses to {@link RpcCacheable} actions, shared by all connections. A response is
+ * keyed by controller, action, the canonical form of its arguments, the codec it is encoded with and, for
+ * {@link RpcCacheable#PerUser()} actions, the calling user; a call with the same key is answered with the cached
+ * bytes without running the action or encoding its result again.
+ * <p>
+ * Entries expire after their action's time to live, and the least recently used ones are evicted when the cache
+ * reaches either bound of its {@link RpcCacheOptions}. Controllers that change the data behind a cached action
+ * inject the cache and invalidate the affected entries.
+ */
+public class RpcResultCache {
+    private final RpcCacheOptions options;
+    private final Gson gson = new Gson();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long bytes;
+
+    /**
+     * Constructs a cache with the default {@link RpcCacheOptions}.
+     */
+    public RpcResultCache() {
+        this(new RpcCacheOptions());
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param options The bounds of the cache.
+     */
+    public RpcResultCache(RpcCacheOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Gets a cached response.
+     *
+     * @param key The key of the call.
+     * @return The response, or {@code null} if none is cached or it has expired.
+     */
+    public Entry get(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hits.increment();
+                return entry;
+            }
+            if (entry != null) {
+                remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches a response for its key's time to live, evicting the least recently used responses beyond the bounds.
+     *
+     * @param key     The key of the call.
+     * @param message The status message of the response.
+     * @param payload The encoded payload of the response.
+     */
+    public void put(Key key, String message, byte[] payload) {
+        if (options.getMaxEntries() == 0) {
+            return;
+        }
+        Entry entry = new Entry(message, payload, RpcValidator.of(key.contentType(), payload),
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(key.ttlMillis()));
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, entry);
+            bytes += weight(key, entry);
+            Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+            while (eldest.hasNext() && (entries.size() > options.getMaxEntries() || bytes > options.getMaxBytes())) {
+                Map.Entry<Key, Entry> evicted = eldest.next();
+                bytes -= weight(evicted.getKey(), evicted.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached response of an action, for all arguments and users.
+     *
+     * @param controller The controller name.
+     * @param action     The action name.
+     * @return The number of responses removed.
+     */
+    public int invalidate(String controller, String action) {
+        String controllerName = controller.toLowerCase();
+        String actionName = action.toLowerCase();
+        return removeIf(key -> key.controller().equals(controllerName) && key.action().equals(actionName));
+    }
+
+    /**
+     * Removes the cached responses of an action to the given arguments, for all users.
+     *
+     * @param controller The controller name.
+     * @param action     The action name.
+     * @param arguments  The arguments, as the caller passes them.
+     * @return The number of responses removed.
+     */
+    public int invalidate(String controller, String action, Object... arguments) {
+        String controllerName = controller.toLowerCase();
+        String actionName = action.toLowerCase();
+        String canonical = canonical(gson.toJsonTree(arguments));
+        return removeIf(key -> key.controller().equals(controllerName) && key.action().equals(actionName)
+                && key.arguments().equals(canonical));
+    }
+
+    /**
+     * Removes the cached responses of one user, e.g. after their permissions changed.
+     *
+     * @param userId The user id.
+     * @return The number of responses removed.
+     */
+    public int invalidateUser(String userId) {
+        return removeIf(key -> userId.equals(key.user()));
+    }
+
+    /**
+     * Removes every cached response.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    /**
+     * Gets how many calls were answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets how many calls to cacheable actions found no live response and ran the action.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets how many responses were evicted to stay within the bounds; expired and invalidated ones are not counted.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets how many responses are cached, including expired ones not yet removed.
+     *
+     * @return The number of responses.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets how many bytes of encoded responses and arguments are cached.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * Writes decoded arguments in canonical JSON form: object members sorted by name and numbers in their shortest
+     * decimal form, so equal arguments get one key however they were encoded, e.g. {@code 1} and {@code 1.0}, or
+     * JSON and CBOR.
+     *
+     * @param arguments The decoded arguments.
+     * @return The canonical JSON text.
+     */
+    public static String canonical(JsonElement arguments) {
+        StringBuilder builder = new StringBuilder();
+        appendCanonical(builder, arguments);
+        return builder.toString();
+    }
+
+    private static void appendCanonical(StringBuilder builder, JsonElement element) {
+        if (element.isJsonArray()) {
+            builder.append('[');
+            boolean first = true;
+            for (JsonElement item : element.getAsJsonArray()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                appendCanonical(builder, item);
+            }
+            builder.append(']');
+        } else if (element.isJsonObject()) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<String, JsonElement> member : new TreeMap<>(element.getAsJsonObject().asMap()).entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                builder.append(new JsonPrimitive(member.getKey())).append(':');
+                appendCanonical(builder, member.getValue());
+            }
+            builder.append('}');
+        } else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()) {
+            builder.append(canonicalNumber(element.getAsJsonPrimitive()));
+        } else {
+            builder.append(element);
+        }
+    }
+
+    private static String canonicalNumber(JsonPrimitive number) {
+        BigDecimal value;
+        try {
+            value = number.getAsBigDecimal();
+        } catch (NumberFormatException e) {
+            // NaN and infinities have no decimal form
+            return number.getAsString();
+        }
+        return value.signum() == 0 ? "0" : value.stripTrailingZeros().toString();
+    }
+
+    private int removeIf(Predicate<Key> matches) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> entry = iterator.next();
+                if (matches.test(entry.getKey())) {
+                    bytes -= weight(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            bytes -= weight(key, removed);
+        }
+    }
+
+    private static long weight(Key key, Entry entry) {
+        return entry.payload().length + key.arguments().length();
+    }
+
+    /**
+     * Identifies the response to a call.
+     *
+     * @param controller  The lowercase controller name.
+     * @param action      The lowercase action name.
+     * @param arguments   The arguments in {@link #canonical canonical} JSON form.
+     * @param user        The id of the calling user for {@link RpcCacheable#PerUser()} actions, otherwise {@code null}.
+     * @param contentType The content type of the codec the response is encoded with.
+     * @param ttlMillis   How long the response is served, from the action's {@link RpcCacheable#TtlMillis()}.
+     */
+    public record Key(String controller, String action, String arguments, String user, int contentType, long ttlMillis) {
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param message        The status message of the response.
+     * @param payload        The encoded payload of the response.
+     * @param validator      The {@link RpcValidator} of the payload, so revalidated hits are not hashed again.
+     * @param expiresAtNanos When the response expires, in {@link System#nanoTime()} terms.
+     */
+    public record Entry(String message, byte[] payload, String validator, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,116 @@
+package JSocket2.Protocol.Rpc;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.Iterator;
+
+/**
+ * A precompiled RPC action: one overload of a controller method together with a
+ * {@link MethodHandle} invoker and a Gson {@link TypeAdapter} for each parameter.
+ * Routes are built once by {@link RpcRouteTable} so a call does no reflection lookups.
+ * A trailing {@link Iterator} parameter is bound to the items the client streams with the call instead.
+ */
+final class RpcRoute {
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method method;
+    private final MethodHandle invoker;
+    private final TypeAdapter<?>[] parameterAdapters;
+    private final Type itemType;
+
+    /**
+     * Compiles a route for an action method.
+     *
+     * @param method The public action method.
+     * @param gson   The Gson instance providing the parameter adapters.
+     * @throws IllegalStateException if the method cannot be accessed.
+     */
+    RpcRoute(Method method, Gson gson) {
+        this.method = method;
+        Type[] parameterTypes = method.getGenericParameterTypes();
+        this.parameterAdapters = new TypeAdapter<?>[parameterTypes.length];
+        this.itemType = parameterTypes.length > 0 ? streamedItemType(parameterTypes[parameterTypes.length - 1]) : null;
+        int adapted = itemType != null ? parameterTypes.length - 1 : parameterTypes.length;
+        for (int i = 0; i < adapted; i++) {
+            parameterAdapters[i] = gson.getAdapter(TypeToken.get(parameterTypes[i]));
+        }
+        try {
+            method.trySetAccessible();
+            this.invoker = MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(INVOKER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("RPC action is not accessible: " + method, e);
+        }
+    }
+
+    /**
+     * Gets the number of parameters of the action.
+     *
+     * @return The arity.
+     */
+    int getArity() {
+        return parameterAdapters.length;
+    }
+
+    /**
+     * Converts JSON arguments to the parameter types of the action.
+     *
+     * @param arguments The JSON arguments, one per parameter.
+     * @return The converted arguments.
+     * @throws RuntimeException if an argument does not fit its parameter type.
+     */
+    Object[] bind(JsonArray arguments) {
+        return bind(arguments, null);
+    }
+
+    /**
+     * Converts JSON arguments to the parameter types of the action, binding a trailing {@link Iterator} parameter
+     * to the items the client streams.
+     *
+     * @param arguments The JSON arguments, one per parameter.
+     * @param items     The items the client streams, or {@code null} for a plain call.
+     * @return The converted arguments.
+     * @throws RuntimeException if an argument does not fit its parameter type, or the action takes streamed items
+     *                          and the call streams none.
+     */
+    Object[] bind(JsonArray arguments, RpcItemReceiver items) {
+        Object[] parameters = new Object[parameterAdapters.length];
+        for (int i = 0; i < parameterAdapters.length; i++) {
+            parameters[i] = parameterAdapters[i] != null
+                    ? parameterAdapters[i].fromJsonTree(arguments.get(i))
+                    : RpcBindings.asItems(items, itemType);
+        }
+        return parameters;
+    }
+
+    private static Type streamedItemType(Type parameterType) {
+        if (parameterType instanceof ParameterizedType parameterized && parameterized.getRawType() == Iterator.class
+                && !(parameterized.getActualTypeArguments()[0] instanceof WildcardType)) {
+            return parameterized.getActualTypeArguments()[0];
+        }
+        return null;
+    }
+
+    /**
+     * Invokes the action on a controller instance.
+     *
+     * @param controller The controller instance.
+     * @param parameters The bound arguments.
+     * @return The {@link RpcResponse} returned by the action.
+     * @throws Throwable anything thrown by the action.
+     */
+    RpcResponse<?> invoke(Object controller, Object[] parameters) throws Throwable {
+        return (RpcResponse<?>) (Object) invoker.invokeExact(controller, parameters);
+    }
+}
@@ -0,0 +1,242 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Codec.PayloadCodecs;
+import JSocket2.Protocol.Rpc.Processor.GeneratedNames;
+import com.google.gson.Gson;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The routes of all registered controllers, precomputed from their action methods.
+ * An action is addressed by controller name, action name and arity; names are matched
+ * case-insensitively and an action's name is its {@link RpcAction#Name()} when set,
+ * otherwise the method name. Names are also indexed as declared, so callers using the
+ * declared spelling are found without lowercasing. Overloads of the same arity are kept in declaration order
+ * and tried in turn when binding arguments.
+ * <p>
+ * A controller with an {@link IRpcBinder} generated by {@link JSocket2.Protocol.Rpc.Processor.RpcProcessor} is
+ * bound through it instead, and its methods are not compiled into routes. The {@link RpcCacheable} policies of
+ * actions are indexed either way.
+ */
+final class RpcRouteTable {
+    private static final RpcRoute[] NO_ROUTES = new RpcRoute[0];
+
+    private final Map<String, ControllerRoutes> controllers = new HashMap<>();
+
+    /**
+     * Builds the route table for a set of controllers.
+     *
+     * @param controllerTypes  The registered controllers by lowercase name.
+     * @param gson             The Gson instance providing the parameter adapters.
+     * @param generatedBinders Whether to use the generated binders of controllers that have one.
+     */
+    RpcRouteTable(Map<String, Class<?>> controllerTypes, Gson gson, boolean generatedBinders) {
+        for (Map.Entry<String, Class<?>> entry : controllerTypes.entrySet()) {
+            ControllerRoutes routes = new ControllerRoutes(entry.getValue(), gson, generatedBinders);
+            controllers.put(entry.getKey(), routes);
+            controllers.putIfAbsent(declaredName(entry.getValue()), routes);
+        }
+    }
+
+    /**
+     * Finds the routes of a controller.
+     *
+     * @param name The controller name as sent by the caller.
+     * @return The controller's routes, or {@code null} if it is not registered.
+     */
+    ControllerRoutes findController(String name) {
+        ControllerRoutes routes = controllers.get(name);
+        return routes != null ? routes : controllers.get(name.toLowerCase());
+    }
+
+    /**
+     * Gets the name a controller is addressed by, as declared.
+     *
+     * @param controllerType The controller class.
+     * @return {@link RpcController#Name()} when set, otherwise the simple class name.
+     */
+    static String declaredName(Class<?> controllerType) {
+        RpcController rpcController = controllerType.getAnnotation(RpcController.class);
+        return rpcController != null && !rpcController.Name().isEmpty() ? rpcController.Name() : controllerType.getSimpleName();
+    }
+
+    /**
+     * The precompiled actions of one controller.
+     */
+    static final class ControllerRoutes {
+        private final Class<?> controllerType;
+        private final Map<String, RpcRoute[][]> actions = new HashMap<>();
+        private final Map<String, Map<Integer, RpcCacheable>> cachePolicies = new HashMap<>();
+        private final IPayloadCodec payloadCodec;
+        private final IRpcBinder binder;
+
+        private ControllerRoutes(Class<?> controllerType, Gson gson, boolean generatedBinders) {
+            this.controllerType = controllerType;
+            this.payloadCodec = payloadCodec(controllerType);
+            this.binder = generatedBinders ? loadBinder(controllerType, gson) : null;
+            for (Method method : controllerType.getMethods()) {
+                RpcCacheable policy = method.getAnnotation(RpcCacheable.class);
+                if (policy != null && isAction(method)) {
+                    String actionName = actionName(method);
+                    cachePolicies.computeIfAbsent(actionName.toLowerCase(), k -> new HashMap<>())
+                            .putIfAbsent(method.getParameterCount(), policy);
+                    cachePolicies.putIfAbsent(actionName, cachePolicies.get(actionName.toLowerCase()));
+                }
+            }
+            if (binder != null) {
+                return;
+            }
+            Map<String, List<RpcRoute>> overloads = new HashMap<>();
+            Map<String, String> declaredNames = new HashMap<>();
+            for (Method method : controllerType.getMethods()) {
+                if (!isAction(method)) {
+                    continue;
+                }
+                String actionName = actionName(method);
+                overloads.computeIfAbsent(actionName.toLowerCase(), k -> new ArrayList<>()).add(new RpcRoute(method, gson));
+                declaredNames.put(actionName, actionName.toLowerCase());
+            }
+            overloads.forEach((actionName, routes) -> {
+                int maxArity = routes.stream().mapToInt(RpcRoute::getArity).max().orElse(0);
+                RpcRoute[][] byArity = new RpcRoute[maxArity + 1][];
+                for (int arity = 0; arity <= maxArity; arity++) {
+                    final int n = arity;
+                    byArity[arity] = routes.stream().filter(route -> route.getArity() == n).toArray(RpcRoute[]::new);
+                }
+                actions.put(actionName, byArity);
+            });
+            declaredNames.forEach((declaredName, actionName) -> actions.putIfAbsent(declaredName, actions.get(actionName)));
+        }
+
+        /**
+         * Gets the controller class, used to resolve an instance from the service provider.
+         *
+         * @return The controller type.
+         */
+        Class<?> getControllerType() {
+            return controllerType;
+        }
+
+        /**
+         * Gets the payload codec the controller's responses are encoded with.
+         *
+         * @return The codec from {@link RpcController#PayloadCodec()}, or {@code null} to answer in the codec of the call.
+         */
+        IPayloadCodec getPayloadCodec() {
+            return payloadCodec;
+        }
+
+        /**
+         * Gets the generated binder of the controller.
+         *
+         * @return The binder, or {@code null} to bind through {@link #findAction}.
+         */
+        IRpcBinder getBinder() {
+            return binder;
+        }
+
+        /**
+         * Finds the overloads of an action taking a given number of arguments.
+         *
+         * @param actionName The action name as sent by the caller.
+         * @param arity      The number of arguments.
+         * @return The candidate routes, empty if there are none.
+         */
+        RpcRoute[] findAction(String actionName, int arity) {
+            RpcRoute[][] byArity = actions.get(actionName);
+            if (byArity == null) {
+                byArity = actions.get(actionName.toLowerCase());
+            }
+            if (byArity == null || arity >= byArity.length) {
+                return NO_ROUTES;
+            }
+            return byArity[arity];
+        }
+
+        /**
+         * Checks whether any overload of an action is {@link RpcCacheable}, without looking at the arguments.
+         *
+         * @param actionName The action name as sent by the caller.
+         * @return {@code true} if the action may be answered from the cache.
+         */
+        boolean isCacheable(String actionName) {
+            return !cachePolicies.isEmpty() && (cachePolicies.containsKey(actionName) || cachePolicies.containsKey(actionName.toLowerCase()));
+        }
+
+        /**
+         * Finds the cache policy of an action taking a given number of arguments.
+         *
+         * @param actionName The action name as sent by the caller.
+         * @param arity      The number of arguments.
+         * @return The policy, or {@code null} if the action is not cached.
+         */
+        RpcCacheable findCachePolicy(String actionName, int arity) {
+            Map<Integer, RpcCacheable> byArity = cachePolicies.get(actionName);
+            if (byArity == null) {
+                byArity = cachePolicies.get(actionName.toLowerCase());
+            }
+            return byArity != null ? byArity.get(arity) : null;
+        }
+
+        private static IRpcBinder loadBinder(Class<?> controllerType, Gson gson) {
+            String binderName = GeneratedNames.binderName(controllerType.getName());
+            Class<?> binderType;
+            try {
+                binderType = Class.forName(binderName, true, controllerType.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+            try {
+                return (IRpcBinder) binderType.getConstructor(Gson.class).newInstance(gson);
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalStateException("Cannot create the generated binder " + binderName, e);
+            }
+        }
+
+        private static IPayloadCodec payloadCodec(Class<?> controllerType) {
+            RpcController rpcController = controllerType.getAnnotation(RpcController.class);
+            if (rpcController == null || rpcController.PayloadCodec().isEmpty()) {
+                return null;
+            }
+            IPayloadCodec codec = PayloadCodecs.find(rpcController.PayloadCodec());
+            if (codec == null) {
+                throw new IllegalArgumentException("Unknown payload codec '" + rpcController.PayloadCodec()
+                        + "' on controller " + controllerType.getName());
+            }
+            return codec;
+        }
+
+        /**
+         * Gets the declared names of a controller's actions, each once, in the order of its methods.
+         *
+         * @param controllerType The controller class.
+         * @return The action names.
+         */
+        static List<String> actionNames(Class<?> controllerType) {
+            List<String> names = new ArrayList<>();
+            for (Method method : controllerType.getMethods()) {
+                if (isAction(method) && !names.contains(actionName(method))) {
+                    names.add(actionName(method));
+                }
+            }
+            return names;
+        }
+
+        private static String actionName(Method method) {
+            RpcAction rpcAction = method.getAnnotation(RpcAction.class);
+            return rpcAction != null && !rpcAction.Name().isEmpty() ? rpcAction.Name() : method.getName();
+        }
+
+        private static boolean isAction(Method method) {
+            return method.getDeclaringClass() != Object.class
+                    && !Modifier.isStatic(method.getModifiers())
+                    && RpcResponse.class.isAssignableFrom(method.getReturnType());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageScope;
+import JSocket2.Protocol.StatusCode;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Sends the result of a streaming RPC action to the client, one {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM}
+ * chunk at a time, and ends it with an {@link JSocket2.Protocol.MessageType#RPC_RESPONSE} carrying the status.
+ * <p>
+ * Each stream has its own daemon thread, which takes the next items from the action's iterator only once the
+ * client has granted credit for another chunk, so a slow client holds back the producer instead of letting
+ * chunks pile up in memory. A stream that fails while producing items ends with
+ * {@link StatusCode#INTERNAL_SERVER_ERROR}; a cancelled stream ends without a response.
+ */
+public class RpcServerStream {
+    private final UUID requestId;
+    private final Iterator<?> items;
+    private final AutoCloseable resource;
+    private final MessageHandler handler;
+    private final IPayloadCodec codec;
+    private final Gson gson;
+    private final MessageScope scope;
+    private final int chunkSize;
+    private final Runnable onEnd;
+    private final Semaphore credit;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a stream; {@link #start()} begins sending it.
+     *
+     * @param requestId The request id of the call being answered.
+     * @param result    The action's result, an {@link Iterator} or a {@link Stream}.
+     * @param handler   The handler of the connection the stream is written to.
+     * @param codec     The codec the chunks are encoded with.
+     * @param gson      The Gson instance used by the codec.
+     * @param scope     The scope of the call, for the connection's encryption policy.
+     * @param chunkSize The number of items per chunk.
+     * @param window    The number of chunks the client accepts before granting more credit.
+     * @param onEnd     Called on the stream's thread once the stream has ended, been cancelled or failed.
+     * @throws IllegalArgumentException if the result is neither an iterator nor a stream.
+     */
+    public RpcServerStream(UUID requestId, Object result, MessageHandler handler, IPayloadCodec codec, Gson gson,
+                           MessageScope scope, int chunkSize, int window, Runnable onEnd) {
+        if (result instanceof Stream<?> stream) {
+            this.items = stream.iterator();
+            this.resource = stream;
+        } else if (result instanceof Iterator<?> iterator) {
+            this.items = iterator;
+            this.resource = iterator instanceof AutoCloseable closeable ? closeable : null;
+        } else {
+            throw new IllegalArgumentException("Not a streamable result: " + result);
+        }
+        this.requestId = requestId;
+        this.handler = handler;
+        this.codec = codec;
+        this.gson = gson;
+        this.scope = scope;
+        this.chunkSize = chunkSize;
+        this.onEnd = onEnd;
+        this.credit = new Semaphore(window);
+    }
+
+    /**
+     * Checks whether an action's result is sent as a stream.
+     *
+     * @param payload The payload of the action's response.
+     * @return {@code true} for an {@link Iterator} or a {@link Stream}.
+     */
+    public static boolean isStreamable(Object payload) {
+        return payload instanceof Iterator<?> || payload instanceof Stream<?>;
+    }
+
+    /**
+     * Collects a streamable result into a list, for a caller that does not consume streams.
+     *
+     * @param payload An {@link Iterator} or a {@link Stream}.
+     * @return The items, in order.
+     */
+    public static List<Object> collect(Object payload) {
+        List<Object> items = new ArrayList<>();
+        if (payload instanceof Stream<?> stream) {
+            try (stream) {
+                stream.forEachOrdered(items::add);
+            }
+        } else {
+            Iterator<?> iterator = (Iterator<?>) payload;
+            try {
+                iterator.forEachRemaining(items::add);
+            } finally {
+                closeQuietly(iterator instanceof AutoCloseable closeable ? closeable : null);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Releases a streamable result that will not be sent, closing it if it is a {@link Stream} or a closeable
+     * iterator.
+     *
+     * @param payload An {@link Iterator} or a {@link Stream}.
+     */
+    public static void discard(Object payload) {
+        closeQuietly(payload instanceof AutoCloseable closeable ? closeable : null);
+    }
+
+    /**
+     * Starts the stream's thread.
+     */
+    public void start() {
+        Thread thread = new Thread(this::run, "JSocket-RpcStream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Lets the stream send more chunks.
+     *
+     * @param chunks The number of chunks the client granted.
+     */
+    public void grant(int chunks) {
+        if (chunks > 0) {
+            credit.release(chunks);
+        }
+    }
+
+    /**
+     * Stops the stream after the chunk being sent, if any, and releases the action's result.
+     */
+    public void cancel() {
+        cancelled = true;
+        credit.release();
+    }
+
+    private void run() {
+        try {
+            while (items.hasNext()) {
+                credit.acquire();
+                if (cancelled) {
+                    return;
+                }
+                List<Object> chunk = new ArrayList<>(Math.min(chunkSize, 1024));
+                while (chunk.size() < chunkSize && items.hasNext()) {
+                    chunk.add(items.next());
+                }
+                byte[] payload = codec.encode(gson, chunk);
+                var header = MessageHeader.BuildRpcStreamItemHeader(requestId, false, payload.length);
+                header.content_type = codec.getContentType();
+                handler.write(new Message(header, new byte[0], payload).setScope(scope));
+            }
+            writeEnd(StatusCode.OK, "");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // The reader thread notices the broken connection and cancels the stream
+        } catch (RuntimeException e) {
+            try {
+                writeEnd(StatusCode.INTERNAL_SERVER_ERROR, "The stream failed: " + e.getMessage());
+            } catch (IOException ignored) {
+                // As above
+            }
+        } finally {
+            closeQuietly(resource);
+            onEnd.run();
+        }
+    }
+
+    private void writeEnd(StatusCode status, String message) throws IOException {
+        if (cancelled) {
+            return;
+        }
+        var header = MessageHeader.BuildRpcResponseHeader(requestId, false, 0, 0);
+        header.content_type = codec.getContentType();
+        handler.write(new Message(header, new byte[0], new byte[0])
+                .setMetadataValue(new RpcResponseMetadata(status.code, message))
+                .setScope(scope));
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception ignored) {
+            // Nothing left to clean up after a failed close
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Protocol.Codec.PayloadCodecs;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.StatusCode;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The client side of a server-streaming RPC call: an iterator over the items the server sends in
+ * {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} chunks, as returned by
+ * {@link RpcCallerBase#callRpcForStream(String, String, Type, Object...)}.
+ * <p>
+ * Chunks are decoded on the thread iterating the stream, one at a time. Each decoded chunk is credited back to the
+ * server, half a window at a time, so the server never sends more than the window of chunks ahead of the
+ * consumer. {@link #hasNext()} blocks until the next chunk or the end of the stream arrives; once it returns
+ * {@code false}, {@link #getResponse()} holds the status the server ended the stream with.
+ * <p>
+ * Close a stream that is not read to the end, so the server stops producing it. A stream is meant to be iterated
+ * by one thread, but may be closed from any.
+ */
+public class RpcStream<T> implements Iterator<T>, AutoCloseable {
+    private final ClientApplication clientApplication;
+    private final UUID requestId;
+    private final Type listType;
+    private final Gson gson;
+    private final int window;
+    private final CompletableFuture<Message> end;
+    private final BlockingQueue<Object> chunks = new LinkedBlockingQueue<>();
+    private Iterator<T> current = Collections.emptyIterator();
+    private int uncredited;
+    private boolean ended;
+    private volatile boolean closed;
+    private RpcResponse<Void> response;
+
+    /**
+     * Constructs a stream for a call that is about to be written. The call's end is the response message
+     * {@code end} completes with, or its failure.
+     *
+     * @param clientApplication The client the call is made on.
+     * @param requestId         The request id of the call.
+     * @param itemType          The type of the items.
+     * @param gson              The Gson instance the items are decoded with.
+     * @param window            The window of chunks the call grants the server.
+     * @param end               The future registered in the client's pending requests under the call's request id.
+     */
+    public RpcStream(ClientApplication clientApplication, UUID requestId, Type itemType, Gson gson, int window, CompletableFuture<Message> end) {
+        this.clientApplication = clientApplication;
+        this.requestId = requestId;
+        this.listType = TypeToken.getParameterized(List.class, itemType).getType();
+        this.gson = gson;
+        this.window = window;
+        this.end = end;
+        end.whenComplete((message, failure) -> {
+            clientApplication.getActiveStreams().remove(requestId, this);
+            chunks.add(new End(message, failure));
+        });
+    }
+
+    /**
+     * Hands the stream a chunk received from the server. Called on the message listener thread.
+     *
+     * @param chunk The {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} message.
+     */
+    public void offer(Message chunk) {
+        chunks.add(chunk);
+    }
+
+    /**
+     * Checks whether the stream has another item, waiting for the server to send it if needed.
+     *
+     * @return {@code true} if there is another item; {@code false} once the stream has ended or been closed.
+     * @throws UncheckedIOException if the connection was lost, or credit could not be sent, before the end of
+     *                              the stream, or the waiting thread was interrupted.
+     */
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        while (!current.hasNext()) {
+            if (ended) {
+                return false;
+            }
+            Object next;
+            try {
+                next = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the stream"));
+            }
+            if (next instanceof End last) {
+                ended = true;
+                finish(last);
+            } else {
+                Message chunk = (Message) next;
+                current = decode(chunk);
+                credit();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the next item, waiting for the server to send it if needed.
+     *
+     * @return The item.
+     * @throws NoSuchElementException if the stream has ended.
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Gets the status the server ended the stream with, such as {@link StatusCode#OK} after the last item or
+     * {@link StatusCode#INTERNAL_SERVER_ERROR} if the action failed while producing items.
+     *
+     * @return The final response, without payload, or {@code null} while the stream is still open or if it was
+     *         closed before its end.
+     */
+    public RpcResponse<Void> getResponse() {
+        return response;
+    }
+
+    /**
+     * Stops the stream: the server is told to stop sending it, and {@link #hasNext()} returns {@code false}. Does
+     * nothing if the stream has already ended.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (clientApplication.getPendingRequests().remove(requestId, end)) {
+            try {
+                clientApplication.getMessageHandler().write(new Message(MessageHeader.BuildRpcStreamCancelHeader(requestId), new byte[0], new byte[0]));
+            } catch (IOException ignored) {
+                // The server drops the stream with the connection
+            }
+            end.completeExceptionally(new CancellationException("The stream was closed."));
+        }
+    }
+
+    /**
+     * Ends the stream with a failure unless it has already ended, e.g. when the connection is lost.
+     *
+     * @param cause The failure {@link #hasNext()} reports.
+     */
+    public void fail(IOException cause) {
+        if (clientApplication.getPendingRequests().remove(requestId, end)) {
+            end.completeExceptionally(cause);
+        }
+    }
+
+    private void finish(End last) {
+        if (last.failure() != null) {
+            if (last.failure() instanceof CancellationException) {
+                return;
+            }
+            throw last.failure() instanceof IOException io ? new UncheckedIOException(io)
+                    : new UncheckedIOException(new IOException(last.failure()));
+        }
+        Message message = last.message();
+        var metadata = message.getMetadataAs(RpcResponseMetadata.class);
+        response = new RpcResponse<>(StatusCode.fromCode(metadata.getStatusCode()), metadata.getMessage(), null);
+        if (response.getStatusCode() == StatusCode.OK && message.getPayload().length > 0) {
+            // The action returned a list instead of a stream
+            current = decode(message);
+        }
+    }
+
+    private Iterator<T> decode(Message chunk) {
+        List<T> items = PayloadCodecs.get(chunk.header.content_type).decode(gson, chunk.getPayload(), listType);
+        return items != null ? items.iterator() : Collections.emptyIterator();
+    }
+
+    private void credit() {
+        if (++uncredited < Math.max(window / 2, 1) || end.isDone()) {
+            return;
+        }
+        byte[] payload = ByteBuffer.allocate(Integer.BYTES).putInt(uncredited).array();
+        uncredited = 0;
+        try {
+            clientApplication.getMessageHandler().write(new Message(MessageHeader.BuildRpcStreamCreditHeader(requestId), new byte[0], payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The end of the stream as queued behind its last chunk.
+     *
+     * @param message The final response, or {@code null} if the call failed.
+     * @param failure The failure, or {@code null} if the server ended the stream.
+     */
+    private record End(Message message, Throwable failure) {
+    }
+}
@@ -0,0 +1,78 @@
+package JSocket2.Protocol.Rpc;
+
+/**
+ * Configures streaming RPC calls: server-streaming calls, whose action returns an {@link java.util.Iterator} or a
+ * {@link java.util.stream.Stream} that is sent in {@link JSocket2.Protocol.MessageType#RPC_STREAM_ITEM} chunks
+ * instead of one response, and client-streaming calls, whose action takes a trailing {@link java.util.Iterator}
+ * of items the client sends in such chunks.
+ * <p>
+ * The sending side reads the chunk size, the receiving side the window, and the server the stream limit. The
+ * receiver grants the sender a window of chunks and more credit as it consumes them, so neither side holds more
+ * than about one window of items in memory, however many there are.
+ */
+public class RpcStreamOptions {
+    private int chunkSize = 256;
+    private int window = 8;
+    private int maxStreamsPerConnection = 16;
+
+    /**
+     * Sets how many items the sending side puts in a chunk.
+     *
+     * @param chunkSize The number of items, at least 1; 256 by default.
+     * @return This instance for chaining.
+     */
+    public RpcStreamOptions setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 1);
+        return this;
+    }
+
+    /**
+     * Gets how many items the sending side puts in a chunk.
+     *
+     * @return The number of items.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets how many chunks the receiving side lets the sender send ahead of the ones it has consumed.
+     *
+     * @param window The number of chunks, at least 1; 8 by default.
+     * @return This instance for chaining.
+     */
+    public RpcStreamOptions setWindow(int window) {
+        this.window = Math.max(window, 1);
+        return this;
+    }
+
+    /**
+     * Gets how many chunks the receiving side lets the sender send ahead of the ones it has consumed.
+     *
+     * @return The number of chunks.
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Sets how many streams, in either direction, the server keeps open per connection. A stream call beyond the
+     * limit is answered with {@link JSocket2.Protocol.StatusCode#SERVICE_UNAVAILABLE}.
+     *
+     * @param maxStreamsPerConnection The number of streams, at least 1; 16 by default.
+     * @return This instance for chaining.
+     */
+    public RpcStreamOptions setMaxStreamsPerConnection(int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = Math.max(maxStreamsPerConnection, 1);
+        return this;
+    }
+
+    /**
+     * Gets how many streams the server keeps open per connection.
+     *
+     * @return The number of streams.
+     */
+    public int getMaxStreamsPerConnection() {
+        return maxStreamsPerConnection;
+    }
+}
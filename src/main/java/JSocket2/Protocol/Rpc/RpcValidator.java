@@ -0,0 +1,38 @@
+package JSocket2.Protocol.Rpc;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Computes the validators that tag RPC responses for conditional revalidation. A validator is a digest of the
+ * encoded payload and the content type of its codec, so equal validators mean the caller already holds the exact
+ * bytes the server would send.
+ */
+public final class RpcValidator {
+    private static final int LENGTH = 16;
+
+    private RpcValidator() {
+    }
+
+    /**
+     * Computes the validator of an encoded response payload.
+     *
+     * @param contentType The content type of the codec the payload is encoded with.
+     * @param payload     The encoded payload.
+     * @return The first 128 bits of the payload's SHA-256 digest, in URL-safe Base64 without padding.
+     */
+    public static String of(int contentType, byte[] payload) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(contentType).array());
+        byte[] hash = digest.digest(payload);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, LENGTH));
+    }
+}
@@ -0,0 +1,165 @@
+package JSocket2.Protocol.Rpc;
+
+import JSocket2.Utils.SerialExecutor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the server's controller actions as configured by {@link RpcExecutionOptions}: on the reader thread of each
+ * connection, or on a shared executor with the configured ordering. Each connection takes a {@link Connection}
+ * that keeps its ordering lanes.
+ */
+public final class RpcWorkerPool {
+    /**
+     * A pool that runs every action on the reader thread of its connection.
+     */
+    public static final RpcWorkerPool INLINE = new RpcWorkerPool(null, RpcExecutionOptions.Ordering.PER_SESSION, false);
+
+    private final Executor executor;
+    private final RpcExecutionOptions.Ordering ordering;
+    private final boolean ownsExecutor;
+
+    private RpcWorkerPool(Executor executor, RpcExecutionOptions.Ordering ordering, boolean ownsExecutor) {
+        this.executor = executor;
+        this.ordering = ordering;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Creates the pool described by the options, starting its threads if it owns any.
+     *
+     * @param options The execution options.
+     * @return The pool, {@link #INLINE} if the options name neither an executor nor worker threads.
+     */
+    public static RpcWorkerPool create(RpcExecutionOptions options) {
+        if (options.getExecutor() != null) {
+            return new RpcWorkerPool(options.getExecutor(), options.getOrdering(), false);
+        }
+        if (options.getWorkerThreads() == 0) {
+            return INLINE;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(options.getWorkerThreads(), options.getWorkerThreads(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(options.getQueueCapacity()), r -> {
+                    Thread t = new Thread(r, "JSocket-RpcWorker-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        return new RpcWorkerPool(pool, options.getOrdering(), true);
+    }
+
+    /**
+     * Checks whether actions run on the reader threads.
+     *
+     * @return {@code true} if there is no executor.
+     */
+    public boolean isInline() {
+        return executor == null;
+    }
+
+    /**
+     * Gets the ordering of calls.
+     *
+     * @return The ordering.
+     */
+    public RpcExecutionOptions.Ordering getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Creates the scheduling state of one connection.
+     *
+     * @return A new connection; use it from the connection's reader thread only.
+     */
+    public Connection newConnection() {
+        return new Connection();
+    }
+
+    /**
+     * Stops the worker threads if the pool owns them. Calls already queued still run.
+     */
+    public void shutdown() {
+        if (ownsExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * The ordering lanes of one connection.
+     */
+    public final class Connection {
+        private static final int MAX_CONTROLLER_LANES = 256;
+
+        private SerialExecutor sessionLane;
+        private final Map<String, SerialExecutor> controllerLanes = new HashMap<>();
+
+        private Connection() {
+        }
+
+        /**
+         * Checks whether calls run on the calling thread.
+         *
+         * @return {@code true} if the pool runs actions on the reader threads.
+         */
+        public boolean isInline() {
+            return executor == null;
+        }
+
+        /**
+         * Runs a call according to the pool's executor and ordering. If the executor rejects it, the call runs
+         * on the calling thread.
+         *
+         * @param controller The name of the called controller, the lane key for {@link RpcExecutionOptions.Ordering#PER_CONTROLLER}.
+         * @param call       The call, decoding its arguments, dispatching it and writing its response.
+         */
+        public void execute(String controller, Runnable call) {
+            if (executor == null) {
+                call.run();
+                return;
+            }
+            switch (ordering) {
+                case PER_SESSION -> sessionLane().execute(call);
+                case PER_CONTROLLER -> controllerLane(controller).execute(call);
+                default -> {
+                    try {
+                        executor.execute(call);
+                    } catch (RejectedExecutionException e) {
+                        call.run();
+                    }
+                }
+            }
+        }
+
+        private SerialExecutor sessionLane() {
+            if (sessionLane == null) {
+                sessionLane = new SerialExecutor(executor);
+            }
+            return sessionLane;
+        }
+
+        /**
+         * Gets the lane of a controller. Names are chosen by the client, so past a fixed number of lanes calls to
+         * further controllers share the session lane instead of growing the map.
+         */
+        private SerialExecutor controllerLane(String controller) {
+            String key = controller == null ? "" : controller.toLowerCase();
+            SerialExecutor lane = controllerLanes.get(key);
+            if (lane == null) {
+                if (controllerLanes.size() >= MAX_CONTROLLER_LANES) {
+                    return sessionLane();
+                }
+                lane = new SerialExecutor(executor);
+                controllerLanes.put(key, lane);
+            }
+            return lane;
+        }
+    }
+}
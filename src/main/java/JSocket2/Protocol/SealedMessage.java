@@ -0,0 +1,60 @@
+package JSocket2.Protocol;
+
+import JSocket2.Cryptography.CipherSuite;
+
+/**
+ * A {@link Message} that has already been encrypted for one connection and only needs to be written.
+ * Produced by {@link MessageHandler#seal(Message)} so the CPU-heavy encryption can run on any thread,
+ * while {@link MessageHandler#writeSealed(SealedMessage)} keeps the socket writes ordered.
+ */
+public final class SealedMessage {
+    final MessageHeader header;
+    final CipherSuite cipherSuite;
+    final int keyEpoch;
+    final boolean compressed;
+    final byte[] ivBytes;
+    final byte[] metadata;
+    final byte[] payload;
+
+    SealedMessage(MessageHeader header, CipherSuite cipherSuite, int keyEpoch, boolean compressed, byte[] ivBytes, byte[] metadata, byte[] payload) {
+        this.header = header;
+        this.cipherSuite = cipherSuite;
+        this.keyEpoch = keyEpoch;
+        this.compressed = compressed;
+        this.ivBytes = ivBytes;
+        this.metadata = metadata;
+        this.payload = payload;
+    }
+
+    /**
+     * Gets the header of the original message.
+     * @return The {@link MessageHeader}.
+     */
+    public MessageHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Gets the cipher suite the message was sealed with.
+     * @return The {@link CipherSuite}, {@link CipherSuite#NONE} for plaintext.
+     */
+    public CipherSuite getCipherSuite() {
+        return cipherSuite;
+    }
+
+    /**
+     * Checks whether the payload was compressed before sealing.
+     * @return {@code true} if the frame carries a compressed payload.
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Gets the number of body bytes that will be written, excluding header and IV.
+     * @return The sealed metadata and payload length.
+     */
+    public int getBodyLength() {
+        return metadata.length + payload.length;
+    }
+}
@@ -0,0 +1,146 @@
+package JSocket2.Protocol;
+
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Rpc.RpcDedupCache;
+import JSocket2.Protocol.Rpc.RpcStreamOptions;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
+
+/**
+ * Groups the settings a {@link ServerMessageProcessor} applies to one client connection: what the server offers
+ * in the handshake, and how the connection's RPC calls are scheduled, streamed and de-duplicated.
+ * <p>
+ * The defaults describe a plain connection: JSON and the other built-in metadata codecs, no compression, no route
+ * ids, actions run on the reader thread, default stream limits and no de-duplication.
+ */
+public class ServerConnectionContext {
+    private CodecOptions codecOptions = new CodecOptions();
+    private CompressionOptions compressionOptions = new CompressionOptions().setCompressors();
+    private RouteTable routeTable = RouteTable.EMPTY;
+    private RpcWorkerPool.Connection rpcConnection = RpcWorkerPool.INLINE.newConnection();
+    private RpcStreamOptions streamOptions = new RpcStreamOptions();
+    private RpcDedupCache dedupCache;
+
+    /**
+     * Sets the metadata codecs the server offers; the processor switches to the one the client chose.
+     *
+     * @param codecOptions The codec options.
+     * @return This instance for chaining.
+     */
+    public ServerConnectionContext setCodecOptions(CodecOptions codecOptions) {
+        this.codecOptions = codecOptions;
+        return this;
+    }
+
+    /**
+     * Gets the metadata codecs the server offers.
+     *
+     * @return The codec options.
+     */
+    public CodecOptions getCodecOptions() {
+        return codecOptions;
+    }
+
+    /**
+     * Sets the payload compressors the server offers; the processor switches to the one the client chose.
+     *
+     * @param compressionOptions The compression options; none are offered by default.
+     * @return This instance for chaining.
+     */
+    public ServerConnectionContext setCompressionOptions(CompressionOptions compressionOptions) {
+        this.compressionOptions = compressionOptions;
+        return this;
+    }
+
+    /**
+     * Gets the payload compressors the server offers.
+     *
+     * @return The compression options.
+     */
+    public CompressionOptions getCompressionOptions() {
+        return compressionOptions;
+    }
+
+    /**
+     * Sets the route table the server offers; the processor switches to numeric route ids if the client accepts it.
+     *
+     * @param routeTable The route table; {@link RouteTable#EMPTY} by default.
+     * @return This instance for chaining.
+     */
+    public ServerConnectionContext setRouteTable(RouteTable routeTable) {
+        this.routeTable = routeTable;
+        return this;
+    }
+
+    /**
+     * Gets the route table the server offers.
+     *
+     * @return The route table.
+     */
+    public RouteTable getRouteTable() {
+        return routeTable;
+    }
+
+    /**
+     * Sets the connection's scheduling state. Only RPC calls leave the reader thread; the handshake,
+     * authentication, key rotation and file transfer messages are still handled in order on it.
+     *
+     * @param rpcConnection The state from {@link RpcWorkerPool#newConnection()}; calls run on the reader thread by default.
+     * @return This instance for chaining.
+     */
+    public ServerConnectionContext setRpcConnection(RpcWorkerPool.Connection rpcConnection) {
+        this.rpcConnection = rpcConnection;
+        return this;
+    }
+
+    /**
+     * Gets the connection's scheduling state.
+     *
+     * @return The worker pool connection.
+     */
+    public RpcWorkerPool.Connection getRpcConnection() {
+        return rpcConnection;
+    }
+
+    /**
+     * Sets the chunk size and stream limit of streamed results and items.
+     *
+     * @param streamOptions The stream options.
+     * @return This instance for chaining.
+     */
+    public ServerConnectionContext setStreamOptions(RpcStreamOptions streamOptions) {
+        this.streamOptions = streamOptions;
+        return this;
+    }
+
+    /**
+     * Gets the chunk size and stream limit of streamed results and items.
+     *
+     * @return The stream options.
+     */
+    public RpcStreamOptions getStreamOptions() {
+        return streamOptions;
+    }
+
+    /**
+     * Sets the server's memory of recent calls by request id, which answers a call sent again with the first
+     * call's response.
+     *
+     * @param dedupCache The cache, or {@code null} to run every call; {@code null} by default.
+     * @return This instance for chaining.
+     */
+    public ServerConnectionContext setDedupCache(RpcDedupCache dedupCache) {
+        this.dedupCache = dedupCache;
+        return this;
+    }
+
+    /**
+     * Gets the server's memory of recent calls by request id.
+     *
+     * @return The cache, or {@code null} if every call runs.
+     */
+    public RpcDedupCache getDedupCache() {
+        return dedupCache;
+    }
+}
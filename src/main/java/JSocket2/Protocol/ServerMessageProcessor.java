@@ -7,15 +7,43 @@ import JSocket2.Core.Server.ServerSession;
 import JSocket2.Cryptography.EncryptionUtil;
 import JSocket2.Cryptography.RsaKeyManager;
 import JSocket2.Protocol.Authentication.AuthModel;
+import JSocket2.Protocol.Authentication.UserIdentity;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.IPayloadCodec;
+import JSocket2.Protocol.Codec.JsonCodec;
+import JSocket2.Protocol.Codec.JsonPayload;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Codec.RoutedCodec;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Rpc.RpcBatch;
 import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcDedupCache;
 import JSocket2.Protocol.Rpc.RpcDispatcher;
+import JSocket2.Protocol.Rpc.RpcItemReceiver;
+import JSocket2.Protocol.Rpc.RpcResponse;
 import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Rpc.RpcResultCache;
+import JSocket2.Protocol.Rpc.RpcValidator;
+import JSocket2.Protocol.Rpc.RpcServerStream;
+import JSocket2.Protocol.Rpc.RpcStreamOptions;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
 import JSocket2.Protocol.Transfer.ServerFileTransferManager;
 import JSocket2.Protocol.Transfer.Upload.UploadResumeRequestMetadata;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Processes messages received by the server from a client.
@@ -23,6 +51,11 @@ import java.nio.charset.StandardCharsets;
  * and authentication, delegating tasks to the appropriate managers and services.
  */
 public class ServerMessageProcessor implements IMessageProcessor {
+    /**
+     * The word a client appends to its handshake choice to accept the server's route table.
+     */
+    public static final String ROUTES_ACCEPTED = "routes";
+
     private final Gson gson;
     private final RpcDispatcher rpcDispatcher;
     private final MessageHandler messageHandler;
@@ -31,9 +64,18 @@ public class ServerMessageProcessor implements IMessageProcessor {
     private final IAuthService authService;
     private RsaKeyManager rsaKeyManager;
     private final IClientLifecycleListener clientLifecycleListener;
+    private final CodecOptions codecOptions;
+    private final CompressionOptions compressionOptions;
+    private final RouteTable routeTable;
+    private final RpcWorkerPool.Connection rpcConnection;
+    private final RpcStreamOptions streamOptions;
+    private final RpcDedupCache dedupCache;
+    private final Map<UUID, RpcServerStream> streams = new ConcurrentHashMap<>();
+    private final Map<UUID, RpcItemReceiver> receivers = new ConcurrentHashMap<>();
 
     /**
-     * Constructs a new ServerMessageProcessor.
+     * Constructs a new ServerMessageProcessor with the settings of a plain connection, see
+     * {@link ServerConnectionContext}.
      *
      * @param handler                 The handler for reading and writing messages.
      * @param rpcDispatcher           The dispatcher for handling RPC calls.
@@ -44,6 +86,30 @@ public class ServerMessageProcessor implements IMessageProcessor {
      * @param clientLifecycleListener A listener for client lifecycle events like authentication.
      */
     public ServerMessageProcessor(MessageHandler handler, RpcDispatcher rpcDispatcher, ServerFileTransferManager fileTransferManager, ServerSession serverSession, RsaKeyManager rsaKeyManager, IAuthService authService, IClientLifecycleListener clientLifecycleListener) {
+        this(handler, rpcDispatcher, fileTransferManager, serverSession, rsaKeyManager, authService, clientLifecycleListener, new ServerConnectionContext());
+    }
+
+    /**
+     * Constructs a new ServerMessageProcessor that applies the settings of a connection: it switches to the
+     * metadata codec, payload compressor and route ids the client chose during the handshake, and schedules,
+     * streams and de-duplicates RPC calls as the context describes.
+     *
+     * @param handler                 The handler for reading and writing messages.
+     * @param rpcDispatcher           The dispatcher for handling RPC calls.
+     * @param fileTransferManager     The manager for file transfers.
+     * @param serverSession           The session object for the connected client.
+     * @param rsaKeyManager           The manager for RSA keys used in handshakes.
+     * @param authService             The service for authenticating users.
+     * @param clientLifecycleListener A listener for client lifecycle events like authentication.
+     * @param context                 The connection's settings.
+     */
+    public ServerMessageProcessor(MessageHandler handler, RpcDispatcher rpcDispatcher, ServerFileTransferManager fileTransferManager, ServerSession serverSession, RsaKeyManager rsaKeyManager, IAuthService authService, IClientLifecycleListener clientLifecycleListener, ServerConnectionContext context) {
+        this.routeTable = context.getRouteTable();
+        this.rpcConnection = context.getRpcConnection();
+        this.streamOptions = context.getStreamOptions();
+        this.dedupCache = context.getDedupCache();
+        this.codecOptions = context.getCodecOptions();
+        this.compressionOptions = context.getCompressionOptions();
         this.gson = new Gson();
         this.messageHandler = handler;
         this.rpcDispatcher = rpcDispatcher;
@@ -65,6 +131,12 @@ public class ServerMessageProcessor implements IMessageProcessor {
     public void Invoke(Message message) throws IOException {
         switch (message.header.type) {
             case RPC_CALL -> handleRpcCall(message);
+            case RPC_BATCH -> handleRpcBatch(message);
+            case RPC_STREAM_CALL -> handleStreamCall(message);
+            case RPC_STREAM_ITEM -> handleStreamItem(message);
+            case RPC_STREAM_END -> handleStreamEnd(message);
+            case RPC_STREAM_CREDIT -> handleStreamCredit(message);
+            case RPC_STREAM_CANCEL -> handleStreamCancel(message);
             case UPLOAD_REQUEST -> handleUploadRequest(message);
             case UPLOAD_CHUNK -> handleUploadChunk(message);
             case SEND_CHUNK -> handleUploadChunk(message);
@@ -74,6 +146,7 @@ public class ServerMessageProcessor implements IMessageProcessor {
             case UPLOAD_ACK -> {}
             case AES_KEY -> handeAesKey(message);
             case AUTH -> handleAuth(message);
+            case CHANGE_AES_KEY_REQUEST -> handleChangeAesKey(message);
             default -> throw new UnsupportedOperationException("Unknown message type: " + message.header.type);
         }
     }
@@ -102,12 +175,15 @@ public class ServerMessageProcessor implements IMessageProcessor {
      * @throws IOException if an I/O error occurs.
      */
     private void handleUploadResumeRequest(Message message) throws IOException {
-        var metadata = gson.fromJson(new String(message.getMetadata(), StandardCharsets.UTF_8), UploadResumeRequestMetadata.class);
+        var metadata = JsonPayload.fromBytes(gson, message.getMetadata(), UploadResumeRequestMetadata.class);
         fileTransferManager.ProcessUploadResumeRequest(message.header.uuid, metadata);
     }
 
     /**
-     * Handles the encrypted AES key sent by the client, completing the handshake.
+     * Handles the encrypted AES key sent by the client, completing the handshake. The metadata names the
+     * codec, after a {@code ;} the compressor the client chose from the server's offer and after another
+     * {@code ;} the word {@code routes} if it accepted the route table; clients that send none keep using
+     * JSON, uncompressed frames and route names.
      * @param message The message containing the encrypted AES key.
      */
     private void handeAesKey(Message message) {
@@ -115,18 +191,46 @@ public class ServerMessageProcessor implements IMessageProcessor {
         var decrypted_aes_key = EncryptionUtil.decryptDataRSA(encrypted_aes_key, rsaKeyManager.getRSAPrivateKey());
         var aesKey = EncryptionUtil.decodeAesKey(decrypted_aes_key);
         serverSession.setAESKey(aesKey);
+        var choice = new String(message.getMetadata(), StandardCharsets.US_ASCII).split(";", 3);
+        var chosenCodec = codecOptions.find(choice[0]);
+        if (choice.length > 2 && choice[2].equals(ROUTES_ACCEPTED) && !routeTable.isEmpty()) {
+            messageHandler.setMetadataCodec(new RoutedCodec(chosenCodec != null ? chosenCodec : JsonCodec.INSTANCE, routeTable));
+        } else if (chosenCodec != null) {
+            messageHandler.setMetadataCodec(chosenCodec);
+        }
+        if (choice.length > 1) {
+            var chosenCompressor = compressionOptions.find(choice[1]);
+            if (chosenCompressor != null) {
+                messageHandler.setCompression(chosenCompressor, compressionOptions);
+            }
+        }
+        if (messageHandler.getKeyRotator() != null) {
+            messageHandler.getKeyRotator().activate();
+        }
         System.out.println("handshake is complete");
     }
 
+    /**
+     * Handles a key rotation message from the client, installing the announced key as the new epoch.
+     * Runs on the connection's reader thread, so every later frame is read with the new key available.
+     * @param message The key rotation message.
+     * @throws IOException if the message is refused or malformed, which drops the connection.
+     */
+    private void handleChangeAesKey(Message message) throws IOException {
+        var rotator = messageHandler.getKeyRotator();
+        if (rotator != null) {
+            rotator.handle(message);
+        }
+    }
+
     /**
      * Handles an authentication request from the client.
      * @param message The authentication message.
      * @throws IOException if an I/O error occurs.
      */
     private void handleAuth(Message message) throws IOException {
-        var payloadJson = new String(message.getPayload(), StandardCharsets.UTF_8);
-        var response = gson.fromJson(payloadJson, AuthModel.class);
-        String responseMetadata = null;
+        var response = JsonPayload.fromBytes(gson, message.getPayload(), AuthModel.class);
+        RpcResponseMetadata responseMetadata = null;
         try {
             for (var key : response.getAccessKeys()) {
                 if(!authService.IsKeyValid(key))
@@ -137,10 +241,10 @@ public class ServerMessageProcessor implements IMessageProcessor {
                     clientLifecycleListener.onClientAuthenticated(serverSession);
                 }
             }
-            responseMetadata = gson.toJson(new RpcResponseMetadata(StatusCode.OK.code, "Auth was successful"));
+            responseMetadata = new RpcResponseMetadata(StatusCode.OK.code, "Auth was successful");
         }
         catch (InvalidAccessKeyException e) {
-            responseMetadata = gson.toJson(new RpcResponseMetadata(StatusCode.BAD_REQUEST.code, "Auth was failed"));
+            responseMetadata = new RpcResponseMetadata(StatusCode.BAD_REQUEST.code, "Auth was failed");
         }
         catch (Exception e){
             e.printStackTrace();
@@ -148,40 +252,451 @@ public class ServerMessageProcessor implements IMessageProcessor {
         }
         finally {
             var msg = new Message(
-                    MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, responseMetadata.length(), 0),
-                    responseMetadata.getBytes(StandardCharsets.UTF_8),
+                    MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, 0, 0),
+                    new byte[0],
                     new byte[0]
-            );
+            ).setMetadataValue(responseMetadata);
             messageHandler.write(msg);
         }
     }
 
     /**
-     * Handles an RPC call from the client.
+     * Handles an RPC call from the client, on the reader thread or, if the server has a worker pool, on the
+     * pool in the configured order.
      * @param message The RPC call message.
-     * @throws IOException if an I/O error occurs.
+     * @throws IOException if an I/O error occurs while answering on the reader thread.
      */
     private void handleRpcCall(Message message) throws IOException {
-        var metadata = gson.fromJson(new String(message.getMetadata(), StandardCharsets.UTF_8), RpcCallMetadata.class);
-        var payloadJson = new String(message.getPayload(), StandardCharsets.UTF_8);
-        var response = rpcDispatcher.dispatch(metadata, payloadJson,serverSession.getServerSessionManager(),serverSession.getActiveUser());
-        if(response != null) {
-            var rpcResponseMetadataString = gson.toJson(new RpcResponseMetadata(response.getStatusCode().code, response.getMessage()));
-            var rpcResponsePayloadString = gson.toJson(response.getPayload());
+        var metadata = message.getMetadataAs(RpcCallMetadata.class);
+        if (rpcConnection.isInline()) {
+            answerRpcCall(message, metadata);
+            return;
+        }
+        rpcConnection.execute(metadata.getController(), () -> {
+            try {
+                answerRpcCall(message, metadata);
+            } catch (IOException e) {
+                // The reader thread notices the broken connection and cleans up
+            }
+        });
+    }
+
+    /**
+     * Handles a batch of RPC calls. The calls are scheduled like calls sent one by one, so a worker pool runs
+     * them in parallel as far as its ordering allows, and their responses are sent together in one
+     * {@link MessageType#RPC_BATCH_RESPONSE} frame once the last call has finished. A call that fails is answered
+     * with {@link StatusCode#INTERNAL_SERVER_ERROR} and does not hold up the others. A batch holding a duplicate of
+     * a call that is still running is answered once that call finishes, without holding up the reader thread.
+     * @param message The RPC batch message.
+     * @throws IOException if an I/O error occurs while answering on the reader thread.
+     */
+    private void handleRpcBatch(Message message) throws IOException {
+        List<Message> calls = RpcBatch.read(message);
+        Message[] responses = new Message[calls.size()];
+        if (rpcConnection.isInline()) {
+            CompletableFuture<?>[] pending = new CompletableFuture<?>[responses.length];
+            for (int i = 0; i < responses.length; i++) {
+                int index = i;
+                Message call = calls.get(i);
+                pending[i] = createRpcResponseOrError(call, call.getMetadataAs(RpcCallMetadata.class), message.getReceivedNanos(), null)
+                        .thenAccept(response -> responses[index] = response);
+            }
+            CompletableFuture<Void> all = CompletableFuture.allOf(pending);
+            if (all.isDone()) {
+                writeRpcResponses(responses);
+                return;
+            }
+            all.thenAccept(ignored -> {
+                try {
+                    writeRpcResponses(responses);
+                } catch (IOException e) {
+                    // The reader thread notices the broken connection and cleans up
+                }
+            });
+            return;
+        }
+        AtomicInteger remaining = new AtomicInteger(responses.length);
+        for (int i = 0; i < responses.length; i++) {
+            int index = i;
+            Message call = calls.get(i);
+            var metadata = call.getMetadataAs(RpcCallMetadata.class);
+            rpcConnection.execute(metadata.getController(), () -> createRpcResponseOrError(call, metadata, message.getReceivedNanos(), null)
+                    .thenAccept(response -> {
+                        responses[index] = response;
+                        if (remaining.decrementAndGet() == 0) {
+                            try {
+                                writeRpcResponses(responses);
+                            } catch (IOException e) {
+                                // The reader thread notices the broken connection and cleans up
+                            }
+                        }
+                    }));
+        }
+    }
 
-            byte[] responseMetadataBytes = rpcResponseMetadataString.getBytes(StandardCharsets.UTF_8);
-            byte[] responsePayloadBytes = rpcResponsePayloadString.getBytes(StandardCharsets.UTF_8);
+    /**
+     * Writes the responses to a batch of calls: in a batch frame if there are several, on their own if there
+     * is one.
+     * @param responses The responses, {@code null} for calls that have none.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeRpcResponses(Message[] responses) throws IOException {
+        List<Message> written = new ArrayList<>(responses.length);
+        for (Message response : responses) {
+            if (response != null) {
+                written.add(response);
+            }
+        }
+        if (written.size() == 1) {
+            messageHandler.write(written.get(0));
+        } else if (!written.isEmpty()) {
+            messageHandler.write(RpcBatch.create(written, messageHandler));
+        }
+    }
 
-            var msg = new Message(
-                    MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, responseMetadataBytes.length, responsePayloadBytes.length),
-                    responseMetadataBytes,
-                    responsePayloadBytes
-            );
+    /**
+     * Dispatches an RPC call and writes its response. The response to a duplicate of a call that is still running
+     * is written once it is ready, without holding up the calling thread.
+     * @param message  The RPC call message.
+     * @param metadata The call's metadata.
+     * @throws IOException if an I/O error occurs while writing a response that was ready right away.
+     */
+    private void answerRpcCall(Message message, RpcCallMetadata metadata) throws IOException {
+        CompletableFuture<Message> response = createRpcResponseOrError(message, metadata, message.getReceivedNanos(), null);
+        if (!response.isDone()) {
+            response.thenAccept(ready -> {
+                try {
+                    if (ready != null) {
+                        messageHandler.write(ready);
+                    }
+                } catch (IOException e) {
+                    // The reader thread notices the broken connection and cleans up
+                }
+            });
+            return;
+        }
+        Message ready = response.join();
+        if (ready != null) {
+            messageHandler.write(ready);
+        }
+    }
 
-            messageHandler.write(msg);
+    /**
+     * Builds the response message of an RPC call, or a {@link StatusCode#INTERNAL_SERVER_ERROR} response if the
+     * call could not be dispatched or its action failed, so the caller is answered either way.
+     * @param message       The RPC call message.
+     * @param metadata      The call's metadata.
+     * @param receivedNanos When the frame carrying the call was read.
+     * @param items         The items the client streams to the call, or {@code null} for a plain call.
+     * @return A future of the response message, or of {@code null} if the action has no response; it never
+     *         completes exceptionally.
+     */
+    private CompletableFuture<Message> createRpcResponseOrError(Message message, RpcCallMetadata metadata, long receivedNanos, RpcItemReceiver items) {
+        try {
+            return createRpcResponse(message, metadata, receivedNanos, items);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(
+                    createStatusResponse(message.header.uuid, metadata, StatusCode.INTERNAL_SERVER_ERROR, "The call failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Handles an RPC call whose last argument the client streams after it. The action runs on a thread of its own,
+     * whatever the worker pool, as it waits for items that only the reader thread can deliver; a call beyond the
+     * connection's stream limit is answered with {@link StatusCode#SERVICE_UNAVAILABLE} without being dispatched.
+     * @param message The stream call message.
+     * @throws IOException if an I/O error occurs while granting the first window or refusing the call.
+     */
+    private void handleStreamCall(Message message) throws IOException {
+        var metadata = message.getMetadataAs(RpcCallMetadata.class);
+        UUID requestId = message.header.uuid;
+        RpcItemReceiver receiver;
+        synchronized (streams) {
+            if (streams.size() + receivers.size() >= streamOptions.getMaxStreamsPerConnection()) {
+                messageHandler.write(createStatusResponse(requestId, metadata, StatusCode.SERVICE_UNAVAILABLE, "Too many open streams on this connection."));
+                return;
+            }
+            receiver = new RpcItemReceiver(requestId, messageHandler, gson, streamOptions.getWindow());
+            receivers.put(requestId, receiver);
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                // Calls with streamed items bypass the dedup cache, so this future is already complete
+                Message response = createRpcResponseOrError(message, metadata, message.getReceivedNanos(), receiver).join();
+                if (response != null) {
+                    messageHandler.write(response);
+                }
+            } catch (IOException e) {
+                // The reader thread notices the broken connection and cleans up
+            } finally {
+                receivers.remove(requestId);
+            }
+        }, "JSocket-RpcStreamCall");
+        thread.setDaemon(true);
+        try {
+            receiver.start();
+        } catch (IOException e) {
+            receivers.remove(requestId);
+            throw e;
+        }
+        thread.start();
+    }
+
+    /**
+     * Hands a chunk of streamed items to the call it belongs to. Chunks of a call that has already been answered
+     * are dropped.
+     * @param message The stream chunk message.
+     */
+    private void handleStreamItem(Message message) {
+        RpcItemReceiver receiver = receivers.get(message.header.uuid);
+        if (receiver != null) {
+            receiver.offer(message);
+        }
+    }
+
+    /**
+     * Handles the end of the items a client streams to a call.
+     * @param message The stream end message.
+     */
+    private void handleStreamEnd(Message message) {
+        RpcItemReceiver receiver = receivers.get(message.header.uuid);
+        if (receiver != null) {
+            receiver.end();
+        }
+    }
+
+    /**
+     * Builds a response carrying only a status, for a call that is not dispatched or whose action failed.
+     * @param requestId The request id of the call.
+     * @param metadata  The call's metadata.
+     * @param status    The status.
+     * @param text      The status message.
+     * @return The response message.
+     */
+    private Message createStatusResponse(UUID requestId, RpcCallMetadata metadata, StatusCode status, String text) {
+        return new Message(MessageHeader.BuildRpcResponseHeader(requestId, false, 0, 0), new byte[0], new byte[0])
+                .setMetadataValue(new RpcResponseMetadata(status.code, text))
+                .setScope(MessageScope.rpc(metadata.getController(), metadata.getAction()));
+    }
+
+    /**
+     * Builds the response message of an RPC call. With the {@link RpcDedupCache} enabled, a call whose request id
+     * was seen recently, e.g. one the client sent again after reconnecting, gets the first call's response instead
+     * of running its action twice. Calls with a streamed result or streamed items are always run.
+     * @param message       The RPC call message.
+     * @param metadata      The call's metadata.
+     * @param receivedNanos When the frame carrying the call was read.
+     * @param items         The items the client streams to the call, or {@code null} for a plain call.
+     * @return A future of the response message, or of {@code null} if the action has no response. It is complete
+     *         unless the call is a duplicate of one that is still running, see {@link #answerDuplicate}.
+     * @throws RuntimeException if the call could not be dispatched or its action failed.
+     */
+    private CompletableFuture<Message> createRpcResponse(Message message, RpcCallMetadata metadata, long receivedNanos, RpcItemReceiver items) {
+        if (dedupCache == null || !dedupCache.getOptions().isEnabled() || items != null || metadata.getStreamWindow() > 0
+                || isPastDeadline(receivedNanos, metadata)) {
+            return CompletableFuture.completedFuture(dispatchRpcCall(message, metadata, receivedNanos, items));
+        }
+        UserIdentity user = serverSession.getActiveUser();
+        var key = new RpcDedupCache.Key(user != null ? user.getUserId() : null, message.header.uuid);
+        CompletableFuture<Message> first = dedupCache.begin(key);
+        if (first != null) {
+            return answerDuplicate(first, message.header.uuid, metadata, receivedNanos);
+        }
+        Message response;
+        try {
+            response = dispatchRpcCall(message, metadata, receivedNanos, null);
+        } catch (RuntimeException | Error e) {
+            dedupCache.fail(key, e);
+            throw e;
+        }
+        dedupCache.complete(key, response);
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * Answers a duplicate with the response of the first call with its request id, or with
+     * {@link StatusCode#INTERNAL_SERVER_ERROR} if that call failed. A duplicate with a timeout is answered with
+     * {@link StatusCode#REQUEST_TIMEOUT} if the first call is still running when its own deadline passes.
+     * @param first         The future of the first call's response, from {@link RpcDedupCache#begin}.
+     * @param requestId     The request id of the calls.
+     * @param metadata      The duplicate's metadata.
+     * @param receivedNanos When the frame carrying the duplicate was read.
+     * @return A future of the response message, or of {@code null} if the action has no response; it never
+     *         completes exceptionally.
+     */
+    private CompletableFuture<Message> answerDuplicate(CompletableFuture<Message> first, UUID requestId, RpcCallMetadata metadata, long receivedNanos) {
+        CompletableFuture<Message> answer = first.handle((response, failure) -> failure == null ? response
+                : createStatusResponse(requestId, metadata, StatusCode.INTERNAL_SERVER_ERROR, "The call failed."));
+        long timeoutMillis = metadata.getTimeoutMillis();
+        if (timeoutMillis > 0 && receivedNanos != 0) {
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - receivedNanos);
+            answer.completeOnTimeout(createStatusResponse(requestId, metadata, StatusCode.REQUEST_TIMEOUT,
+                    "The call's deadline passed before the first call with its request id finished."), remainingNanos, TimeUnit.NANOSECONDS);
+        }
+        return answer;
+    }
+
+    /**
+     * Dispatches an RPC call and builds its response message. A call whose timeout ran out while it waited to be
+     * processed is answered with {@link StatusCode#REQUEST_TIMEOUT} without being dispatched, as its caller has
+     * stopped waiting. A call to an {@link JSocket2.Protocol.Rpc.RpcCacheable} action is answered from the
+     * dispatcher's {@link RpcResultCache} when it holds a live response, and an OK response it had to run the
+     * action for is cached. An OK response to a call carrying a validator is tagged with its {@link RpcValidator},
+     * and replaced by {@link StatusCode#NOT_MODIFIED} without a payload when the caller already holds it.
+     * @param message       The RPC call message.
+     * @param metadata      The call's metadata.
+     * @param receivedNanos When the frame carrying the call was read.
+     * @param items         The items the client streams to the call, or {@code null} for a plain call.
+     * @return The response message, or {@code null} if the action has no response.
+     */
+    private Message dispatchRpcCall(Message message, RpcCallMetadata metadata, long receivedNanos, RpcItemReceiver items) {
+        int contentType = message.header.content_type;
+        IPayloadCodec payloadCodec = rpcDispatcher.getResponseCodec(metadata, contentType);
+        RpcResultCache.Key cacheKey = null;
+        RpcResponse<?> response;
+        if (isPastDeadline(receivedNanos, metadata)) {
+            response = new RpcResponse<>(StatusCode.REQUEST_TIMEOUT, "The call's deadline passed before it was dispatched.", null);
+        } else {
+            JsonArray arguments = rpcDispatcher.parseArguments(contentType, message.getPayload());
+            if (items == null) {
+                cacheKey = rpcDispatcher.cacheKey(metadata, contentType, arguments, serverSession.getActiveUser());
+            }
+            RpcResultCache.Entry cached = cacheKey == null ? null : rpcDispatcher.getResultCache().get(cacheKey);
+            if (cached != null) {
+                return encodeRpcResponse(message.header.uuid, metadata, StatusCode.OK, cached.message(), payloadCodec, cached.payload(),
+                        metadata.getValidator() != null ? cached.validator() : null);
+            }
+            response = rpcDispatcher.dispatch(metadata, arguments, serverSession.getServerSessionManager(), serverSession.getActiveUser(), items);
+        }
+        if (response == null) {
+            return null;
+        }
+        boolean streamed = RpcServerStream.isStreamable(response.getPayload());
+        if (streamed) {
+            cacheKey = null;
+            if (metadata.getStreamWindow() > 0 && response.getStatusCode() == StatusCode.OK) {
+                response = startStream(message.header.uuid, metadata, response.getPayload(), payloadCodec);
+                if (response == null) {
+                    return null;
+                }
+            } else {
+                response = new RpcResponse<>(response.getStatusCode(), response.getMessage(), RpcServerStream.collect(response.getPayload()));
+            }
+        }
+        byte[] responsePayloadBytes = payloadCodec.encode(gson, response.getPayload());
+        if (cacheKey != null && response.getStatusCode() == StatusCode.OK) {
+            rpcDispatcher.getResultCache().put(cacheKey, response.getMessage(), responsePayloadBytes);
+        }
+        String validator = metadata.getValidator() != null && !streamed && response.getStatusCode() == StatusCode.OK
+                ? RpcValidator.of(payloadCodec.getContentType(), responsePayloadBytes)
+                : null;
+        return encodeRpcResponse(message.header.uuid, metadata, response.getStatusCode(), response.getMessage(), payloadCodec, responsePayloadBytes, validator);
+    }
+
+    /**
+     * Builds a response message around an encoded payload, or a {@link StatusCode#NOT_MODIFIED} one without it if
+     * the payload's validator is the one the call carries.
+     * @param requestId The request id of the call.
+     * @param metadata  The call's metadata.
+     * @param status    The status of the response.
+     * @param text      The status message.
+     * @param codec     The codec the payload is encoded with.
+     * @param payload   The encoded payload.
+     * @param validator The validator of the payload, or {@code null} if the call did not ask for one.
+     * @return The response message.
+     */
+    private Message encodeRpcResponse(UUID requestId, RpcCallMetadata metadata, StatusCode status, String text, IPayloadCodec codec, byte[] payload, String validator) {
+        if (validator != null && validator.equals(metadata.getValidator())) {
+            status = StatusCode.NOT_MODIFIED;
+            payload = new byte[0];
+        }
+        var header = MessageHeader.BuildRpcResponseHeader(requestId, false, 0, payload.length);
+        header.content_type = codec.getContentType();
+        return new Message(
+                header,
+                new byte[0],
+                payload
+        ).setMetadataValue(new RpcResponseMetadata(status.code, text, validator))
+                .setScope(MessageScope.rpc(metadata.getController(), metadata.getAction()));
+    }
+
+    /**
+     * Starts streaming an action's result to a caller that consumes streams.
+     * @param requestId The request id of the call.
+     * @param metadata  The call's metadata, with the caller's initial window.
+     * @param result    The action's {@link java.util.Iterator} or {@link java.util.stream.Stream}.
+     * @param codec     The codec the chunks are encoded with.
+     * @return {@code null} once the stream has started, or a {@link StatusCode#SERVICE_UNAVAILABLE} response if
+     *         the connection already has as many open streams as allowed.
+     */
+    private RpcResponse<?> startStream(UUID requestId, RpcCallMetadata metadata, Object result, IPayloadCodec codec) {
+        RpcServerStream stream;
+        synchronized (streams) {
+            if (streams.size() + receivers.size() >= streamOptions.getMaxStreamsPerConnection()) {
+                RpcServerStream.discard(result);
+                return new RpcResponse<>(StatusCode.SERVICE_UNAVAILABLE, "Too many open streams on this connection.", null);
+            }
+            stream = new RpcServerStream(requestId, result, messageHandler, codec, gson,
+                    MessageScope.rpc(metadata.getController(), metadata.getAction()),
+                    streamOptions.getChunkSize(), metadata.getStreamWindow(), () -> streams.remove(requestId));
+            streams.put(requestId, stream);
+        }
+        stream.start();
+        return null;
+    }
+
+    /**
+     * Handles credit the client granted a stream for more chunks. Credit for a stream that has ended is ignored.
+     * @param message The credit message, whose payload is the number of chunks.
+     */
+    private void handleStreamCredit(Message message) {
+        RpcServerStream stream = streams.get(message.header.uuid);
+        if (stream != null) {
+            stream.grant(ByteBuffer.wrap(message.getPayload()).getInt());
         }
     }
 
+    /**
+     * Handles a client cancelling a stream it no longer reads, or a call whose items it stopped streaming.
+     * @param message The cancel message.
+     */
+    private void handleStreamCancel(Message message) {
+        RpcServerStream stream = streams.remove(message.header.uuid);
+        if (stream != null) {
+            stream.cancel();
+        }
+        RpcItemReceiver receiver = receivers.get(message.header.uuid);
+        if (receiver != null) {
+            receiver.abort(new CancellationException("The client cancelled the call."));
+        }
+    }
+
+    /**
+     * Cancels the streams still open on this connection, releasing the results they were sending and failing the
+     * items of calls still receiving them. Called when the connection is closed.
+     */
+    public void closeStreams() {
+        for (RpcServerStream stream : streams.values()) {
+            stream.cancel();
+        }
+        streams.clear();
+        for (RpcItemReceiver receiver : receivers.values()) {
+            receiver.abort(new CancellationException("The connection was closed."));
+        }
+    }
+
+    /**
+     * Checks whether a call's timeout has run out since its frame was read.
+     * @param receivedNanos When the frame carrying the call was read, {@code 0} if unknown.
+     * @param metadata      The call's metadata.
+     * @return {@code true} if the call carries a timeout and it has passed.
+     */
+    private static boolean isPastDeadline(long receivedNanos, RpcCallMetadata metadata) {
+        long timeoutMillis = metadata.getTimeoutMillis();
+        return timeoutMillis > 0 && receivedNanos != 0
+                && System.nanoTime() - receivedNanos >= TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
     /**
      * Handles a file upload request from the client.
      * @param message The upload request message.
@@ -0,0 +1,168 @@
+package JSocket2.Protocol;
+
+import JSocket2.Core.Session;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Cryptography.RekeyOptions;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rotates a connection's session key in-band with {@link MessageType#CHANGE_AES_KEY_REQUEST} messages,
+ * without a new RSA handshake and without pausing traffic.
+ * <p>
+ * Only the initiating side (the client) generates keys, so both peers never pick different keys for the
+ * same epoch. It sends the next epoch and its key, encrypted under the current key, and switches to the
+ * new epoch right after the message is written. The other side (the server) installs the key when the
+ * message arrives and switches as well; when its own limits are reached it sends an empty
+ * CHANGE_AES_KEY_REQUEST asking the client to rotate. Frames already in flight keep decrypting because
+ * each frame names its key epoch and recent epochs stay in the session's key ring.
+ */
+public class SessionKeyRotator {
+    private final MessageHandler messageHandler;
+    private final Session session;
+    private final RekeyOptions options;
+    private final boolean initiator;
+    private final AtomicBoolean rotating = new AtomicBoolean(false);
+    private volatile boolean active = false;
+    private volatile int requestedEpoch = -1;
+
+    /**
+     * Constructs a SessionKeyRotator.
+     *
+     * @param messageHandler The handler of the connection whose key is rotated.
+     * @param session        The session holding the key ring.
+     * @param options        The limits that trigger a rotation.
+     * @param initiator      {@code true} on the side that generates new keys (the client).
+     */
+    public SessionKeyRotator(MessageHandler messageHandler, Session session, RekeyOptions options, boolean initiator) {
+        this.messageHandler = messageHandler;
+        this.session = session;
+        this.options = options;
+        this.initiator = initiator;
+    }
+
+    /**
+     * Enables rotation once both sides share a session key, i.e. after the handshake.
+     */
+    public void activate() {
+        active = true;
+    }
+
+    /**
+     * Checks whether the handshake has completed and keys can be rotated.
+     * @return {@code true} if rotation is enabled.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Called after each encrypted message has been written. Rotates the key, or asks the peer to,
+     * when a configured limit has been reached.
+     *
+     * @throws IOException if the rotation message cannot be sent.
+     */
+    void onMessageSent() throws IOException {
+        if (!active || rotating.get() || !options.isDue(session)) {
+            return;
+        }
+        if (initiator) {
+            rotate();
+        } else {
+            requestRotation();
+        }
+    }
+
+    /**
+     * Generates the key of the next epoch, announces it to the peer and starts using it.
+     * The new key is added to the key ring before it is announced, so the peer's first reply under the
+     * new epoch can already be decrypted. Concurrent calls while a rotation is in progress are ignored.
+     *
+     * @throws IOException if the rotation message cannot be sent.
+     * @throws IllegalStateException if this side does not generate keys or the handshake has not completed.
+     */
+    public void rotate() throws IOException {
+        if (!initiator) {
+            throw new IllegalStateException("Only the initiating side generates session keys; use requestRotation()");
+        }
+        if (!active) {
+            throw new IllegalStateException("Session key cannot be rotated before the handshake has completed");
+        }
+        if (!rotating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int newEpoch = (session.getKeyEpoch() + 1) & 0xFF;
+            SecretKey newKey = EncryptionUtil.generateAESsecretKey();
+            byte[] encodedKey = newKey.getEncoded();
+            byte[] payload = new byte[1 + encodedKey.length];
+            payload[0] = (byte) newEpoch;
+            System.arraycopy(encodedKey, 0, payload, 1, encodedKey.length);
+
+            session.addKey(newEpoch, newKey);
+            Message message = new Message(MessageHeader.BuildChangeAesKeyHeader(UUID.randomUUID(), payload.length), new byte[0], payload);
+            messageHandler.write(message);
+            session.installKey(newEpoch, newKey);
+        } finally {
+            rotating.set(false);
+        }
+    }
+
+    /**
+     * Asks the peer to rotate the session key. At most one request is sent per key epoch.
+     *
+     * @throws IOException if the request cannot be sent.
+     */
+    public void requestRotation() throws IOException {
+        int epoch = session.getKeyEpoch();
+        if (!active || requestedEpoch == epoch) {
+            return;
+        }
+        requestedEpoch = epoch;
+        messageHandler.write(new Message(MessageHeader.BuildChangeAesKeyHeader(UUID.randomUUID(), 0)));
+    }
+
+    /**
+     * Handles an incoming CHANGE_AES_KEY_REQUEST. A message carrying a key installs it as the new
+     * current epoch; an empty message makes the initiating side rotate.
+     * <p>
+     * Only messages encrypted under a session key are accepted, so a peer that does not hold the key cannot
+     * choose the next one or force rotations. A key must arrive encrypted under the current epoch, from the
+     * initiating side; an empty request encrypted under an older epoch crossed a rotation that has already
+     * happened and is ignored.
+     *
+     * @param message The received rotation message, already decrypted.
+     * @throws IOException if the message was not encrypted, carries a key it may not carry, or is malformed,
+     *                     or if a rotation cannot be sent. The connection is dropped.
+     */
+    public void handle(Message message) throws IOException {
+        if (!message.header.is_encrypted) {
+            throw new IOException("Refusing a CHANGE_AES_KEY_REQUEST that was not encrypted under the session key");
+        }
+        boolean underCurrentKey = message.header.key_epoch == session.getKeyEpoch();
+        byte[] payload = message.getPayload();
+        if (payload.length == 0) {
+            if (initiator && active && underCurrentKey) {
+                rotate();
+            }
+            return;
+        }
+        if (initiator) {
+            throw new IOException("Refusing a session key from a peer that does not generate keys");
+        }
+        if (!underCurrentKey) {
+            throw new IOException("Refusing a session key encrypted under key epoch " + message.header.key_epoch
+                    + " while the current epoch is " + session.getKeyEpoch());
+        }
+        if (payload.length < 2) {
+            throw new IOException("Malformed CHANGE_AES_KEY_REQUEST payload");
+        }
+        int newEpoch = payload[0] & 0xFF;
+        SecretKey newKey = EncryptionUtil.decodeAesKey(Arrays.copyOfRange(payload, 1, payload.length));
+        session.installKey(newEpoch, newKey);
+    }
+}
@@ -14,6 +14,10 @@ public enum StatusCode {
     /** Indicates that the server has successfully fulfilled the request and there is no additional content to send in the response payload body. */
     NO_CONTENT(204),
 
+    // 3xx Redirection
+    /** Indicates that the response to a call is unchanged from the one the client holds, whose validator it sent; the payload is omitted. */
+    NOT_MODIFIED(304),
+
     // 4xx Client Error
     /** Indicates that the server cannot or will not process the request due to something that is perceived to be a client error (e.g., malformed request syntax, invalid request message framing, or deceptive request routing). */
     BAD_REQUEST(400),
@@ -23,6 +27,8 @@ public enum StatusCode {
     FORBIDDEN(403),
     /** Indicates that the server can't find the requested resource. */
     NOT_FOUND(404),
+    /** Indicates that the call's deadline passed before it was answered: the server skipped it or the client stopped waiting. */
+    REQUEST_TIMEOUT(408),
     /** Indicates a request conflict with the current state of the target resource. This code is used in situations where the user might be able to resolve the conflict and resubmit the request. */
     CONFLICT(409),
     /** Indicates that the client has provided conditions in its request headers that the server could not meet. */
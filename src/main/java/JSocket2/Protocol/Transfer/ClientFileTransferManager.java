@@ -3,6 +3,7 @@ package JSocket2.Protocol.Transfer;
 import JSocket2.Protocol.Message;
 import JSocket2.Protocol.MessageHandler;
 import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageScope;
 import JSocket2.Protocol.Rpc.RpcResponseMetadata;
 import JSocket2.Protocol.Transfer.Download.DownloadChunkRequestMetadata;
 import JSocket2.Protocol.Transfer.Download.DownloadFileInfoModel;
@@ -11,12 +12,12 @@ import JSocket2.Protocol.Transfer.Upload.UploadRequestMetadata;
 import JSocket2.Protocol.Transfer.Upload.UploadResumeRequestMetadata;
 import JSocket2.Protocol.Transfer.Upload.UploadResumeResultModel;
 import JSocket2.Utils.FileUtil;
+import JSocket2.Protocol.Codec.JsonPayload;
 import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.UUID;
@@ -99,7 +100,7 @@ public class ClientFileTransferManager extends FileTransferManager{
      */
     private UploadResumeResultModel sendTransferResumeRequest(UUID requestId, String fileId) throws IOException {
         UploadResumeRequestMetadata metadata = new UploadResumeRequestMetadata(fileId);
-        byte[] metadataBytes = gson.toJson(metadata).getBytes(StandardCharsets.UTF_8);
+        byte[] metadataBytes = JsonPayload.toBytes(gson, metadata);
         Message request = new Message(
                 MessageHeader.BuildResumeUploadRequestAckHeader(requestId, true, metadataBytes.length, 0),
                 metadataBytes,
@@ -117,10 +118,7 @@ public class ClientFileTransferManager extends FileTransferManager{
             pendingRequests.remove(requestId);
         }
 
-        return gson.fromJson(
-                new String(response.getPayload(), StandardCharsets.UTF_8),
-                UploadResumeResultModel.class
-        );
+        return JsonPayload.fromBytes(gson, response.getPayload(), UploadResumeResultModel.class);
     }
 
     /**
@@ -135,7 +133,7 @@ public class ClientFileTransferManager extends FileTransferManager{
      */
     private FileInfoModel sendUploadInitRequest(UUID requestId, String fileName,String fileExtension, long fileSize) throws IOException {
         UploadRequestMetadata metadata = new UploadRequestMetadata("1234", fileName,fileExtension, fileSize);
-        byte[] metadataBytes = gson.toJson(metadata).getBytes(StandardCharsets.UTF_8);
+        byte[] metadataBytes = JsonPayload.toBytes(gson, metadata);
 
         Message request = new Message(
                 MessageHeader.BuildUploadRequestHeader(requestId, true, metadataBytes.length, 0),
@@ -154,10 +152,7 @@ public class ClientFileTransferManager extends FileTransferManager{
             pendingRequests.remove(requestId);
         }
 
-        return gson.fromJson(
-                new String(response.getPayload(), StandardCharsets.UTF_8),
-                FileInfoModel.class
-        );
+        return JsonPayload.fromBytes(gson, response.getPayload(), FileInfoModel.class);
     }
 
     /**
@@ -248,12 +243,11 @@ public class ClientFileTransferManager extends FileTransferManager{
      */
     public void sendDownloadChunkRequest(String fileId,int chunkIndex,long offset) throws IOException {
         DownloadChunkRequestMetadata metadata = new DownloadChunkRequestMetadata(fileId,chunkIndex,offset);
-        byte[] metadataBytes = gson.toJson(metadata).getBytes(StandardCharsets.UTF_8);
         Message request = new Message(
-                MessageHeader.BuildStartDownloadRequestHeader(UUID.randomUUID(), true, metadataBytes.length, 0),
-                metadataBytes,
+                MessageHeader.BuildStartDownloadRequestHeader(UUID.randomUUID(), true, 0, 0),
+                new byte[0],
                 new byte[0]
-        );
+        ).setMetadataValue(metadata).setScope(MessageScope.transfer(fileId));
         handler.write(request);
     }
 
@@ -267,10 +261,7 @@ public class ClientFileTransferManager extends FileTransferManager{
     @Override
     public void ProcessSendChunk(Message message) throws IOException {
         super.ProcessSendChunk(message);
-        var metadata = gson.fromJson(
-                new String(message.getMetadata(), StandardCharsets.UTF_8),
-                SendChunkMetadata.class
-        );
+        var metadata = message.getMetadataAs(SendChunkMetadata.class);
         IProgressListener progressListener = progressListeners.get(metadata.fileId);
         if (progressListener != null) {
             progressListener.onProgress(metadata.chunkIndex+1,metadata.totalChunks);
@@ -291,7 +282,7 @@ public class ClientFileTransferManager extends FileTransferManager{
     public DownloadFileInfoModel getDownloadFileInfoFromServer(String fileId) throws IOException {
         UUID requestId = UUID.randomUUID();
         DownloadRequestMetadata metadata = new DownloadRequestMetadata(fileId);
-        byte[] metadataBytes = gson.toJson(metadata).getBytes(StandardCharsets.UTF_8);
+        byte[] metadataBytes = JsonPayload.toBytes(gson, metadata);
 
         Message request = new Message(
                 MessageHeader.BuildDownloadRequestHeader(requestId, true, metadataBytes.length, 0),
@@ -310,9 +301,6 @@ public class ClientFileTransferManager extends FileTransferManager{
             pendingRequests.remove(requestId);
         }
 
-        return gson.fromJson(
-                new String(response.getPayload(), StandardCharsets.UTF_8),
-                DownloadFileInfoModel.class
-        );
+        return JsonPayload.fromBytes(gson, response.getPayload(), DownloadFileInfoModel.class);
     }
 }
\ No newline at end of file
@@ -1,19 +1,25 @@
 package JSocket2.Protocol.Transfer;
 
+import JSocket2.Cryptography.IvSequence;
 import JSocket2.Protocol.StatusCode;
 import JSocket2.Protocol.Message;
 import JSocket2.Protocol.MessageHandler;
 import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageScope;
 import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.SealedMessage;
 import com.google.gson.Gson;
 
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BooleanSupplier;
 
 /**
@@ -30,6 +36,8 @@ public abstract class FileTransferManager {
     protected final Map<String, IProgressListener> progressListeners = new ConcurrentHashMap<>();
     protected final Map<String, BooleanSupplier> continueSuppliers = new ConcurrentHashMap<>();
     protected final Map<String, TransferFiles> activeTransfers = new ConcurrentHashMap<>();
+    protected volatile TransferOptions transferOptions = new TransferOptions();
+    private ExecutorService encryptionPool;
 
     /**
      * Registers listeners for a specific file transfer.
@@ -70,6 +78,41 @@ public abstract class FileTransferManager {
         this.pendingRequests = pendingRequests;
     }
 
+    /**
+     * Sets the options that control how files are sent.
+     *
+     * @param transferOptions The {@link TransferOptions} to apply to subsequent transfers.
+     */
+    public void setTransferOptions(TransferOptions transferOptions) {
+        this.transferOptions = transferOptions;
+    }
+
+    /**
+     * Gets the options that control how files are sent.
+     * @return The current {@link TransferOptions}.
+     */
+    public TransferOptions getTransferOptions() {
+        return transferOptions;
+    }
+
+    /**
+     * Gets the worker pool that encrypts chunks for pipelined sends, creating it on first use.
+     * Its daemon threads are shared by all transfers of this manager.
+     *
+     * @return The encryption {@link ExecutorService}.
+     */
+    private synchronized ExecutorService getEncryptionPool() {
+        if (encryptionPool == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            encryptionPool = Executors.newFixedThreadPool(transferOptions.getEncryptionThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "JSocket-ChunkEncryptor-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return encryptionPool;
+    }
+
     /**
      * Gets the map of currently active transfers.
      * @return A map of file IDs to {@link TransferFiles} objects.
@@ -214,10 +257,7 @@ public abstract class FileTransferManager {
      * @throws IOException If an I/O error occurs.
      */
     public void ProcessSendChunk(Message message) throws IOException {
-        var metadata = gson.fromJson(
-                new String(message.getMetadata(), StandardCharsets.UTF_8),
-                SendChunkMetadata.class
-        );
+        var metadata = message.getMetadataAs(SendChunkMetadata.class);
         receiveChunk(message.header.uuid,metadata,message.getPayload());
     }
 
@@ -248,15 +288,12 @@ public abstract class FileTransferManager {
             finishTransfer(metadata.fileId);
         }
         if(sendAck) {
-            var responseMetadata = gson.toJson(new RpcResponseMetadata(StatusCode.OK.code, ""));
             var responsePayload = ByteBuffer.allocate(4).putInt(metadata.chunkIndex).array();
             var ackMessage = new Message(
-                    MessageHeader.BuildUploadAckHeader(
-                            requestId, responseMetadata.getBytes(StandardCharsets.UTF_8).length
-                    ),
-                    responseMetadata.getBytes(StandardCharsets.UTF_8),
+                    MessageHeader.BuildUploadAckHeader(requestId, 0),
+                    new byte[0],
                     responsePayload
-            );
+            ).setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, ""));
             handler.write(ackMessage);
         }
     }
@@ -289,19 +326,7 @@ public abstract class FileTransferManager {
      * @throws IOException If a communication error occurs.
      */
     protected void sendChunk(UUID requestId, byte[] chunkData, String fileId, int chunkIndex, int totalChunks, long offset,boolean hasAck) throws IOException {
-        SendChunkMetadata chunkMetadata = new SendChunkMetadata();
-        chunkMetadata.fileId = fileId;
-        chunkMetadata.chunkIndex = chunkIndex;
-        chunkMetadata.totalChunks = totalChunks;
-        chunkMetadata.offset = offset;
-
-        byte[] metaBytes = gson.toJson(chunkMetadata).getBytes(StandardCharsets.UTF_8);
-
-        Message chunkMsg = new Message(
-                MessageHeader.BuildSendChunkHeader(requestId, true, metaBytes.length, chunkData.length),
-                metaBytes,
-                chunkData
-        );
+        Message chunkMsg = createChunkMessage(requestId, chunkData, fileId, chunkIndex, totalChunks, offset);
 
         if(hasAck){
             CompletableFuture<Message> chunkFuture = new CompletableFuture<>();
@@ -318,7 +343,33 @@ public abstract class FileTransferManager {
     }
 
     /**
-     * Reads a file from an input stream and sends it in chunks.
+     * Builds the message carrying one chunk of a file.
+     *
+     * @param requestId   The UUID of the message.
+     * @param chunkData   The data to send.
+     * @param fileId      The file ID.
+     * @param chunkIndex  The index of this chunk.
+     * @param totalChunks The total number of chunks.
+     * @param offset      The byte offset of this chunk.
+     * @return The chunk {@link Message}.
+     */
+    protected Message createChunkMessage(UUID requestId, byte[] chunkData, String fileId, int chunkIndex, int totalChunks, long offset) {
+        SendChunkMetadata chunkMetadata = new SendChunkMetadata();
+        chunkMetadata.fileId = fileId;
+        chunkMetadata.chunkIndex = chunkIndex;
+        chunkMetadata.totalChunks = totalChunks;
+        chunkMetadata.offset = offset;
+
+        return new Message(
+                MessageHeader.BuildSendChunkHeader(requestId, true, 0, chunkData.length),
+                new byte[0],
+                chunkData
+        ).setMetadataValue(chunkMetadata).setScope(MessageScope.transfer(fileId));
+    }
+
+    /**
+     * Reads a file from an input stream and sends it in chunks. Depending on the {@link TransferOptions},
+     * chunks are either sent through the parallel pipeline or one at a time, each waiting for its acknowledgment.
      *
      * @param requestId   The UUID for the transfer.
      * @param inStream    The input stream of the file.
@@ -335,7 +386,26 @@ public abstract class FileTransferManager {
                 throw new IOException("Unable to skip to resume offset: " + startOffset);
             }
         }
+        if (transferOptions.isPipelined()) {
+            sendChunksPipelined(inStream, fileId, fileSize, chunkSize, startIndex, startOffset);
+        } else {
+            sendChunksSerially(requestId, inStream, fileId, fileSize, chunkSize, startIndex, startOffset);
+        }
+    }
 
+    /**
+     * Sends chunks one at a time, waiting for each acknowledgment before reading the next chunk.
+     *
+     * @param requestId   The UUID for the transfer.
+     * @param inStream    The input stream of the file, positioned at the start offset.
+     * @param fileId      The file's unique ID.
+     * @param fileSize    The total size of the file.
+     * @param chunkSize   The size of each chunk.
+     * @param startIndex  The starting chunk index for resuming.
+     * @param startOffset The starting byte offset for resuming.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void sendChunksSerially(UUID requestId, InputStream inStream, String fileId, long fileSize, int chunkSize, int startIndex, long startOffset) throws IOException {
         byte[] buffer = new byte[chunkSize];
         int bytesRead;
         int index = startIndex;
@@ -344,20 +414,146 @@ public abstract class FileTransferManager {
         int totalChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
 
         while ((bytesRead = inStream.read(buffer)) != -1) {
-            BooleanSupplier continueSuppliersOrDefault = continueSuppliers.getOrDefault(fileId, () -> true);
-            if (!continueSuppliersOrDefault.getAsBoolean()) {
-                throw new IOException("Transfer cancelled for " + fileId);
-            }
+            checkContinue(fileId);
             byte[] chunkData = new byte[bytesRead];
             System.arraycopy(buffer, 0, chunkData, 0, bytesRead);
             sendChunk(requestId, chunkData, fileId, index, totalChunks, offset);
             uploaded += bytesRead;
             offset += bytesRead;
             index++;
-            IProgressListener progressListener = progressListeners.get(fileId);
-            if (progressListener != null) {
-                progressListener.onProgress(uploaded, fileSize);
+            reportProgress(fileId, uploaded, fileSize);
+        }
+    }
+
+    /**
+     * Sends chunks through a three-stage pipeline. The calling thread reads chunks ahead from disk,
+     * the encryption pool seals them with IVs derived from the chunk index, and a dedicated writer thread
+     * writes them to the socket in order. Every chunk carries its own request UUID, so acknowledgments
+     * are correlated per chunk and up to {@link TransferOptions#getMaxInFlightChunks()} chunks can be
+     * unacknowledged at once. Returns once every chunk has been acknowledged.
+     *
+     * @param inStream    The input stream of the file, positioned at the start offset.
+     * @param fileId      The file's unique ID.
+     * @param fileSize    The total size of the file.
+     * @param chunkSize   The size of each chunk.
+     * @param startIndex  The starting chunk index for resuming.
+     * @param startOffset The starting byte offset for resuming.
+     * @throws IOException If reading, encrypting or writing a chunk fails, or the transfer is cancelled.
+     */
+    private void sendChunksPipelined(InputStream inStream, String fileId, long fileSize, int chunkSize, int startIndex, long startOffset) throws IOException {
+        int totalChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+        int window = transferOptions.getMaxInFlightChunks();
+        Semaphore inFlight = new Semaphore(window);
+        BlockingQueue<CompletableFuture<SealedMessage>> sealed = new ArrayBlockingQueue<>(transferOptions.getReadAheadChunks());
+        CompletableFuture<SealedMessage> endOfFile = CompletableFuture.completedFuture(null);
+        Set<UUID> unacknowledged = ConcurrentHashMap.newKeySet();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong uploaded = new AtomicLong(startOffset);
+        IvSequence ivSequence = new IvSequence(handler.getEncryptionPolicy().getCipherSuite());
+        ExecutorService encryptors = getEncryptionPool();
+
+        Thread writer = new Thread(() -> {
+            try {
+                CompletableFuture<SealedMessage> next;
+                while ((next = sealed.take()) != endOfFile) {
+                    if (failure.get() == null) {
+                        try {
+                            handler.writeSealed(next.join());
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+            }
+        }, "JSocket-ChunkWriter-" + fileId);
+        writer.setDaemon(true);
+        writer.start();
+
+        try {
+            int index = startIndex;
+            long offset = startOffset;
+            while (offset < fileSize && failure.get() == null) {
+                checkContinue(fileId);
+                while (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                    if (failure.get() != null) break;
+                }
+                if (failure.get() != null) break;
+                byte[] chunkData = inStream.readNBytes((int) Math.min(chunkSize, fileSize - offset));
+                if (chunkData.length == 0) {
+                    inFlight.release();
+                    break;
+                }
+                UUID chunkId = UUID.randomUUID();
+                Message chunkMsg = createChunkMessage(chunkId, chunkData, fileId, index, totalChunks, offset);
+                CompletableFuture<Message> ack = new CompletableFuture<>();
+                unacknowledged.add(chunkId);
+                pendingRequests.put(chunkId, ack);
+                ack.thenAccept(response -> {
+                    unacknowledged.remove(chunkId);
+                    inFlight.release();
+                    reportProgress(fileId, uploaded.addAndGet(chunkData.length), fileSize);
+                });
+                long counter = index;
+                sealed.put(CompletableFuture.supplyAsync(() -> handler.seal(chunkMsg, ivSequence, counter), encryptors));
+                index++;
+                offset += chunkData.length;
             }
+            sealed.put(endOfFile);
+            writer.join();
+            while (failure.get() == null && !inFlight.tryAcquire(window, 100, TimeUnit.MILLISECONDS)) {
+                checkContinue(fileId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+            writer.interrupt();
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+            writer.interrupt();
+        } finally {
+            for (UUID chunkId : unacknowledged) {
+                pendingRequests.remove(chunkId);
+            }
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (cause instanceof InterruptedException) {
+            throw new InterruptedIOException("Transfer interrupted for " + fileId);
+        }
+        if (cause != null) {
+            throw new IOException("Failed to send file " + fileId, cause);
+        }
+    }
+
+    /**
+     * Throws if the continue supplier registered for a transfer asks to pause or cancel it.
+     *
+     * @param fileId The file's unique ID.
+     * @throws IOException If the transfer should not continue.
+     */
+    private void checkContinue(String fileId) throws IOException {
+        BooleanSupplier continueSuppliersOrDefault = continueSuppliers.getOrDefault(fileId, () -> true);
+        if (!continueSuppliersOrDefault.getAsBoolean()) {
+            throw new IOException("Transfer cancelled for " + fileId);
+        }
+    }
+
+    /**
+     * Notifies the progress listener registered for a transfer, if any.
+     *
+     * @param fileId   The file's unique ID.
+     * @param uploaded The number of bytes acknowledged so far.
+     * @param fileSize The total size of the file.
+     */
+    private void reportProgress(String fileId, long uploaded, long fileSize) {
+        IProgressListener progressListener = progressListeners.get(fileId);
+        if (progressListener != null) {
+            progressListener.onProgress(uploaded, fileSize);
         }
     }
 
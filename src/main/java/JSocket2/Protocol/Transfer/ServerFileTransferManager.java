@@ -12,10 +12,10 @@ import JSocket2.Protocol.Transfer.Upload.UploadRequestMetadata;
 import JSocket2.Protocol.Transfer.Upload.UploadResumeRequestMetadata;
 import JSocket2.Protocol.Transfer.Upload.UploadResumeResultModel;
 import JSocket2.Utils.FileUtil;
+import JSocket2.Protocol.Codec.JsonPayload;
 import com.google.gson.Gson;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.UUID;
@@ -47,17 +47,16 @@ public class ServerFileTransferManager extends FileTransferManager {
      * @throws IOException If an I/O error occurs.
      */
     public void ProcessUploadRequest(Message message) throws IOException {
-        var metadata = gson.fromJson(new String(message.getMetadata(), StandardCharsets.UTF_8), UploadRequestMetadata.class);
+        var metadata = JsonPayload.fromBytes(gson, message.getMetadata(), UploadRequestMetadata.class);
 
-        var responseMetadata = gson.toJson(new RpcResponseMetadata(StatusCode.OK.code, ""));
         var fileId = UUID.randomUUID().toString();
         FileInfoModel fileInfoModel = new FileInfoModel(fileId);
-        var responsePayload = gson.toJson(fileInfoModel);
+        var responsePayload = JsonPayload.toBytes(gson, fileInfoModel);
         var msg = new Message(
-                MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, responseMetadata.length(), responsePayload.length()),
-                responseMetadata.getBytes(StandardCharsets.UTF_8),
-                responsePayload.getBytes(StandardCharsets.UTF_8)
-        );
+                MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, 0, responsePayload.length),
+                new byte[0],
+                responsePayload
+        ).setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, ""));
         int totalChunksCount = (int) Math.ceil((double) metadata.getFileLength() / fileInfoModel.ChunkSize);
         createTransfer(fileId,metadata.getFileName(),metadata.getFileExtension(),SAVE_PATH,totalChunksCount,metadata.getFileLength());
         handler.write(msg);
@@ -89,16 +88,15 @@ public class ServerFileTransferManager extends FileTransferManager {
      * @throws IOException If an I/O error occurs.
      */
     public void ProcessDownloadRequest(Message message) throws IOException {
-        var metadata = gson.fromJson(new String(message.getMetadata(), StandardCharsets.UTF_8), DownloadRequestMetadata.class);
+        var metadata = JsonPayload.fromBytes(gson, message.getMetadata(), DownloadRequestMetadata.class);
         File file = LoadFile(metadata.getFileId());
-        var responseMetadata = gson.toJson(new RpcResponseMetadata(StatusCode.OK.code, ""));
         DownloadFileInfoModel info = new DownloadFileInfoModel(metadata.getFileId(), FileUtil.getFileNameWithoutExtension(file),FileUtil.getFileExtension(file),file.length());
-        var responsePayload = gson.toJson(info);
+        var responsePayload = JsonPayload.toBytes(gson, info);
         var msg = new Message(
-                MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, responseMetadata.length(), responsePayload.length()),
-                responseMetadata.getBytes(StandardCharsets.UTF_8),
-                responsePayload.getBytes(StandardCharsets.UTF_8)
-        );
+                MessageHeader.BuildRpcResponseHeader(message.header.uuid, false, 0, responsePayload.length),
+                new byte[0],
+                responsePayload
+        ).setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, ""));
         handler.write(msg);
     }
 
@@ -109,7 +107,7 @@ public class ServerFileTransferManager extends FileTransferManager {
      * @throws IOException If an I/O error occurs while reading or sending the chunk.
      */
     public void ProcessDownloadChunkRequest(Message message) throws IOException {
-        var metadata = gson.fromJson(new String(message.getMetadata(), StandardCharsets.UTF_8), DownloadChunkRequestMetadata.class);
+        var metadata = message.getMetadataAs(DownloadChunkRequestMetadata.class);
         File file = LoadFile(metadata.getFileId());
         try (InputStream input = new FileInputStream(file)) {
             sendSpecificChunk(message.header.uuid, input, metadata.getFileId(), file.length(), 65536, metadata.getStartChunkIndex());
@@ -127,16 +125,13 @@ public class ServerFileTransferManager extends FileTransferManager {
         String fileId = metadata.FileId;
         var transferFiles = LoadTransfer(fileId);
         UploadResumeResultModel result = new UploadResumeResultModel(fileId, transferFiles.getinfo().getLastChunkIndex() +1, transferFiles.getinfo().getLastWrittenOffset(),65536,transferFiles.getinfo().getFileSize());
-        var responseMetadata = gson.toJson(new RpcResponseMetadata(StatusCode.OK.code, ""));
-        var responsePayload = gson.toJson(result);
+        var responsePayload = JsonPayload.toBytes(gson, result);
 
         var resultMessage = new Message(
-                MessageHeader.BuildRpcResponseHeader(
-                        requestId,true,responseMetadata.getBytes(StandardCharsets.UTF_8).length, responsePayload.getBytes(StandardCharsets.UTF_8).length
-                ),
-                responseMetadata.getBytes(StandardCharsets.UTF_8),
-                responsePayload.getBytes(StandardCharsets.UTF_8)
-        );
+                MessageHeader.BuildRpcResponseHeader(requestId, true, 0, responsePayload.length),
+                new byte[0],
+                responsePayload
+        ).setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, ""));
         handler.write(resultMessage);
     }
 }
\ No newline at end of file
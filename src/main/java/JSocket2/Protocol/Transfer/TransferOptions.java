@@ -0,0 +1,82 @@
+package JSocket2.Protocol.Transfer;
+
+/**
+ * Holds configuration options for sending files. By default chunks are sent through a staged
+ * pipeline: the file is read ahead on the sending thread, chunks are encrypted on a worker pool,
+ * and a single writer puts them on the socket in order while up to {@link #getMaxInFlightChunks()}
+ * chunks await acknowledgment.
+ */
+public class TransferOptions {
+    private boolean pipelined = true;
+    private int encryptionThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private int readAheadChunks = 8;
+    private int maxInFlightChunks = 32;
+
+    /**
+     * Checks whether chunks are sent through the parallel pipeline.
+     * @return {@code true} for the pipeline, {@code false} for one chunk at a time with an acknowledgment each.
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Enables or disables the parallel pipeline.
+     * @param pipelined {@code false} to send one chunk at a time and wait for each acknowledgment.
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Gets the number of worker threads that encrypt chunks.
+     * @return The encryption thread count.
+     */
+    public int getEncryptionThreads() {
+        return encryptionThreads;
+    }
+
+    /**
+     * Sets the number of worker threads that encrypt chunks. Takes effect for transfer managers created afterwards.
+     * @param encryptionThreads The encryption thread count, at least 1.
+     */
+    public void setEncryptionThreads(int encryptionThreads) {
+        if (encryptionThreads < 1) throw new IllegalArgumentException("encryptionThreads must be at least 1");
+        this.encryptionThreads = encryptionThreads;
+    }
+
+    /**
+     * Gets the number of chunks that may be read and encrypted ahead of the socket writer.
+     * @return The read-ahead depth in chunks.
+     */
+    public int getReadAheadChunks() {
+        return readAheadChunks;
+    }
+
+    /**
+     * Sets the number of chunks that may be read and encrypted ahead of the socket writer.
+     * @param readAheadChunks The read-ahead depth in chunks, at least 1.
+     */
+    public void setReadAheadChunks(int readAheadChunks) {
+        if (readAheadChunks < 1) throw new IllegalArgumentException("readAheadChunks must be at least 1");
+        this.readAheadChunks = readAheadChunks;
+    }
+
+    /**
+     * Gets the maximum number of chunks sent but not yet acknowledged by the receiver.
+     * @return The in-flight window in chunks.
+     */
+    public int getMaxInFlightChunks() {
+        return maxInFlightChunks;
+    }
+
+    /**
+     * Sets the maximum number of chunks sent but not yet acknowledged by the receiver. Together with the
+     * chunk size this bounds the memory a transfer uses and should cover the link's bandwidth-delay product.
+     * @param maxInFlightChunks The in-flight window in chunks, at least 1.
+     */
+    public void setMaxInFlightChunks(int maxInFlightChunks) {
+        if (maxInFlightChunks < 1) throw new IllegalArgumentException("maxInFlightChunks must be at least 1");
+        this.maxInFlightChunks = maxInFlightChunks;
+    }
+}
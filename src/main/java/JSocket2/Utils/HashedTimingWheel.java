@@ -0,0 +1,259 @@
+package JSocket2.Utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel: a timer for very many short-lived timeouts that are usually cancelled before they fire,
+ * such as the deadlines of pending RPC calls. Scheduling and cancelling are constant-time and lock-free; a single
+ * worker thread advances the wheel once per tick and runs the tasks that expired, so a timeout fires up to one
+ * tick late.
+ * <p>
+ * Timeouts are hashed into {@code ticksPerWheel} buckets by their deadline; one further around the wheel than a
+ * full turn waits in its bucket for the remaining rounds. Tasks run on the worker thread and must be short.
+ */
+public final class HashedTimingWheel implements AutoCloseable {
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private volatile boolean closed;
+    private long tick;
+
+    /**
+     * Creates a timing wheel and starts its worker thread, a daemon.
+     *
+     * @param threadName    The name of the worker thread.
+     * @param tickDuration  The duration of one tick, the timer's resolution.
+     * @param unit          The unit of {@code tickDuration}.
+     * @param ticksPerWheel The number of buckets, rounded up to a power of two.
+     * @throws IllegalArgumentException if the tick duration or the number of buckets is not positive.
+     */
+    public HashedTimingWheel(String threadName, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (tickDuration <= 0 || ticksPerWheel <= 0 || ticksPerWheel > 1 << 20) {
+            throw new IllegalArgumentException("Tick duration must be positive and ticks per wheel in 1.." + (1 << 20));
+        }
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheel = new Bucket[Math.max(size, 1)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules a task to run once the delay has passed, unless the returned timeout is cancelled first.
+     *
+     * @param task  The task, run on the worker thread.
+     * @param delay The delay.
+     * @param unit  The unit of {@code delay}.
+     * @return The handle for cancelling the timeout.
+     * @throws IllegalStateException if the wheel has been closed.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("The timing wheel has been closed.");
+        }
+        long delayNanos = Math.min(unit.toNanos(Math.max(delay, 0)), Long.MAX_VALUE / 4);
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startNanos + delayNanos);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Gets the number of timeouts that have neither fired nor been cancelled.
+     *
+     * @return The number of pending timeouts.
+     */
+    public int pendingTimeouts() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the worker thread. Pending timeouts never fire.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            removeCancelled();
+            transferAdded();
+            wheel[(int) (tick & mask)].expire(tickDeadline);
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferAdded() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.INIT) {
+                continue;
+            }
+            long ticks = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * A scheduled task; cancel it once it is no longer needed so the wheel can drop it early.
+     */
+    public static final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimingWheel timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = INIT;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(HashedTimingWheel timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout so its task never runs.
+         *
+         * @return {@code true} if it was cancelled, {@code false} if it had already fired or been cancelled.
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, INIT, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * Checks whether the timeout was cancelled.
+         *
+         * @return {@code true} if {@link #cancel()} succeeded.
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Checks whether the timeout has fired.
+         *
+         * @return {@code true} if the task has run or is running.
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, INIT, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A doubly linked list of the timeouts hashed to one tick, owned by the worker thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long tickDeadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
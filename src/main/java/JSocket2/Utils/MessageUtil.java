@@ -1,5 +1,6 @@
 package JSocket2.Utils;
 
+import JSocket2.Cryptography.CipherSuite;
 import JSocket2.Cryptography.EncryptionUtil;
 import JSocket2.Protocol.Message;
 
@@ -48,4 +49,39 @@ public class MessageUtil {
             message.setPayload(decrypted_payload);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Decrypts the metadata and payload of a message with the given cipher suite.
+     * It uses the Initialization Vector (IV) or nonce stored within the message itself.
+     *
+     * @param message     The message to decrypt. Its metadata and payload will be replaced with their decrypted versions.
+     * @param cipherSuite The cipher suite the message was encrypted with.
+     * @param key         The key for the cipher suite, see {@link JSocket2.Core.Session#getCipherKey(CipherSuite)}.
+     */
+    public static void DecryptMessage(Message message, CipherSuite cipherSuite, SecretKey key){
+        byte[] IvBytes = message.getIvBytes();
+        if (message.header.metadata_length > 0) {
+            message.setMetadata(cipherSuite.decrypt(message.getMetadata(), key, IvBytes, 0));
+        }
+        if (message.header.payload_length > 0) {
+            message.setPayload(cipherSuite.decrypt(message.getPayload(), key, IvBytes, 1));
+        }
+    }
+
+    /**
+     * Encrypts one part of a message without modifying the message. Empty parts stay empty.
+     *
+     * @param data        The metadata or payload to encrypt.
+     * @param cipherSuite The cipher suite to apply.
+     * @param key         The key for the cipher suite.
+     * @param ivBytes     The IV or nonce of the message.
+     * @param part        0 for the metadata, 1 for the payload.
+     * @return The encrypted bytes.
+     */
+    public static byte[] encryptPart(byte[] data, CipherSuite cipherSuite, SecretKey key, byte[] ivBytes, int part){
+        if (data.length == 0) {
+            return data;
+        }
+        return cipherSuite.encrypt(data, key, ivBytes, part);
+    }
+}
@@ -0,0 +1,75 @@
+package JSocket2.Utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs tasks one at a time, in submission order, on a shared executor. Many serial executors can share one pool:
+ * each occupies at most one of its threads and gives it back after a batch of tasks, so a busy lane cannot starve
+ * the others.
+ * <p>
+ * If the shared executor rejects the work, the submitting thread runs the batch itself, slowing producers down
+ * instead of dropping tasks.
+ */
+public final class SerialExecutor implements Executor {
+    private static final int BATCH_SIZE = 64;
+
+    private final Executor executor;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Creates a serial executor.
+     *
+     * @param executor The shared executor the tasks run on.
+     */
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queues a task to run after every task submitted before it has finished.
+     *
+     * @param task The task. An exception it throws is printed and does not affect later tasks.
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!tasks.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
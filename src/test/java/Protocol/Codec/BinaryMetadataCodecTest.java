@@ -0,0 +1,142 @@
+package Protocol.Codec;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.*;
+import JSocket2.Protocol.Codec.BinaryMetadataCodec;
+import JSocket2.Protocol.Codec.CodecOptions;
+import JSocket2.Protocol.Codec.JsonCodec;
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Transfer.Download.DownloadChunkRequestMetadata;
+import JSocket2.Protocol.Transfer.SendChunkMetadata;
+import JSocket2.Protocol.Transfer.Upload.UploadResumeRequestMetadata;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BinaryMetadataCodec} and the codec negotiation in {@link CodecOptions}.
+ */
+public class BinaryMetadataCodecTest {
+    private final BinaryMetadataCodec codec = new BinaryMetadataCodec();
+
+    /**
+     * Tests that every built-in metadata type survives an encode/decode round trip, including
+     * null strings, large offsets and optional call timeouts, stream windows and validators, and is smaller than
+     * its JSON form.
+     */
+    @Test
+    void encodeThenDecode_ShouldRoundTripBuiltInTypes() {
+        var call = roundTrip(new RpcCallMetadata("Chat", "Send"), RpcCallMetadata.class);
+        assertEquals("Chat", call.getController());
+        assertEquals("Send", call.getAction());
+        assertEquals(0, call.getTimeoutMillis());
+        var timedCall = new RpcCallMetadata("Chat", "Send");
+        timedCall.setTimeoutMillis(90_000);
+        assertEquals(90_000, roundTrip(timedCall, RpcCallMetadata.class).getTimeoutMillis());
+        assertFalse(JsonCodec.INSTANCE.decode(JsonCodec.INSTANCE.encode(call), JsonObject.class).has("timeoutMillis"));
+        var streamCall = new RpcCallMetadata("Chat", "History");
+        streamCall.setStreamWindow(8);
+        var decodedStreamCall = roundTrip(streamCall, RpcCallMetadata.class);
+        assertEquals(0, decodedStreamCall.getTimeoutMillis());
+        assertEquals(8, decodedStreamCall.getStreamWindow());
+        assertEquals(0, call.getStreamWindow());
+        assertNull(call.getValidator());
+        var revalidatingCall = new RpcCallMetadata("Chat", "History");
+        revalidatingCall.setValidator("");
+        assertEquals("", roundTrip(revalidatingCall, RpcCallMetadata.class).getValidator());
+        revalidatingCall.setValidator("q1w2e3");
+        assertEquals("q1w2e3", roundTrip(revalidatingCall, RpcCallMetadata.class).getValidator());
+
+        var response = roundTrip(new RpcResponseMetadata(StatusCode.NOT_FOUND.code, null), RpcResponseMetadata.class);
+        assertEquals(StatusCode.NOT_FOUND.code, response.getStatusCode());
+        assertNull(response.getMessage());
+        assertNull(response.getValidator());
+        var tagged = roundTrip(new RpcResponseMetadata(StatusCode.NOT_MODIFIED.code, "", "q1w2e3"), RpcResponseMetadata.class);
+        assertEquals(StatusCode.NOT_MODIFIED.code, tagged.getStatusCode());
+        assertEquals("q1w2e3", tagged.getValidator());
+
+        var chunk = new SendChunkMetadata();
+        chunk.fileId = UUID.randomUUID().toString();
+        chunk.chunkIndex = 40000;
+        chunk.totalChunks = 40001;
+        chunk.offset = 40000L * 65536;
+        var decodedChunk = roundTrip(chunk, SendChunkMetadata.class);
+        assertEquals(chunk.fileId, decodedChunk.fileId);
+        assertEquals(chunk.chunkIndex, decodedChunk.chunkIndex);
+        assertEquals(chunk.totalChunks, decodedChunk.totalChunks);
+        assertEquals(chunk.offset, decodedChunk.offset);
+
+        assertEquals("\u0633\u0644\u0627\u0645", roundTrip(new EventMetadata("\u0633\u0644\u0627\u0645"), EventMetadata.class).getEventName());
+
+        var download = roundTrip(new DownloadChunkRequestMetadata("file", 7, 7L * 65536), DownloadChunkRequestMetadata.class);
+        assertEquals("file", download.getFileId());
+        assertEquals(7, download.getStartChunkIndex());
+        assertEquals(7L * 65536, download.getStartOffset());
+    }
+
+    /**
+     * Tests that types without a binary format fall back to JSON, which either codec can decode.
+     */
+    @Test
+    void encode_ShouldFallBackToJsonForUnregisteredTypes() {
+        byte[] encoded = codec.encode(new UploadResumeRequestMetadata("file"));
+
+        assertEquals('{', encoded[0]);
+        assertEquals("file", codec.decode(encoded, UploadResumeRequestMetadata.class).FileId);
+        assertEquals("file", JsonCodec.INSTANCE.decode(encoded, UploadResumeRequestMetadata.class).FileId);
+    }
+
+    /**
+     * Tests that the client picks its most preferred codec the server offered, and JSON when the
+     * server made no offer or offered nothing the client supports.
+     */
+    @Test
+    void negotiate_ShouldPickFirstSupportedCodec() {
+        var client = new CodecOptions();
+
+        assertEquals(BinaryMetadataCodec.NAME, client.negotiate(new CodecOptions().getOffer()).getName());
+        assertEquals(JsonCodec.NAME, client.negotiate("").getName());
+        assertEquals(JsonCodec.NAME, client.negotiate("cbor,json").getName());
+        assertEquals(JsonCodec.NAME, new CodecOptions().setCodecs(JsonCodec.INSTANCE).negotiate("binary,json").getName());
+    }
+
+    /**
+     * Tests that one message with a metadata object can be written to connections that negotiated
+     * different codecs, and each receiver decodes it with its own codec.
+     */
+    @Test
+    void write_ShouldEncodeMetadataValuePerConnection() throws IOException {
+        var key = EncryptionUtil.generateAESsecretKey();
+        byte[] payload = "[1]".getBytes();
+        Message event = new Message(MessageHeader.BuildEventHeader(UUID.randomUUID(), 0, payload.length), new byte[0], payload)
+                .setMetadataValue(new EventMetadata("OnSum"));
+
+        for (var connectionCodec : new CodecOptions().getCodecs()) {
+            var out = new ByteArrayOutputStream();
+            var writer = new MessageHandler(null, out, new ClientSession(null, key));
+            writer.setMetadataCodec(connectionCodec);
+            writer.write(event);
+
+            var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, key));
+            reader.setMetadataCodec(connectionCodec);
+            Message received = reader.read();
+            assertEquals("OnSum", received.getMetadataAs(EventMetadata.class).getEventName());
+            assertSame(connectionCodec, received.getMetadataCodec());
+        }
+    }
+
+    private <T> T roundTrip(T value, Class<T> type) {
+        byte[] encoded = codec.encode(value);
+        assertTrue(encoded.length < JsonCodec.INSTANCE.encode(value).length);
+        return codec.decode(encoded, type);
+    }
+}
@@ -0,0 +1,132 @@
+package Protocol.Codec;
+
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Protocol.Codec.CborPayloadCodec;
+import JSocket2.Protocol.Codec.PayloadCodecs;
+import JSocket2.Protocol.MessageHeader;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CborPayloadCodec} and the payload content type carried in the frame header.
+ */
+public class CborPayloadCodecTest {
+    private final CborPayloadCodec codec = CborPayloadCodec.INSTANCE;
+    private final Gson gson = new Gson();
+
+    /**
+     * Tests that values encoded as CBOR parse to the same JSON tree Gson produces for them, decode back into
+     * equal objects, and take fewer bytes than JSON for numeric data.
+     */
+    @Test
+    void encodeThenDecode_ShouldMatchJson() {
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            quotes.add(new Quote(i % 2 == 0 ? "ACME" : null, 1_700_000_000_000L + i * 1000L, 100 + i * 0.25, 101.3 + i / 7.0, -i));
+        }
+        List<Object> values = List.of(
+                quotes,
+                new Object[]{42, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0.1, 1.5f, true, "caf\u00e9 \ud83d\ude80"},
+                Map.of("nested", List.of(Map.of("a", 1), List.of()), "empty", ""),
+                new Object[]{new BigDecimal("12345678901234567890.123456789"), new BigInteger("-123456789012345678901234567890")});
+        for (Object value : values) {
+            JsonElement expected = JsonParser.parseString(gson.toJson(value));
+            assertEquals(expected, codec.parse(codec.encode(gson, value)), value.toString());
+        }
+
+        Type quoteList = new TypeToken<List<Quote>>() {}.getType();
+        byte[] cbor = codec.encode(gson, quotes);
+        List<Quote> decoded = codec.decode(gson, cbor, quoteList);
+        assertEquals(quotes.size(), decoded.size());
+        assertEquals(quotes.get(7).bid, decoded.get(7).bid);
+        assertEquals(quotes.get(8).timestamp, decoded.get(8).timestamp);
+        assertNull(decoded.get(1).symbol);
+        assertTrue(cbor.length < gson.toJson(quotes).length());
+
+        Gson serializeNulls = new GsonBuilder().serializeNulls().create();
+        assertEquals(JsonParser.parseString(serializeNulls.toJson(quotes.get(1))),
+                codec.parse(codec.encode(serializeNulls, quotes.get(1))));
+        assertNull(codec.decode(gson, codec.encode(gson, null), Quote.class));
+    }
+
+    /**
+     * Tests parsing of encodings this codec never writes, taken from RFC 8949 Appendix A, and rejection of
+     * malformed input.
+     */
+    @Test
+    void parse_ShouldAcceptRfcExamplesAndRejectMalformedInput() {
+        assertEquals(JsonParser.parseString("1.5"), codec.parse(hex("f93e00")));
+        assertEquals(JsonParser.parseString("-1000"), codec.parse(hex("3903e7")));
+        assertEquals(JsonParser.parseString("[1,[2,3],[4,5]]"), codec.parse(hex("9f018202039f0405ffff")));
+        assertEquals(JsonParser.parseString("{\"a\":1,\"b\":[2,3]}"), codec.parse(hex("a26161016162820203")));
+        assertEquals(JsonParser.parseString("\"streaming\""), codec.parse(hex("7f657374726561646d696e67ff")));
+        assertEquals(JsonParser.parseString("18446744073709551615"), codec.parse(hex("1bffffffffffffffff")));
+        assertEquals(JsonParser.parseString("-18446744073709551617"), codec.parse(hex("c349010000000000000000")));
+        assertEquals(JsonParser.parseString("273.15"), codec.parse(hex("c48221196ab3")));
+
+        assertThrows(JsonParseException.class, () -> codec.parse(hex("83010203ff")));
+        assertThrows(JsonParseException.class, () -> codec.parse(hex("7a7fffffff61")));
+        assertThrows(JsonParseException.class, () -> codec.parse(hex("9f0102")));
+        assertThrows(JsonParseException.class, () -> codec.parse(hex("4401020304")));
+    }
+
+    /**
+     * Tests that the content type survives the frame header alongside the other flags, and that it
+     * resolves to the codec in the registry.
+     */
+    @Test
+    void contentType_ShouldRoundTripThroughHeaderFlags() {
+        MessageHeader header = MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), true, 0, 10);
+        header.content_type = CborPayloadCodec.CONTENT_TYPE;
+        ByteBuffer buffer = ByteBuffer.allocate(MessageHeader.SIZE);
+        header.encode(buffer, CipherSuite.NONE, 0, true, 0, 10);
+        buffer.flip();
+
+        MessageHeader decoded = MessageHeader.decode(buffer);
+        assertEquals(CborPayloadCodec.CONTENT_TYPE, decoded.content_type);
+        assertTrue(decoded.is_compressed);
+        assertSame(codec, PayloadCodecs.get(decoded.content_type));
+        assertSame(codec, PayloadCodecs.find("cbor"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadCodecs.get(3));
+    }
+
+    private static byte[] hex(String hex) {
+        return HexFormat.of().parseHex(hex);
+    }
+
+    /**
+     * A numeric-heavy DTO.
+     */
+    public static class Quote {
+        public String symbol;
+        public long timestamp;
+        public double bid;
+        public double ask;
+        public int volume;
+
+        public Quote(String symbol, long timestamp, double bid, double ask, int volume) {
+            this.symbol = symbol;
+            this.timestamp = timestamp;
+            this.bid = bid;
+            this.ask = ask;
+            this.volume = volume;
+        }
+    }
+}
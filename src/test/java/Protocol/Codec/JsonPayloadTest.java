@@ -0,0 +1,60 @@
+package Protocol.Codec;
+
+import JSocket2.Protocol.Codec.JsonPayload;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JsonPayload}, checking it produces and accepts exactly the bytes of the
+ * {@code String}-based Gson calls it replaces.
+ */
+public class JsonPayloadTest {
+    private final Gson gson = new Gson();
+
+    /**
+     * Tests that ASCII, multi-byte and supplementary characters, including a large payload that
+     * outgrows the pooled buffer, encode to the same bytes as {@code toJson().getBytes(UTF_8)} and decode back.
+     */
+    @Test
+    void toBytesThenFromBytes_ShouldMatchStringEncoding() {
+        String text = "plain, caf\u00e9, \u0645\u0631\u062d\u0628\u0627, \u20ac, \ud83d\ude80 \"quoted\"\n";
+        List<Object> values = List.of(
+                new Object[]{text, 42, 1.5, true},
+                Map.of("key", text),
+                text.repeat(5000));
+        for (Object value : values) {
+            byte[] expected = gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+            byte[] actual = JsonPayload.toBytes(gson, value);
+            assertArrayEquals(expected, actual);
+        }
+        List<String> decoded = JsonPayload.fromBytes(gson, JsonPayload.toBytes(gson, List.of(text, text)),
+                new TypeToken<List<String>>() {}.getType());
+        assertEquals(List.of(text, text), decoded);
+        assertArrayEquals("null".getBytes(StandardCharsets.US_ASCII), JsonPayload.toBytes(gson, null));
+    }
+
+    /**
+     * Tests that malformed UTF-8 and unpaired surrogates are replaced the same way the JDK's
+     * {@code String} conversions replace them, and that empty payloads parse to nothing.
+     */
+    @Test
+    void malformedInput_ShouldBeReplacedLikeStringConversion() {
+        byte[] malformed = {'[', '"', 'a', (byte) 0xC3, '"', ',', '"', (byte) 0xE2, (byte) 0x82, '"', ',', '"', (byte) 0xFF, 'b', '"', ']'};
+        String[] expected = gson.fromJson(new String(malformed, StandardCharsets.UTF_8), String[].class);
+        assertArrayEquals(expected, JsonPayload.fromBytes(gson, malformed, String[].class));
+
+        String loneSurrogate = "x\ud800y\udc00";
+        assertArrayEquals(gson.toJson(loneSurrogate).getBytes(StandardCharsets.UTF_8), JsonPayload.toBytes(gson, loneSurrogate));
+
+        assertNull(JsonPayload.fromBytes(gson, new byte[0], String[].class));
+        assertTrue(JsonPayload.parse(new byte[0]).isJsonNull());
+        assertTrue(JsonPayload.parse(null).isJsonNull());
+    }
+}
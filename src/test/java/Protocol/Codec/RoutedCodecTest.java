@@ -0,0 +1,83 @@
+package Protocol.Codec;
+
+import JSocket2.Protocol.Codec.BinaryMetadataCodec;
+import JSocket2.Protocol.Codec.JsonCodec;
+import JSocket2.Protocol.Codec.RouteTable;
+import JSocket2.Protocol.Codec.RoutedCodec;
+import JSocket2.Protocol.EventHub.EventMetadata;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RouteTable} and {@link RoutedCodec}.
+ */
+public class RoutedCodecTest {
+    private final RouteTable routes = new RouteTable(
+            List.of(new RpcCallMetadata("Orders", "add"), new RpcCallMetadata("Orders", "line-count")),
+            List.of("OrderPlaced"));
+
+    /**
+     * Tests that routes in the table travel as a two-byte id, followed by the timeout of a call with a deadline
+     * and the window of a streaming call, matched case-insensitively and decoded to the declared names, while
+     * unknown routes and other metadata fall back to the wrapped codec.
+     */
+    @Test
+    void encodeThenDecode_ShouldUseRouteIdsWithNameFallback() {
+        for (var wrapped : List.of(new BinaryMetadataCodec(), JsonCodec.INSTANCE)) {
+            var codec = new RoutedCodec(wrapped, routes);
+
+            byte[] call = codec.encode(new RpcCallMetadata("orders", "Line-Count"));
+            assertEquals(2, call.length);
+            var decodedCall = codec.decode(call, RpcCallMetadata.class);
+            assertEquals("Orders", decodedCall.getController());
+            assertEquals("line-count", decodedCall.getAction());
+            var timedCall = new RpcCallMetadata("Orders", "add");
+            timedCall.setTimeoutMillis(250);
+            byte[] timed = codec.encode(timedCall);
+            assertEquals(4, timed.length);
+            assertEquals(250, codec.decode(timed, RpcCallMetadata.class).getTimeoutMillis());
+            var streamCall = new RpcCallMetadata("Orders", "add");
+            streamCall.setStreamWindow(8);
+            byte[] streamed = codec.encode(streamCall);
+            assertEquals(4, streamed.length);
+            assertEquals(0, codec.decode(streamed, RpcCallMetadata.class).getTimeoutMillis());
+            assertEquals(8, codec.decode(streamed, RpcCallMetadata.class).getStreamWindow());
+
+            byte[] event = codec.encode(new EventMetadata("orderplaced"));
+            assertEquals(2, event.length);
+            assertEquals("OrderPlaced", codec.decode(event, EventMetadata.class).getEventName());
+
+            byte[] unknown = codec.encode(new RpcCallMetadata("Orders", "remove"));
+            assertArrayEquals(wrapped.encode(new RpcCallMetadata("Orders", "remove")), unknown);
+            assertEquals("remove", codec.decode(unknown, RpcCallMetadata.class).getAction());
+            assertEquals(404, codec.decode(codec.encode(new RpcResponseMetadata(404, "x")), RpcResponseMetadata.class).getStatusCode());
+        }
+    }
+
+    /**
+     * Tests that a table survives the handshake offer format, including names with separators and non-ASCII
+     * characters, and that ids of the wrong kind are rejected.
+     */
+    @Test
+    void toOfferThenParse_ShouldKeepIdsAndNames() {
+        var table = new RouteTable(List.of(new RpcCallMetadata("a/b,c", "d;e"), new RpcCallMetadata("Chat", "send")),
+                List.of("!\u0633\u0644\u0627\u0645", "joined"));
+        String offer = table.toOffer();
+        assertTrue(offer.chars().allMatch(c -> c < 0x80 && c != ';'));
+
+        var parsed = RouteTable.parse(offer);
+        assertEquals(4, parsed.size());
+        assertEquals(table.findRpc("a/b,c", "d;e"), parsed.findRpc("a/b,c", "d;e"));
+        assertEquals("d;e", parsed.getRpc(1).getAction());
+        assertEquals("!\u0633\u0644\u0627\u0645", parsed.getEvent(3).getEventName());
+        assertEquals(4, parsed.findEvent("Joined"));
+        assertThrows(IllegalArgumentException.class, () -> parsed.getEvent(2));
+        assertThrows(IllegalArgumentException.class, () -> parsed.getRpc(5));
+        assertTrue(RouteTable.parse("").isEmpty());
+    }
+}
@@ -0,0 +1,70 @@
+package Protocol.Compression;
+
+import JSocket2.Protocol.Compression.CompressionDictionary;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Compression.DeflateCompressor;
+import JSocket2.Protocol.Compression.DictionaryTrainer;
+import JSocket2.Protocol.Compression.ICompressor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link DictionaryTrainer} and dictionary negotiation in {@link CompressionOptions}.
+ */
+public class DictionaryTrainerTest {
+
+    /**
+     * Tests that a dictionary trained on small JSON frames round-trips unseen frames and makes them
+     * smaller than plain Deflate does.
+     */
+    @Test
+    void train_ShouldBeatPlainDeflateOnSmallFrames() throws IOException {
+        CompressionDictionary dictionary = DictionaryTrainer.train(frames(0, 200), DictionaryTrainer.DEFAULT_SIZE);
+        List<byte[]> unseen = frames(1000, 50);
+
+        ICompressor compressor = new DeflateCompressor(dictionary);
+        for (byte[] frame : unseen) {
+            assertTrue(frame.length < 1024);
+            assertArrayEquals(frame, compressor.decompress(compressor.compress(frame), frame.length));
+        }
+        DictionaryTrainer.Report report = DictionaryTrainer.evaluate(unseen, dictionary);
+        assertTrue(report.dictionaryBytes() < report.deflateBytes(), report.toString());
+    }
+
+    /**
+     * Tests that peers holding the same dictionary agree on it, and that peers holding different ones
+     * fall back to plain Deflate.
+     */
+    @Test
+    void negotiate_ShouldFallBackToDeflateWhenDictionariesDiffer() {
+        CompressionDictionary trained = DictionaryTrainer.train(frames(0, 50), 4096);
+        CompressionDictionary other = new CompressionDictionary("{\"unrelated\":".getBytes(StandardCharsets.UTF_8));
+
+        CompressionOptions server = new CompressionOptions().addDictionary(trained);
+        CompressionOptions sameClient = new CompressionOptions().addDictionary(trained);
+        CompressionOptions otherClient = new CompressionOptions().addDictionary(other);
+
+        assertEquals(DeflateCompressor.DICTIONARY_NAME_PREFIX + trained.getId(),
+                sameClient.negotiate(server.getOffer()).getName());
+        assertEquals("deflate", otherClient.negotiate(server.getOffer()).getName());
+    }
+
+    private static List<byte[]> frames(int seed, int count) {
+        String[] statuses = {"PENDING", "SHIPPED", "DELIVERED"};
+        List<byte[]> frames = new ArrayList<>();
+        for (int i = seed; i < seed + count; i++) {
+            String json = "{\"orderId\":" + (i * 7919) + ",\"customerName\":\"customer-" + i + "\",\"status\":\""
+                    + statuses[i % statuses.length] + "\",\"items\":[{\"productId\":" + (i % 13)
+                    + ",\"quantity\":" + (i % 5 + 1) + ",\"unitPrice\":" + (i % 97) + ".5,\"currency\":\"EUR\"}],"
+                    + "\"express\":" + (i % 2 == 0) + ",\"createdAt\":\"2024-05-" + (10 + i % 18) + "T12:00:00Z\"}";
+            frames.add(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return frames;
+    }
+}
@@ -2,11 +2,14 @@ package Protocol.EventHub;
 
 import JSocket2.DI.ServiceCollection;
 import JSocket2.DI.ServiceProvider;
+import JSocket2.Protocol.Codec.JsonPayload;
 import JSocket2.Protocol.EventHub.*;
 import com.google.gson.Gson;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -28,7 +31,9 @@ public class ClientSideEventsTest {
     void setup() {
         var services = new ServiceCollection();
         services.AddSingleton(SimpleEventSubscriber.class);
+        services.AddSingleton(OrderedEventSubscriber.class);
         eventSubscriberCollection.subscribe(SimpleEventSubscriber.class);
+        eventSubscriberCollection.subscribe(OrderedEventSubscriber.class);
         serviceProvider = services.CreateServiceProvider();
         eventBroker = eventSubscriberCollection.CreateEventBroker(serviceProvider);
     }
@@ -41,7 +46,7 @@ public class ClientSideEventsTest {
     void publishEventWithModel_ShouldCorrectlyHandleSumOperation() {
         var metadata = new EventMetadata("withModelSumEvent");
         var model = new Object[]{new SimpleSumEventModel(5, 6)};
-        eventBroker.publish(metadata, gson.toJson(model));
+        eventBroker.publish(metadata, JsonPayload.toBytes(gson, model));
 
         var subscriber = serviceProvider.GetService(SimpleEventSubscriber.class);
         assertEquals(11, subscriber.onWithModelSumEventResult);
@@ -55,7 +60,7 @@ public class ClientSideEventsTest {
     void publishEventWithoutModel_ShouldCorrectlySumParameters() {
         var metadata = new EventMetadata("withoutModelSumEvent");
         var model = new Object[]{5, 6};
-        eventBroker.publish(metadata, gson.toJson(model));
+        eventBroker.publish(metadata, JsonPayload.toBytes(gson, model));
 
         var subscriber = serviceProvider.GetService(SimpleEventSubscriber.class);
         assertEquals(11, subscriber.onWithoutModelSumEventResult);
@@ -69,7 +74,7 @@ public class ClientSideEventsTest {
     void publishMultipleOperationsEvent_ShouldReturnAllResults() {
         var metadata = new EventMetadata("multipleEvent");
         var model = new Object[]{10, 5};
-        eventBroker.publish(metadata, gson.toJson(model));
+        eventBroker.publish(metadata, JsonPayload.toBytes(gson, model));
 
         var subscriber = serviceProvider.GetService(SimpleEventSubscriber.class);
         assertArrayEquals(new int[]{15, 5, 50, 2}, subscriber.multipleEventResult);
@@ -83,7 +88,7 @@ public class ClientSideEventsTest {
     void publishEvent_ShouldIgnoreEventNameCase() {
         var metadata = new EventMetadata("iGnoReEveNtNameCaSe");
         var model = new Object[]{2};
-        eventBroker.publish(metadata, gson.toJson(model));
+        eventBroker.publish(metadata, JsonPayload.toBytes(gson, model));
 
         var subscriber = serviceProvider.GetService(SimpleEventSubscriber.class);
         assertEquals(2, subscriber.IgnoreEventNameCaseResult);
@@ -98,6 +103,17 @@ public class ClientSideEventsTest {
         var metadata = new EventMetadata("ignoreWrongSubscriberEvent");
         var model = new Object[]{2, 3};
 
-        assertDoesNotThrow(() -> eventBroker.publish(metadata, gson.toJson(model)));
+        assertDoesNotThrow(() -> eventBroker.publish(metadata, JsonPayload.toBytes(gson, model)));
+    }
+
+    /**
+     * Tests that every handler of an event runs exactly once, highest priority first.
+     */
+    @Test
+    void publishEvent_ShouldInvokeEachHandlerOnceInPriorityOrder() {
+        eventBroker.publish(new EventMetadata("orderedEvent"), JsonPayload.toBytes(gson, new Object[]{"x"}));
+
+        var subscriber = serviceProvider.GetService(OrderedEventSubscriber.class);
+        assertEquals(List.of("high:x", "normal:x", "low:x"), subscriber.calls);
     }
-}
\ No newline at end of file
+}
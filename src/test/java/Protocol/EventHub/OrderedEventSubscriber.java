@@ -0,0 +1,34 @@
+package Protocol.EventHub;
+
+import JSocket2.Protocol.EventHub.EventSubscriberBase;
+import JSocket2.Protocol.EventHub.OnEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A subscriber with several prioritized handlers for the same event, recording the order in which they run.
+ */
+public class OrderedEventSubscriber extends EventSubscriberBase {
+
+    /** The handler calls in invocation order. */
+    public final List<String> calls = new ArrayList<>();
+
+    /** Handles "orderedEvent" with the default priority. */
+    @OnEvent("orderedEvent")
+    public void normal(String value) {
+        calls.add("normal:" + value);
+    }
+
+    /** Handles "orderedEvent" after the other handlers. */
+    @OnEvent(value = "orderedEvent", priority = -1)
+    public void low(String value) {
+        calls.add("low:" + value);
+    }
+
+    /** Handles "orderedEvent" before the other handlers. */
+    @OnEvent(value = "orderedEvent", priority = 1)
+    public void high(String value) {
+        calls.add("high:" + value);
+    }
+}
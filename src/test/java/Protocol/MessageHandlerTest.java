@@ -0,0 +1,251 @@
+package Protocol;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Cryptography.IvSequence;
+import JSocket2.Cryptography.RekeyOptions;
+import JSocket2.Protocol.*;
+import JSocket2.Protocol.Compression.CompressionOptions;
+import JSocket2.Protocol.Compression.DeflateCompressor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MessageHandler}, verifying that messages survive a write/read round trip
+ * under every {@link CipherSuite} and that the {@link EncryptionPolicy} decides what is encrypted.
+ */
+public class MessageHandlerTest {
+    private SecretKey sharedKey;
+    private ClientSession senderSession;
+    private ClientSession receiverSession;
+
+    /**
+     * Creates two sessions sharing one AES key, as after a completed handshake.
+     */
+    @BeforeEach
+    void setup() {
+        sharedKey = EncryptionUtil.generateAESsecretKey();
+        senderSession = new ClientSession(null, sharedKey);
+        receiverSession = new ClientSession(null, sharedKey);
+    }
+
+    /**
+     * Tests that metadata and payload are restored after a round trip with each cipher suite,
+     * and that the header announces the cipher suite that was used.
+     */
+    @Test
+    void writeThenRead_ShouldRoundTripWithEveryCipherSuite() throws IOException {
+        for (CipherSuite cipherSuite : CipherSuite.values()) {
+            var policy = new EncryptionPolicy().setCipherSuite(cipherSuite);
+            Message received = roundTrip(policy, rpcCall("chat", "send", true));
+
+            assertEquals(cipherSuite, received.header.cipher_suite);
+            assertEquals(cipherSuite != CipherSuite.NONE, received.header.is_encrypted);
+            assertEquals("{\"controller\":\"chat\"}", new String(received.getMetadata(), StandardCharsets.UTF_8));
+            assertEquals("[\"hello\"]", new String(received.getPayload(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Tests that writing does not modify the message, so the same instance can be published to
+     * several connections without being encrypted twice.
+     */
+    @Test
+    void write_ShouldNotMutateMessage() throws IOException {
+        Message message = rpcCall("chat", "send", true);
+        var policy = new EncryptionPolicy();
+
+        roundTrip(policy, message);
+        Message second = roundTrip(policy, message);
+
+        assertEquals("[\"hello\"]", new String(message.getPayload(), StandardCharsets.UTF_8));
+        assertEquals("[\"hello\"]", new String(second.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that action rules take precedence over controller rules, which take precedence over
+     * message type rules, which in turn override the flag the header was built with.
+     */
+    @Test
+    void encryptionPolicy_ShouldResolveMostSpecificRule() {
+        var policy = new EncryptionPolicy()
+                .encryptType(MessageType.RPC_CALL, false)
+                .encryptController("Chat", true)
+                .encryptAction("chat", "Typing", false);
+
+        assertEquals(CipherSuite.NONE, policy.resolve(rpcCall("other", "any", true)));
+        assertEquals(CipherSuite.AES_CBC, policy.resolve(rpcCall("chat", "send", false)));
+        assertEquals(CipherSuite.NONE, policy.resolve(rpcCall("CHAT", "typing", true)));
+        assertEquals(CipherSuite.AES_CBC, policy.resolve(new Message(MessageHeader.BuildEventHeader(UUID.randomUUID(), 0, 0))));
+    }
+
+    /**
+     * Tests that a transfer rule applies only to the messages of that transfer.
+     */
+    @Test
+    void encryptionPolicy_ShouldApplyTransferRules() {
+        var policy = new EncryptionPolicy().encryptTransfer("public-file", false);
+        Message publicChunk = new Message(MessageHeader.BuildSendChunkHeader(UUID.randomUUID(), true, 0, 0))
+                .setScope(MessageScope.transfer("public-file"));
+        Message privateChunk = new Message(MessageHeader.BuildSendChunkHeader(UUID.randomUUID(), true, 0, 0))
+                .setScope(MessageScope.transfer("private-file"));
+
+        assertEquals(CipherSuite.NONE, policy.resolve(publicChunk));
+        assertEquals(CipherSuite.AES_CBC, policy.resolve(privateChunk));
+    }
+
+    /**
+     * Tests that a ChaCha20-Poly1305 message whose ciphertext was altered in transit is rejected.
+     */
+    @Test
+    void read_ShouldRejectTamperedChaCha20Message() throws IOException {
+        var out = new ByteArrayOutputStream();
+        new MessageHandler(null, out, senderSession, new EncryptionPolicy().setCipherSuite(CipherSuite.CHACHA20_POLY1305))
+                .write(rpcCall("chat", "send", true));
+        byte[] frame = out.toByteArray();
+        frame[frame.length - 1] ^= 1;
+
+        var reader = new MessageHandler(new ByteArrayInputStream(frame), null, receiverSession);
+        assertThrows(RuntimeException.class, reader::read);
+    }
+
+    /**
+     * Tests that an in-band rekey switches both sides to the new key epoch while a frame encrypted
+     * under the previous epoch, still in flight during the rotation, decrypts afterwards.
+     */
+    @Test
+    void rekey_ShouldSwitchEpochAndKeepDecryptingInFlightFrames() throws IOException {
+        var inFlight = new ByteArrayOutputStream();
+        new MessageHandler(null, inFlight, senderSession).write(rpcCall("chat", "send", true));
+
+        var out = new ByteArrayOutputStream();
+        var sender = new MessageHandler(null, out, senderSession);
+        var senderRotator = new SessionKeyRotator(sender, senderSession, new RekeyOptions(), true);
+        sender.setKeyRotator(senderRotator);
+        senderRotator.activate();
+        senderRotator.rotate();
+        sender.write(rpcCall("chat", "send", true));
+
+        var receiver = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, receiverSession);
+        var receiverRotator = new SessionKeyRotator(receiver, receiverSession, new RekeyOptions(), false);
+        receiver.setKeyRotator(receiverRotator);
+        Message rekey = receiver.read();
+        assertEquals(MessageType.CHANGE_AES_KEY_REQUEST, rekey.header.type);
+        receiverRotator.handle(rekey);
+
+        assertEquals(1, senderSession.getKeyEpoch());
+        assertEquals(1, receiverSession.getKeyEpoch());
+        assertNotEquals(sharedKey, receiverSession.getAESKey());
+        Message afterRekey = receiver.read();
+        assertEquals(1, afterRekey.header.key_epoch);
+        assertEquals("[\"hello\"]", new String(afterRekey.getPayload(), StandardCharsets.UTF_8));
+
+        Message delayed = new MessageHandler(new ByteArrayInputStream(inFlight.toByteArray()), null, receiverSession).read();
+        assertEquals(0, delayed.header.key_epoch);
+        assertEquals("[\"hello\"]", new String(delayed.getPayload(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that the sending side rotates automatically once the configured message limit is reached.
+     */
+    @Test
+    void rekey_ShouldTriggerOnMessageLimit() throws IOException {
+        var options = new RekeyOptions();
+        options.setMaxMessages(3);
+        var sender = new MessageHandler(null, new ByteArrayOutputStream(), senderSession);
+        var rotator = new SessionKeyRotator(sender, senderSession, options, true);
+        sender.setKeyRotator(rotator);
+        rotator.activate();
+
+        for (int i = 0; i < 3; i++) {
+            sender.write(rpcCall("chat", "send", true));
+        }
+
+        assertEquals(1, senderSession.getKeyEpoch());
+    }
+
+    /**
+     * Tests that messages sealed out of order on other threads with counter-derived IVs decrypt once
+     * written, and that distinct counters never produce the same IV.
+     */
+    @Test
+    void sealWithIvSequence_ShouldRoundTripWithUniqueIvs() throws Exception {
+        for (CipherSuite cipherSuite : new CipherSuite[] { CipherSuite.AES_CBC, CipherSuite.CHACHA20_POLY1305 }) {
+            var out = new ByteArrayOutputStream();
+            var sender = new MessageHandler(null, out, senderSession, new EncryptionPolicy().setCipherSuite(cipherSuite));
+            var ivSequence = new IvSequence(cipherSuite);
+            var pool = Executors.newFixedThreadPool(2);
+            try {
+                var second = pool.submit(() -> sender.seal(rpcCall("chat", "send", true), ivSequence, 1));
+                var first = pool.submit(() -> sender.seal(rpcCall("chat", "send", true), ivSequence, 0));
+                sender.writeSealed(first.get());
+                sender.writeSealed(second.get());
+            } finally {
+                pool.shutdown();
+            }
+
+            var receiver = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, receiverSession);
+            Message a = receiver.read();
+            Message b = receiver.read();
+            assertEquals("[\"hello\"]", new String(a.getPayload(), StandardCharsets.UTF_8));
+            assertEquals("[\"hello\"]", new String(b.getPayload(), StandardCharsets.UTF_8));
+            assertFalse(Arrays.equals(a.getIvBytes(), b.getIvBytes()));
+        }
+    }
+
+    /**
+     * Tests that enabled message types at or above the threshold are compressed before encryption and
+     * restored on read, while small payloads and disabled types are sent as they are.
+     */
+    @Test
+    void compression_ShouldApplyToEnabledTypesAboveThreshold() throws IOException {
+        var options = new CompressionOptions().setThreshold(256);
+        var compressor = options.find(DeflateCompressor.NAME);
+        var out = new ByteArrayOutputStream();
+        var sender = new MessageHandler(null, out, senderSession);
+        sender.setCompression(compressor, options);
+
+        byte[] large = "[{\"id\":1,\"name\":\"item\",\"price\":9.99}]".repeat(100).getBytes(StandardCharsets.UTF_8);
+        var response = new Message(MessageHeader.BuildRpcResponseHeader(UUID.randomUUID(), true, 0, large.length), new byte[0], large);
+        SealedMessage sealed = sender.seal(response);
+        assertTrue(sealed.isCompressed());
+        assertTrue(sealed.getBodyLength() < large.length / 4);
+
+        var small = new Message(MessageHeader.BuildRpcResponseHeader(UUID.randomUUID(), true, 0, 4), new byte[0], "[42]".getBytes(StandardCharsets.UTF_8));
+        assertFalse(sender.seal(small).isCompressed());
+        var call = new Message(MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), true, 0, large.length), new byte[0], large);
+        assertFalse(sender.seal(call).isCompressed());
+
+        sender.writeSealed(sealed);
+        var receiver = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, receiverSession);
+        receiver.setCompression(compressor, options);
+        Message received = receiver.read();
+        assertTrue(received.header.is_compressed);
+        assertArrayEquals(large, received.getPayload());
+    }
+
+    private Message roundTrip(EncryptionPolicy policy, Message message) throws IOException {
+        var out = new ByteArrayOutputStream();
+        new MessageHandler(null, out, senderSession, policy).write(message);
+        return new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, receiverSession).read();
+    }
+
+    private static Message rpcCall(String controller, String action, boolean encrypted) {
+        byte[] metadata = "{\"controller\":\"chat\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] payload = "[\"hello\"]".getBytes(StandardCharsets.UTF_8);
+        return new Message(MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), encrypted, metadata.length, payload.length), metadata, payload)
+                .setScope(MessageScope.rpc(controller, action));
+    }
+}
@@ -0,0 +1,120 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.Codec.JsonCodec;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.StatusCode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.UUID;
+
+/**
+ * A server end for client tests that performs the handshake and then captures every message the client writes,
+ * answering only what the test asks it to.
+ */
+final class LoopbackServer implements AutoCloseable {
+    private final ServerSocket serverSocket;
+    private final KeyPair keyPair = EncryptionUtil.generateRSAkeyPair();
+
+    /**
+     * Listens on an ephemeral loopback port.
+     *
+     * @throws IOException if the port cannot be bound.
+     */
+    LoopbackServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        serverSocket.setSoTimeout(5000);
+    }
+
+    /**
+     * Gets the port clients connect to.
+     *
+     * @return The port.
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts the next client and completes its handshake with the JSON metadata codec and no compression.
+     *
+     * @return The connection.
+     * @throws IOException if no client connects within five seconds or the handshake fails.
+     */
+    Connection accept() throws IOException {
+        Socket socket = serverSocket.accept();
+        socket.setSoTimeout(5000);
+        var session = new ClientSession();
+        var handler = new MessageHandler(new BufferedInputStream(socket.getInputStream()),
+                new BufferedOutputStream(socket.getOutputStream()), session);
+        byte[] publicKey = keyPair.getPublic().getEncoded();
+        Message offer = new Message(MessageHeader.BuildRsaPublicKeyHeader(UUID.randomUUID(), publicKey.length));
+        offer.setMetadata(JsonCodec.NAME.getBytes(StandardCharsets.US_ASCII));
+        offer.setPayload(publicKey);
+        handler.write(offer);
+        Message aesKey = handler.read();
+        if (aesKey.header.type != MessageType.AES_KEY) {
+            throw new IOException("Expected the client's key but got " + aesKey.header.type);
+        }
+        session.installKey(0, EncryptionUtil.decodeAesKey(EncryptionUtil.decryptDataRSA(aesKey.getPayload(), keyPair.getPrivate())));
+        return new Connection(socket, handler);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    /**
+     * One accepted client connection.
+     */
+    static final class Connection implements AutoCloseable {
+        private final Socket socket;
+        private final MessageHandler handler;
+
+        private Connection(Socket socket, MessageHandler handler) {
+            this.socket = socket;
+            this.handler = handler;
+        }
+
+        /**
+         * Reads the next message the client wrote.
+         *
+         * @return The message.
+         * @throws IOException if nothing arrives within five seconds or the connection is closed.
+         */
+        Message read() throws IOException {
+            return handler.read();
+        }
+
+        /**
+         * Answers a request with an {@link StatusCode#OK} response.
+         *
+         * @param requestId The request id of the call.
+         * @param payload   The JSON payload of the response.
+         * @throws IOException if the response cannot be written.
+         */
+        void respond(UUID requestId, String payload) throws IOException {
+            byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+            handler.write(new Message(MessageHeader.BuildRpcResponseHeader(requestId, true, 0, payloadBytes.length), new byte[0], payloadBytes)
+                    .setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, "OK")));
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Core.Server.ServerSession;
+import JSocket2.Cryptography.CipherSuite;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.DI.ServiceCollection;
+import JSocket2.Protocol.Codec.BinaryMetadataCodec;
+import JSocket2.Protocol.EncryptionPolicy;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageScope;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.Rpc.RpcBatch;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcControllerCollection;
+import JSocket2.Protocol.Rpc.RpcDispatcher;
+import JSocket2.Protocol.Rpc.RpcExecutionOptions;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
+import JSocket2.Protocol.ServerConnectionContext;
+import JSocket2.Protocol.ServerMessageProcessor;
+import JSocket2.Protocol.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcBatch}.
+ */
+public class RpcBatchTest {
+
+    /**
+     * Tests that calls written in one batch frame arrive with their request ids, content types, metadata and
+     * payloads, and that the batch is encrypted because the policy encrypts one of its calls.
+     */
+    @Test
+    void createThenRead_ShouldRoundTripCallsThroughOneFrame() throws IOException {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        var policy = new EncryptionPolicy().encryptController("public", false);
+        var out = new ByteArrayOutputStream();
+        var writer = new MessageHandler(null, out, new ClientSession(null, key), policy);
+        writer.setMetadataCodec(new BinaryMetadataCodec());
+        List<Message> calls = List.of(call("public", "list", 0, "[1]"), call("secret", "read", 2, "[\"a\"]"),
+                call("public", "empty", 0, ""));
+
+        writer.write(RpcBatch.create(calls, writer));
+        var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, key));
+        reader.setMetadataCodec(new BinaryMetadataCodec());
+        Message batch = reader.read();
+        List<Message> received = RpcBatch.read(batch);
+
+        assertEquals(MessageType.RPC_BATCH, batch.header.type);
+        assertNotEquals(CipherSuite.NONE, batch.header.cipher_suite);
+        assertEquals(calls.size(), received.size());
+        for (int i = 0; i < calls.size(); i++) {
+            Message sent = calls.get(i);
+            Message entry = received.get(i);
+            var sentMetadata = (RpcCallMetadata) sent.getMetadataValue();
+            var metadata = entry.getMetadataAs(RpcCallMetadata.class);
+            assertEquals(MessageType.RPC_CALL, entry.header.type);
+            assertEquals(sent.header.uuid, entry.header.uuid);
+            assertEquals(sent.header.content_type, entry.header.content_type);
+            assertEquals(sentMetadata.getController(), metadata.getController());
+            assertEquals(sentMetadata.getAction(), metadata.getAction());
+            assertEquals(sentMetadata.getTimeoutMillis(), metadata.getTimeoutMillis());
+            assertArrayEquals(sent.getPayload(), entry.getPayload());
+        }
+    }
+
+    /**
+     * Tests that a batch is sent in plaintext when none of its entries would be encrypted on its own, and that
+     * calls and responses cannot share a batch.
+     */
+    @Test
+    void create_ShouldFollowEntriesPolicyAndRejectMixedTypes() {
+        var policy = new EncryptionPolicy().encryptController("public", false);
+        var handler = new MessageHandler(null, new ByteArrayOutputStream(), new ClientSession(null, EncryptionUtil.generateAESsecretKey()), policy);
+        Message plain = RpcBatch.create(List.of(call("public", "a", 0, "[]"), call("public", "b", 0, "[]")), handler);
+        var response = new Message(MessageHeader.BuildRpcResponseHeader(UUID.randomUUID(), false, 0, 0), new byte[0], new byte[0])
+                .setMetadataValue(new RpcResponseMetadata(200, "OK"));
+
+        assertEquals(CipherSuite.NONE, policy.resolve(plain));
+        assertThrows(IllegalArgumentException.class, () -> RpcBatch.create(List.of(call("public", "a", 0, "[]"), response), handler));
+        assertThrows(IllegalArgumentException.class, () -> RpcBatch.create(List.of(), handler));
+    }
+
+    /**
+     * Tests that every call of a batch is answered once when one of them fails, both on the reader thread and on a
+     * worker pool, with the failing call answered by {@link StatusCode#INTERNAL_SERVER_ERROR}.
+     */
+    @Test
+    void Invoke_ShouldAnswerEveryCallWhenOneFails() throws Exception {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        var pooled = RpcWorkerPool.create(new RpcExecutionOptions().setExecutor(executor).setOrdering(RpcExecutionOptions.Ordering.NONE));
+        var provider = new ServiceCollection().AddScoped(StockController.class).CreateServiceProvider();
+        var controllers = new RpcControllerCollection();
+        controllers.registerController(StockController.class);
+        RpcDispatcher dispatcher = controllers.CreateRpcDispatcher(provider);
+        try {
+            for (RpcWorkerPool pool : List.of(RpcWorkerPool.INLINE, pooled)) {
+                List<Message> calls = List.of(call("Stock", "count", 0, "[]"), call("Stock", "reserve", 0, "[]"), call("Stock", "count", 0, "[]"));
+                var requests = new ByteArrayOutputStream();
+                var writer = new MessageHandler(null, requests, new ClientSession(null, key));
+                writer.write(RpcBatch.create(calls, writer));
+                var session = new ServerSession(null, null);
+                session.setAESKey(key);
+                var out = new ByteArrayOutputStream();
+                var processor = new ServerMessageProcessor(new MessageHandler(null, out, session), dispatcher, null, session, null, null, null,
+                        new ServerConnectionContext().setRpcConnection(pool.newConnection()));
+
+                processor.Invoke(new MessageHandler(new ByteArrayInputStream(requests.toByteArray()), null, session).read());
+                if (pool == pooled) {
+                    executor.shutdown();
+                    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+                }
+
+                Message batch = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, key)).read();
+                assertEquals(MessageType.RPC_BATCH_RESPONSE, batch.header.type);
+                Map<UUID, Integer> statuses = new HashMap<>();
+                for (Message response : RpcBatch.read(batch)) {
+                    assertNull(statuses.put(response.header.uuid, response.getMetadataAs(RpcResponseMetadata.class).getStatusCode()));
+                }
+                assertEquals(Map.of(calls.get(0).header.uuid, StatusCode.OK.code,
+                        calls.get(1).header.uuid, StatusCode.INTERNAL_SERVER_ERROR.code,
+                        calls.get(2).header.uuid, StatusCode.OK.code), statuses);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Message call(String controller, String action, int contentType, String payload) {
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        var metadata = new RpcCallMetadata(controller, action);
+        metadata.setTimeoutMillis(contentType * 100L);
+        var header = MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), true, 0, payloadBytes.length);
+        header.content_type = contentType;
+        return new Message(header, new byte[0], payloadBytes)
+                .setMetadataValue(metadata)
+                .setScope(MessageScope.rpc(controller, action));
+    }
+
+    /**
+     * A controller with an action that always fails and one that succeeds.
+     */
+    @RpcController(Name = "Stock")
+    public static class StockController extends RpcControllerBase {
+        public RpcResponse<Integer> count() {
+            return Ok(3);
+        }
+
+        public RpcResponse<Integer> reserve() {
+            throw new IllegalStateException("Out of stock.");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Core.Client.ClientApplicationBuilder;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.Rpc.RpcCallerBase;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import JSocket2.Protocol.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the asynchronous calls of {@link RpcCallerBase}.
+ */
+public class RpcCallerBaseTest {
+
+    /**
+     * Tests that an asynchronous call completes with the decoded response on the client's response executor
+     * rather than on the message listener thread.
+     */
+    @Test
+    void callRpcAsync_ShouldCompleteOnTheResponseExecutor() throws Exception {
+        ExecutorService responseExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "test-response"));
+        try (var server = new LoopbackServer()) {
+            var connected = new Semaphore(0);
+            ClientApplication client = new ClientApplicationBuilder().setEndpoint("127.0.0.1", server.getPort())
+                    .setResponseExecutor(responseExecutor)
+                    .Build();
+            client.addConnectedListener(app -> connected.release());
+            client.startAsync();
+            try (var connection = server.accept()) {
+                assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                var completedOn = new CompletableFuture<String>();
+                CompletableFuture<RpcResponse<Integer>> future = new CatalogCaller(client).find(7);
+                future.whenComplete((response, failure) -> completedOn.complete(Thread.currentThread().getName()));
+
+                Message call = connection.read();
+                assertEquals(MessageType.RPC_CALL, call.header.type);
+                connection.respond(call.header.uuid, "42");
+
+                // Waiting on the future itself could run its dependents on this thread
+                assertEquals("test-response", completedOn.get(5, TimeUnit.SECONDS));
+                assertEquals(42, future.get(5, TimeUnit.SECONDS).getPayload());
+            } finally {
+                client.shutdown();
+            }
+        } finally {
+            responseExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a call that cannot be written returns a future failed with the {@link IOException} and is no
+     * longer pending.
+     */
+    @Test
+    void callRpcAsync_ShouldFailAndForgetCallsThatCannotBeSent() throws Exception {
+        var server = new LoopbackServer();
+        var connected = new Semaphore(0);
+        var disconnected = new Semaphore(0);
+        ClientApplication client = new ClientApplicationBuilder().setEndpoint("127.0.0.1", server.getPort()).Build();
+        client.addConnectedListener(app -> connected.release());
+        client.addConnectionStatusListener(isConnected -> {
+            if (!isConnected) {
+                disconnected.release();
+            }
+        });
+        client.startAsync();
+        try {
+            var connection = server.accept();
+            assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+            server.close();
+            connection.close();
+            assertTrue(disconnected.tryAcquire(5, TimeUnit.SECONDS));
+
+            CompletableFuture<RpcResponse<Integer>> future = new CatalogCaller(client).find(7);
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, failure.getCause());
+            assertTrue(client.getPendingRequests().isEmpty());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a call not answered within its timeout completes with {@link StatusCode#REQUEST_TIMEOUT} and is
+     * no longer pending.
+     */
+    @Test
+    void callRpcAsync_ShouldMapAnExpiredDeadlineToRequestTimeout() throws Exception {
+        try (var server = new LoopbackServer()) {
+            var connected = new Semaphore(0);
+            ClientApplication client = new ClientApplicationBuilder().setEndpoint("127.0.0.1", server.getPort()).Build();
+            client.addConnectedListener(app -> connected.release());
+            client.startAsync();
+            try (var connection = server.accept()) {
+                assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                var caller = new CatalogCaller(client);
+                caller.setTimeout(50, TimeUnit.MILLISECONDS);
+
+                CompletableFuture<RpcResponse<Integer>> future = caller.find(7);
+                connection.read();
+
+                assertEquals(StatusCode.REQUEST_TIMEOUT, future.get(5, TimeUnit.SECONDS).getStatusCode());
+                assertTrue(client.getPendingRequests().isEmpty());
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    /**
+     * A caller of a remote catalog, as a generated stub would declare it.
+     */
+    static final class CatalogCaller extends RpcCallerBase {
+        CatalogCaller(ClientApplication clientApplication) {
+            super(clientApplication);
+        }
+
+        CompletableFuture<RpcResponse<Integer>> find(int id) {
+            return callRpcAsync("Catalog", "Find", Integer.class, id);
+        }
+    }
+}
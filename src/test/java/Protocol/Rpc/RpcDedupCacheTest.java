@@ -0,0 +1,69 @@
+package Protocol.Rpc;
+
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.Rpc.RpcDedupCache;
+import JSocket2.Protocol.Rpc.RpcDedupOptions;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcDedupCache}.
+ */
+public class RpcDedupCacheTest {
+
+    /**
+     * Tests that a duplicate sent while the first call runs waits for it, that later duplicates get a copy of the
+     * stored response, and that the ids of one user do not match another's.
+     */
+    @Test
+    void begin_ShouldAnswerDuplicatesWithTheFirstResponse() {
+        var cache = new RpcDedupCache(new RpcDedupOptions().setMaxEntries(8));
+        UUID requestId = UUID.randomUUID();
+        var key = new RpcDedupCache.Key("alice", requestId);
+
+        assertNull(cache.begin(key));
+        CompletableFuture<Message> waiting = cache.begin(key);
+        assertNotNull(waiting);
+        assertFalse(waiting.isDone());
+        Message response = response(requestId, new byte[]{42});
+        cache.complete(key, response);
+
+        Message replayed = waiting.join();
+        assertNotSame(response, replayed);
+        assertEquals(requestId, replayed.header.uuid);
+        assertArrayEquals(new byte[]{42}, replayed.getPayload());
+        assertArrayEquals(new byte[]{42}, cache.begin(key).join().getPayload());
+        assertNull(cache.begin(new RpcDedupCache.Key("bob", requestId)));
+        assertEquals(2, cache.getDuplicates());
+    }
+
+    /**
+     * Tests that a failed call is forgotten, failing the duplicates waiting for it and letting a retry run again.
+     */
+    @Test
+    void fail_ShouldLetRetriesRunAgain() {
+        var cache = new RpcDedupCache(new RpcDedupOptions().setMaxEntries(8));
+        var key = new RpcDedupCache.Key(null, UUID.randomUUID());
+
+        assertNull(cache.begin(key));
+        CompletableFuture<Message> waiting = cache.begin(key);
+        cache.fail(key, new IllegalStateException("boom"));
+
+        assertThrows(CompletionException.class, waiting::join);
+        assertNull(cache.begin(key));
+    }
+
+    private static Message response(UUID requestId, byte[] payload) {
+        MessageHeader header = MessageHeader.BuildRpcResponseHeader(requestId, false, 0, payload.length);
+        return new Message(header, new byte[0], payload)
+                .setMetadataValue(new RpcResponseMetadata(StatusCode.OK.code, null));
+    }
+}
@@ -0,0 +1,229 @@
+package Protocol.Rpc;
+
+import JSocket2.DI.ServiceCollection;
+import JSocket2.Protocol.Codec.CborPayloadCodec;
+import JSocket2.Protocol.Codec.JsonPayload;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
+import JSocket2.Protocol.Rpc.IRpcBinder;
+import JSocket2.Protocol.Rpc.RpcAction;
+import JSocket2.Protocol.Rpc.RpcCacheable;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcControllerCollection;
+import JSocket2.Protocol.Rpc.RpcDispatcher;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import JSocket2.Protocol.Rpc.RpcResultCache;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the routing and parameter binding of {@link RpcDispatcher}.
+ */
+public class RpcDispatcherTest {
+    private final Gson gson = new Gson();
+    private RpcDispatcher dispatcher;
+
+    /**
+     * Registers the test controller and builds a dispatcher over a fresh service provider.
+     */
+    @BeforeEach
+    void setUp() {
+        var provider = new ServiceCollection().AddScoped(OrderController.class).AddScoped(PriceController.class).CreateServiceProvider();
+        var controllers = new RpcControllerCollection();
+        controllers.registerController(OrderController.class);
+        controllers.registerController(PriceController.class);
+        dispatcher = controllers.CreateRpcDispatcher(provider);
+    }
+
+    /**
+     * Tests that primitive arguments are bound to primitive parameters.
+     */
+    @Test
+    void dispatch_ShouldBindPrimitiveParameters() {
+        assertEquals(42, call("add", 40, 2).getPayload());
+    }
+
+    /**
+     * Tests that a JSON object argument is bound to a DTO parameter and that the overload
+     * whose parameter types fit the arguments is selected.
+     */
+    @Test
+    void dispatch_ShouldBindDtoAndSelectMatchingOverload() {
+        assertEquals("pen x3", call("describe", new OrderItem("pen", 3, 1.5)).getPayload());
+        assertEquals("item #7", call("describe", 7).getPayload());
+    }
+
+    /**
+     * Tests that a JSON array argument is bound to a generic {@code List} of DTOs.
+     */
+    @Test
+    void dispatch_ShouldBindGenericListOfDtos() {
+        List<OrderItem> items = List.of(new OrderItem("pen", 2, 1.5), new OrderItem("book", 1, 12.0));
+        assertEquals(15.0, call("total", items).getPayload());
+    }
+
+    /**
+     * Tests that a missing payload invokes the parameterless action.
+     */
+    @Test
+    void dispatch_WithoutPayload_ShouldInvokeParameterlessAction() {
+        RpcResponse<?> response = dispatcher.dispatch(new RpcCallMetadata("orders", "count"), null, null, null);
+        assertEquals(0, response.getPayload());
+    }
+
+    /**
+     * Tests that an action annotated with {@link RpcAction} is routed by its public name
+     * rather than its method name.
+     */
+    @Test
+    void dispatch_ShouldRouteByRpcActionName() {
+        assertEquals(3, call("line-count", List.of(new OrderItem("pen", 1, 1.0), new OrderItem("ink", 2, 4.0), new OrderItem("pad", 1, 2.0))).getPayload());
+        assertThrows(RuntimeException.class, () -> call("countLines", List.of()));
+    }
+
+    /**
+     * Tests that a CBOR payload binds like JSON, and that responses use the controller's declared codec
+     * or else the codec of the call.
+     */
+    @Test
+    void dispatch_WithCborPayload_ShouldBindAndChooseResponseCodec() {
+        CborPayloadCodec cbor = CborPayloadCodec.INSTANCE;
+        List<OrderItem> items = List.of(new OrderItem("pen", 2, 1.5), new OrderItem("book", 1, 12.0));
+        RpcCallMetadata total = new RpcCallMetadata("Orders", "total");
+        assertEquals(15.0, dispatcher.dispatch(total, cbor.getContentType(), cbor.encode(gson, new Object[]{items}), null, null).getPayload());
+        assertEquals("item #7", dispatcher.dispatch(new RpcCallMetadata("Orders", "describe"), cbor.getContentType(),
+                cbor.encode(gson, new Object[]{7}), null, null).getPayload());
+
+        assertSame(cbor, dispatcher.getResponseCodec(total, cbor.getContentType()));
+        assertSame(JsonPayloadCodec.INSTANCE, dispatcher.getResponseCodec(total, JsonPayloadCodec.CONTENT_TYPE));
+        assertSame(cbor, dispatcher.getResponseCodec(new RpcCallMetadata("prices", "latest"), JsonPayloadCodec.CONTENT_TYPE));
+    }
+
+    /**
+     * Tests that the binder generated for a controller selects the same overloads as the reflective route table,
+     * and reports arguments that fit no overload as unmatched.
+     */
+    @Test
+    void generatedBinder_ShouldMatchReflectiveRoutes() throws Throwable {
+        var provider = new ServiceCollection().AddScoped(OrderController.class).CreateServiceProvider();
+        var controllers = new RpcControllerCollection();
+        controllers.registerController(OrderController.class);
+        RpcDispatcher reflective = controllers.CreateRpcDispatcher(provider, false);
+        List<OrderItem> items = List.of(new OrderItem("pen", 2, 1.5), new OrderItem("book", 1, 12.0));
+        for (Object[] args : List.of(new Object[]{new OrderItem("pen", 3, 1.5)}, new Object[]{7}, new Object[]{items})) {
+            String action = args[0] instanceof List ? "Line-Count" : "describe";
+            RpcCallMetadata metadata = new RpcCallMetadata("Orders", action);
+            byte[] payload = JsonPayload.toBytes(gson, args);
+            assertEquals(reflective.dispatch(metadata, payload, null, null).getPayload(), dispatcher.dispatch(metadata, payload, null, null).getPayload());
+        }
+
+        IRpcBinder binder = new RpcDispatcherTest_OrderController_RpcBinder(gson);
+        assertEquals(42, binder.invoke(new OrderController(), "ADD", JsonPayload.parse(JsonPayload.toBytes(gson, new Object[]{40, 2})).getAsJsonArray()).getPayload());
+        assertSame(IRpcBinder.NO_MATCH, binder.invoke(new OrderController(), "add", JsonPayload.parse(JsonPayload.toBytes(gson, new Object[]{"x", true})).getAsJsonArray()));
+        assertEquals("Orders", RpcDispatcherTest_OrderController_RpcClient.CONTROLLER);
+    }
+
+    /**
+     * Tests that equal arguments get one cache key whatever the order of their object members, the form of their
+     * numbers or their payload codec, and that arguments decoded once can be dispatched as they are.
+     */
+    @Test
+    void cacheKey_ShouldNotDependOnHowEqualArgumentsAreEncoded() {
+        var cache = new RpcResultCache();
+        var provider = new ServiceCollection().AddScoped(QuoteController.class).CreateServiceProvider();
+        var controllers = new RpcControllerCollection();
+        controllers.registerController(QuoteController.class);
+        RpcDispatcher cached = controllers.CreateRpcDispatcher(provider, cache);
+        RpcCallMetadata metadata = new RpcCallMetadata("Quotes", "quote");
+        int json = JsonPayloadCodec.CONTENT_TYPE;
+        CborPayloadCodec cbor = CborPayloadCodec.INSTANCE;
+
+        RpcResultCache.Key key = cached.cacheKey(metadata, json, "[{\"name\":\"pen\",\"quantity\":2,\"price\":1.5}]".getBytes(StandardCharsets.UTF_8), null);
+        assertEquals(key, cached.cacheKey(metadata, json, "[{\"price\":1.50,\"name\":\"pen\",\"quantity\":2.0}]".getBytes(StandardCharsets.UTF_8), null));
+        JsonArray arguments = cached.parseArguments(cbor.getContentType(), cbor.encode(gson, new Object[]{new OrderItem("pen", 2, 1.5)}));
+        assertEquals(key.arguments(), cached.cacheKey(metadata, cbor.getContentType(), arguments, null).arguments());
+        assertEquals(3.0, cached.dispatch(metadata, arguments, null, null, null).getPayload());
+
+        cache.put(key, "OK", new byte[0]);
+        assertEquals(1, cache.invalidate("Quotes", "quote", new OrderItem("pen", 2, 1.5)));
+    }
+
+    private RpcResponse<?> call(String action, Object... args) {
+        return dispatcher.dispatch(new RpcCallMetadata("Orders", action), JsonPayload.toBytes(gson, args), null, null);
+    }
+
+    /**
+     * A line of an order, used as a DTO parameter.
+     */
+    public static class OrderItem {
+        public String name;
+        public int quantity;
+        public double price;
+
+        public OrderItem(String name, int quantity, double price) {
+            this.name = name;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+
+    /**
+     * A controller exposing actions with primitive, DTO and list parameters.
+     */
+    @RpcController(Name = "Orders")
+    public static class OrderController extends RpcControllerBase {
+        public RpcResponse<Integer> count() {
+            return Ok(0);
+        }
+
+        public RpcResponse<Integer> add(int a, int b) {
+            return Ok(a + b);
+        }
+
+        public RpcResponse<String> describe(OrderItem item) {
+            return Ok(null, item.name + " x" + item.quantity);
+        }
+
+        public RpcResponse<String> describe(int id) {
+            return Ok(null, "item #" + id);
+        }
+
+        @RpcAction(Name = "line-count")
+        public RpcResponse<Integer> countLines(List<OrderItem> items) {
+            return Ok(items.size());
+        }
+
+        public RpcResponse<Double> total(List<OrderItem> items) {
+            return Ok(items.stream().mapToDouble(item -> item.quantity * item.price).sum());
+        }
+    }
+
+    /**
+     * A controller whose responses are always encoded as CBOR.
+     */
+    @RpcController(Name = "Prices", PayloadCodec = "cbor")
+    public static class PriceController extends RpcControllerBase {
+        public RpcResponse<Double> latest() {
+            return Ok(101.25);
+        }
+    }
+
+    /**
+     * A controller whose quotes are answered from the result cache.
+     */
+    @RpcController(Name = "Quotes")
+    public static class QuoteController extends RpcControllerBase {
+        @RpcCacheable
+        public RpcResponse<Double> quote(OrderItem item) {
+            return Ok(item.quantity * item.price);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.Rpc.RpcItemReceiver;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcItemReceiver}.
+ */
+public class RpcItemReceiverTest {
+
+    /**
+     * Tests that a receiver grants the client a window of chunks up front and half a window more each time the
+     * action has consumed that many, and hands the action every item in order.
+     */
+    @Test
+    void open_ShouldCreditConsumedChunks() throws Exception {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        var out = new ByteArrayOutputStream();
+        var writer = new MessageHandler(null, out, new ClientSession(null, key));
+        UUID requestId = UUID.randomUUID();
+        var receiver = new RpcItemReceiver(requestId, writer, new Gson(), 4);
+
+        receiver.start();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            receiver.offer(chunk(requestId, List.of(chunk * 2, chunk * 2 + 1)));
+        }
+        receiver.end();
+        Iterator<Integer> items = receiver.open(Integer.class);
+        List<Integer> received = new ArrayList<>();
+        items.forEachRemaining(received::add);
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), received);
+        var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, key));
+        List<Integer> credits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Message credit = reader.read();
+            assertEquals(MessageType.RPC_STREAM_CREDIT, credit.header.type);
+            assertEquals(requestId, credit.header.uuid);
+            credits.add(ByteBuffer.wrap(credit.getPayload()).getInt());
+        }
+        assertEquals(List.of(4, 2, 2), credits);
+    }
+
+    /**
+     * Tests that a client sending more chunks than it was granted fails the action's iterator.
+     */
+    @Test
+    void offer_ShouldFailItemsBeyondTheWindow() throws Exception {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        var writer = new MessageHandler(null, new ByteArrayOutputStream(), new ClientSession(null, key));
+        UUID requestId = UUID.randomUUID();
+        var receiver = new RpcItemReceiver(requestId, writer, new Gson(), 2);
+
+        receiver.start();
+        for (int chunk = 0; chunk < 3; chunk++) {
+            receiver.offer(chunk(requestId, List.of(chunk)));
+        }
+        Iterator<Integer> items = receiver.open(Integer.class);
+
+        assertThrows(IllegalStateException.class, items::hasNext);
+    }
+
+    private static Message chunk(UUID requestId, List<Integer> items) {
+        byte[] payload = JsonPayloadCodec.INSTANCE.encode(new Gson(), items);
+        MessageHeader header = MessageHeader.BuildRpcStreamItemHeader(requestId, false, payload.length);
+        header.content_type = JsonPayloadCodec.INSTANCE.getContentType();
+        return new Message(header, new byte[0], payload);
+    }
+}
@@ -0,0 +1,227 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientApplication;
+import JSocket2.Core.Client.ClientApplicationBuilder;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.Authentication.AuthModel;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcReplayBuffer;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import JSocket2.Protocol.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcReplayBuffer}.
+ */
+public class RpcReplayBufferTest {
+
+    /**
+     * Tests that the buffer keeps no more calls than its bound, and that a call held after the connection was lost
+     * fails with an {@link IOException} and is no longer pending once the replay timeout passes without a
+     * reconnect.
+     */
+    @Test
+    void connectionLost_ShouldFailCallsNotReplayedInTime() throws Exception {
+        ClientApplication client = new ClientApplicationBuilder().setEndpoint("localhost", 1)
+                .withReplayOptions(o -> o.setMaxCalls(2).setTimeout(50, TimeUnit.MILLISECONDS))
+                .Build();
+        try {
+            RpcReplayBuffer buffer = client.getReplayBuffer();
+            CompletableFuture<Message> answered = new CompletableFuture<>();
+            CompletableFuture<Message> lost = new CompletableFuture<>();
+            Message lostCall = call();
+            client.getPendingRequests().put(lostCall.header.uuid, lost);
+
+            assertTrue(buffer.track(call(), answered));
+            assertTrue(buffer.track(lostCall, lost));
+            assertFalse(buffer.track(call(), new CompletableFuture<>()));
+            answered.complete(null);
+            assertEquals(1, buffer.size());
+            buffer.connectionLost();
+            assertEquals(1, buffer.getHeld());
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> lost.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, failure.getCause());
+            assertFalse(client.getPendingRequests().containsKey(lostCall.header.uuid));
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    /**
+     * Tests that calls lost with their connection are written again on the new one after the reconnect, in the
+     * order they were made and with their original request ids, and that the responses complete the futures
+     * the caller already holds.
+     */
+    @Test
+    void resume_ShouldReplayHeldCallsInOrderWithTheirRequestIds() throws Exception {
+        try (var server = new LoopbackServer()) {
+            var connected = new Semaphore(0);
+            ClientApplication client = new ClientApplicationBuilder().setEndpoint("127.0.0.1", server.getPort())
+                    .withReplayOptions(o -> o.setMaxCalls(10))
+                    .Build();
+            client.addConnectedListener(app -> connected.release());
+            client.startAsync();
+            try {
+                var caller = new RpcCallerBaseTest.CatalogCaller(client);
+                List<CompletableFuture<RpcResponse<Integer>>> futures = new ArrayList<>();
+                List<UUID> sent = new ArrayList<>();
+                try (var lost = server.accept()) {
+                    assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                    for (int i = 0; i < 3; i++) {
+                        futures.add(caller.find(i));
+                    }
+                    for (int i = 0; i < 3; i++) {
+                        sent.add(lost.read().header.uuid);
+                    }
+                }
+
+                try (var restored = server.accept()) {
+                    List<UUID> replayed = new ArrayList<>();
+                    for (int i = 0; i < 3; i++) {
+                        Message call = restored.read();
+                        assertEquals(MessageType.RPC_CALL, call.header.type);
+                        replayed.add(call.header.uuid);
+                    }
+                    assertEquals(sent, replayed);
+                    for (int i = 0; i < 3; i++) {
+                        restored.respond(replayed.get(i), String.valueOf(i * 10));
+                    }
+                    for (int i = 0; i < 3; i++) {
+                        assertEquals(i * 10, futures.get(i).get(5, TimeUnit.SECONDS).getPayload());
+                    }
+                }
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Tests that a call made as soon as the client has reconnected, before the held calls were replayed, reaches the
+     * server after them, so the held call is answered first.
+     */
+    @Test
+    void resume_ShouldWriteCallsMadeAfterTheReconnectBehindHeldCalls() throws Exception {
+        try (var server = new LoopbackServer()) {
+            var connected = new Semaphore(0);
+            var reconnected = new AtomicBoolean(false);
+            var madeAfterReconnect = new CompletableFuture<CompletableFuture<RpcResponse<Integer>>>();
+            ClientApplication client = new ClientApplicationBuilder().setEndpoint("127.0.0.1", server.getPort())
+                    .withReplayOptions(o -> o.setMaxCalls(10))
+                    .Build();
+            var caller = new RpcCallerBaseTest.CatalogCaller(client);
+            client.addConnectedListener(app -> {
+                if (reconnected.get()) {
+                    madeAfterReconnect.complete(caller.find(2));
+                }
+                connected.release();
+            });
+            client.startAsync();
+            try {
+                CompletableFuture<RpcResponse<Integer>> held;
+                UUID heldId;
+                try (var lost = server.accept()) {
+                    assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                    held = caller.find(1);
+                    heldId = lost.read().header.uuid;
+                    reconnected.set(true);
+                }
+
+                try (var restored = server.accept()) {
+                    assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                    CompletableFuture<RpcResponse<Integer>> made = madeAfterReconnect.get(5, TimeUnit.SECONDS);
+                    Message first = restored.read();
+                    assertEquals(heldId, first.header.uuid);
+                    restored.respond(first.header.uuid, "10");
+                    assertEquals(10, held.get(5, TimeUnit.SECONDS).getPayload());
+                    assertFalse(made.isDone());
+
+                    Message second = restored.read();
+                    restored.respond(second.header.uuid, "20");
+                    assertEquals(20, made.get(5, TimeUnit.SECONDS).getPayload());
+                }
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Tests that when the lost connection was authenticated, the held calls wait on the new connection until
+     * {@link ClientApplication#sendAuthModel(AuthModel)} succeeds on it, so they never reach the server ahead of
+     * the authentication they depend on.
+     */
+    @Test
+    void resume_AfterAuthenticatedConnection_ShouldHoldCallsUntilAuthenticatedAgain() throws Exception {
+        try (var server = new LoopbackServer()) {
+            var connected = new Semaphore(0);
+            ClientApplication client = new ClientApplicationBuilder().setEndpoint("127.0.0.1", server.getPort())
+                    .withReplayOptions(o -> o.setMaxCalls(10))
+                    .Build();
+            client.addConnectedListener(app -> connected.release());
+            client.startAsync();
+            try {
+                CompletableFuture<RpcResponse<Integer>> future;
+                UUID requestId;
+                try (var lost = server.accept()) {
+                    assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                    assertEquals(StatusCode.OK, authenticate(client, lost));
+                    future = new RpcCallerBaseTest.CatalogCaller(client).find(7);
+                    requestId = lost.read().header.uuid;
+                }
+
+                try (var restored = server.accept()) {
+                    assertTrue(connected.tryAcquire(5, TimeUnit.SECONDS));
+                    assertEquals(1, client.getReplayBuffer().getHeld());
+                    // The first message on the new connection is the authentication, not the held call
+                    assertEquals(StatusCode.OK, authenticate(client, restored));
+                    Message replayed = restored.read();
+                    assertEquals(requestId, replayed.header.uuid);
+                    restored.respond(requestId, "42");
+                    assertEquals(42, future.get(5, TimeUnit.SECONDS).getPayload());
+                }
+            } finally {
+                client.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Sends an authentication request from another thread and answers it with OK on the server end.
+     */
+    private static StatusCode authenticate(ClientApplication client, LoopbackServer.Connection connection) throws Exception {
+        CompletableFuture<StatusCode> status = CompletableFuture.supplyAsync(() -> {
+            try {
+                return client.sendAuthModel(new AuthModel(new String[]{"key"}, 1));
+            } catch (IOException | InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+        Message auth = connection.read();
+        assertEquals(MessageType.AUTH, auth.header.type);
+        connection.respond(auth.header.uuid, "null");
+        return status.get(5, TimeUnit.SECONDS);
+    }
+
+    private static Message call() {
+        byte[] payload = "[1]".getBytes();
+        return new Message(MessageHeader.BuildRpcCallHeader(UUID.randomUUID(), true, 0, payload.length), new byte[0], payload)
+                .setMetadataValue(new RpcCallMetadata("Catalog", "Find"));
+    }
+}
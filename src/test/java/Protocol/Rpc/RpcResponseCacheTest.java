@@ -0,0 +1,68 @@
+package Protocol.Rpc;
+
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.Rpc.RpcResponseCache;
+import JSocket2.Protocol.Rpc.RpcResponseCacheOptions;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.StatusCode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcResponseCache}.
+ */
+public class RpcResponseCacheTest {
+
+    /**
+     * Tests that a tagged OK response is cached under the call's arguments, and that a later
+     * {@link StatusCode#NOT_MODIFIED} answer is resolved to the cached payload.
+     */
+    @Test
+    void resolve_ShouldServeCachedPayloadWhenNotModified() {
+        var cache = new RpcResponseCache(new RpcResponseCacheOptions().setMaxEntries(8));
+        byte[] arguments = "[7]".getBytes(StandardCharsets.UTF_8);
+        byte[] payload = "\"fourteen\"".getBytes(StandardCharsets.UTF_8);
+
+        RpcResponseCache.Key key = RpcResponseCache.Key.of("Catalog", "Find", 1, arguments);
+        assertNull(cache.get(key));
+        cache.resolve(key, null, response(StatusCode.OK, "v1", payload));
+        RpcResponseCache.Entry cached = cache.get(RpcResponseCache.Key.of("catalog", "find", 1, arguments.clone()));
+        assertNotNull(cached);
+        assertEquals("v1", cached.validator());
+
+        Message resolved = cache.resolve(key, cached, response(StatusCode.NOT_MODIFIED, "v1", new byte[0]));
+        assertEquals(StatusCode.OK.code, resolved.getMetadataAs(RpcResponseMetadata.class).getStatusCode());
+        assertArrayEquals(payload, resolved.getPayload());
+        assertEquals(1, resolved.header.content_type);
+        assertEquals(1, cache.getNotModified());
+    }
+
+    /**
+     * Tests that the cache keeps no more responses than its bound, dropping the least recently used.
+     */
+    @Test
+    void put_ShouldEvictLeastRecentlyUsed() {
+        var cache = new RpcResponseCache(new RpcResponseCacheOptions().setMaxEntries(1));
+        RpcResponseCache.Key first = RpcResponseCache.Key.of("Catalog", "Find", 1, new byte[]{1});
+        RpcResponseCache.Key second = RpcResponseCache.Key.of("Catalog", "Find", 1, new byte[]{2});
+
+        cache.put(first, new RpcResponseCache.Entry("v1", null, 1, new byte[1]));
+        cache.put(second, new RpcResponseCache.Entry("v2", null, 1, new byte[1]));
+
+        assertNull(cache.get(first));
+        assertNotNull(cache.get(second));
+        assertEquals(1, cache.size());
+    }
+
+    private static Message response(StatusCode status, String validator, byte[] payload) {
+        MessageHeader header = MessageHeader.BuildRpcResponseHeader(UUID.randomUUID(), false, 0, payload.length);
+        header.content_type = 1;
+        return new Message(header, new byte[0], payload)
+                .setMetadataValue(new RpcResponseMetadata(status.code, null, validator));
+    }
+}
@@ -0,0 +1,65 @@
+package Protocol.Rpc;
+
+import JSocket2.Protocol.Rpc.RpcCacheOptions;
+import JSocket2.Protocol.Rpc.RpcResultCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcResultCache}.
+ */
+public class RpcResultCacheTest {
+
+    /**
+     * Tests that a full cache evicts its least recently used response and counts hits, misses and evictions.
+     */
+    @Test
+    void put_ShouldEvictLeastRecentlyUsed() {
+        var cache = new RpcResultCache(new RpcCacheOptions().setMaxEntries(2));
+        RpcResultCache.Key first = key("[1]", null, 60_000);
+        RpcResultCache.Key second = key("[2]", null, 60_000);
+        RpcResultCache.Key third = key("[3]", null, 60_000);
+
+        cache.put(first, "OK", new byte[]{1});
+        cache.put(second, "OK", new byte[]{2});
+        assertNotNull(cache.get(first));
+        cache.put(third, "OK", new byte[]{3});
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    /**
+     * Tests that expired responses are not served and that invalidation removes responses by arguments and by user.
+     */
+    @Test
+    void get_ShouldSkipExpiredAndInvalidatedResponses() throws Exception {
+        var cache = new RpcResultCache();
+        RpcResultCache.Key expiring = key("[\"a\"]", null, 1);
+        RpcResultCache.Key shared = key("[\"b\"]", null, 60_000);
+        RpcResultCache.Key personal = key("[\"b\"]", "alice", 60_000);
+
+        cache.put(expiring, "OK", new byte[4]);
+        cache.put(shared, "OK", new byte[4]);
+        cache.put(personal, "OK", new byte[4]);
+        Thread.sleep(20);
+
+        assertNull(cache.get(expiring));
+        assertEquals(1, cache.invalidateUser("alice"));
+        assertNull(cache.get(personal));
+        assertEquals(1, cache.invalidate("Catalog", "Find", "b"));
+        assertNull(cache.get(shared));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+
+    private static RpcResultCache.Key key(String arguments, String user, long ttlMillis) {
+        return new RpcResultCache.Key("catalog", "find", arguments, user, 0, ttlMillis);
+    }
+}
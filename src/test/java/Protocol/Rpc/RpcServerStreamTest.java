@@ -0,0 +1,79 @@
+package Protocol.Rpc;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Protocol.Codec.JsonPayloadCodec;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageScope;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Rpc.RpcServerStream;
+import JSocket2.Protocol.StatusCode;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RpcServerStream}.
+ */
+public class RpcServerStreamTest {
+
+    /**
+     * Tests that a stream takes no more items from the action's result than the client's credit allows, and that
+     * with more credit it sends the remaining items in order, ends with an OK response and closes the result.
+     */
+    @Test
+    void run_ShouldSendNoMoreChunksThanCredited() throws Exception {
+        SecretKey key = EncryptionUtil.generateAESsecretKey();
+        var out = new ByteArrayOutputStream();
+        var writer = new MessageHandler(null, out, new ClientSession(null, key));
+        var produced = new AtomicInteger();
+        var closed = new AtomicBoolean();
+        var ended = new CountDownLatch(1);
+        var result = IntStream.range(0, 10).boxed().peek(i -> produced.incrementAndGet()).onClose(() -> closed.set(true));
+        UUID requestId = UUID.randomUUID();
+        var stream = new RpcServerStream(requestId, result, writer, JsonPayloadCodec.INSTANCE, new Gson(),
+                MessageScope.rpc("Rows", "all"), 3, 2, ended::countDown);
+
+        stream.start();
+        long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (produced.get() < 6 && System.nanoTime() < waitUntil) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        // Two chunks of three sent, and at most one item read ahead to tell whether the result has ended
+        assertTrue(produced.get() >= 6 && produced.get() <= 7);
+        assertEquals(1, ended.getCount());
+        stream.grant(2);
+        assertTrue(ended.await(5, TimeUnit.SECONDS));
+
+        var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, key));
+        List<Integer> items = new ArrayList<>();
+        for (int chunk = 0; chunk < 4; chunk++) {
+            Message message = reader.read();
+            assertEquals(MessageType.RPC_STREAM_ITEM, message.header.type);
+            assertEquals(requestId, message.header.uuid);
+            items.addAll(JsonPayloadCodec.INSTANCE.<List<Integer>>decode(new Gson(), message.getPayload(), new TypeToken<List<Integer>>() {}.getType()));
+        }
+        Message end = reader.read();
+        assertEquals(MessageType.RPC_RESPONSE, end.header.type);
+        assertEquals(StatusCode.OK.code, end.getMetadataAs(RpcResponseMetadata.class).getStatusCode());
+        assertEquals(IntStream.range(0, 10).boxed().toList(), items);
+        assertTrue(closed.get());
+    }
+}
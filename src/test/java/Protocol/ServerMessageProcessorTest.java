@@ -0,0 +1,215 @@
+package Protocol;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Core.Server.ServerSession;
+import JSocket2.DI.ServiceCollection;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.ServerConnectionContext;
+import JSocket2.Protocol.ServerMessageProcessor;
+import JSocket2.Protocol.StatusCode;
+import JSocket2.Protocol.Rpc.RpcBatch;
+import JSocket2.Protocol.Rpc.RpcCallMetadata;
+import JSocket2.Protocol.Rpc.RpcController;
+import JSocket2.Protocol.Rpc.RpcControllerBase;
+import JSocket2.Protocol.Rpc.RpcControllerCollection;
+import JSocket2.Protocol.Rpc.RpcDedupCache;
+import JSocket2.Protocol.Rpc.RpcDedupOptions;
+import JSocket2.Protocol.Rpc.RpcExecutionOptions;
+import JSocket2.Protocol.Rpc.RpcResponse;
+import JSocket2.Protocol.Rpc.RpcResponseMetadata;
+import JSocket2.Protocol.Rpc.RpcWorkerPool;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RPC handling of {@link ServerMessageProcessor}.
+ */
+public class ServerMessageProcessorTest {
+
+    /**
+     * Tests that a call whose action throws while running on a worker pool is answered with
+     * {@link StatusCode#INTERNAL_SERVER_ERROR} instead of leaving its caller without a response.
+     */
+    @Test
+    void Invoke_OnWorkerPool_ShouldAnswerFailingActionWithInternalServerError() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        var pool = RpcWorkerPool.create(new RpcExecutionOptions().setExecutor(executor).setOrdering(RpcExecutionOptions.Ordering.NONE));
+        var session = new ServerSession(null, null);
+        var out = new ByteArrayOutputStream();
+        var processor = processor(session, out, new ServerConnectionContext().setRpcConnection(pool.newConnection()));
+        Message call = call(UUID.randomUUID(), "post", 0);
+
+        processor.Invoke(call);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, session.getAESKey()));
+        Message response = reader.read();
+        assertEquals(MessageType.RPC_RESPONSE, response.header.type);
+        assertEquals(call.header.uuid, response.header.uuid);
+        assertEquals(StatusCode.INTERNAL_SERVER_ERROR.code, response.getMetadataAs(RpcResponseMetadata.class).getStatusCode());
+    }
+
+    /**
+     * Tests that a call sent again while the first call with its request id is still running does not hold up the
+     * reader thread, and is answered with {@link StatusCode#REQUEST_TIMEOUT} once its own deadline passes.
+     */
+    @Test
+    void Invoke_Duplicate_ShouldNotWaitForTheFirstCallPastItsDeadline() throws Exception {
+        var dedupCache = new RpcDedupCache(new RpcDedupOptions().setMaxEntries(16));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        var pool = RpcWorkerPool.create(new RpcExecutionOptions().setExecutor(executor).setOrdering(RpcExecutionOptions.Ordering.NONE));
+        LedgerController.started = new CountDownLatch(1);
+        LedgerController.release = new CountDownLatch(1);
+        try {
+            UUID requestId = UUID.randomUUID();
+            var firstSession = new ServerSession(null, null);
+            processor(firstSession, new ByteArrayOutputStream(), new ServerConnectionContext().setRpcConnection(pool.newConnection()).setDedupCache(dedupCache))
+                    .Invoke(call(requestId, "hold", 0));
+            assertTrue(LedgerController.started.await(5, TimeUnit.SECONDS));
+
+            var session = new ServerSession(null, null);
+            var written = new CountDownLatch(1);
+            var out = new ByteArrayOutputStream() {
+                @Override
+                public void flush() {
+                    written.countDown();
+                }
+            };
+            var processor = processor(session, out, new ServerConnectionContext().setDedupCache(dedupCache));
+            processor.Invoke(received(session, call(requestId, "hold", 300)));
+
+            assertEquals(1, written.getCount());
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, session.getAESKey()));
+            Message response = reader.read();
+            assertEquals(requestId, response.header.uuid);
+            assertEquals(StatusCode.REQUEST_TIMEOUT.code, response.getMetadataAs(RpcResponseMetadata.class).getStatusCode());
+        } finally {
+            LedgerController.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a batch holding a duplicate of a call that is still running, and no deadline, does not hold up the
+     * reader thread, and that the whole batch is answered once the first call finishes.
+     */
+    @Test
+    void Invoke_BatchWithDuplicate_ShouldNotHoldUpTheReaderThread() throws Exception {
+        var dedupCache = new RpcDedupCache(new RpcDedupOptions().setMaxEntries(16));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        var pool = RpcWorkerPool.create(new RpcExecutionOptions().setExecutor(executor).setOrdering(RpcExecutionOptions.Ordering.NONE));
+        LedgerController.started = new CountDownLatch(1);
+        LedgerController.release = new CountDownLatch(1);
+        try {
+            UUID requestId = UUID.randomUUID();
+            var firstSession = new ServerSession(null, null);
+            processor(firstSession, new ByteArrayOutputStream(), new ServerConnectionContext().setRpcConnection(pool.newConnection()).setDedupCache(dedupCache))
+                    .Invoke(call(requestId, "hold", 0));
+            assertTrue(LedgerController.started.await(5, TimeUnit.SECONDS));
+
+            var session = new ServerSession(null, null);
+            var written = new CountDownLatch(1);
+            var out = new ByteArrayOutputStream() {
+                @Override
+                public void flush() {
+                    written.countDown();
+                }
+            };
+            var processor = processor(session, out, new ServerConnectionContext().setDedupCache(dedupCache));
+            Message balance = call(UUID.randomUUID(), "balance", 0);
+            var requests = new ByteArrayOutputStream();
+            var writer = new MessageHandler(null, requests, new ClientSession(null, session.getAESKey()));
+            writer.write(RpcBatch.create(List.of(call(requestId, "hold", 0), balance), writer));
+            var invoked = CompletableFuture.runAsync(() -> {
+                try {
+                    processor.Invoke(new MessageHandler(new ByteArrayInputStream(requests.toByteArray()), null, session).read());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            invoked.get(5, TimeUnit.SECONDS);
+            assertEquals(1, written.getCount());
+            LedgerController.release.countDown();
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            var reader = new MessageHandler(new ByteArrayInputStream(out.toByteArray()), null, new ClientSession(null, session.getAESKey()));
+            Message batch = reader.read();
+            assertEquals(MessageType.RPC_BATCH_RESPONSE, batch.header.type);
+            List<Message> responses = RpcBatch.read(batch);
+            assertEquals(List.of(requestId, balance.header.uuid), responses.stream().map(response -> response.header.uuid).toList());
+            for (Message response : responses) {
+                assertEquals(StatusCode.OK.code, response.getMetadataAs(RpcResponseMetadata.class).getStatusCode());
+            }
+        } finally {
+            LedgerController.release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static ServerMessageProcessor processor(ServerSession session, ByteArrayOutputStream out, ServerConnectionContext context) {
+        var provider = new ServiceCollection().AddScoped(LedgerController.class).CreateServiceProvider();
+        var controllers = new RpcControllerCollection();
+        controllers.registerController(LedgerController.class);
+        return new ServerMessageProcessor(new MessageHandler(null, out, session), controllers.CreateRpcDispatcher(provider), null, session,
+                null, null, null, context);
+    }
+
+    private static Message call(UUID requestId, String action, long timeoutMillis) {
+        byte[] payload = "[]".getBytes(StandardCharsets.UTF_8);
+        var metadata = new RpcCallMetadata("Ledger", action);
+        metadata.setTimeoutMillis(timeoutMillis);
+        return new Message(MessageHeader.BuildRpcCallHeader(requestId, false, 0, payload.length), new byte[0], payload)
+                .setMetadataValue(metadata);
+    }
+
+    /**
+     * Passes a call through the wire, so it carries the time it was read at, as calls from a client do.
+     */
+    private static Message received(ServerSession session, Message call) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        new MessageHandler(null, bytes, new ClientSession(null, session.getAESKey())).write(call);
+        return new MessageHandler(new ByteArrayInputStream(bytes.toByteArray()), null, session).read();
+    }
+
+    /**
+     * A controller with an action that always fails, one that succeeds and one that waits until it is released.
+     */
+    @RpcController(Name = "Ledger")
+    public static class LedgerController extends RpcControllerBase {
+        static volatile CountDownLatch started = new CountDownLatch(0);
+        static volatile CountDownLatch release = new CountDownLatch(0);
+
+        public RpcResponse<Integer> hold() throws InterruptedException {
+            started.countDown();
+            release.await();
+            return Ok(1);
+        }
+
+        public RpcResponse<Integer> post() {
+            throw new IllegalStateException("The ledger is closed.");
+        }
+
+        public RpcResponse<Integer> balance() {
+            return Ok(5);
+        }
+    }
+}
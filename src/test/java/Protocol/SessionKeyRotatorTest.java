@@ -0,0 +1,174 @@
+package Protocol;
+
+import JSocket2.Core.Client.ClientSession;
+import JSocket2.Core.Session;
+import JSocket2.Cryptography.EncryptionUtil;
+import JSocket2.Cryptography.RekeyOptions;
+import JSocket2.Protocol.Message;
+import JSocket2.Protocol.MessageHandler;
+import JSocket2.Protocol.MessageHeader;
+import JSocket2.Protocol.MessageType;
+import JSocket2.Protocol.SessionKeyRotator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SessionKeyRotator} and the key ring of {@link Session}, verifying with write/read round
+ * trips which key epochs stay readable and which rotation messages are accepted.
+ */
+public class SessionKeyRotatorTest {
+    private SecretKey sharedKey;
+    private ClientSession clientSession;
+    private ClientSession serverSession;
+
+    /**
+     * Creates two sessions sharing one AES key at epoch 0, as after a completed handshake.
+     */
+    @BeforeEach
+    void setup() {
+        sharedKey = EncryptionUtil.generateAESsecretKey();
+        clientSession = new ClientSession(null, sharedKey);
+        serverSession = new ClientSession(null, sharedKey);
+    }
+
+    /**
+     * Tests that frames encrypted under the last {@link Session#KEY_EPOCH_WINDOW} epochs still decrypt after later
+     * epochs were installed, and that a frame under an epoch that left the window is rejected.
+     */
+    @Test
+    void installKey_ShouldKeepTheLastEpochsReadableAndRetireOlderOnes() throws IOException {
+        var frames = new ByteArrayOutputStream[Session.KEY_EPOCH_WINDOW + 1];
+        for (int epoch = 0; epoch < frames.length; epoch++) {
+            if (epoch > 0) {
+                SecretKey key = EncryptionUtil.generateAESsecretKey();
+                clientSession.installKey(epoch, key);
+                serverSession.installKey(epoch, key);
+            }
+            frames[epoch] = new ByteArrayOutputStream();
+            new MessageHandler(null, frames[epoch], clientSession).write(event("epoch " + epoch));
+        }
+
+        assertEquals(Session.KEY_EPOCH_WINDOW, serverSession.getKeyEpoch());
+        assertNull(serverSession.getKey(0));
+        for (int epoch = 1; epoch < frames.length; epoch++) {
+            Message received = read(frames[epoch], serverSession);
+            assertEquals(epoch, received.header.key_epoch);
+            assertEquals("epoch " + epoch, new String(received.getPayload(), StandardCharsets.UTF_8));
+        }
+        IOException retired = assertThrows(IOException.class, () -> read(frames[0], serverSession));
+        assertTrue(retired.getMessage().contains("epoch 0"));
+    }
+
+    /**
+     * Tests the rotation handshake: the server asks once per epoch, the client generates and announces the key of
+     * the next epoch, and the server installs it, leaving both sides on the same key.
+     */
+    @Test
+    void requestRotation_ShouldHaveTheClientRotateAndTheServerInstallTheKey() throws IOException {
+        var serverOut = new ByteArrayOutputStream();
+        var serverRotator = rotator(new MessageHandler(null, serverOut, serverSession), serverSession, false);
+        var clientOut = new ByteArrayOutputStream();
+        var clientRotator = rotator(new MessageHandler(null, clientOut, clientSession), clientSession, true);
+
+        serverRotator.requestRotation();
+        int requestLength = serverOut.size();
+        serverRotator.requestRotation();
+        assertEquals(requestLength, serverOut.size());
+
+        Message request = read(serverOut, clientSession);
+        assertEquals(MessageType.CHANGE_AES_KEY_REQUEST, request.header.type);
+        assertEquals(0, request.getPayload().length);
+        clientRotator.handle(request);
+        assertEquals(1, clientSession.getKeyEpoch());
+
+        Message announcement = read(clientOut, serverSession);
+        assertEquals(0, announcement.header.key_epoch);
+        serverRotator.handle(announcement);
+        assertEquals(1, serverSession.getKeyEpoch());
+        assertEquals(clientSession.getAESKey(), serverSession.getAESKey());
+        assertNotEquals(sharedKey, serverSession.getAESKey());
+    }
+
+    /**
+     * Tests that rotation messages that did not arrive encrypted under a session key are refused, whether they
+     * carry a key or ask for a rotation, and change nothing.
+     */
+    @Test
+    void handle_ShouldRefusePlaintextRotationMessages() throws IOException {
+        var serverRotator = rotator(new MessageHandler(null, new ByteArrayOutputStream(), serverSession), serverSession, false);
+        var clientOut = new ByteArrayOutputStream();
+        var clientRotator = rotator(new MessageHandler(null, clientOut, clientSession), clientSession, true);
+        byte[] injectedKey = EncryptionUtil.generateAESsecretKey().getEncoded();
+        byte[] payload = new byte[1 + injectedKey.length];
+        payload[0] = 1;
+        System.arraycopy(injectedKey, 0, payload, 1, injectedKey.length);
+
+        assertThrows(IOException.class, () -> serverRotator.handle(plaintextRotation(payload)));
+        assertThrows(IOException.class, () -> clientRotator.handle(plaintextRotation(new byte[0])));
+
+        assertEquals(0, serverSession.getKeyEpoch());
+        assertEquals(sharedKey, serverSession.getAESKey());
+        assertEquals(0, clientSession.getKeyEpoch());
+        assertEquals(0, clientOut.size());
+    }
+
+    /**
+     * Tests that a key announcement replayed after later rotations is refused although its epoch is still in the
+     * window, and that the client does not accept keys at all.
+     */
+    @Test
+    void handle_ShouldRefuseKeysNotEncryptedUnderTheCurrentEpoch() throws IOException {
+        var serverRotator = rotator(new MessageHandler(null, new ByteArrayOutputStream(), serverSession), serverSession, false);
+        var first = new ByteArrayOutputStream();
+        rotator(new MessageHandler(null, first, clientSession), clientSession, true).rotate();
+        var second = new ByteArrayOutputStream();
+        rotator(new MessageHandler(null, second, clientSession), clientSession, true).rotate();
+
+        serverRotator.handle(read(first, serverSession));
+        serverRotator.handle(read(second, serverSession));
+        assertEquals(2, serverSession.getKeyEpoch());
+
+        assertThrows(IOException.class, () -> serverRotator.handle(read(first, serverSession)));
+        assertEquals(2, serverSession.getKeyEpoch());
+        assertEquals(clientSession.getAESKey(), serverSession.getAESKey());
+
+        var clientRotator = rotator(new MessageHandler(null, new ByteArrayOutputStream(), clientSession), clientSession, true);
+        var fromServer = new ByteArrayOutputStream();
+        new MessageHandler(null, fromServer, serverSession).write(new Message(MessageHeader.BuildChangeAesKeyHeader(UUID.randomUUID(), 17), new byte[0], new byte[17]));
+        assertThrows(IOException.class, () -> clientRotator.handle(read(fromServer, clientSession)));
+        assertEquals(2, clientSession.getKeyEpoch());
+    }
+
+    private static SessionKeyRotator rotator(MessageHandler handler, Session session, boolean initiator) {
+        var rotator = new SessionKeyRotator(handler, session, new RekeyOptions(), initiator);
+        handler.setKeyRotator(rotator);
+        rotator.activate();
+        return rotator;
+    }
+
+    private static Message read(ByteArrayOutputStream frames, Session session) throws IOException {
+        return new MessageHandler(new ByteArrayInputStream(frames.toByteArray()), null, session).read();
+    }
+
+    private static Message event(String text) {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        return new Message(MessageHeader.BuildEventHeader(UUID.randomUUID(), 0, payload.length), new byte[0], payload);
+    }
+
+    /**
+     * Builds a rotation message as it is read from a frame sent in plaintext, e.g. one injected on the link.
+     */
+    private static Message plaintextRotation(byte[] payload) {
+        return new Message(new MessageHeader(UUID.randomUUID(), MessageType.CHANGE_AES_KEY_REQUEST, false, false, 0, payload.length),
+                new byte[0], payload);
+    }
+}
@@ -0,0 +1,59 @@
+package Utils;
+
+import JSocket2.Utils.HashedTimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link HashedTimingWheel}.
+ */
+public class HashedTimingWheelTest {
+
+    /**
+     * Tests that timeouts fire no earlier than their delay, in deadline order, including one that needs more
+     * than a full turn of the wheel, while cancelled timeouts never fire and leave the pending count.
+     */
+    @Test
+    void newTimeout_ShouldFireDueTimeoutsAndSkipCancelledOnes() throws InterruptedException {
+        try (var wheel = new HashedTimingWheel("test-wheel", 5, TimeUnit.MILLISECONDS, 8)) {
+            var fired = new ConcurrentLinkedQueue<Integer>();
+            var done = new CountDownLatch(3);
+            long start = System.nanoTime();
+            var firedAfterMillis = new ConcurrentLinkedQueue<Long>();
+            int[] delays = {300, 100, 200};
+            for (int delay : delays) {
+                wheel.newTimeout(() -> {
+                    fired.add(delay);
+                    firedAfterMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    done.countDown();
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+            List<HashedTimingWheel.Timeout> cancelled = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                cancelled.add(wheel.newTimeout(() -> fired.add(-1), 1000 + i % 50, TimeUnit.MILLISECONDS));
+            }
+            assertEquals(1003, wheel.pendingTimeouts());
+            for (var timeout : cancelled) {
+                assertTrue(timeout.cancel());
+                assertFalse(timeout.cancel());
+            }
+            assertEquals(3, wheel.pendingTimeouts());
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(100, 200, 300), new ArrayList<>(fired));
+            var elapsed = new ArrayList<>(firedAfterMillis);
+            for (int i = 0; i < elapsed.size(); i++) {
+                assertTrue(elapsed.get(i) >= List.of(100, 200, 300).get(i), "fired early: " + elapsed);
+            }
+            assertEquals(0, wheel.pendingTimeouts());
+            assertTrue(cancelled.get(0).isCancelled());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package Utils;
+
+import JSocket2.Utils.SerialExecutor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SerialExecutor}.
+ */
+public class SerialExecutorTest {
+
+    /**
+     * Tests that lanes sharing one pool each run their tasks in submission order and one at a time, while the
+     * lanes themselves run concurrently.
+     */
+    @Test
+    void execute_ShouldKeepOrderWithinEachLaneOnASharedPool() throws InterruptedException {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            int lanes = 8;
+            int tasksPerLane = 500;
+            List<ConcurrentLinkedQueue<Integer>> runs = new ArrayList<>();
+            var running = new AtomicInteger[lanes];
+            var overlapped = new AtomicInteger();
+            var done = new CountDownLatch(lanes * tasksPerLane);
+            List<SerialExecutor> executors = new ArrayList<>();
+            for (int lane = 0; lane < lanes; lane++) {
+                runs.add(new ConcurrentLinkedQueue<>());
+                running[lane] = new AtomicInteger();
+                executors.add(new SerialExecutor(pool));
+            }
+            for (int i = 0; i < tasksPerLane; i++) {
+                for (int lane = 0; lane < lanes; lane++) {
+                    int task = i;
+                    int l = lane;
+                    executors.get(lane).execute(() -> {
+                        if (running[l].incrementAndGet() != 1) {
+                            overlapped.incrementAndGet();
+                        }
+                        runs.get(l).add(task);
+                        running[l].decrementAndGet();
+                        done.countDown();
+                    });
+                }
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(0, overlapped.get());
+            for (var run : runs) {
+                int expected = 0;
+                for (int task : run) {
+                    assertEquals(expected++, task);
+                }
+                assertEquals(tasksPerLane, expected);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that when the shared executor rejects work, the submitting thread runs the queued tasks itself,
+     * in order.
+     */
+    @Test
+    void execute_ShouldRunOnSubmittingThreadWhenRejected() {
+        var executor = new SerialExecutor(task -> {
+            throw new RejectedExecutionException();
+        });
+        var ran = new ArrayList<Integer>();
+        Thread caller = Thread.currentThread();
+        for (int i = 0; i < 3; i++) {
+            int task = i;
+            executor.execute(() -> {
+                assertSame(caller, Thread.currentThread());
+                ran.add(task);
+            });
+        }
+
+        assertEquals(List.of(0, 1, 2), ran);
+    }
+}